@@ -0,0 +1,178 @@
+package com.capitole.pricingservice.adapter.in.rest.controller;
+
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceQueryDTO;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+import com.capitole.pricingservice.application.domain.model.FxRateTable;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.port.in.FxRateService;
+import com.capitole.pricingservice.application.port.in.PriceService;
+import com.capitole.pricingservice.application.port.in.model.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the {@link PriceRestController} price lookup: the parsing of the applicationDate request parameter,
+ * and the whole {@code getPrice} call, including the serialization of the response body as the message converters
+ * would do it, over a price service answering from a {@link PriceTimeline}, and the same call answered with a 304
+ * because the If-None-Match matches the ETag of the price, and the same call converting the price to another currency
+ * with the rate of a {@link FxRateTable}, and the same call answered with the protobuf body. The {@code export} benchmarks write the line of a price of
+ * {@code GET /api/prices/export} with the {@link PriceExportWriter}, to a writer discarding it.
+ *
+ * <p>Run it with {@code -prof gc} to see the bytes allocated per lookup.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceRestControllerBenchmark {
+
+    private static final String PROTOBUF = "application/x-protobuf";
+
+    private final String applicationDate = "2020-06-14 16:00:00";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final PriceRestController priceRestController = new PriceRestController(new TimelinePriceService(), new TableFxRateService(), objectMapper, Duration.ofSeconds(60), Clock.systemUTC(), new SimpleMeterRegistry());
+
+    private final Integer brandId = 1;
+    private final Long productId = 35455L;
+
+    private final String eTag = priceRestController.getPrice(brandId, productId, applicationDate, null, null, null).getHeaders().getETag();
+
+    private final Price price = new Price(2L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 15, 0), LocalDateTime.of(2020, 6, 14, 18, 30), 2, 2545, CurrencyEnum.EUR, 1);
+
+    private final PriceExportWriter ndjsonWriter = PriceExportWriter.ndjson(Writer.nullWriter());
+
+    private final PriceExportWriter csvWriter;
+
+    public PriceRestControllerBenchmark() {
+        try {
+            csvWriter = PriceExportWriter.csv(Writer.nullWriter());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public LocalDateTime parseApplicationDate() {
+        return PriceQueryDTO.parseApplicationDate(applicationDate);
+    }
+
+    @Benchmark
+    public byte[] getPrice() throws JsonProcessingException {
+        Object body = priceRestController.getPrice(brandId, productId, applicationDate, null, null, null).getBody();
+        return body instanceof String json ? json.getBytes(StandardCharsets.UTF_8) : objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] getPriceProtobuf() {
+        return (byte[]) priceRestController.getPrice(brandId, productId, applicationDate, null, null, PROTOBUF).getBody();
+    }
+
+    @Benchmark
+    public byte[] getPriceInAnotherCurrency() {
+        return ((String) priceRestController.getPrice(brandId, productId, applicationDate, "USD", null, null).getBody()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object getPriceNotModified() {
+        return priceRestController.getPrice(brandId, productId, applicationDate, null, eTag, null);
+    }
+
+    @Benchmark
+    public void exportNdjson() {
+        ndjsonWriter.accept(price);
+    }
+
+    @Benchmark
+    public void exportCsv() {
+        csvWriter.accept(price);
+    }
+
+    private static class TableFxRateService implements FxRateService {
+
+        private final FxRateTable table = FxRateTable.of(List.of(
+                new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.of(2020, 1, 1, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1.1422)));
+
+        @Override
+        public Optional<FxRate> getRate(CurrencyEnum baseCurrency, CurrencyEnum quoteCurrency, LocalDateTime applicationTime) {
+            return table.rateAt(baseCurrency, quoteCurrency, applicationTime);
+        }
+
+        @Override
+        public int replaceRates(List<FxRate> rates) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class TimelinePriceService implements PriceService {
+
+        private final PriceTimeline timeline = PriceTimeline.of(List.of(
+                new Price(1L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR, 0),
+                new Price(2L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 15, 0), LocalDateTime.of(2020, 6, 14, 18, 30), 2, 2545, CurrencyEnum.EUR, 1)));
+
+        @Override
+        public Optional<PriceSummary> getPriceByApplicationTimeBrandIdProductId(PriceQuery priceQuery) {
+            return timeline.priceAt(priceQuery.applicationTime())
+                           .map(PriceSummary::from);
+        }
+
+        @Override
+        public Optional<PriceTimeline.Segment> getPriceSegmentByApplicationTimeBrandIdProductId(PriceQuery priceQuery) {
+            return timeline.segmentAt(priceQuery.applicationTime());
+        }
+
+        @Override
+        public List<PriceTimeline.Segment> getPriceSegmentsByDateRangeBrandIdProductId(PriceRangeQuery priceRangeQuery) {
+            return timeline.segmentsBetween(priceRangeQuery.from(), priceRangeQuery.to());
+        }
+
+        @Override
+        public List<Optional<PriceSummary>> getPricesByApplicationTimeBrandIdProductId(List<PriceQuery> priceQueries) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Price save(PriceCreateCommand price) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PriceImportResult importPrices(Stream<PriceImportRow> rows) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long exportPrices(PriceFilter filter, Consumer<Price> consumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<Price> update(PriceUpdateCommand price) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.capitole.pricingservice.adapter.in.rest.dto;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmark of the {@link PriceDTO#toPriceDTO} mappings of the REST responses and of the {@link PriceDTO#toJson}
+ * writing of the body of a price lookup, against the {@link PriceProtobuf} one. The {@code resolutions} benchmarks
+ * write the body of {@code POST /api/prices/resolve} for {@value #RESOLUTIONS} queries, one in ten not found, as
+ * JSON through the object mapper, as the message converter does, and as protobuf.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceDTOBenchmark {
+
+    private static final int RESOLUTIONS = 1000;
+
+    private final Price price = new Price(1L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0),
+            LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR, 0);
+
+    private final PriceSummary priceSummary = PriceSummary.from(price);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final List<PriceQuery> priceQueries = IntStream.range(0, RESOLUTIONS)
+                                                           .mapToObj(i -> new PriceQuery(LocalDateTime.of(2020, 6, 14, 10, 0), 1, 35455L + i))
+                                                           .toList();
+
+    private final List<Optional<PriceSummary>> prices = IntStream.range(0, RESOLUTIONS)
+                                                                 .mapToObj(i -> i % 10 == 9 ? Optional.<PriceSummary>empty() : Optional.of(new PriceSummary(1, 35455L + i,
+                                                                         priceSummary.startDate(), priceSummary.endDate(), 1, 3550 + i, CurrencyEnum.EUR)))
+                                                                 .toList();
+
+    @Benchmark
+    public PriceDTO fromPriceSummary() {
+        return PriceDTO.toPriceDTO(priceSummary);
+    }
+
+    @Benchmark
+    public PriceDTO fromPrice() {
+        return PriceDTO.toPriceDTO(price);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return PriceDTO.toJson(priceSummary);
+    }
+
+    @Benchmark
+    public byte[] toProtobuf() {
+        return PriceProtobuf.toProtobuf(priceSummary);
+    }
+
+    @Benchmark
+    public byte[] resolutionsToJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(IntStream.range(0, RESOLUTIONS)
+                                                       .mapToObj(i -> PriceResolutionDTO.toPriceResolutionDTO(priceQueries.get(i), prices.get(i)))
+                                                       .toList());
+    }
+
+    @Benchmark
+    public byte[] resolutionsToProtobuf() {
+        return PriceProtobuf.toProtobuf(priceQueries, prices);
+    }
+}
@@ -0,0 +1,52 @@
+package com.capitole.pricingservice.adapter.out.jpa.entity;
+
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the {@link PriceEntityMapper} conversions between the JPA entities and the domain model.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceEntityMapperBenchmark {
+
+    private final PriceEntity priceEntity = new PriceEntity(1L, 1, 35455L, 1, 0,
+            LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 3550, "EUR", 0L);
+
+    private final PriceSummaryProjection priceSummaryProjection = new PriceSummaryProjection() {
+        public Long getProductId() { return 35455L; }
+        public Integer getBrandId() { return 1; }
+        public Integer getPriceList() { return 1; }
+        public LocalDateTime getStartDate() { return LocalDateTime.of(2020, 6, 14, 0, 0); }
+        public LocalDateTime getEndDate() { return LocalDateTime.of(2020, 12, 31, 23, 59, 59); }
+        public long getPrice() { return 3550; }
+        public String getCurrency() { return "EUR"; }
+    };
+
+    private final Price price = PriceEntityMapper.toPrice(priceEntity);
+
+    @Benchmark
+    public Price toPrice() {
+        return PriceEntityMapper.toPrice(priceEntity);
+    }
+
+    @Benchmark
+    public PriceSummary toPriceFromSummary() {
+        return PriceEntityMapper.toPriceFromSummary(priceSummaryProjection);
+    }
+
+    @Benchmark
+    public PriceEntity toPriceEntity() {
+        return PriceEntityMapper.toPriceEntity(price);
+    }
+}
@@ -0,0 +1,99 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Benchmark of the {@link PriceSnapshot} against the heap index of the {@link PriceInMemoryAdapter}: the time to
+ * have the catalog ready, mapping the snapshot file or building the timelines from the prices, and the lookup of a
+ * random product in each of them.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PriceSnapshotBenchmark {
+
+    private static final LocalDateTime APPLICATION_DATE = LocalDateTime.of(2020, 6, 14, 16, 0);
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    private Path path;
+    private List<Price> prices;
+    private PriceSnapshot snapshot;
+    private Map<BrandProductKey, PriceTimeline> timelines;
+
+    @Setup
+    public void setUp() throws IOException {
+        prices = LongStream.range(0, rows / 2)
+                           .boxed()
+                           .flatMap(productId -> List.of(
+                                   new Price(productId * 2, 1, productId, LocalDateTime.of(2020, 1, 1, 0, 0),
+                                           LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR, 0),
+                                   new Price(productId * 2 + 1, 1, productId, LocalDateTime.of(2020, 6, 14, 15, 0),
+                                           LocalDateTime.of(2020, 6, 14, 18, 30), 2, 2545, CurrencyEnum.EUR, 1)).stream())
+                           .toList();
+        path = Files.createTempFile("prices", ".snapshot");
+        PriceSnapshot.write(prices, path);
+        snapshot = PriceSnapshot.map(path);
+        timelines = buildTimelines();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    // single shots, the mappings are only released once collected and a loop of them exhausts the memory
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public PriceSnapshot mapSnapshot() {
+        return PriceSnapshot.map(path);
+    }
+
+    @Benchmark
+    public Map<BrandProductKey, PriceTimeline> buildTimelines() {
+        return prices.stream()
+                     .collect(Collectors.groupingBy(BrandProductKey::of))
+                     .entrySet()
+                     .stream()
+                     .collect(Collectors.toMap(Map.Entry::getKey, entry -> PriceTimeline.of(entry.getValue())));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<PriceSummary> snapshotLookup() {
+        return snapshot.priceAt(1, ThreadLocalRandom.current().nextLong(rows / 2), APPLICATION_DATE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Optional<PriceSummary> timelineLookup() {
+        return timelines.get(new BrandProductKey(1, ThreadLocalRandom.current().nextLong(rows / 2)))
+                        .priceAt(APPLICATION_DATE)
+                        .map(PriceSummary::from);
+    }
+}
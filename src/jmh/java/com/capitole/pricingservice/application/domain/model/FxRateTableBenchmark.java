@@ -0,0 +1,63 @@
+package com.capitole.pricingservice.application.domain.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the resolution of the exchange rates from a {@link FxRateTable} and of the conversion of a price.
+ *
+ * <p>The table holds a daily rate for a whole year of every pair from EUR, so each lookup is a binary search over
+ * {@code 366} rates. {@code directRate} resolves a stored pair and {@code inverseRate} the opposite one, answered with
+ * the inverse of the stored rate.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FxRateTableBenchmark {
+
+    private static final LocalDateTime INSTANT = LocalDateTime.of(2020, 6, 14, 16, 0);
+
+    private final PriceSummary price = new PriceSummary(1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0),
+            LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR);
+
+    private FxRateTable table;
+
+    private FxRate rate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<FxRate> rates = new ArrayList<>();
+        LocalDateTime day = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int i = 0; i < 366; i++, day = day.plusDays(1)) {
+            rates.add(new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, day, day.plusDays(1).minusSeconds(1), 1.1 + i / 10_000.0));
+            rates.add(new FxRate(CurrencyEnum.EUR, CurrencyEnum.COP, day, day.plusDays(1).minusSeconds(1), 4200 + i));
+        }
+        table = FxRateTable.of(rates);
+        rate = table.rateAt(CurrencyEnum.EUR, CurrencyEnum.USD, INSTANT).orElseThrow();
+    }
+
+    @Benchmark
+    public Optional<FxRate> directRate() {
+        return table.rateAt(CurrencyEnum.EUR, CurrencyEnum.USD, INSTANT);
+    }
+
+    @Benchmark
+    public Optional<FxRate> inverseRate() {
+        return table.rateAt(CurrencyEnum.USD, CurrencyEnum.EUR, INSTANT);
+    }
+
+    @Benchmark
+    public PriceSummary convert() {
+        return rate.convert(price);
+    }
+}
@@ -0,0 +1,128 @@
+package com.capitole.pricingservice.application.domain.service;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the {@link PriceServiceImpl} lookups over a repository that answers from memory, so it measures the
+ * service itself: the query validation and, for the batch, the grouping and resolution against the timelines.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceServiceImplBenchmark {
+
+    private static final LocalDateTime APPLICATION_DATE = LocalDateTime.of(2020, 6, 14, 16, 0);
+
+    @Param({"100"})
+    private int batchSize;
+
+    private PriceServiceImpl priceService;
+    private List<PriceQuery> priceQueries;
+
+    @Setup
+    public void setUp() {
+        List<Price> prices = LongStream.range(0, batchSize)
+                                       .boxed()
+                                       .flatMap(productId -> List.of(
+                                               new Price(productId * 2, 1, productId, LocalDateTime.of(2020, 1, 1, 0, 0),
+                                                       LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR, 0),
+                                               new Price(productId * 2 + 1, 1, productId, LocalDateTime.of(2020, 6, 14, 15, 0),
+                                                       LocalDateTime.of(2020, 6, 14, 18, 30), 2, 2545, CurrencyEnum.EUR, 1)).stream())
+                                       .toList();
+        // only the reads are benchmarked, they don't use the timeline repository
+        priceService = new PriceServiceImpl(new FixedPriceRepository(prices), Optional.empty(), null, TransactionOperations.withoutTransaction(), 1000, new SimpleMeterRegistry());
+        priceQueries = LongStream.range(0, batchSize)
+                                 .mapToObj(productId -> new PriceQuery(APPLICATION_DATE, 1, productId))
+                                 .toList();
+    }
+
+    @Benchmark
+    public Optional<PriceSummary> getPrice() {
+        return priceService.getPriceByApplicationTimeBrandIdProductId(new PriceQuery(APPLICATION_DATE, 1, 35455L));
+    }
+
+    @Benchmark
+    public List<Optional<PriceSummary>> getPrices() {
+        return priceService.getPricesByApplicationTimeBrandIdProductId(priceQueries);
+    }
+
+    private record FixedPriceRepository(List<Price> prices) implements PriceRepository {
+
+        private static final Optional<PriceSummary> PRICE = Optional.of(new PriceSummary(1, 35455L,
+                LocalDateTime.of(2020, 6, 14, 15, 0), LocalDateTime.of(2020, 6, 14, 18, 30), 2, 2545, CurrencyEnum.EUR));
+
+        @Override
+        public Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+            return PRICE;
+        }
+
+        @Override
+        public List<Price> findAllByBrandIdAndProductId(Integer brandId, Long productId) {
+            return prices;
+        }
+
+        @Override
+        public List<Price> findAllByBrandIdsAndProductIdsAndDateRange(Collection<Integer> brandIds, Collection<Long> productIds,
+                                                                      LocalDateTime from, LocalDateTime to) {
+            return prices;
+        }
+
+        @Override
+        public List<Price> findAllByDateRanges(Collection<BrandProductDateRange> ranges) {
+            return prices;
+        }
+
+        @Override
+        public Price save(Price price) {
+            return price;
+        }
+
+        @Override
+        public List<Price> saveAll(List<Price> prices) {
+            return prices;
+        }
+
+        @Override
+        public Optional<UpdatedPrice> update(Price price) {
+            return Optional.of(new UpdatedPrice(price, price));
+        }
+
+        @Override
+        public Optional<Price> findById(Long id) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<Price> findAll() {
+            return prices;
+        }
+
+        @Override
+        public Stream<Price> streamAll(PriceFilter filter) {
+            return prices.stream().filter(filter::matches);
+        }
+    }
+}
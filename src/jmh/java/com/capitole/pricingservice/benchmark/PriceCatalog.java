@@ -0,0 +1,84 @@
+package com.capitole.pricingservice.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Synthetic price catalog used to seed the {@code PRICES} table in the benchmarks.
+ *
+ * <p>Every product gets four prices: a base price for the whole year 2020 and three promotions of higher priority,
+ * and the products are spread over ten brands. {@link #randomLookup()} draws a brand, product and application date
+ * that exist in a catalog of the seeded size.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public final class PriceCatalog {
+
+    public static final int PRICES_PER_PRODUCT = 4;
+    public static final int BRANDS = 10;
+
+    private static final String SEED = """
+            INSERT INTO PRICES (BRAND_ID, PRODUCT_ID, PRICE_LIST, PRIORITY, START_DATE, END_DATE, PRICE, CURR)
+            SELECT MOD(X / 4, 10) + 1, X / 4, MOD(X, 4) + 1, CASE MOD(X, 4) WHEN 0 THEN 0 ELSE 1 END,
+                   CASE MOD(X, 4) WHEN 0 THEN TIMESTAMP '2020-01-01 00:00:00'
+                                  WHEN 1 THEN TIMESTAMP '2020-06-14 15:00:00'
+                                  WHEN 2 THEN TIMESTAMP '2020-06-15 00:00:00'
+                                  ELSE TIMESTAMP '2020-06-15 16:00:00' END,
+                   CASE MOD(X, 4) WHEN 0 THEN TIMESTAMP '2020-12-31 23:59:59'
+                                  WHEN 1 THEN TIMESTAMP '2020-06-14 18:30:00'
+                                  WHEN 2 THEN TIMESTAMP '2020-06-15 11:00:00'
+                                  ELSE TIMESTAMP '2020-12-31 23:59:59' END,
+                   1000 + MOD(X, 1000), 'EUR'
+            FROM SYSTEM_RANGE(0, ? - 1)""";
+
+    private static final LocalDateTime[] APPLICATION_DATES = {
+            LocalDateTime.of(2020, 6, 14, 10, 0),
+            LocalDateTime.of(2020, 6, 14, 16, 0),
+            LocalDateTime.of(2020, 6, 14, 21, 0),
+            LocalDateTime.of(2020, 6, 15, 10, 0),
+            LocalDateTime.of(2020, 6, 16, 21, 0)
+    };
+
+    private final long products;
+
+    private PriceCatalog(long products) {
+        this.products = products;
+    }
+
+    /**
+     * Inserts {@code rows} prices in the PRICES table, which is expected to be already created by the migrations.
+     *
+     * @param connection the connection to the database
+     * @param rows       the number of prices to insert
+     * @return the seeded catalog
+     */
+    public static PriceCatalog seed(Connection connection, int rows) throws SQLException {
+        try (PreparedStatement seed = connection.prepareStatement(SEED)) {
+            seed.setLong(1, rows);
+            seed.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+        return new PriceCatalog(rows / PRICES_PER_PRODUCT);
+    }
+
+    public Lookup randomLookup() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long productId = random.nextLong(products);
+        return new Lookup((int) (productId % BRANDS) + 1, productId,
+                APPLICATION_DATES[random.nextInt(APPLICATION_DATES.length)]);
+    }
+
+    public record Lookup(int brandId, long productId, LocalDateTime applicationDate) {
+
+        public Timestamp applicationTimestamp() {
+            return Timestamp.valueOf(applicationDate);
+        }
+    }
+}
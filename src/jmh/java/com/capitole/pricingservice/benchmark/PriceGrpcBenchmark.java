@@ -0,0 +1,176 @@
+package com.capitole.pricingservice.benchmark;
+
+import com.capitole.pricingservice.PricingServiceApplication;
+import com.capitole.pricingservice.api.v1.Price;
+import com.capitole.pricingservice.api.v1.PriceQuery;
+import com.capitole.pricingservice.api.v1.PriceResolution;
+import com.capitole.pricingservice.api.v1.PricingServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of the price lookups of a service-to-service caller, over HTTP/1.1 against the REST API and
+ * over HTTP/2 against the gRPC one.
+ *
+ * <p>The whole application is started on random ports against an H2 database seeded with {@code rows} prices of a
+ * {@link PriceCatalog}, resolved by the repository selected with {@code repositoryType}. {@code restLookup} and
+ * {@code grpcLookup} send a request per lookup, a {@code GET} and a {@code GetPrice} call, while {@code restResolve}
+ * and {@code grpcResolve} resolve {@value #BATCH} random lookups at once, a {@code POST /api/prices/resolve} of them
+ * and a {@code ResolvePrices} call streaming them, and are reported per lookup.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// the whole web stack needs a longer warmup than the other benchmarks to be compiled
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PriceGrpcBenchmark {
+
+    private static final int BATCH = 1000;
+
+    private static final DateTimeFormatter APPLICATION_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"jpa", "cache"})
+    private String repositoryType;
+
+    private ConfigurableApplicationContext context;
+    private PriceCatalog catalog;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private ManagedChannel channel;
+    private PricingServiceGrpc.PricingServiceBlockingStub blockingStub;
+    private PricingServiceGrpc.PricingServiceStub stub;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        context = new SpringApplicationBuilder(PricingServiceApplication.class)
+                // arguments rather than default properties, which the application.properties would override
+                .run("--server.port=0",
+                        "--pricing.grpc.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:pricing-grpc-benchmark",
+                        "--pricing.repository.type=" + repositoryType);
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            catalog = PriceCatalog.seed(connection, rows);
+        }
+        httpClient = HttpClient.newBuilder()
+                               .version(HttpClient.Version.HTTP_1_1)
+                               .build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/prices/";
+        channel = ManagedChannelBuilder.forAddress("localhost", context.getBean(Server.class).getPort())
+                                       .usePlaintext()
+                                       .build();
+        blockingStub = PricingServiceGrpc.newBlockingStub(channel);
+        stub = PricingServiceGrpc.newStub(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        channel.shutdownNow();
+        httpClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public String restLookup() throws IOException, InterruptedException {
+        PriceCatalog.Lookup lookup = catalog.randomLookup();
+        URI uri = URI.create(baseUrl + lookup.brandId() + "/" + lookup.productId() + "?applicationDate="
+                + URLEncoder.encode(APPLICATION_DATE_FORMAT.format(lookup.applicationDate()), StandardCharsets.UTF_8));
+        return send(HttpRequest.newBuilder(uri).GET().build());
+    }
+
+    @Benchmark
+    public Price grpcLookup() {
+        return blockingStub.getPrice(query(catalog.randomLookup()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public String restResolve() throws IOException, InterruptedException {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < BATCH; i++) {
+            PriceCatalog.Lookup lookup = catalog.randomLookup();
+            body.append(i == 0 ? "" : ",")
+                .append("{\"brandId\":").append(lookup.brandId())
+                .append(",\"productId\":").append(lookup.productId())
+                .append(",\"applicationDate\":\"").append(APPLICATION_DATE_FORMAT.format(lookup.applicationDate()))
+                .append("\"}");
+        }
+        body.append(']');
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "resolve"))
+                               .header("Content-Type", "application/json")
+                               .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                               .build());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int grpcResolve() throws InterruptedException, ExecutionException {
+        CompletableFuture<Integer> resolved = new CompletableFuture<>();
+        StreamObserver<PriceQuery> queries = stub.resolvePrices(new StreamObserver<>() {
+            private int count;
+
+            @Override
+            public void onNext(PriceResolution resolution) {
+                count++;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                resolved.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                resolved.complete(count);
+            }
+        });
+        for (int i = 0; i < BATCH; i++) {
+            queries.onNext(query(catalog.randomLookup()));
+        }
+        queries.onCompleted();
+        return resolved.get();
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + request.uri());
+        }
+        return response.body();
+    }
+
+    private static PriceQuery query(PriceCatalog.Lookup lookup) {
+        return PriceQuery.newBuilder()
+                         .setBrandId(lookup.brandId())
+                         .setProductId(lookup.productId())
+                         .setApplicationDate(lookup.applicationDate().toEpochSecond(ZoneOffset.UTC))
+                         .build();
+    }
+}
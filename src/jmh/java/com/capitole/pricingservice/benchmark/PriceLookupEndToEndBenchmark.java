@@ -0,0 +1,94 @@
+package com.capitole.pricingservice.benchmark;
+
+import com.capitole.pricingservice.PricingServiceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of {@code GET /api/prices/{brandId}/{productId}}.
+ *
+ * <p>The whole application is started on a random port against an H2 database seeded with {@code rows} prices of a
+ * {@link PriceCatalog}, and every invocation is an HTTP request for a random brand, product and application date,
+ * resolved by the repository selected with {@code repositoryType}. The {@code stack} runs the application on the
+ * servlet stack ({@code mvc}), or with the {@code virtual-threads} or {@code reactive} profile. The {@code reactive}
+ * stack always resolves the price with the R2DBC adapter, whatever the {@code repositoryType}, and is only in the
+ * build with the {@code reactive} Maven profile: {@code -Pbenchmark,reactive}.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// the whole web stack needs a longer warmup than the other benchmarks to be compiled
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PriceLookupEndToEndBenchmark {
+
+    private static final DateTimeFormatter APPLICATION_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"jpa", "cache"})
+    private String repositoryType;
+
+    @Param({"mvc", "virtual-threads", "reactive"})
+    private String stack;
+
+    private ConfigurableApplicationContext context;
+    private PriceCatalog catalog;
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        context = new SpringApplicationBuilder(PricingServiceApplication.class)
+                .profiles("mvc".equals(stack) ? new String[0] : new String[]{stack})
+                // arguments rather than default properties, which the application.properties would override
+                .run("--server.port=0",
+                        "--pricing.grpc.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:pricing-benchmark",
+                        "--pricing.r2dbc.url=r2dbc:h2:mem:///pricing-benchmark",
+                        "--pricing.repository.type=" + repositoryType);
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            catalog = PriceCatalog.seed(connection, rows);
+        }
+        httpClient = HttpClient.newBuilder()
+                               .version(HttpClient.Version.HTTP_1_1)
+                               .build();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/prices/";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public String lookup() throws IOException, InterruptedException {
+        PriceCatalog.Lookup lookup = catalog.randomLookup();
+        URI uri = URI.create(baseUrl + lookup.brandId() + "/" + lookup.productId() + "?applicationDate="
+                + URLEncoder.encode(APPLICATION_DATE_FORMAT.format(lookup.applicationDate()), StandardCharsets.UTF_8));
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + uri);
+        }
+        return response.body();
+    }
+}
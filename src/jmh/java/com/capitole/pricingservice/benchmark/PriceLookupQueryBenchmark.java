@@ -0,0 +1,181 @@
+package com.capitole.pricingservice.benchmark;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the price lookup query against a seeded H2 {@code PRICES} table.
+ *
+ * <p>The schema is created by the same Flyway migrations as the application, and the table is seeded with
+ * {@code rows} prices of a {@link PriceCatalog}. With {@code indexed=false} the lookup index is dropped, so the
+ * numbers show how the latency grows with the size of the table without it. {@code segmentLookup} reads the winning
+ * price with the prices overlapping its period, as the {@code GET} does for its segment. {@code timelineLookup} reads
+ * the same price from the {@code PRICE_TIMELINE} segments, populated from the prices, as the
+ * {@code PriceTimelineJpaAdapter} does.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PriceLookupQueryBenchmark {
+
+    // same statement Hibernate generates for PriceJpaRepository#findTop1By...OrderByPriorityDesc
+    private static final String LOOKUP = """
+            SELECT PRICE_LIST, PRICE, CURR, START_DATE, END_DATE FROM PRICES
+            WHERE BRAND_ID = ? AND PRODUCT_ID = ? AND START_DATE <= ? AND END_DATE >= ?
+            ORDER BY PRIORITY DESC FETCH FIRST 1 ROWS ONLY""";
+
+    // same statement as PriceTimelineJpaAdapter#getPriceByBrandIdAndProductIdAndApplicationTime
+    private static final String TIMELINE_LOOKUP = """
+            SELECT T.VALID_TO, P.PRICE_LIST, P.PRICE, P.CURR, P.START_DATE, P.END_DATE
+            FROM PRICE_TIMELINE T JOIN PRICES P ON P.ID = T.PRICE_ID
+            WHERE T.BRAND_ID = ? AND T.PRODUCT_ID = ? AND T.VALID_FROM <= ?
+            ORDER BY T.VALID_FROM DESC
+            LIMIT 1""";
+
+    // same statement Hibernate generates for PriceJpaRepository#findOverlappingTheWinner, read by the GET for the
+    // segment of the winning price
+    private static final String SEGMENT_LOOKUP = """
+            SELECT P.ID, P.PRIORITY, P.START_DATE, P.END_DATE, P.PRICE_LIST, P.PRICE, P.CURR FROM PRICES P, PRICES W
+            WHERE W.ID = (SELECT O.ID FROM PRICES O WHERE O.BRAND_ID = ? AND O.PRODUCT_ID = ?
+                          AND O.START_DATE <= ? AND O.END_DATE >= ?
+                          ORDER BY O.PRIORITY DESC, O.ID FETCH FIRST 1 ROWS ONLY)
+            AND P.BRAND_ID = ? AND P.PRODUCT_ID = ? AND P.START_DATE <= W.END_DATE AND P.END_DATE >= W.START_DATE""";
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement lookup;
+    private PreparedStatement segmentLookup;
+    private PriceCatalog catalog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:prices-" + rows + "-" + indexed + ";DB_CLOSE_DELAY=-1";
+        Flyway.configure()
+              .dataSource(url, "sa", "")
+              .load()
+              .migrate();
+        connection = DriverManager.getConnection(url, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            if (!indexed) {
+                statement.execute("DROP INDEX IDX_PRICES_LOOKUP");
+            }
+        }
+        catalog = PriceCatalog.seed(connection, rows);
+        lookup = connection.prepareStatement(LOOKUP);
+        segmentLookup = connection.prepareStatement(SEGMENT_LOOKUP);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Benchmark
+    public long lookup() throws SQLException {
+        PriceCatalog.Lookup priceLookup = catalog.randomLookup();
+        lookup.setInt(1, priceLookup.brandId());
+        lookup.setLong(2, priceLookup.productId());
+        lookup.setTimestamp(3, priceLookup.applicationTimestamp());
+        lookup.setTimestamp(4, priceLookup.applicationTimestamp());
+        try (ResultSet resultSet = lookup.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong("PRICE") : -1;
+        }
+    }
+
+    @Benchmark
+    public long segmentLookup() throws SQLException {
+        PriceCatalog.Lookup priceLookup = catalog.randomLookup();
+        segmentLookup.setInt(1, priceLookup.brandId());
+        segmentLookup.setLong(2, priceLookup.productId());
+        segmentLookup.setTimestamp(3, priceLookup.applicationTimestamp());
+        segmentLookup.setTimestamp(4, priceLookup.applicationTimestamp());
+        segmentLookup.setInt(5, priceLookup.brandId());
+        segmentLookup.setLong(6, priceLookup.productId());
+        long rows = 0;
+        try (ResultSet resultSet = segmentLookup.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public long timelineLookup(Timeline timeline) throws SQLException {
+        PriceCatalog.Lookup priceLookup = catalog.randomLookup();
+        PreparedStatement lookup = timeline.lookup;
+        lookup.setInt(1, priceLookup.brandId());
+        lookup.setLong(2, priceLookup.productId());
+        lookup.setTimestamp(3, priceLookup.applicationTimestamp());
+        try (ResultSet resultSet = lookup.executeQuery()) {
+            return resultSet.next() && resultSet.getTimestamp("VALID_TO").after(priceLookup.applicationTimestamp())
+                    ? resultSet.getLong("PRICE") : -1;
+        }
+    }
+
+    /**
+     * The {@code PRICE_TIMELINE} table populated from the seeded prices, only for the benchmarks reading it.
+     */
+    @State(Scope.Benchmark)
+    public static class Timeline {
+
+        private PreparedStatement lookup;
+
+        @Setup(Level.Trial)
+        public void setUp(PriceLookupQueryBenchmark benchmark) throws SQLException {
+            Connection connection = benchmark.connection;
+            try (Statement select = connection.createStatement();
+                 ResultSet resultSet = select.executeQuery("SELECT * FROM PRICES ORDER BY BRAND_ID, PRODUCT_ID");
+                 PreparedStatement insert = connection.prepareStatement("INSERT INTO PRICE_TIMELINE (BRAND_ID, PRODUCT_ID, VALID_FROM, VALID_TO, PRICE_ID) VALUES (?, ?, ?, ?, ?)")) {
+                List<Price> prices = new ArrayList<>();
+                while (resultSet.next()) {
+                    Price price = new Price(resultSet.getLong("ID"), resultSet.getInt("BRAND_ID"), resultSet.getLong("PRODUCT_ID"),
+                            resultSet.getObject("START_DATE", LocalDateTime.class), resultSet.getObject("END_DATE", LocalDateTime.class),
+                            resultSet.getInt("PRICE_LIST"), resultSet.getLong("PRICE"), CurrencyEnum.fromCode(resultSet.getString("CURR")),
+                            resultSet.getInt("PRIORITY"));
+                    if (!prices.isEmpty() && !BrandProductKey.of(prices.get(0)).equals(BrandProductKey.of(price))) {
+                        insert(PriceTimeline.of(prices), insert);
+                        prices.clear();
+                    }
+                    prices.add(price);
+                }
+                insert(PriceTimeline.of(prices), insert);
+                insert.executeBatch();
+            }
+            lookup = connection.prepareStatement(TIMELINE_LOOKUP);
+        }
+
+        private static void insert(PriceTimeline timeline, PreparedStatement insert) throws SQLException {
+            for (PriceTimeline.Segment segment : timeline.segments()) {
+                insert.setInt(1, segment.price().getBrandId());
+                insert.setLong(2, segment.price().getProductId());
+                insert.setTimestamp(3, Timestamp.valueOf(segment.from()));
+                insert.setTimestamp(4, Timestamp.valueOf(segment.to()));
+                insert.setLong(5, segment.price().getId());
+                insert.addBatch();
+            }
+        }
+    }
+}
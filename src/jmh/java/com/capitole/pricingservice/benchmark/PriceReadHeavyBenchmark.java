@@ -0,0 +1,97 @@
+package com.capitole.pricingservice.benchmark;
+
+import com.capitole.pricingservice.PricingServiceApplication;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.port.in.PriceService;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.capitole.pricingservice.application.port.in.model.PriceUpdateCommand;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of a read-heavy mix of lookups and updates on the {@code jpa} repository, with and without the
+ * second-level cache of Hibernate.
+ *
+ * <p>The application is started without the web server against an H2 database seeded with {@code rows} prices of a
+ * {@link PriceCatalog}, and the {@link PriceService} is called directly. Every invocation looks up the price of a
+ * random brand, product and application date, as {@code GET /api/prices/{brandId}/{productId}} does, and a
+ * {@code writeRatio} of them also update a random price read by id, as a client reading it before sending its update
+ * would do. Every update evicts all the cached lookups, so {@code cacheEnabled=true} only pays off when the lookups
+ * between two updates repeat.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// the application needs as long a warmup as the end-to-end benchmark to be compiled
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PriceReadHeavyBenchmark {
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"0", "0.001", "0.01"})
+    private double writeRatio;
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private PriceCatalog catalog;
+    private PriceService priceService;
+    private PriceRepository priceRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        context = new SpringApplicationBuilder(PricingServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                // arguments rather than default properties, which the application.properties would override
+                .run("--pricing.grpc.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:mem:pricing-read-heavy",
+                        "--pricing.repository.type=jpa",
+                        "--pricing.jpa.cache.enabled=" + cacheEnabled);
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            catalog = PriceCatalog.seed(connection, rows);
+        }
+        priceService = context.getBean(PriceService.class);
+        priceRepository = context.getBean("priceJpaAdapter", PriceRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<PriceTimeline.Segment> readHeavy() {
+        if (ThreadLocalRandom.current().nextDouble() < writeRatio) {
+            update();
+        }
+        PriceCatalog.Lookup lookup = catalog.randomLookup();
+        return priceService.getPriceSegmentByApplicationTimeBrandIdProductId(
+                new PriceQuery(lookup.applicationDate(), lookup.brandId(), lookup.productId()));
+    }
+
+    private void update() {
+        Price price = priceRepository.findById(ThreadLocalRandom.current().nextLong(rows) + 1)
+                                     .orElseThrow();
+        // the only writer, the version read is never stale
+        priceService.update(new PriceUpdateCommand(price.getId(), price.getBrandId(), price.getProductId(),
+                price.getStartDate(), price.getEndDate(), price.getPriceList(), price.getPrice() + 1, price.getCurrency(),
+                price.getVersion()));
+    }
+}
@@ -0,0 +1,127 @@
+package com.capitole.pricingservice.benchmark;
+
+import com.capitole.pricingservice.PricingServiceApplication;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.PriceService;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the lookups of the prices of the next days on a catalog keeping months of expired prices, on the
+ * {@code jpa} and {@code tiered} repositories.
+ *
+ * <p>The application is started without the web server against an H2 database seeded with {@code products}
+ * products of ten brands, each one with a price valid from a month ago to two months ahead and {@code historyMonths}
+ * expired monthly prices before it, and the {@link PriceService} is called directly. Every invocation looks up the
+ * price of a random brand and product at a random instant of the next week, within the hot window of the
+ * {@code tiered} repository, which is slid every second so it holds the prices seeded once the application started.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// the application needs as long a warmup as the end-to-end benchmark to be compiled
+@Warmup(iterations = 5, time = 10)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PriceTieredBenchmark {
+
+    private static final int BRANDS = 10;
+
+    private static final long WEEK_SECONDS = TimeUnit.DAYS.toSeconds(7);
+
+    // the current price of every product, M = 0, and its expired monthly prices, M > 0
+    private static final String SEED = """
+            INSERT INTO PRICES (BRAND_ID, PRODUCT_ID, PRICE_LIST, PRIORITY, START_DATE, END_DATE, PRICE, CURR)
+            SELECT MOD(P.X, 10) + 1, P.X, 1, 0,
+                   DATEADD('MONTH', -M.X - 1, CAST(? AS TIMESTAMP)),
+                   CASE M.X WHEN 0 THEN DATEADD('MONTH', 2, CAST(? AS TIMESTAMP)) ELSE DATEADD('SECOND', -1, DATEADD('MONTH', -M.X, CAST(? AS TIMESTAMP))) END,
+                   1000 + MOD(P.X + M.X, 1000), 'EUR'
+            FROM SYSTEM_RANGE(0, ? - 1) P, SYSTEM_RANGE(0, ?) M""";
+
+    @Param({"10000"})
+    private int products;
+
+    @Param({"0", "120"})
+    private int historyMonths;
+
+    @Param({"jpa", "tiered"})
+    private String repositoryType;
+
+    private ConfigurableApplicationContext context;
+    private PriceService priceService;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, InterruptedException {
+        context = new SpringApplicationBuilder(PricingServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                // arguments rather than default properties, which the application.properties would override
+                .run("--pricing.grpc.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:mem:pricing-tiered",
+                        "--pricing.repository.type=" + repositoryType,
+                        "--pricing.repository.tiered.slide-interval=1s");
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            seed(connection);
+        }
+        priceService = context.getBean(PriceService.class);
+        if ("tiered".equals(repositoryType)) {
+            awaitHotPrices(context.getBean(MeterRegistry.class));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<PriceSummary> lookup() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long productId = random.nextLong(products);
+        return priceService.getPriceByApplicationTimeBrandIdProductId(new PriceQuery(
+                now.plusSeconds(random.nextLong(WEEK_SECONDS)), (int) (productId % BRANDS) + 1, productId));
+    }
+
+    private void seed(Connection connection) throws SQLException {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        try (PreparedStatement seed = connection.prepareStatement(SEED)) {
+            seed.setTimestamp(1, timestamp);
+            seed.setTimestamp(2, timestamp);
+            seed.setTimestamp(3, timestamp);
+            seed.setLong(4, products);
+            seed.setLong(5, historyMonths);
+            seed.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    // the current price of every product, once the window has slid over the prices seeded
+    private void awaitHotPrices(MeterRegistry meterRegistry) throws InterruptedException {
+        Gauge hotPrices = meterRegistry.get("pricing.repository.tier.hot.prices").gauge();
+        while (hotPrices.value() < products) {
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.capitole.pricingservice.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of concurrent price updates against a seeded H2 {@code PRICES} table.
+ *
+ * <p>Every operation is one update applied to one of the {@code hotRows} first prices, drawn at random, so fewer hot
+ * rows means more updates competing for the same row. {@code readModifyWrite} reads the price and writes it back, as
+ * the update did before the {@code VERSION} column, and loses the updates committed between the read and the write.
+ * {@code lockedReadModifyWrite} reads it with {@code SELECT ... FOR UPDATE}, holding the row lock until the commit.
+ * {@code conditionalUpdate} is the statement of {@code PriceJpaAdapter#update} on H2, a single
+ * {@code UPDATE ... WHERE ID = ? AND VERSION = ?} returning the replaced row, sent with the version returned to the
+ * client by its last update. When another update got first, the current version is read, as the adapter reads the
+ * row to answer a 409, and the update is retried with it, as a client answered with a 409 would do.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class PriceUpdateBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private static final String SELECT = "SELECT BRAND_ID, PRODUCT_ID, PRICE_LIST, PRIORITY, START_DATE, END_DATE, PRICE, CURR, VERSION FROM PRICES WHERE ID = ?";
+
+    private static final String SELECT_FOR_UPDATE = SELECT + " FOR UPDATE";
+
+    private static final String UPDATE = "UPDATE PRICES SET PRICE = ?, VERSION = VERSION + 1 WHERE ID = ?";
+
+    // same statement as PriceJpaAdapter#update on H2
+    private static final String CONDITIONAL_UPDATE = """
+            SELECT ID, BRAND_ID, PRODUCT_ID, PRICE_LIST, PRIORITY, START_DATE, END_DATE, PRICE, CURR, VERSION FROM OLD TABLE (
+            UPDATE PRICES SET BRAND_ID = ?, PRODUCT_ID = ?, PRICE_LIST = ?, START_DATE = ?, END_DATE = ?, PRICE = ?, CURR = ?, VERSION = VERSION + 1
+            WHERE ID = ? AND VERSION = ?)""";
+
+    private static final Timestamp START_DATE = Timestamp.valueOf("2020-01-01 00:00:00");
+
+    private static final Timestamp END_DATE = Timestamp.valueOf("2020-12-31 23:59:59");
+
+    @Param({"1", "100"})
+    private int hotRows;
+
+    private String url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        url = "jdbc:h2:mem:price-updates-" + hotRows + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        Flyway.configure()
+              .dataSource(url, "sa", "")
+              .load()
+              .migrate();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            PriceCatalog.seed(connection, ROWS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Benchmark
+    public long readModifyWrite(Client client) throws SQLException {
+        return client.readModifyWrite(client.select, randomId());
+    }
+
+    @Benchmark
+    public long lockedReadModifyWrite(Client client) throws SQLException {
+        return client.readModifyWrite(client.selectForUpdate, randomId());
+    }
+
+    @Benchmark
+    public long conditionalUpdate(Client client) throws SQLException {
+        return client.conditionalUpdate(randomId());
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(hotRows) + 1;
+    }
+
+    /**
+     * The connection of each benchmark thread, with its statements prepared.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private Connection connection;
+        private PreparedStatement select;
+        private PreparedStatement selectForUpdate;
+        private PreparedStatement update;
+        private PreparedStatement conditionalUpdate;
+        // the version of each price known by the client, from the response of its last update
+        private long[] versions;
+
+        @Setup(Level.Trial)
+        public void setUp(PriceUpdateBenchmark benchmark) throws SQLException {
+            connection = DriverManager.getConnection(benchmark.url, "sa", "");
+            connection.setAutoCommit(false);
+            select = connection.prepareStatement(SELECT);
+            selectForUpdate = connection.prepareStatement(SELECT_FOR_UPDATE);
+            update = connection.prepareStatement(UPDATE);
+            conditionalUpdate = connection.prepareStatement(CONDITIONAL_UPDATE);
+            versions = new long[benchmark.hotRows + 1];
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        private long readModifyWrite(PreparedStatement read, long id) throws SQLException {
+            read.setLong(1, id);
+            long price;
+            try (ResultSet resultSet = read.executeQuery()) {
+                resultSet.next();
+                price = resultSet.getLong("PRICE");
+            }
+            update.setLong(1, price + 1);
+            update.setLong(2, id);
+            int updated = update.executeUpdate();
+            connection.commit();
+            return updated;
+        }
+
+        private long conditionalUpdate(long id) throws SQLException {
+            long attempts = 0;
+            while (true) {
+                attempts++;
+                conditionalUpdate.setInt(1, 1);
+                conditionalUpdate.setLong(2, 0L);
+                conditionalUpdate.setInt(3, 1);
+                conditionalUpdate.setTimestamp(4, START_DATE);
+                conditionalUpdate.setTimestamp(5, END_DATE);
+                conditionalUpdate.setLong(6, 1000 + attempts);
+                conditionalUpdate.setString(7, "EUR");
+                conditionalUpdate.setLong(8, id);
+                conditionalUpdate.setLong(9, versions[(int) id]);
+                boolean updated;
+                try (ResultSet previous = conditionalUpdate.executeQuery()) {
+                    updated = previous.next();
+                }
+                if (updated) {
+                    connection.commit();
+                    versions[(int) id]++;
+                    return attempts;
+                }
+                versions[(int) id] = currentVersion(id);
+                connection.commit();
+            }
+        }
+
+        private long currentVersion(long id) throws SQLException {
+            select.setLong(1, id);
+            try (ResultSet resultSet = select.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong("VERSION");
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.capitole.pricingservice.common.validation;
+
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.constraints.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link BeanValidation#validate}, which runs on every {@link PriceQuery} and command built by the
+ * REST adapter, for a valid subject and for one with a violation.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanValidationBenchmark {
+
+    private final PriceQuery priceQuery = new PriceQuery(LocalDateTime.of(2020, 6, 14, 10, 0), 1, 35455L);
+
+    private final Subject invalidSubject = new Subject(LocalDateTime.of(2020, 6, 14, 10, 0), null, 35455L);
+
+    @Benchmark
+    public PriceQuery validate() {
+        BeanValidation.validate(priceQuery);
+        return priceQuery;
+    }
+
+    @Benchmark
+    public ConstraintViolationException validateWithViolation() {
+        try {
+            BeanValidation.validate(invalidSubject);
+            return null;
+        } catch (ConstraintViolationException e) {
+            return e;
+        }
+    }
+
+    // same constraints as PriceQuery, which can't be built with a violation
+    private record Subject(@NotNull LocalDateTime applicationTime, @NotNull Integer brandId, @NotNull Long productId) {
+    }
+}
@@ -0,0 +1,164 @@
+package com.capitole.pricingservice.adapter.in.grpc;
+
+import com.capitole.pricingservice.api.v1.Price;
+import com.capitole.pricingservice.api.v1.PriceQuery;
+import com.capitole.pricingservice.api.v1.PriceResolution;
+import com.capitole.pricingservice.api.v1.PricingServiceGrpc;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.PriceService;
+import com.capitole.pricingservice.common.annotation.GrpcAdapter;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * gRPC service for the price lookups of {@code src/main/proto/price_service.proto}, over the same {@link PriceService}
+ * as the {@code PriceRestController}.
+ *
+ * <p>RPCs:
+ * <ul>
+ *   <li>GetPrice - Retrieves the price of a brand, product and application date, or fails with {@code NOT_FOUND}.</li>
+ *   <li>ResolvePrices - Resolves a stream of brands, products and application dates, answering every query with a
+ *   resolution, in order, flagged as found or not, so a client pipelines any number of lookups over one call.</li>
+ * </ul>
+ *
+ * <p>The queries of ResolvePrices are read {@value #RESOLVE_WINDOW} at most ahead of the resolutions sent, and only
+ * while the resolutions can be sent without buffering, so a client not reading its resolutions stops the reads instead
+ * of filling the memory of the server. The queries sent meanwhile wait in the HTTP/2 flow-control window of the call.
+ *
+ * <p>The application dates and the dates of the prices are seconds since the epoch, taken as UTC, and the prices are
+ * their minor units with the scale of their currency, as in the protobuf bodies of the {@code PriceRestController}.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@GrpcAdapter
+class PriceGrpcService extends PricingServiceGrpc.PricingServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceGrpcService.class);
+
+    // queries requested ahead, topped up once half of them are resolved: every request is a hop to the transport
+    // thread, which hands the queries read in one go
+    private static final int RESOLVE_WINDOW = 64;
+
+    private final PriceService priceService;
+
+    PriceGrpcService(PriceService priceService) {
+        this.priceService = priceService;
+    }
+
+    @Override
+    public void getPrice(PriceQuery request, StreamObserver<Price> responseObserver) {
+        Optional<PriceSummary> price = priceService.getPriceByApplicationTimeBrandIdProductId(toPriceQuery(request));
+        logger.info("Requesting price over gRPC for brandId: {}, productId: {}, applicationDate: {},  priceFound: {}",
+                request.getBrandId(), request.getProductId(), request.getApplicationDate(), price.isPresent());
+        if (price.isEmpty()) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription("Price not found for parameters in request")
+                                                     .asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(toPrice(price.get()));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public StreamObserver<PriceQuery> resolvePrices(StreamObserver<PriceResolution> responseObserver) {
+        ServerCallStreamObserver<PriceResolution> resolutions = (ServerCallStreamObserver<PriceResolution>) responseObserver;
+        resolutions.disableAutoRequest();
+        PriceResolver resolver = new PriceResolver(resolutions);
+        resolutions.setOnReadyHandler(resolver::requestQueries);
+        return resolver;
+    }
+
+    static Price toPrice(PriceSummary price) {
+        Price.Builder builder = Price.newBuilder()
+                                     .setPrice(price.price());
+        if (price.productId() != null) {
+            builder.setProductId(price.productId());
+        }
+        if (price.brandId() != null) {
+            builder.setBrandId(price.brandId());
+        }
+        if (price.priceList() != null) {
+            builder.setPriceList(price.priceList());
+        }
+        if (price.startDate() != null) {
+            builder.setStartDate(price.startDate().toEpochSecond(ZoneOffset.UTC));
+        }
+        if (price.endDate() != null) {
+            builder.setEndDate(price.endDate().toEpochSecond(ZoneOffset.UTC));
+        }
+        if (price.currency() != null) {
+            builder.setCurrency(price.currency().name())
+                   .setScale(price.currency().scale());
+        }
+        return builder.build();
+    }
+
+    private static com.capitole.pricingservice.application.port.in.model.PriceQuery toPriceQuery(PriceQuery request) {
+        return new com.capitole.pricingservice.application.port.in.model.PriceQuery(
+                LocalDateTime.ofEpochSecond(request.getApplicationDate(), 0, ZoneOffset.UTC),
+                request.getBrandId(), request.getProductId());
+    }
+
+    /**
+     * Resolves the queries of a ResolvePrices call as they are read, with the manual flow control of gRPC: the window
+     * of queries is requested when the call becomes ready to send, and topped up as they are resolved while it is
+     * still ready.
+     */
+    private class PriceResolver implements StreamObserver<PriceQuery> {
+
+        private final ServerCallStreamObserver<PriceResolution> resolutions;
+
+        // queries requested and not read yet, the callbacks of a call are never run concurrently
+        private int requested;
+        private long resolved;
+        private long found;
+
+        PriceResolver(ServerCallStreamObserver<PriceResolution> resolutions) {
+            this.resolutions = resolutions;
+        }
+
+        // tops up the window of queries requested, once half of them are read and while the call is ready
+        void requestQueries() {
+            if (requested <= RESOLVE_WINDOW / 2 && resolutions.isReady()) {
+                resolutions.request(RESOLVE_WINDOW - requested);
+                requested = RESOLVE_WINDOW;
+            }
+        }
+
+        @Override
+        public void onNext(PriceQuery query) {
+            requested--;
+            Optional<PriceSummary> price = priceService.getPriceByApplicationTimeBrandIdProductId(toPriceQuery(query));
+            PriceResolution.Builder resolution = PriceResolution.newBuilder()
+                                                                .setBrandId(query.getBrandId())
+                                                                .setProductId(query.getProductId())
+                                                                .setApplicationDate(query.getApplicationDate())
+                                                                .setFound(price.isPresent());
+            price.ifPresent(summary -> resolution.setPrice(toPrice(summary)));
+            resolutions.onNext(resolution.build());
+            resolved++;
+            if (price.isPresent()) {
+                found++;
+            }
+            requestQueries();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            logger.info("Resolving prices over gRPC cancelled after {} prices, pricesFound: {}", resolved, found);
+        }
+
+        @Override
+        public void onCompleted() {
+            logger.info("Resolving {} prices over gRPC, pricesFound: {}", resolved, found);
+            resolutions.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.capitole.pricingservice.adapter.in.rest.controller;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the exchange rates of a refresh from a CSV body.
+ *
+ * <p>Each line holds a rate with the fields {@code baseCurrency,quoteCurrency,startDate,endDate,rate}, with an
+ * optional header line, and blank lines are skipped. Unlike the price import, the rates replace the whole table, so a
+ * line that can't be read fails the whole refresh.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class FxRateCsvReader {
+
+    static final String CSV_HEADER = "baseCurrency,quoteCurrency,startDate,endDate,rate";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private FxRateCsvReader() {
+    }
+
+    /**
+     * @return the rates of the CSV body, in order
+     * @throws IllegalArgumentException if a line can't be read, with its line number
+     */
+    static List<FxRate> read(InputStream body) {
+        List<FxRate> rates = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                String content = line.strip();
+                if (content.isEmpty() || (lineNumber == 1 && content.equalsIgnoreCase(CSV_HEADER))) {
+                    continue;
+                }
+                rates.add(readLine(lineNumber, content));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rates;
+    }
+
+    private static FxRate readLine(long lineNumber, String line) {
+        String[] fields = line.split(",", -1);
+        try {
+            if (fields.length != 5) {
+                throw new IllegalArgumentException("Expected 5 fields (" + CSV_HEADER + ") but found " + fields.length);
+            }
+            return new FxRate(CurrencyEnum.fromCode(fields[0].strip()), CurrencyEnum.fromCode(fields[1].strip()),
+                    LocalDateTime.parse(fields[2].strip(), DATE_FORMAT), LocalDateTime.parse(fields[3].strip(), DATE_FORMAT),
+                    Double.parseDouble(fields[4].strip()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": Invalid date format, please use yyyy-MM-dd HH:mm:ss: " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.capitole.pricingservice.adapter.in.rest.controller;
+
+import com.capitole.pricingservice.adapter.in.rest.dto.ErrorResponseDTO;
+import com.capitole.pricingservice.adapter.in.rest.dto.FxRatesRefreshResultDTO;
+import com.capitole.pricingservice.application.port.in.FxRateService;
+import com.capitole.pricingservice.common.annotation.RestAdapter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+/**
+ * REST controller for the exchange rates the prices are converted with.
+ *
+ * <p>Endpoints:
+ * <ul>
+ *   <li>PUT /api/fx-rates - Replaces all the exchange rates with the ones of a CSV body, in a single transaction.</li>
+ * </ul>
+ *
+ * <p>Responses:
+ * <ul>
+ *   <li>200 - Exchange rates replaced</li>
+ *   <li>400 - Bad request, a line can't be read or two rates of the same currency pair overlap</li>
+ *   <li>500 - Unexpected error</li>
+ * </ul>
+ *
+ * <p>This class is annotated with {@link RestAdapter} to indicate it's a web REST adapter component. It is only served
+ * by the servlet stack.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@RestController
+@RequestMapping("api/fx-rates")
+@RestAdapter
+@Profile("!reactive")
+@ApiResponses(value = {
+        @ApiResponse(responseCode = "400", description = "Bad request", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDTO.class))),
+        @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDTO.class)))
+})
+class FxRateRestController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateRestController.class);
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final FxRateService fxRateService;
+
+    FxRateRestController(FxRateService fxRateService) {
+        this.fxRateService = fxRateService;
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exchange rates replaced", content = @Content(mediaType = "application/json", schema = @Schema(implementation = FxRatesRefreshResultDTO.class))),
+    })
+    @Operation(summary = "Replace all the exchange rates with the ones of a CSV (baseCurrency,quoteCurrency,startDate,endDate,rate) body")
+    @PutMapping(consumes = TEXT_CSV)
+    public ResponseEntity<FxRatesRefreshResultDTO> refreshRates(InputStream body) {
+        int rates = fxRateService.replaceRates(FxRateCsvReader.read(body));
+        logger.info("Refresh exchange rates, rates: {}", rates);
+        return ResponseEntity.ok(new FxRatesRefreshResultDTO(rates));
+    }
+}
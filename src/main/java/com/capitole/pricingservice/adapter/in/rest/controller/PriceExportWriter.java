@@ -0,0 +1,94 @@
+package com.capitole.pricingservice.adapter.in.rest.controller;
+
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceDTO;
+import com.capitole.pricingservice.application.domain.model.Price;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * Writes the prices of an export to a writer as CSV or NDJSON, one line per price, as they are handed to it.
+ *
+ * <p>Both formats have the fields {@code id,brandId,productId,priceList,priority,startDate,endDate,price,currency,version},
+ * in that order, and the CSV starts with a header line of them. The dates and prices are written as in the body of
+ * {@code GET /api/prices}, every line built in the same buffer, so nothing is allocated per price but the price itself.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceExportWriter implements Consumer<Price> {
+
+    static final String CSV_HEADER = "id,brandId,productId,priceList,priority,startDate,endDate,price,currency,version";
+
+    private final Writer writer;
+
+    private final boolean csv;
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    private PriceExportWriter(Writer writer, boolean csv) {
+        this.writer = writer;
+        this.csv = csv;
+    }
+
+    /**
+     * @return a writer of CSV lines, once the header line is written
+     */
+    static PriceExportWriter csv(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        return new PriceExportWriter(writer, true);
+    }
+
+    static PriceExportWriter ndjson(Writer writer) {
+        return new PriceExportWriter(writer, false);
+    }
+
+    /**
+     * Writes the line of a price.
+     *
+     * @throws UncheckedIOException if the price can't be written, when the client has gone away
+     */
+    @Override
+    public void accept(Price price) {
+        line.setLength(0);
+        if (csv) {
+            appendCsv(price);
+        } else {
+            appendJson(price);
+        }
+        try {
+            writer.append(line.append('\n'));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void appendCsv(Price price) {
+        line.append(price.getId().longValue()).append(',')
+            .append(price.getBrandId().intValue()).append(',')
+            .append(price.getProductId().longValue()).append(',')
+            .append(price.getPriceList().intValue()).append(',')
+            .append(price.getPriority().intValue()).append(',');
+        PriceDTO.appendDate(line, price.getStartDate()).append(',');
+        PriceDTO.appendDate(line, price.getEndDate()).append(',');
+        PriceDTO.appendAmount(line, price.getPrice(), price.getCurrency().scale()).append(',')
+                .append(price.getCurrency().name()).append(',')
+                .append(price.getVersion().longValue());
+    }
+
+    private void appendJson(Price price) {
+        line.append("{\"id\":").append(price.getId().longValue())
+            .append(",\"brandId\":").append(price.getBrandId().intValue())
+            .append(",\"productId\":").append(price.getProductId().longValue())
+            .append(",\"priceList\":").append(price.getPriceList().intValue())
+            .append(",\"priority\":").append(price.getPriority().intValue());
+        PriceDTO.appendDate(line.append(",\"startDate\":\""), price.getStartDate());
+        PriceDTO.appendDate(line.append("\",\"endDate\":\""), price.getEndDate());
+        PriceDTO.appendAmount(line.append("\",\"price\":"), price.getPrice(), price.getCurrency().scale())
+                .append(",\"currency\":\"").append(price.getCurrency().name())
+                .append("\",\"version\":").append(price.getVersion().longValue())
+                .append('}');
+    }
+}
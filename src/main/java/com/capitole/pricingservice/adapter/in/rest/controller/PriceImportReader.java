@@ -0,0 +1,133 @@
+package com.capitole.pricingservice.adapter.in.rest.controller;
+
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceToCreateDTO;
+import com.capitole.pricingservice.application.port.in.model.PriceImportRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Reads the rows of a bulk price import from a CSV or NDJSON body, one line at a time.
+ *
+ * <p>Each line holds a price with the fields of {@link PriceToCreateDTO}. CSV lines have them in the order
+ * {@code brandId,productId,priceList,startDate,endDate,price,currency}, with an optional header line, and NDJSON lines
+ * are JSON objects like the body of {@code POST /api/prices}. Blank lines are skipped, and a line that can't be read
+ * becomes a failed row instead of failing the whole import.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceImportReader {
+
+    static final String CSV_HEADER = "brandId,productId,priceList,startDate,endDate,price,currency";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ObjectMapper objectMapper;
+
+    PriceImportReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return the rows of the CSV body, lazily read; the stream must be closed to release the body
+     */
+    Stream<PriceImportRow> readCsv(InputStream body) {
+        return read(body, this::readCsvLine);
+    }
+
+    /**
+     * @return the rows of the NDJSON body, lazily read; the stream must be closed to release the body
+     */
+    Stream<PriceImportRow> readNdjson(InputStream body) {
+        return read(body, this::readJsonLine);
+    }
+
+    private Stream<PriceImportRow> read(InputStream body, LineReader lineReader) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        AtomicLong lineNumber = new AtomicLong();
+        return reader.lines()
+                     .onClose(() -> closeQuietly(reader))
+                     .map(line -> new Line(lineNumber.incrementAndGet(), line.strip()))
+                     .filter(line -> !line.content().isEmpty())
+                     .filter(line -> !(line.number() == 1 && line.content().equalsIgnoreCase(CSV_HEADER)))
+                     .map(line -> toRow(line, lineReader));
+    }
+
+    private static PriceImportRow toRow(Line line, LineReader lineReader) {
+        try {
+            return PriceImportRow.of(line.number(), lineReader.read(line.content()).toPriceCreateCommand());
+        } catch (JsonProcessingException e) {
+            return PriceImportRow.failed(line.number(), "Invalid JSON: " + e.getOriginalMessage());
+        } catch (DateTimeParseException e) {
+            return PriceImportRow.failed(line.number(), "Invalid date format, please use yyyy-MM-dd HH:mm:ss: " + e.getMessage());
+        } catch (IllegalArgumentException | ConstraintViolationException e) {
+            return PriceImportRow.failed(line.number(), e.getMessage());
+        }
+    }
+
+    private PriceToCreateDTO readCsvLine(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 7) {
+            throw new IllegalArgumentException("Expected 7 fields (" + CSV_HEADER + ") but found " + fields.length);
+        }
+        return new PriceToCreateDTO(toInteger(fields[0]), toLong(fields[1]), toInteger(fields[2]),
+                toDate(fields[3]), toDate(fields[4]), toDecimal(fields[5]), toText(fields[6]));
+    }
+
+    private PriceToCreateDTO readJsonLine(String line) throws JsonProcessingException {
+        return objectMapper.readValue(line, PriceToCreateDTO.class);
+    }
+
+    private static String toText(String field) {
+        String text = field.strip();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static Integer toInteger(String field) {
+        String text = toText(field);
+        return text == null ? null : Integer.valueOf(text);
+    }
+
+    private static Long toLong(String field) {
+        String text = toText(field);
+        return text == null ? null : Long.valueOf(text);
+    }
+
+    private static BigDecimal toDecimal(String field) {
+        String text = toText(field);
+        return text == null ? null : new BigDecimal(text);
+    }
+
+    private static LocalDateTime toDate(String field) {
+        String text = toText(field);
+        return text == null ? null : LocalDateTime.parse(text, DATE_FORMAT);
+    }
+
+    private static void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // the body is released by the container anyway
+        }
+    }
+
+    private record Line(long number, String content) {
+    }
+
+    @FunctionalInterface
+    private interface LineReader {
+        PriceToCreateDTO read(String line) throws JsonProcessingException;
+    }
+}
@@ -2,28 +2,66 @@ package com.capitole.pricingservice.adapter.in.rest.controller;
 
 import com.capitole.pricingservice.adapter.in.rest.dto.ErrorResponseDTO;
 import com.capitole.pricingservice.adapter.in.rest.dto.PriceDTO;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceImportResultDTO;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceProtobuf;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceQueryDTO;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceResolutionDTO;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceSegmentDTO;
 import com.capitole.pricingservice.adapter.in.rest.dto.PriceToCreateDTO;
 import com.capitole.pricingservice.adapter.in.rest.dto.PriceToUpdateDTO;
+import com.capitole.pricingservice.adapter.in.rest.exception.FxRateNotFoundException;
+import com.capitole.pricingservice.adapter.in.rest.exception.PriceExportAbortedException;
 import com.capitole.pricingservice.adapter.in.rest.exception.PriceNotFoundException;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
 import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.port.in.FxRateService;
 import com.capitole.pricingservice.application.port.in.PriceService;
+import com.capitole.pricingservice.application.port.in.model.PriceImportResult;
+import com.capitole.pricingservice.application.port.in.model.PriceImportRow;
 import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.capitole.pricingservice.application.port.in.model.PriceRangeQuery;
 import com.capitole.pricingservice.common.annotation.RestAdapter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
-import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * REST controller for handling price-related requests.
@@ -34,7 +72,11 @@ import java.util.Optional;
  * <p>Endpoints:
  * <ul>
  *   <li>GET /api/prices - Retrieves price information for a specific brand, product, and application date.</li>
+ *   <li>GET /api/prices/{brandId}/{productId}/timeline - Retrieves the winning prices of a brand and product over a date range.</li>
+ *   <li>POST /api/prices/resolve - Retrieves price information for many brands, products and application dates at once.</li>
  *   <li>POST /api/prices - Creates a new price.</li>
+ *   <li>POST /api/prices/import - Creates prices in bulk from a CSV or NDJSON body.</li>
+ *   <li>GET /api/prices/export - Exports the prices, optionally filtered, as NDJSON or CSV.</li>
  *   <li>PUT /api/prices/{id} - Updates an existing price.</li>
  * </ul>
  *
@@ -42,24 +84,61 @@ import java.util.Optional;
  * <ul>
  *   <li>200 - Successful operation</li>
  *   <li>201 - Resource created</li>
+ *   <li>304 - Price not modified, when the ETag sent in If-None-Match still matches</li>
  *   <li>404 - Resource not found</li>
+ *   <li>409 - Price updated since the version sent in the PUT</li>
  *   <li>400 - Bad request</li>
  *   <li>500 - Unexpected error</li>
  * </ul>
  *
+ * <p>The price found by the GET is sent with a strong {@code ETag}, derived from the id and the content of the winning
+ * price row, and a {@code Cache-Control: max-age} of {@code pricing.http.cache.max-age} at most, reduced to the time
+ * left until the winning price stops winning, when it ends or a price with higher priority starts. A GET whose
+ * {@code If-None-Match} matches the ETag is answered with a 304 without writing the body.
+ *
+ * <p>With the optional {@code currency} parameter the price found is converted to that currency with the exchange
+ * rate of the {@link FxRateService} valid at the application date. The rate is part of the ETag, and the max-age is
+ * also reduced to the time left until the rate ends.
+ *
+ * <p>The price found by the GET and the prices resolved are written as protobuf, with the messages of
+ * {@code src/main/proto/price.proto}, when the Accept header lists {@code application/x-protobuf} before
+ * {@code application/json}, and as JSON otherwise. The responses of the GET vary by the Accept header, and each
+ * representation has its own ETag.
+ *
+ * <p>The export is written to the response as the prices are read from the database, through a buffer of
+ * {@value #EXPORT_BUFFER_SIZE} bytes, so neither the prices nor the body are ever held in memory as a whole. It is
+ * NDJSON unless the Accept header lists {@code text/csv} before {@code application/x-ndjson}. An export failing once
+ * its first prices are sent can't be answered with an error anymore: the connection is closed instead, so the client
+ * sees the body cut short rather than a complete one.
+ *
  * <p>Exceptions:
  * <ul>
  *   <li>{@link PriceNotFoundException} - Thrown when no price is found for the given criteria.</li>
+ *   <li>{@link FxRateNotFoundException} - Thrown when there is no exchange rate to the currency requested.</li>
+ *   <li>{@link PriceExportAbortedException} - Thrown when the export fails after its first prices were sent.</li>
+ * </ul>
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.price.not.found} - Counter of the {@link PriceNotFoundException} thrown, tagged with the
+ *   {@code operation} (get, update).</li>
+ *   <li>{@code pricing.fx.rate.not.found} - Counter of the {@link FxRateNotFoundException} thrown, tagged with the
+ *   {@code operation} (get).</li>
+ *   <li>{@code pricing.price.not.modified} - Counter of the GET requests answered with a 304, tagged with the
+ *   {@code operation} (get).</li>
+ *   <li>{@code pricing.price.mapping} - Timer of the mapping of the prices found to the response body, tagged with
+ *   the {@code operation} (get, timeline, resolve).</li>
  * </ul>
  *
- * <p>This class is annotated with {@link RestAdapter} to indicate it's a web REST adapter component.
+ * <p>This class is annotated with {@link RestAdapter} to indicate it's a web REST adapter component. It is replaced by
+ * the WebFlux {@code PriceReactiveController} with the {@code reactive} profile.
  *
  * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
  */
 @RestController
-@RequiredArgsConstructor
 @RequestMapping("api/prices")
 @RestAdapter
+@Profile("!reactive")
 @ApiResponses(value = {
         @ApiResponse(responseCode = "400", description = "Bad request", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDTO.class))),
         @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDTO.class)))
@@ -68,24 +147,157 @@ class PriceRestController {
 
     private static final Logger logger = LoggerFactory.getLogger(PriceRestController.class);
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private static final MediaType TEXT_CSV_TYPE = MediaType.valueOf(TEXT_CSV);
+
+    private static final MediaType APPLICATION_PROTOBUF = MediaType.valueOf(PriceProtobuf.MEDIA_TYPE);
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
     private final PriceService priceService;
 
+    private final FxRateService fxRateService;
+
+    private final ObjectMapper objectMapper;
+
+    private final long maxAgeSeconds;
+    // the time left until the price stops winning is taken in the zone of the dates of the prices
+    private final Clock clock;
+
+    private final Counter getNotFound;
+    private final Counter getNotModified;
+    private final Counter getFxRateNotFound;
+    private final Counter updateNotFound;
+    private final Timer getMapping;
+    private final Timer timelineMapping;
+    private final Timer resolveMapping;
+
+    PriceRestController(PriceService priceService, FxRateService fxRateService, ObjectMapper objectMapper,
+                        @Value("${pricing.http.cache.max-age}") Duration maxAge,
+                        Clock clock,
+                        MeterRegistry meterRegistry) {
+        this.priceService = priceService;
+        this.fxRateService = fxRateService;
+        this.objectMapper = objectMapper;
+        this.maxAgeSeconds = maxAge.toSeconds();
+        this.clock = clock;
+        this.getNotFound = notFoundCounter("get", meterRegistry);
+        this.getNotModified = Counter.builder("pricing.price.not.modified")
+                                     .description("Price requests answered with a 304 Not Modified")
+                                     .tag("operation", "get")
+                                     .register(meterRegistry);
+        this.getFxRateNotFound = Counter.builder("pricing.fx.rate.not.found")
+                                        .description("Price requests answered with a FxRateNotFoundException")
+                                        .tag("operation", "get")
+                                        .register(meterRegistry);
+        this.updateNotFound = notFoundCounter("update", meterRegistry);
+        this.getMapping = mappingTimer("get", meterRegistry);
+        this.timelineMapping = mappingTimer("timeline", meterRegistry);
+        this.resolveMapping = mappingTimer("resolve", meterRegistry);
+    }
+
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Price found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PriceDTO.class))),
-            @ApiResponse(responseCode = "404", description = "Resource/Price not found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "200", description = "Price found", content = {
+                    @Content(mediaType = "application/json", schema = @Schema(implementation = PriceDTO.class)),
+                    @Content(mediaType = PriceProtobuf.MEDIA_TYPE, schema = @Schema(description = "Price message of price.proto"))}),
+            @ApiResponse(responseCode = "304", description = "Price not modified since the ETag sent in If-None-Match", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Resource/Price/Exchange rate not found", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDTO.class))),
     })
     @Operation(summary = "Get price by brandId and productId and applicationDate")
     @GetMapping("/{brandId}/{productId}")
-    public ResponseEntity<PriceDTO> getPrice(@PathVariable(value ="brandId") Integer brandId,
+    public ResponseEntity<?> getPrice(@PathVariable(value ="brandId") Integer brandId,
                                              @PathVariable(value ="productId") Long productId,
                                              @Schema(description = "yyyy-MM-dd HH:mm:ss")
-                                             @RequestParam(value = "applicationDate") String applicationDate) {
-        LocalDateTime applicationDateTime = LocalDateTime.parse(applicationDate, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        Optional<PriceDTO> dto = priceService.getPriceByApplicationTimeBrandIdProductId(new PriceQuery(applicationDateTime, brandId, productId))
-                                             .map(PriceDTO::toPriceDTO);
-        logger.info("Requesting price for brandId: {}, productId: {}, applicationDate: {},  priceFound: {}", brandId, productId, applicationDate, dto.isPresent());
-        return dto.map(ResponseEntity::ok)
-                  .orElseThrow(() -> new PriceNotFoundException("Price not found for parameters in request"));
+                                             @RequestParam(value = "applicationDate") String applicationDate,
+                                             @Schema(description = "currency to convert the price to (USD, EUR, COP), the one of the price if not sent")
+                                             @RequestParam(value = "currency", required = false) String currency,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        LocalDateTime applicationDateTime = PriceQueryDTO.parseApplicationDate(applicationDate);
+        CurrencyEnum targetCurrency = currency == null ? null : CurrencyEnum.fromCode(currency);
+        Optional<PriceTimeline.Segment> segment = priceService.getPriceSegmentByApplicationTimeBrandIdProductId(new PriceQuery(applicationDateTime, brandId, productId));
+        logger.info("Requesting price for brandId: {}, productId: {}, applicationDate: {},  priceFound: {}", brandId, productId, applicationDate, segment.isPresent());
+        if (segment.isEmpty()) {
+            getNotFound.increment();
+            throw new PriceNotFoundException("Price not found for parameters in request");
+        }
+        Price price = segment.get().price();
+        FxRate rate = conversionRate(price, targetCurrency, applicationDateTime);
+        boolean protobuf = acceptsFirst(accept, APPLICATION_PROTOBUF, MediaType.APPLICATION_JSON);
+        String eTag = eTag(price, rate, protobuf);
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeSeconds(segment.get(), rate), TimeUnit.SECONDS);
+        if (matches(ifNoneMatch, eTag)) {
+            getNotModified.increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                 .eTag(eTag)
+                                 .cacheControl(cacheControl)
+                                 .varyBy(HttpHeaders.ACCEPT)
+                                 .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                                            .eTag(eTag)
+                                                            .cacheControl(cacheControl)
+                                                            .varyBy(HttpHeaders.ACCEPT);
+        if (protobuf) {
+            return response.contentType(APPLICATION_PROTOBUF)
+                           .body(getMapping.record(() -> PriceProtobuf.toProtobuf(summaryOf(price, rate))));
+        }
+        // the body is written straight to JSON, with no PriceDTO nor object mapper in between
+        return response.contentType(MediaType.APPLICATION_JSON)
+                       .body(getMapping.record(() -> PriceDTO.toJson(summaryOf(price, rate))));
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Periods of the range with the price that wins in each one, sorted by start, empty if no price applies in the range", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = PriceSegmentDTO.class)))),
+    })
+    @Operation(summary = "Get the price timeline of a brandId and productId between two dates")
+    @GetMapping("/{brandId}/{productId}/timeline")
+    public ResponseEntity<List<PriceSegmentDTO>> getPriceTimeline(@PathVariable(value = "brandId") Integer brandId,
+                                                                  @PathVariable(value = "productId") Long productId,
+                                                                  @Schema(description = "yyyy-MM-dd HH:mm:ss, included")
+                                                                  @RequestParam(value = "from") String from,
+                                                                  @Schema(description = "yyyy-MM-dd HH:mm:ss, included")
+                                                                  @RequestParam(value = "to") String to) {
+        PriceRangeQuery priceRangeQuery = new PriceRangeQuery(brandId, productId, PriceQueryDTO.parseApplicationDate(from), PriceQueryDTO.parseApplicationDate(to));
+        List<PriceTimeline.Segment> segments = priceService.getPriceSegmentsByDateRangeBrandIdProductId(priceRangeQuery);
+        logger.info("Requesting price timeline for brandId: {}, productId: {}, from: {}, to: {}, segmentsFound: {}", brandId, productId, from, to, segments.size());
+        return ResponseEntity.ok(timelineMapping.record(() -> segments.stream()
+                                                                      .map(PriceSegmentDTO::toPriceSegmentDTO)
+                                                                      .toList()));
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Prices resolved, each one flagged as found or not", content = {
+                    @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = PriceResolutionDTO.class))),
+                    @Content(mediaType = PriceProtobuf.MEDIA_TYPE, schema = @Schema(description = "PriceResolutions message of price.proto"))}),
+    })
+    @Operation(summary = "Resolve the prices of a batch of brandId, productId and applicationDate")
+    @PostMapping("/resolve")
+    public ResponseEntity<?> resolvePrices(@RequestBody List<PriceQueryDTO> priceQueriesDTO,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (priceQueriesDTO.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A maximum of " + MAX_BATCH_SIZE + " prices can be resolved per request.");
+        }
+        List<PriceQuery> priceQueries = priceQueriesDTO.stream()
+                                                       .map(PriceQueryDTO::toPriceQuery)
+                                                       .toList();
+        List<Optional<PriceSummary>> prices = priceService.getPricesByApplicationTimeBrandIdProductId(priceQueries);
+        logger.info("Resolving {} prices, pricesFound: {}", prices.size(), prices.stream().filter(Optional::isPresent).count());
+        if (acceptsFirst(accept, APPLICATION_PROTOBUF, MediaType.APPLICATION_JSON)) {
+            return ResponseEntity.ok()
+                                 .contentType(APPLICATION_PROTOBUF)
+                                 .body(resolveMapping.record(() -> PriceProtobuf.toProtobuf(priceQueries, prices)));
+        }
+        List<PriceResolutionDTO> resolutions = resolveMapping.record(() -> IntStream.range(0, priceQueries.size())
+                                                                                    .mapToObj(i -> PriceResolutionDTO.toPriceResolutionDTO(priceQueries.get(i), prices.get(i)))
+                                                                                    .toList());
+        return ResponseEntity.ok(resolutions);
     }
 
     @PostMapping
@@ -100,10 +312,62 @@ class PriceRestController {
                              .body(PriceDTO.toPriceDTO(price));
     }
 
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Prices imported, with the errors of the rows failed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PriceImportResultDTO.class))),
+    })
+    @Operation(summary = "Import prices in bulk from a CSV (brandId,productId,priceList,startDate,endDate,price,currency) or NDJSON body")
+    @PostMapping(path = "/import", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<PriceImportResultDTO> importPrices(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                             InputStream body) {
+        PriceImportReader reader = new PriceImportReader(objectMapper);
+        try (Stream<PriceImportRow> rows = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType) ? reader.readNdjson(body) : reader.readCsv(body)) {
+            PriceImportResult result = priceService.importPrices(rows);
+            logger.info("Import prices, imported: {}, failed: {}", result.imported(), result.failed());
+            return ResponseEntity.ok(PriceImportResultDTO.toPriceImportResultDTO(result));
+        }
+    }
+
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Prices exported, one per line, sorted by id", content = {
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE), @Content(mediaType = TEXT_CSV)}),
+    })
+    @Operation(summary = "Export the prices, optionally filtered, as NDJSON or CSV (id,brandId,productId,priceList,priority,startDate,endDate,price,currency,version)")
+    @GetMapping(path = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV})
+    public void exportPrices(@RequestParam(value = "brandId", required = false) Integer brandId,
+                             @RequestParam(value = "productIdFrom", required = false) Long productIdFrom,
+                             @RequestParam(value = "productIdTo", required = false) Long productIdTo,
+                             @Schema(description = "yyyy-MM-dd HH:mm:ss, only the prices valid at that date if sent")
+                             @RequestParam(value = "activeAt", required = false) String activeAt,
+                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                             HttpServletResponse response) throws IOException {
+        // validated before anything is written, the status can't be changed once the first price is
+        PriceFilter filter = new PriceFilter(brandId, productIdFrom, productIdTo,
+                activeAt == null ? null : PriceQueryDTO.parseApplicationDate(activeAt));
+        boolean csv = acceptsFirst(accept, TEXT_CSV_TYPE, MediaType.APPLICATION_NDJSON);
+        response.setContentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        // written synchronously by the request thread, there is no async timeout for a long export to hit
+        Writer body = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        long exported;
+        try {
+            exported = priceService.exportPrices(filter, csv ? PriceExportWriter.csv(body) : PriceExportWriter.ndjson(body));
+            body.flush();
+        } catch (RuntimeException | IOException e) {
+            // nothing sent yet, the buffered lines are dropped and the error is answered as any other
+            if (!response.isCommitted()) {
+                throw e;
+            }
+            logger.error("Export prices as {} aborted, filter: {}", csv ? "CSV" : "NDJSON", filter, e);
+            throw new PriceExportAbortedException("Export aborted after the first prices were sent", e);
+        }
+        logger.info("Export prices as {}, filter: {}, exported: {}", csv ? "CSV" : "NDJSON", filter, exported);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update price")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Price created", content = @Content(mediaType = "application/json", schema = @Schema(implementation = PriceDTO.class))),
+            @ApiResponse(responseCode = "409", description = "Price updated since the version sent", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDTO.class))),
     })
     public ResponseEntity<PriceDTO> update(@RequestBody PriceToUpdateDTO priceToUpdateDTO,
                                            @PathVariable(value = "id") Long id) {
@@ -111,10 +375,130 @@ class PriceRestController {
         Optional<PriceDTO> priceDTO = priceService.update(priceToUpdateDTO.toPriceUpdateCommand(id))
                                                   .map(PriceDTO::toPriceDTO);
         logger.info("Update price for id: {}, brandId: {}, productId: {} ", id,priceToUpdateDTO.brandId(), priceToUpdateDTO.productId());
-        return priceDTO.map(ResponseEntity::ok)
-                       .orElseThrow(() -> new PriceNotFoundException("Price not found"));
+        if (priceDTO.isEmpty()) {
+            updateNotFound.increment();
+            throw new PriceNotFoundException("Price not found");
+        }
+        return ResponseEntity.ok(priceDTO.get());
+    }
+
+    // null when the price is already in the currency requested, or no currency is requested
+    private FxRate conversionRate(Price price, CurrencyEnum targetCurrency, LocalDateTime applicationDateTime) {
+        if (targetCurrency == null || targetCurrency == price.getCurrency()) {
+            return null;
+        }
+        return fxRateService.getRate(price.getCurrency(), targetCurrency, applicationDateTime)
+                            .orElseThrow(() -> {
+                                getFxRateNotFound.increment();
+                                return new FxRateNotFoundException("No exchange rate from " + price.getCurrency() + " to " + targetCurrency + " at " + applicationDateTime);
+                            });
     }
 
+    // whether the Accept header lists the alternative media type before the default one, or without it
+    private static boolean acceptsFirst(String accept, MediaType alternative, MediaType defaultType) {
+        if (accept == null) {
+            return false;
+        }
+        for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+            if (mediaType.equalsTypeAndSubtype(alternative)) {
+                return true;
+            }
+            if (mediaType.equalsTypeAndSubtype(defaultType)) {
+                return false;
+            }
+        }
+        return false;
+    }
 
+    private static PriceSummary summaryOf(Price price, FxRate rate) {
+        return rate == null ? PriceSummary.from(price) : rate.convert(PriceSummary.from(price));
+    }
+
+    // the response for the application date doesn't change until the price stops winning, or the rate it is converted
+    // with ends, but it may be changed by a write at any time, hence the configured maximum
+    private long maxAgeSeconds(PriceTimeline.Segment segment, FxRate rate) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        long seconds = maxAgeSeconds;
+        if (segment.to().isAfter(now)) {
+            seconds = Math.min(seconds, Duration.between(now, segment.to()).toSeconds());
+        }
+        if (rate != null && rate.endDate().isAfter(now)) {
+            seconds = Math.min(seconds, Duration.between(now, rate.endDate()).toSeconds());
+        }
+        return seconds;
+    }
 
+    static String eTag(Price price) {
+        return eTag(price, null);
+    }
+
+    static String eTag(Price price, FxRate rate) {
+        return eTag(price, rate, false);
+    }
+
+    /**
+     * Strong ETag of the body written for a price: its id and a FNV-1a hash of its version and the fields written, so
+     * it changes when another row wins or the winning one is updated, and of the rate it is converted with, if any.
+     * The hash only uses values whose representation is the same in every JVM, so all the instances of the service
+     * send the same ETag. The protobuf body has another ETag than the JSON one, as a strong ETag identifies the bytes.
+     */
+    static String eTag(Price price, FxRate rate, boolean protobuf) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = fnv(hash, price.getVersion() == null ? 0 : price.getVersion());
+        hash = fnv(hash, price.getBrandId() == null ? 0 : price.getBrandId());
+        hash = fnv(hash, price.getProductId() == null ? 0 : price.getProductId());
+        hash = fnv(hash, price.getPriceList() == null ? 0 : price.getPriceList());
+        hash = fnv(hash, price.getStartDate() == null ? 0 : price.getStartDate().toEpochSecond(ZoneOffset.UTC));
+        hash = fnv(hash, price.getEndDate() == null ? 0 : price.getEndDate().toEpochSecond(ZoneOffset.UTC));
+        hash = fnv(hash, price.getPrice());
+        if (price.getCurrency() != null) {
+            for (byte b : price.getCurrency().name().getBytes(StandardCharsets.US_ASCII)) {
+                hash = (hash ^ b) * FNV_PRIME;
+            }
+        }
+        if (rate != null) {
+            hash = fnv(hash, rate.quoteCurrency().ordinal());
+            hash = fnv(hash, rate.startDate().toEpochSecond(ZoneOffset.UTC));
+            hash = fnv(hash, Double.doubleToLongBits(rate.rate()));
+        }
+        if (protobuf) {
+            hash = fnv(hash, 1);
+        }
+        return "\"" + Long.toHexString(price.getId() == null ? 0 : price.getId()) + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    private static long fnv(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    // If-None-Match uses the weak comparison: W/ prefixes are ignored
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(eTag) || (tag.startsWith("W/") && tag.substring(2).equals(eTag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Counter notFoundCounter(String operation, MeterRegistry meterRegistry) {
+        return Counter.builder("pricing.price.not.found")
+                      .description("Price requests answered with a PriceNotFoundException")
+                      .tag("operation", operation)
+                      .register(meterRegistry);
+    }
+
+    private static Timer mappingTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("pricing.price.mapping")
+                    .description("Mapping of the prices found to the response body")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+    }
 }
@@ -0,0 +1,9 @@
+package com.capitole.pricingservice.adapter.in.rest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "fxRatesRefreshResult", description = "The outcome of a refresh of the exchange rates", example = "{\"rates\": 4}")
+public record FxRatesRefreshResultDTO(
+        @Schema(description = "number of exchange rates stored, in place of the previous ones")
+        int rates) {
+}
@@ -6,29 +6,109 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
-@Schema(name = "priceSummary", description = "A price summary", example = "{\"productId\": 35455,\"brandId\": 1,\"priceList\": 1,\"startDate\": \"2020-06-14 00:00:00\",\"endDate\": \"2020-12-31 23:59:59\",\"price\": 35.5}")
+@Schema(name = "priceSummary", description = "A price summary", example = "{\"productId\": 35455,\"brandId\": 1,\"priceList\": 1,\"startDate\": \"2020-06-14 00:00:00\",\"endDate\": \"2020-12-31 23:59:59\",\"price\": 35.50}")
 public record PriceDTO(Long productId, Integer brandId, Integer priceList,
                        @JsonFormat(pattern="yyyy-MM-dd HH:mm:ss")
                        LocalDateTime startDate,
                        @JsonFormat(pattern="yyyy-MM-dd HH:mm:ss")
-                       LocalDateTime endDate, Double price, String currency) {
+                       LocalDateTime endDate,
+                       @Schema(description = "price, with the decimals of the minor unit of the currency")
+                       BigDecimal price, String currency,
+                       @Schema(description = "version of the price, to be sent back to update it; only in the responses of the writes")
+                       Long version) {
 
     public static PriceDTO toPriceDTO(PriceSummary price) {
         return new PriceDTO(price.productId(),
                 price.brandId(), price.priceList(),
                 price.startDate(), price.endDate(),
-                price.price(), price.currency().toString());
+                price.currency() == null ? null : price.currency().fromMinorUnits(price.price()),
+                price.currency() == null ? null : price.currency().toString(), null);
+    }
+
+    /**
+     * Writes the JSON of the price summary exactly as Jackson writes the {@link #toPriceDTO(PriceSummary) PriceDTO}
+     * of it, without building the DTO nor going through the object mapper. The price is written from its minor units,
+     * with the decimals of its currency, so no {@link BigDecimal} is built either.
+     */
+    public static String toJson(PriceSummary price) {
+        StringBuilder json = new StringBuilder(192).append('{');
+        if (price.productId() != null) {
+            json.append("\"productId\":").append(price.productId().longValue()).append(',');
+        }
+        if (price.brandId() != null) {
+            json.append("\"brandId\":").append(price.brandId().intValue()).append(',');
+        }
+        if (price.priceList() != null) {
+            json.append("\"priceList\":").append(price.priceList().intValue()).append(',');
+        }
+        if (price.startDate() != null) {
+            appendDate(json.append("\"startDate\":\""), price.startDate()).append("\",");
+        }
+        if (price.endDate() != null) {
+            appendDate(json.append("\"endDate\":\""), price.endDate()).append("\",");
+        }
+        // with no currency there are no decimals to write the price with, and the DTO has no price either
+        if (price.currency() != null) {
+            appendAmount(json.append("\"price\":"), price.price(), price.currency().scale()).append(',');
+            json.append("\"currency\":\"").append(price.currency().name()).append("\",");
+        }
+        if (json.length() > 1) {
+            json.setLength(json.length() - 1);
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Appends a date as yyyy-MM-dd HH:mm:ss, as in the {@link JsonFormat} of the dates, without a formatter.
+     */
+    public static StringBuilder appendDate(StringBuilder json, LocalDateTime date) {
+        appendPadded(json, date.getYear(), 4).append('-');
+        appendPadded(json, date.getMonthValue(), 2).append('-');
+        appendPadded(json, date.getDayOfMonth(), 2).append(' ');
+        appendPadded(json, date.getHour(), 2).append(':');
+        appendPadded(json, date.getMinute(), 2).append(':');
+        return appendPadded(json, date.getSecond(), 2);
+    }
+
+    /**
+     * Appends an amount in minor units with the given decimals, as the plain string of
+     * {@code BigDecimal.valueOf(minorUnits, scale)} that Jackson writes, without building the {@link BigDecimal}.
+     */
+    public static StringBuilder appendAmount(StringBuilder json, long minorUnits, int scale) {
+        if (scale == 0) {
+            return json.append(minorUnits);
+        }
+        if (minorUnits < 0) {
+            json.append('-');
+            minorUnits = -minorUnits;
+        }
+        long unit = 1;
+        for (int i = 0; i < scale; i++) {
+            unit *= 10;
+        }
+        json.append(minorUnits / unit).append('.');
+        return appendPadded(json, (int) (minorUnits % unit), scale);
+    }
+
+    private static StringBuilder appendPadded(StringBuilder json, int value, int width) {
+        for (int limit = 10, digits = 1; digits < width; limit *= 10, digits++) {
+            if (value < limit) {
+                json.append('0');
+            }
+        }
+        return json.append(value);
     }
 
     public static PriceDTO toPriceDTO(Price price) {
         return new PriceDTO(price.getProductId(),
                 price.getBrandId(), price.getPriceList(),
                 price.getStartDate(), price.getEndDate(),
-                price.getPrice(), price.getCurrency().toString());
+                price.getCurrency().fromMinorUnits(price.getPrice()), price.getCurrency().toString(), price.getVersion());
     }
 }
 
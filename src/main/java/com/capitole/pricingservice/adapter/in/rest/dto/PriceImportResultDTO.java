@@ -0,0 +1,27 @@
+package com.capitole.pricingservice.adapter.in.rest.dto;
+
+import com.capitole.pricingservice.application.port.in.model.PriceImportResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "priceImportResult", description = "The outcome of a bulk price import", example = "{\"imported\": 2,\"failed\": 1,\"errors\": [{\"line\": 3,\"message\": \"Start date must be before end date.\"}]}")
+public record PriceImportResultDTO(
+        @Schema(description = "number of prices imported")
+        long imported,
+        @Schema(description = "number of rows failed")
+        long failed,
+        @Schema(description = "errors of the failed rows, up to 1000")
+        List<RowErrorDTO> errors) {
+
+    public record RowErrorDTO(long line, String message) {
+    }
+
+    public static PriceImportResultDTO toPriceImportResultDTO(PriceImportResult result) {
+        return new PriceImportResultDTO(result.imported(), result.failed(),
+                result.errors()
+                      .stream()
+                      .map(error -> new RowErrorDTO(error.line(), error.message()))
+                      .toList());
+    }
+}
@@ -0,0 +1,167 @@
+package com.capitole.pricingservice.adapter.in.rest.dto;
+
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes the bodies of the price lookups in the protobuf wire format of the messages of {@code src/main/proto/price.proto},
+ * the binary alternative to the JSON of {@link PriceDTO#toJson}, without a protobuf runtime nor generated classes.
+ *
+ * <p>The dates are written as seconds since the epoch, taken as UTC, and the prices as their minor units with the
+ * scale of the currency, so no date is formatted nor amount built. Every body is written in a single array of its
+ * exact size, computed first, as the embedded messages are prefixed by their length.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public final class PriceProtobuf {
+
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+
+    private static final int VARINT = 0;
+    private static final int LENGTH_DELIMITED = 2;
+
+    // every field number of the messages is below 16, its key takes a single byte
+    private static final int KEY_SIZE = 1;
+
+    private final byte[] bytes;
+    private int position;
+
+    private PriceProtobuf(int size) {
+        this.bytes = new byte[size];
+    }
+
+    /**
+     * @return the {@code Price} message of the price summary
+     */
+    public static byte[] toProtobuf(PriceSummary price) {
+        PriceProtobuf protobuf = new PriceProtobuf(priceSize(price));
+        protobuf.writePrice(price);
+        return protobuf.bytes;
+    }
+
+    /**
+     * @param priceQueries the queries resolved
+     * @param prices the prices resolved, in the order of the queries
+     * @return the {@code PriceResolutions} message of the prices resolved
+     */
+    public static byte[] toProtobuf(List<PriceQuery> priceQueries, List<Optional<PriceSummary>> prices) {
+        int[] resolutionSizes = new int[priceQueries.size()];
+        int size = 0;
+        for (int i = 0; i < resolutionSizes.length; i++) {
+            resolutionSizes[i] = resolutionSize(priceQueries.get(i), prices.get(i));
+            size += KEY_SIZE + varintSize(resolutionSizes[i]) + resolutionSizes[i];
+        }
+        PriceProtobuf protobuf = new PriceProtobuf(size);
+        for (int i = 0; i < resolutionSizes.length; i++) {
+            protobuf.writeKey(1, LENGTH_DELIMITED);
+            protobuf.writeVarint(resolutionSizes[i]);
+            protobuf.writeResolution(priceQueries.get(i), prices.get(i));
+        }
+        return protobuf.bytes;
+    }
+
+    private static int priceSize(PriceSummary price) {
+        int size = fieldSize(price.productId()) + fieldSize(price.brandId()) + fieldSize(price.priceList())
+                + fieldSize(price.startDate()) + fieldSize(price.endDate()) + fieldSize(price.price());
+        if (price.currency() != null) {
+            int codeSize = price.currency().name().length();
+            size += KEY_SIZE + varintSize(codeSize) + codeSize + fieldSize(price.currency().scale());
+        }
+        return size;
+    }
+
+    private static int resolutionSize(PriceQuery priceQuery, Optional<PriceSummary> price) {
+        int size = fieldSize(priceQuery.brandId()) + fieldSize(priceQuery.productId())
+                + fieldSize(priceQuery.applicationTime());
+        if (price.isPresent()) {
+            int priceSize = priceSize(price.get());
+            size += fieldSize(1) + KEY_SIZE + varintSize(priceSize) + priceSize;
+        }
+        return size;
+    }
+
+    private void writePrice(PriceSummary price) {
+        writeField(1, price.productId());
+        writeField(2, price.brandId());
+        writeField(3, price.priceList());
+        writeField(4, price.startDate());
+        writeField(5, price.endDate());
+        writeField(6, price.price());
+        if (price.currency() != null) {
+            String code = price.currency().name();
+            writeKey(7, LENGTH_DELIMITED);
+            writeVarint(code.length());
+            // the ISO 4217 codes are ASCII, a byte per char
+            for (int i = 0; i < code.length(); i++) {
+                bytes[position++] = (byte) code.charAt(i);
+            }
+            writeField(8, price.currency().scale());
+        }
+    }
+
+    private void writeResolution(PriceQuery priceQuery, Optional<PriceSummary> price) {
+        writeField(1, priceQuery.brandId());
+        writeField(2, priceQuery.productId());
+        writeField(3, priceQuery.applicationTime());
+        if (price.isPresent()) {
+            writeField(4, 1);
+            writeKey(5, LENGTH_DELIMITED);
+            writeVarint(priceSize(price.get()));
+            writePrice(price.get());
+        }
+    }
+
+    // a null or default value is not written, as proto3 does
+    private void writeField(int number, Number value) {
+        if (value != null) {
+            writeField(number, value.longValue());
+        }
+    }
+
+    private void writeField(int number, LocalDateTime value) {
+        if (value != null) {
+            writeField(number, value.toEpochSecond(ZoneOffset.UTC));
+        }
+    }
+
+    private void writeField(int number, long value) {
+        if (value != 0) {
+            writeKey(number, VARINT);
+            writeVarint(value);
+        }
+    }
+
+    private void writeKey(int number, int wireType) {
+        bytes[position++] = (byte) (number << 3 | wireType);
+    }
+
+    // the negative values are written as the 10 bytes of their two's complement, as protobuf does for int32 and int64
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+    }
+
+    private static int fieldSize(Number value) {
+        return value == null ? 0 : fieldSize(value.longValue());
+    }
+
+    private static int fieldSize(LocalDateTime value) {
+        return value == null ? 0 : fieldSize(value.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static int fieldSize(long value) {
+        return value == 0 ? 0 : KEY_SIZE + varintSize(value);
+    }
+
+    private static int varintSize(long value) {
+        return value < 0 ? 10 : (Long.SIZE - Long.numberOfLeadingZeros(value | 1) + 6) / 7;
+    }
+}
@@ -0,0 +1,59 @@
+package com.capitole.pricingservice.adapter.in.rest.dto;
+
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+@Schema(name = "priceQuery", description = "A price to resolve", example = "{\"brandId\":1,\"productId\":35455,\"applicationDate\":\"2020-06-14 10:00:00\"}")
+public record PriceQueryDTO(
+        @Schema(description = "brand id", requiredMode = Schema.RequiredMode.REQUIRED)
+        Integer brandId,
+        @Schema(description = "product id", requiredMode = Schema.RequiredMode.REQUIRED)
+        Long productId,
+        @Schema(description = "application date - yyyy-MM-dd HH:mm:ss", requiredMode = Schema.RequiredMode.REQUIRED)
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        LocalDateTime applicationDate
+) {
+
+    public PriceQuery toPriceQuery() {
+        return new PriceQuery(this.applicationDate, this.brandId, this.productId);
+    }
+
+    /**
+     * Parses the applicationDate request parameter, formatted as yyyy-MM-dd HH:mm:ss.
+     *
+     * <p>The fixed-width format is parsed by hand, a {@link java.time.format.DateTimeFormatter} allocates its parsing
+     * context on every call.
+     *
+     * @throws DateTimeParseException if the text is not a valid date and time in that format
+     */
+    public static LocalDateTime parseApplicationDate(String applicationDate) {
+        if (applicationDate.length() != 19
+                || applicationDate.charAt(4) != '-' || applicationDate.charAt(7) != '-' || applicationDate.charAt(10) != ' '
+                || applicationDate.charAt(13) != ':' || applicationDate.charAt(16) != ':') {
+            throw new DateTimeParseException("Text '" + applicationDate + "' could not be parsed as yyyy-MM-dd HH:mm:ss", applicationDate, 0);
+        }
+        try {
+            return LocalDateTime.of(parseDigits(applicationDate, 0, 4), parseDigits(applicationDate, 5, 2), parseDigits(applicationDate, 8, 2),
+                    parseDigits(applicationDate, 11, 2), parseDigits(applicationDate, 14, 2), parseDigits(applicationDate, 17, 2));
+        } catch (DateTimeException e) {
+            throw new DateTimeParseException("Text '" + applicationDate + "' could not be parsed: " + e.getMessage(), applicationDate, 0, e);
+        }
+    }
+
+    private static int parseDigits(String text, int from, int length) {
+        int value = 0;
+        for (int i = from; i < from + length; i++) {
+            char digit = text.charAt(i);
+            if (digit < '0' || digit > '9') {
+                throw new DateTimeParseException("Text '" + text + "' could not be parsed at index " + i, text, i);
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+}
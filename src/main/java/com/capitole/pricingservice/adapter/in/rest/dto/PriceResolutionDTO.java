@@ -0,0 +1,24 @@
+package com.capitole.pricingservice.adapter.in.rest.dto;
+
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "priceResolution", description = "The result of resolving a price, the price is not present when it has not been found",
+        example = "{\"brandId\":1,\"productId\":35455,\"applicationDate\":\"2020-06-14 10:00:00\",\"found\":true,\"price\":{\"productId\": 35455,\"brandId\": 1,\"priceList\": 1,\"startDate\": \"2020-06-14 00:00:00\",\"endDate\": \"2020-12-31 23:59:59\",\"price\": 35.50,\"currency\":\"EUR\"}}")
+public record PriceResolutionDTO(Integer brandId, Long productId,
+                                 @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                                 LocalDateTime applicationDate,
+                                 boolean found, PriceDTO price) {
+
+    public static PriceResolutionDTO toPriceResolutionDTO(PriceQuery priceQuery, Optional<PriceSummary> price) {
+        return new PriceResolutionDTO(priceQuery.brandId(), priceQuery.productId(), priceQuery.applicationTime(),
+                price.isPresent(), price.map(PriceDTO::toPriceDTO).orElse(null));
+    }
+}
@@ -0,0 +1,23 @@
+package com.capitole.pricingservice.adapter.in.rest.dto;
+
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(name = "priceSegment", description = "A period of the price timeline, both dates included, and the price that wins in it",
+        example = "{\"from\":\"2020-06-14 15:00:00\",\"to\":\"2020-06-14 18:30:00\",\"price\":{\"productId\": 35455,\"brandId\": 1,\"priceList\": 2,\"startDate\": \"2020-06-14 15:00:00\",\"endDate\": \"2020-06-14 18:30:00\",\"price\": 25.45,\"currency\":\"EUR\"}}")
+public record PriceSegmentDTO(@JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                              LocalDateTime from,
+                              @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+                              LocalDateTime to,
+                              PriceDTO price) {
+
+    public static PriceSegmentDTO toPriceSegmentDTO(PriceTimeline.Segment segment) {
+        // the end of a segment is exclusive, it is sent inclusive as the end dates of the prices
+        return new PriceSegmentDTO(segment.from(), segment.to().minusSeconds(1),
+                PriceDTO.toPriceDTO(PriceSummary.from(segment.price())));
+    }
+}
@@ -5,10 +5,11 @@ import com.capitole.pricingservice.application.port.in.model.PriceCreateCommand;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 
-@Schema(name = "priceToCreate", description = "A price to create",example= "{\"brandId\":1,\"productId\":35455,\"priceList\":1,\"startDate\":\"2020-06-14 00:00:00\",\"endDate\":\"2020-12-31 23:59:59\",\"price\":35.5,\"currency\":\"EUR\"}")
+@Schema(name = "priceToCreate", description = "A price to create",example= "{\"brandId\":1,\"productId\":35455,\"priceList\":1,\"startDate\":\"2020-06-14 00:00:00\",\"endDate\":\"2020-12-31 23:59:59\",\"price\":35.50,\"currency\":\"EUR\"}")
 public record PriceToCreateDTO(
         @Schema(description = "brand id", requiredMode = Schema.RequiredMode.REQUIRED)
         Integer brandId,
@@ -22,8 +23,8 @@ public record PriceToCreateDTO(
         @Schema(description = "end date of the price - yyyy-MM-dd HH:mm:ss", requiredMode = Schema.RequiredMode.REQUIRED)
         @JsonFormat(pattern="yyyy-MM-dd HH:mm:ss")
         LocalDateTime endDate,
-        @Schema(description = "price", requiredMode = Schema.RequiredMode.REQUIRED)
-        Double price,
+        @Schema(description = "price, with no more decimals than the minor unit of the currency", requiredMode = Schema.RequiredMode.REQUIRED)
+        BigDecimal price,
         @Schema(description = "currency code", requiredMode = Schema.RequiredMode.REQUIRED)
         String currency
 ) {
@@ -37,9 +38,10 @@ public record PriceToCreateDTO(
             throw new IllegalArgumentException("Start date must be before end date.");
         }
 
+        CurrencyEnum currency = CurrencyEnum.fromCode(this.currency);
         return new PriceCreateCommand(this.brandId, this.productId,
                 this.startDate, this.endDate, this.priceList,
-                this.price, CurrencyEnum.fromCode(this.currency));
+                this.price == null ? null : currency.toMinorUnits(this.price), currency);
     }
 
 }
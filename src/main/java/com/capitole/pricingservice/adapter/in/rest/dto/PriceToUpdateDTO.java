@@ -5,10 +5,11 @@ import com.capitole.pricingservice.application.port.in.model.PriceUpdateCommand;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 
-@Schema(name = "priceToUpdate", description = "A price to update",example= "{\"brandId\":1,\"productId\":35455,\"priceList\":1,\"startDate\":\"2020-06-14 00:00:00\",\"endDate\":\"2020-12-31 23:59:59\",\"price\":35.5,\"currency\":\"EUR\"}")
+@Schema(name = "priceToUpdate", description = "A price to update",example= "{\"brandId\":1,\"productId\":35455,\"priceList\":1,\"startDate\":\"2020-06-14 00:00:00\",\"endDate\":\"2020-12-31 23:59:59\",\"price\":35.50,\"currency\":\"EUR\",\"version\":0}")
 public record PriceToUpdateDTO(
         @Schema(description = "brand id", requiredMode = Schema.RequiredMode.REQUIRED)
         Integer brandId,
@@ -22,10 +23,12 @@ public record PriceToUpdateDTO(
         @Schema(description = "end date of the price - yyyy-MM-dd HH:mm:ss", requiredMode = Schema.RequiredMode.REQUIRED)
         @JsonFormat(pattern="yyyy-MM-dd HH:mm:ss")
         LocalDateTime endDate,
-        @Schema(description = "price", requiredMode = Schema.RequiredMode.REQUIRED)
-        Double price,
+        @Schema(description = "price, with no more decimals than the minor unit of the currency", requiredMode = Schema.RequiredMode.REQUIRED)
+        BigDecimal price,
         @Schema(description = "currency code", requiredMode = Schema.RequiredMode.REQUIRED)
-        String currency
+        String currency,
+        @Schema(description = "version of the price the update is based on, as returned when it was created or last updated", requiredMode = Schema.RequiredMode.REQUIRED)
+        Long version
 ) {
 
 
@@ -36,9 +39,10 @@ public record PriceToUpdateDTO(
         if (this.startDate.isAfter(this.endDate))
             throw new IllegalArgumentException("Start date must be before end date.");
 
+        CurrencyEnum currency = CurrencyEnum.fromCode(this.currency);
         return new PriceUpdateCommand(id,this.brandId, this.productId,
                 this.startDate, this.endDate, this.priceList,
-                this.price, CurrencyEnum.fromCode(this.currency));
+                this.price == null ? null : currency.toMinorUnits(this.price), currency, this.version);
     }
 }
 
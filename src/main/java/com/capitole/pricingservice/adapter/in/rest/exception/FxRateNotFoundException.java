@@ -0,0 +1,7 @@
+package com.capitole.pricingservice.adapter.in.rest.exception;
+
+public class FxRateNotFoundException extends RuntimeException {
+    public FxRateNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.capitole.pricingservice.adapter.in.rest.exception;
+
+// thrown once the export has sent its status and first prices, when no error can be written in their place
+public class PriceExportAbortedException extends RuntimeException {
+    public PriceExportAbortedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -6,12 +6,16 @@ import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebInputException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
 import java.time.format.DateTimeParseException;
@@ -20,6 +24,9 @@ import java.time.format.DateTimeParseException;
  *
  * <p>This class is used to handle exceptions that are thrown by beans annotated with {@link org.springframework.web.bind.annotation.RestController}.
  *
+ * <p>Every error is sent with an explicit JSON content type, so it is written whatever the Accept header of the
+ * request, as the ones of the export, which may be answered with CSV or NDJSON, or of the protobuf bodies.
+ *
  * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
  * @see RestControllerAdvice
  */
@@ -38,14 +45,16 @@ class RestExceptionAdvise {
                 .details(e.getMessage())
                 .build();
         logger.warn("Invalid date format. exception: {}",e.getMessage());
-        return ResponseEntity.badRequest().body(errorResponse);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errorResponse);
     }
 
     @ExceptionHandler({
             IllegalArgumentException.class,
             ConstraintViolationException.class,
             MissingServletRequestParameterException.class,
-            HttpMessageNotReadableException.class
+            HttpMessageNotReadableException.class,
+            // missing or invalid request input in the reactive stack
+            ServerWebInputException.class
     })
     public ResponseEntity<ErrorResponseDTO> handleBadRequestExceptions(Exception e) {
         ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
@@ -54,19 +63,31 @@ class RestExceptionAdvise {
                                                          .details(e.getMessage())
                                                          .build();
         logger.warn("Invalid request. exception: {}",e.getMessage());
-        return ResponseEntity.badRequest().body(errorResponse);
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errorResponse);
     }
 
 
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleHttpMediaTypeNotSupportedException(HttpMediaTypeNotSupportedException e) {
+        ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .message("Unsupported media type.")
+                .code(HttpStatus.UNSUPPORTED_MEDIA_TYPE.name())
+                .details(e.getMessage())
+                .build();
+        logger.warn("Unsupported media type. exception: {}",e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+    }
+
+    // the reactive stack, only built with the reactive Maven profile, has its own in ReactiveRestExceptionAdvise
     @ExceptionHandler(NoResourceFoundException.class)
-    public ResponseEntity<ErrorResponseDTO> handleNoResourceFoundException(NoResourceFoundException e) {
+    public ResponseEntity<ErrorResponseDTO> handleNoResourceFoundException(Exception e) {
         ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
                 .message("Resource not found.")
                 .code(HttpStatus.NOT_FOUND.name())
                 .details(e.getMessage())
                 .build();
         logger.warn("Resource not found. exception: {}",e.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
     }
 
     @ExceptionHandler(PriceNotFoundException.class)
@@ -77,9 +98,37 @@ class RestExceptionAdvise {
                 .details(e.getMessage())
                 .build();
         logger.warn("Price not found. exception: {}",e.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+    }
+
+    @ExceptionHandler(FxRateNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleFxRateNotFoundException(FxRateNotFoundException e) {
+        ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .message("Exchange rate not found.")
+                .code(HttpStatus.NOT_FOUND.name())
+                .details(e.getMessage())
+                .build();
+        logger.warn("Exchange rate not found. exception: {}",e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponseDTO> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .message("The price has been updated since the version sent.")
+                .code(HttpStatus.CONFLICT.name())
+                .details(e.getMessage())
+                .build();
+        logger.warn("Price update conflict. exception: {}",e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+    }
+
+    // the export has already sent its status and first prices, an error body would be appended to them: rethrown, the
+    // exception reaches the servlet container, which closes the connection of the committed response
+    @ExceptionHandler(PriceExportAbortedException.class)
+    public void handlePriceExportAbortedException(PriceExportAbortedException e) {
+        throw e;
+    }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDTO> handleException(Exception e) {
@@ -89,7 +138,7 @@ class RestExceptionAdvise {
                 .details(e.getMessage())
                 .build();
         logger.error("An unexpected error occurred. exception: {}",e.getMessage());
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
     }
 
 }
@@ -0,0 +1,49 @@
+package com.capitole.pricingservice.adapter.out.event;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.PriceChange;
+import com.capitole.pricingservice.application.port.out.PriceChangeListener;
+import com.capitole.pricingservice.application.port.out.PriceChangePublisher;
+import com.capitole.pricingservice.common.annotation.EventAdapter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implementation of the {@link PriceChangePublisher} port that delivers the changes in process, to the
+ * {@link PriceChangeListener}s of this instance.
+ *
+ * <p>Every instance relays the changes of the shared outbox itself, so delivering them locally is enough to reach
+ * the copies of the prices of every replica, with no broker in between. The changes of a publication are delivered
+ * as a single set of brands and products, so a listener reloads each of them once. A listener failing makes the
+ * publication fail, and the relay publishes the same changes again.
+ *
+ * <p>It is enabled with {@code pricing.changes.transport=local}, the default.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceChangePublisher
+ * @see PriceChangeListener
+ */
+@EventAdapter
+@ConditionalOnProperty(name = "pricing.changes.transport", havingValue = "local", matchIfMissing = true)
+class LocalPriceChangePublisher implements PriceChangePublisher {
+
+    private final ObjectProvider<PriceChangeListener> listeners;
+
+    LocalPriceChangePublisher(ObjectProvider<PriceChangeListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void publish(List<PriceChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Set<BrandProductKey> keys = new LinkedHashSet<>();
+        changes.forEach(change -> keys.add(change.key()));
+        listeners.orderedStream().forEach(listener -> listener.onPriceChanges(keys));
+    }
+}
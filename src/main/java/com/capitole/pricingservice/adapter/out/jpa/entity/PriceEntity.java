@@ -5,39 +5,54 @@ import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "PRICES")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = PriceEntity.CACHE_REGION)
+@Table(name = "PRICES", indexes = {
+        @Index(name = "IDX_PRICES_LOOKUP", columnList = "BRAND_ID, PRODUCT_ID, START_DATE, END_DATE, PRIORITY DESC")
+})
 @EqualsAndHashCode
 @Getter
 @NoArgsConstructor
 public class PriceEntity {
 
+    // regions of the second-level cache: the prices by id, and the results of the queries looking them up by brand
+    // and product
+    public static final String CACHE_REGION = "price";
+    public static final String LOOKUP_CACHE_REGION = "price-lookup";
+
     @Id
     @Column(name = "ID")
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    @Column(name = "BRAND_ID")
+    @Column(name = "BRAND_ID", nullable = false)
     private Integer brandId;
-    @Column(name = "PRODUCT_ID")
+    @Column(name = "PRODUCT_ID", nullable = false)
     private Long productId;
-    @Column(name = "PRICE_LIST")
+    @Column(name = "PRICE_LIST", nullable = false)
     private Integer priceList;
-    @Column(name = "PRIORITY")
+    @Column(name = "PRIORITY", nullable = false)
     private Integer priority;
-    @Column(name = "START_DATE")
+    @Column(name = "START_DATE", nullable = false)
     private LocalDateTime startDate;
-    @Column(name = "END_DATE")
+    @Column(name = "END_DATE", nullable = false)
     private LocalDateTime endDate;
-    @Column(name = "PRICE")
-    private Double price;
-    @Column(name = "CURR")
+    // in minor units of the currency
+    @Column(name = "PRICE", nullable = false)
+    private long price;
+    @Column(name = "CURR", nullable = false, length = 3)
     private String currency;
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private Long version;
 
     public PriceEntity(Long id, Integer brandId, Long productId, Integer priceList, Integer prority,
-                       LocalDateTime startDate, LocalDateTime endDate, Double price, String currency) {
+                       LocalDateTime startDate, LocalDateTime endDate, long price, String currency, Long version) {
         this.id = id;
         this.brandId = brandId;
         this.productId = productId;
@@ -47,6 +62,7 @@ public class PriceEntity {
         this.endDate = endDate;
         this.price = price;
         this.currency = currency;
+        this.version = version;
     }
 
 }
@@ -16,7 +16,7 @@ public class PriceEntityMapper {
         return new Price(priceEntity.getId(), priceEntity.getBrandId(), priceEntity.getProductId(),
                 priceEntity.getStartDate(), priceEntity.getEndDate(), priceEntity.getPriceList(),
                 priceEntity.getPrice(), CurrencyEnum.fromCode(priceEntity.getCurrency()),
-                priceEntity.getPriority());
+                priceEntity.getPriority(), priceEntity.getVersion());
     }
 
 
@@ -24,6 +24,6 @@ public class PriceEntityMapper {
         return new PriceEntity(price.getId(), price.getBrandId(), price.getProductId(),
                 price.getPriceList(), price.getPriority(), price.getStartDate(),
                 price.getEndDate(), price.getPrice(), price.getCurrency()
-                                                           .toString());
+                                                           .toString(), price.getVersion());
     }
 }
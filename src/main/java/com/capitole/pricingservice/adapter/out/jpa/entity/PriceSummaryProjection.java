@@ -9,6 +9,6 @@ public interface PriceSummaryProjection {
     Integer getPriceList();
     LocalDateTime getStartDate();
     LocalDateTime getEndDate();
-    Double getPrice();
+    long getPrice();
     String getCurrency();
 }
\ No newline at end of file
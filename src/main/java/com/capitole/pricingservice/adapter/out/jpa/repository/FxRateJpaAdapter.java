@@ -0,0 +1,109 @@
+package com.capitole.pricingservice.adapter.out.jpa.repository;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+import com.capitole.pricingservice.application.port.out.FxRateRepository;
+import com.capitole.pricingservice.common.annotation.JpaAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of the {@link FxRateRepository} port on the {@code FX_RATES} table, with JDBC.
+ *
+ * <p>It is the system of record of the rates, loaded and kept in memory by the {@code FxRateInMemoryAdapter}, which
+ * answers the lookups.
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.repository.query} - Timer of the database reads, tagged with the {@code query}
+ *   (fx-rate-lookup, fx-rate-all).</li>
+ *   <li>{@code pricing.repository.write} - Timer of the database writes, tagged with the {@code operation}
+ *   (fx-rate-replace).</li>
+ * </ul>
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see FxRateRepository
+ */
+@JpaAdapter
+class FxRateJpaAdapter implements FxRateRepository {
+
+    private static final String SELECT_RATES = "SELECT BASE_CURR, QUOTE_CURR, START_DATE, END_DATE, RATE FROM FX_RATES";
+
+    private static final String SELECT_RATE_AT = SELECT_RATES + """
+
+            WHERE BASE_CURR = ? AND QUOTE_CURR = ? AND START_DATE <= ? AND END_DATE >= ?""";
+
+    private static final String INSERT_RATE = "INSERT INTO FX_RATES (BASE_CURR, QUOTE_CURR, START_DATE, END_DATE, RATE) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Timer lookupQuery;
+    private final Timer allQuery;
+    private final Timer replace;
+
+    FxRateJpaAdapter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lookupQuery = timer("pricing.repository.query", "query", "fx-rate-lookup", meterRegistry);
+        this.allQuery = timer("pricing.repository.query", "query", "fx-rate-all", meterRegistry);
+        this.replace = timer("pricing.repository.write", "operation", "fx-rate-replace", meterRegistry);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<FxRate> findRate(CurrencyEnum baseCurrency, CurrencyEnum quoteCurrency, LocalDateTime applicationDate) {
+        return lookupQuery.record(() -> findRateAt(baseCurrency, quoteCurrency, applicationDate)
+                .or(() -> findRateAt(quoteCurrency, baseCurrency, applicationDate).map(FxRate::inverse)));
+    }
+
+    private Optional<FxRate> findRateAt(CurrencyEnum baseCurrency, CurrencyEnum quoteCurrency, LocalDateTime applicationDate) {
+        Timestamp timestamp = Timestamp.valueOf(applicationDate);
+        return jdbcTemplate.query(SELECT_RATE_AT, (resultSet, row) -> toFxRate(resultSet),
+                                   baseCurrency.name(), quoteCurrency.name(), timestamp, timestamp)
+                           .stream()
+                           .findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<FxRate> findAll() {
+        return allQuery.record(() -> jdbcTemplate.query(SELECT_RATES, (resultSet, row) -> toFxRate(resultSet)));
+    }
+
+    @Override
+    @Transactional
+    public void replaceAll(List<FxRate> rates) {
+        replace.record(() -> {
+            jdbcTemplate.update("DELETE FROM FX_RATES");
+            if (!rates.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_RATE, rates, rates.size(), (statement, rate) -> {
+                    statement.setString(1, rate.baseCurrency().name());
+                    statement.setString(2, rate.quoteCurrency().name());
+                    statement.setTimestamp(3, Timestamp.valueOf(rate.startDate()));
+                    statement.setTimestamp(4, Timestamp.valueOf(rate.endDate()));
+                    statement.setDouble(5, rate.rate());
+                });
+            }
+        });
+    }
+
+    private static FxRate toFxRate(ResultSet resultSet) throws SQLException {
+        return new FxRate(CurrencyEnum.fromCode(resultSet.getString("BASE_CURR")), CurrencyEnum.fromCode(resultSet.getString("QUOTE_CURR")),
+                resultSet.getObject("START_DATE", LocalDateTime.class), resultSet.getObject("END_DATE", LocalDateTime.class),
+                resultSet.getDouble("RATE"));
+    }
+
+    private static Timer timer(String name, String tag, String value, MeterRegistry meterRegistry) {
+        return Timer.builder(name)
+                    .tag(tag, value)
+                    .register(meterRegistry);
+    }
+}
@@ -0,0 +1,92 @@
+package com.capitole.pricingservice.adapter.out.jpa.repository;
+
+import com.capitole.pricingservice.adapter.out.jpa.entity.PriceEntity;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Configuration of the second-level cache of Hibernate used by the {@link PriceJpaAdapter}, on Caffeine through
+ * JCache.
+ *
+ * <p>It has two regions, each one bounded to a maximum number of entries evicted by Caffeine with its size-based
+ * policy (W-TinyLFU, the least frequently used first) and expiring after write:
+ * <ul>
+ *   <li>{@value PriceEntity#CACHE_REGION} - The {@link PriceEntity}s by id, read by {@code findById}, sized by
+ *   {@code pricing.jpa.cache.price.maximum-size} and {@code pricing.jpa.cache.price.expire-after-write}.</li>
+ *   <li>{@value PriceEntity#LOOKUP_CACHE_REGION} - The results of the queries of the prices of a brand and product,
+ *   sized by {@code pricing.jpa.cache.lookup.maximum-size} and {@code pricing.jpa.cache.lookup.expire-after-write}.
+ *   The entities of the results are held by the {@value PriceEntity#CACHE_REGION} region.</li>
+ * </ul>
+ * The cached query results are discarded once the {@code PRICES} table is written, as Hibernate tracks in the update
+ * timestamps region, which is never evicted. The cache manager is owned by the configuration instead of being the
+ * default one of the provider, shared by every application context of the JVM.
+ *
+ * <p>Hit, miss and eviction counters of every region are registered in the {@link MeterRegistry} under its name.
+ * The cache is enabled with {@code pricing.jpa.cache.enabled}, off by default since every write evicts all the cached
+ * lookups.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceJpaAdapter
+ */
+@Configuration
+class PriceCacheConfiguration {
+
+    @Bean(destroyMethod = "close")
+    CacheManager priceCacheManager(@Value("${pricing.jpa.cache.price.maximum-size}") long priceMaximumSize,
+                                   @Value("${pricing.jpa.cache.price.expire-after-write}") Duration priceExpireAfterWrite,
+                                   @Value("${pricing.jpa.cache.lookup.maximum-size}") long lookupMaximumSize,
+                                   @Value("${pricing.jpa.cache.lookup.expire-after-write}") Duration lookupExpireAfterWrite,
+                                   MeterRegistry meterRegistry) {
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+        createRegion(cacheManager, PriceEntity.CACHE_REGION, bounded(priceMaximumSize, priceExpireAfterWrite), meterRegistry);
+        createRegion(cacheManager, PriceEntity.LOOKUP_CACHE_REGION, bounded(lookupMaximumSize, lookupExpireAfterWrite), meterRegistry);
+        // created by hibernate along with the query cache, none of the queries is cached in it
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded(1, lookupExpireAfterWrite), meterRegistry);
+        // the time of the last write of each table, one entry per table, must outlive the query results checked against it
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>(), meterRegistry);
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer priceCacheProperties(CacheManager priceCacheManager,
+                                                       @Value("${pricing.jpa.cache.enabled}") boolean enabled) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, priceCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maximumSize, Duration expireAfterWrite) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        return configuration;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void createRegion(CacheManager cacheManager, String name, CaffeineConfiguration<Object, Object> configuration,
+                                     MeterRegistry meterRegistry) {
+        configuration.setNativeStatisticsEnabled(true);
+        // hibernate caches the immutable disassembled state of the entities, not worth copying on every read and write
+        configuration.setStoreByValue(false);
+        Cache<Object, Object> region = cacheManager.createCache(name, configuration);
+        CaffeineCacheMetrics.monitor(meterRegistry, region.unwrap(com.github.benmanes.caffeine.cache.Cache.class), name);
+    }
+}
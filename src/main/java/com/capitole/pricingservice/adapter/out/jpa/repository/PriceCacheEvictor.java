@@ -0,0 +1,75 @@
+package com.capitole.pricingservice.adapter.out.jpa.repository;
+
+import com.capitole.pricingservice.adapter.out.jpa.entity.PriceEntity;
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.port.out.PriceChangeListener;
+import com.capitole.pricingservice.common.annotation.JpaAdapter;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+
+/**
+ * Evicts from the second-level cache of the {@link PriceCacheConfiguration} the prices Hibernate doesn't know have
+ * been written: the ones written through JDBC by the {@link PriceJpaAdapter}, and the ones written by other instances
+ * of the service, relayed to it as a {@link PriceChangeListener}.
+ *
+ * <p>It is the first listener notified, so the adapters reloading the prices of a change read them from the database
+ * rather than from the cache.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceJpaAdapter
+ */
+@JpaAdapter
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class PriceCacheEvictor implements PriceChangeListener {
+
+    private final Cache cache;
+
+    PriceCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache();
+    }
+
+    /**
+     * Evicts all the prices and the cached queries, the ids of the prices written by another instance are unknown.
+     */
+    @Override
+    public void onPriceChanges(Set<BrandProductKey> keys) {
+        cache.evict(PriceEntity.class);
+        evictLookups();
+    }
+
+    /**
+     * Evicts a price written through JDBC, if any, and the cached queries, once the transaction commits: until then,
+     * the queries of other transactions would cache the price before the write again.
+     *
+     * @param id the id of the price updated, or null if the prices have been inserted
+     */
+    void evictAfterCommit(Long id) {
+        Runnable evict = () -> {
+            if (id != null) {
+                cache.evict(PriceEntity.class, id);
+            }
+            evictLookups();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    private void evictLookups() {
+        cache.unwrap(org.hibernate.Cache.class)
+             .evictQueryRegion(PriceEntity.LOOKUP_CACHE_REGION);
+    }
+}
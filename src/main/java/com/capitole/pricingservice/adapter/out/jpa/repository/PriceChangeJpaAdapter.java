@@ -0,0 +1,113 @@
+package com.capitole.pricingservice.adapter.out.jpa.repository;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.PriceChange;
+import com.capitole.pricingservice.application.port.out.PriceChangeOutbox;
+import com.capitole.pricingservice.common.annotation.JpaAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of the {@link PriceChangeOutbox} port on the {@code PRICE_CHANGES} table, with JDBC.
+ *
+ * <p>Each change is a row with the brand and product written, inserted in the transaction of the write and stamped
+ * with the {@code pricing.changes.instance-id} of this instance, a random one when it is not set, so the relay of
+ * each instance can tell the changes it already applied to its own copies of the prices.
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.repository.query} - Timer of the database reads, tagged with the {@code query}
+ *   (changes).</li>
+ *   <li>{@code pricing.repository.write} - Timer of the database writes, tagged with the {@code operation}
+ *   (change-append, change-purge).</li>
+ * </ul>
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceChangeOutbox
+ */
+@JpaAdapter
+class PriceChangeJpaAdapter implements PriceChangeOutbox {
+
+    private static final String INSERT_CHANGE = "INSERT INTO PRICE_CHANGES (BRAND_ID, PRODUCT_ID, ORIGIN, CREATED_AT) VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_CHANGES = """
+            SELECT ID, BRAND_ID, PRODUCT_ID, ORIGIN, CREATED_AT FROM PRICE_CHANGES
+            WHERE ID > ? OR CREATED_AT >= ?
+            ORDER BY ID""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String instanceId;
+
+    private final Clock clock;
+
+    private final Timer changesQuery;
+    private final Timer append;
+    private final Timer purge;
+
+    PriceChangeJpaAdapter(JdbcTemplate jdbcTemplate,
+                          @Value("${pricing.changes.instance-id:}") String instanceId,
+                          Clock clock,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.instanceId = instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.clock = clock;
+        this.changesQuery = timer("pricing.repository.query", "query", "changes", meterRegistry);
+        this.append = timer("pricing.repository.write", "operation", "change-append", meterRegistry);
+        this.purge = timer("pricing.repository.write", "operation", "change-purge", meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public void append(Collection<BrandProductKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        append.record(() -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now(clock));
+            List<Object[]> changes = new ArrayList<>(keys.size());
+            for (BrandProductKey key : new LinkedHashSet<>(keys)) {
+                changes.add(new Object[]{key.brandId(), key.productId(), instanceId, now});
+            }
+            jdbcTemplate.batchUpdate(INSERT_CHANGE, changes);
+        });
+    }
+
+    @Override
+    public String origin() {
+        return instanceId;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PriceChange> findChanges(long afterId, LocalDateTime createdSince) {
+        return changesQuery.record(() -> jdbcTemplate.query(SELECT_CHANGES, (resultSet, row) -> new PriceChange(resultSet.getLong("ID"),
+                new BrandProductKey(resultSet.getInt("BRAND_ID"), resultSet.getLong("PRODUCT_ID")),
+                resultSet.getString("ORIGIN"), resultSet.getObject("CREATED_AT", LocalDateTime.class)),
+                afterId, Timestamp.valueOf(createdSince)));
+    }
+
+    @Override
+    @Transactional
+    public int deleteBefore(LocalDateTime createdBefore) {
+        return purge.record(() -> jdbcTemplate.update("DELETE FROM PRICE_CHANGES WHERE CREATED_AT < ?", Timestamp.valueOf(createdBefore)));
+    }
+
+    private static Timer timer(String name, String tag, String value, MeterRegistry meterRegistry) {
+        return Timer.builder(name)
+                    .tag(tag, value)
+                    .register(meterRegistry);
+    }
+}
@@ -1,14 +1,36 @@
 package com.capitole.pricingservice.adapter.out.jpa.repository;
 
+import com.capitole.pricingservice.adapter.out.jpa.entity.PriceEntity;
 import com.capitole.pricingservice.adapter.out.jpa.entity.PriceEntityMapper;
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
 import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
 import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
 import com.capitole.pricingservice.application.port.out.PriceRepository;
 import com.capitole.pricingservice.common.annotation.JpaAdapter;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the {@link PriceRepository} port using a JPA repository.
@@ -18,17 +40,131 @@ import java.util.Optional;
  *
  * <p>It implements the {@link PriceRepository} port.out interface and is annotated with the {@link JpaAdapter} annotation.
  *
+ * <p>The prices by id and the prices of a brand and product are read through the second-level cache of the
+ * {@link PriceCacheConfiguration}. Hibernate keeps it fresh on the writes made through it, and the adapter evicts the
+ * prices written through JDBC, and the cached queries, with the {@link PriceCacheEvictor} once their transaction
+ * commits.
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.repository.query} - Timer of the database reads, tagged with the {@code query} (lookup,
+ *   segment, brand-product, range, date-ranges, date-range, id, all, export). The export only times the opening of its cursor.</li>
+ *   <li>{@code pricing.repository.mapping} - Timer of the mapping of the entities read to the domain model, tagged
+ *   with the {@code query}.</li>
+ *   <li>{@code pricing.repository.write} - Timer of the database writes, tagged with the {@code operation} (save,
+ *   save-all, update).</li>
+ * </ul>
+ *
  * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
  * @see PriceRepository
  * @see JpaAdapter
  * @see PriceJpaRepository
  */
-@RequiredArgsConstructor
 @JpaAdapter
 class PriceJpaAdapter implements PriceRepository {
 
+    private static final String INSERT_PRICE = "INSERT INTO PRICES (BRAND_ID, PRODUCT_ID, PRICE_LIST, PRIORITY, START_DATE, END_DATE, PRICE, CURR) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_PRICE = """
+            UPDATE PRICES SET BRAND_ID = ?, PRODUCT_ID = ?, PRICE_LIST = ?, START_DATE = ?, END_DATE = ?, PRICE = ?, CURR = ?, VERSION = VERSION + 1
+            WHERE ID = ? AND VERSION = ?""";
+
+    private static final String PRICE_COLUMNS = "ID, BRAND_ID, PRODUCT_ID, PRICE_LIST, PRIORITY, START_DATE, END_DATE, PRICE, CURR, VERSION";
+
+    // the update returning the replaced row in the same statement, on the databases that can: the previous
+    // brand/product, the priority, which is kept, and a row at all, which tells the update has happened
+    private static final String H2_UPDATE_PRICE_RETURNING_PREVIOUS = "SELECT " + PRICE_COLUMNS + " FROM OLD TABLE (" + UPDATE_PRICE + ")";
+
+    // the joined row is read from the snapshot of the statement, before the update
+    private static final String POSTGRESQL_UPDATE_PRICE_RETURNING_PREVIOUS = """
+            UPDATE PRICES P SET BRAND_ID = ?, PRODUCT_ID = ?, PRICE_LIST = ?, START_DATE = ?, END_DATE = ?, PRICE = ?, CURR = ?, VERSION = P.VERSION + 1
+            FROM PRICES O WHERE P.ID = ? AND P.VERSION = ? AND O.ID = P.ID
+            RETURNING O.ID, O.BRAND_ID, O.PRODUCT_ID, O.PRICE_LIST, O.PRIORITY, O.START_DATE, O.END_DATE, O.PRICE, O.CURR, O.VERSION""";
+
+    private static final String SELECT_PRICES = "SELECT " + PRICE_COLUMNS + " FROM PRICES";
+
+    private static final String SELECT_PRICE = SELECT_PRICES + " WHERE ID = ?";
+
+    // keeps the number of parameters of the date ranges queries bounded
+    static final int MAX_RANGES_PER_QUERY = 500;
+
+    private static final String SELECT_PRICES_IN_RANGES = """
+            SELECT P.ID, P.BRAND_ID, P.PRODUCT_ID, P.PRICE_LIST, P.PRIORITY, P.START_DATE, P.END_DATE, P.PRICE, P.CURR, P.VERSION
+            FROM PRICES P JOIN %s AS R (BRAND_ID, PRODUCT_ID, FROM_DATE, TO_DATE)
+            ON P.BRAND_ID = R.BRAND_ID AND P.PRODUCT_ID = R.PRODUCT_ID AND P.START_DATE <= R.TO_DATE AND P.END_DATE >= R.FROM_DATE""";
+
+    // the order of the primary key, the rows are scanned in it without being sorted; in the order of the lookup index
+    // every row would be looked up in the table from its index entry, several times slower for a whole export
+    private static final String ORDER_BY_ID = " ORDER BY ID";
+
+    private static final RowMapper<Price> PRICE_ROW_MAPPER = (resultSet, row) -> new Price(resultSet.getLong("ID"),
+            resultSet.getInt("BRAND_ID"), resultSet.getLong("PRODUCT_ID"), resultSet.getObject("START_DATE", LocalDateTime.class),
+            resultSet.getObject("END_DATE", LocalDateTime.class), resultSet.getInt("PRICE_LIST"), resultSet.getLong("PRICE"),
+            CurrencyEnum.fromCode(resultSet.getString("CURR")), resultSet.getInt("PRIORITY"), resultSet.getLong("VERSION"));
+
     private final PriceJpaRepository priceJpaRepository;
 
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PriceCacheEvictor priceCacheEvictor;
+
+    private final int exportFetchSize;
+
+    // null on the databases whose update cannot return the replaced row
+    private final String updatePriceReturningPrevious;
+
+    // H2 materializes the whole result of a query before returning its first row, unless the lazy execution of the
+    // session is on, which only the export turns on
+    private final boolean lazyQueryExecution;
+
+    private final Timer lookupQuery;
+    private final Timer segmentQuery;
+    private final Timer segmentMapping;
+    private final Timer brandProductQuery;
+    private final Timer brandProductMapping;
+    private final Timer rangeQuery;
+    private final Timer rangeMapping;
+    private final Timer dateRangesQuery;
+    private final Timer dateRangeQuery;
+    private final Timer dateRangeMapping;
+    private final Timer idQuery;
+    private final Timer allQuery;
+    private final Timer allMapping;
+    private final Timer exportQuery;
+    private final Timer save;
+    private final Timer saveAll;
+    private final Timer update;
+
+    PriceJpaAdapter(PriceJpaRepository priceJpaRepository, JdbcTemplate jdbcTemplate,
+                    PriceCacheEvictor priceCacheEvictor,
+                    @Value("${pricing.export.fetch-size}") int exportFetchSize,
+                    MeterRegistry meterRegistry) {
+        this.priceJpaRepository = priceJpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.priceCacheEvictor = priceCacheEvictor;
+        this.exportFetchSize = exportFetchSize;
+        String databaseProductName = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        this.updatePriceReturningPrevious = updatePriceReturningPrevious(databaseProductName);
+        this.lazyQueryExecution = "H2".equals(databaseProductName);
+        this.lookupQuery = timer("pricing.repository.query", "query", "lookup", meterRegistry);
+        this.segmentQuery = timer("pricing.repository.query", "query", "segment", meterRegistry);
+        this.segmentMapping = timer("pricing.repository.mapping", "query", "segment", meterRegistry);
+        this.brandProductQuery = timer("pricing.repository.query", "query", "brand-product", meterRegistry);
+        this.brandProductMapping = timer("pricing.repository.mapping", "query", "brand-product", meterRegistry);
+        this.rangeQuery = timer("pricing.repository.query", "query", "range", meterRegistry);
+        this.rangeMapping = timer("pricing.repository.mapping", "query", "range", meterRegistry);
+        this.dateRangesQuery = timer("pricing.repository.query", "query", "date-ranges", meterRegistry);
+        this.dateRangeQuery = timer("pricing.repository.query", "query", "date-range", meterRegistry);
+        this.dateRangeMapping = timer("pricing.repository.mapping", "query", "date-range", meterRegistry);
+        this.idQuery = timer("pricing.repository.query", "query", "id", meterRegistry);
+        this.allQuery = timer("pricing.repository.query", "query", "all", meterRegistry);
+        this.allMapping = timer("pricing.repository.mapping", "query", "all", meterRegistry);
+        this.exportQuery = timer("pricing.repository.query", "query", "export", meterRegistry);
+        this.save = timer("pricing.repository.write", "operation", "save", meterRegistry);
+        this.saveAll = timer("pricing.repository.write", "operation", "save-all", meterRegistry);
+        this.update = timer("pricing.repository.write", "operation", "update", meterRegistry);
+    }
+
     /**
      * Retrieves the price for a given brand and product at a specific application time.
      *
@@ -38,20 +174,275 @@ class PriceJpaAdapter implements PriceRepository {
      * @return an Optional containing the Price if found, or an empty Optional if not
      */
     @Override
-    public Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(Integer brandId, Long productId, LocalDateTime applicationDate) {
+    @Transactional(readOnly = true)
+    public Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        return lookupQuery.record(() -> priceJpaRepository.findTop1ByBrandIdAndProductIdAndStartDateLessThanEqualAndEndDateGreaterThanEqualOrderByPriorityDesc(brandId, productId, applicationDate, applicationDate))
+                          .map(PriceEntityMapper::toPriceFromSummary);
+    }
+
+    /**
+     * Resolves the segment from the prices of the brand and product overlapping the winning price only, instead of
+     * from all of them, read with a single query: the winner at the application date, and the prices valid at some
+     * point of its period, which tell when it starts and stops winning, as no price outside of it can change that.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PriceTimeline.Segment> getPriceSegmentByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        List<PriceEntity> entities = segmentQuery.record(() -> priceJpaRepository.findOverlappingTheWinner(brandId, productId, applicationDate));
+        if (entities.isEmpty()) {
+            return Optional.empty();
+        }
+        return segmentMapping.record(() -> PriceTimeline.of(toPrices(entities)).segmentAt(applicationDate));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Price> findAllByBrandIdAndProductId(Integer brandId, Long productId) {
+        List<PriceEntity> entities = brandProductQuery.record(() -> priceJpaRepository.findByBrandIdAndProductId(brandId, productId));
+        return brandProductMapping.record(() -> toPrices(entities));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Price> findAllByBrandIdsAndProductIdsAndDateRange(Collection<Integer> brandIds, Collection<Long> productIds,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        List<PriceEntity> entities = rangeQuery.record(() -> priceJpaRepository.findByBrandIdInAndProductIdInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(brandIds, productIds, to, from));
+        return rangeMapping.record(() -> toPrices(entities));
+    }
+
+    /**
+     * Reads the prices of the ranges with JDBC, a query per {@value #MAX_RANGES_PER_QUERY} ranges joining the prices
+     * to the ranges as rows of a {@code VALUES} table: every range reads the rows of its brand and product within its
+     * own dates through the lookup index. A row value {@code (BRAND_ID, PRODUCT_ID) IN (...)} only narrows the index
+     * scan on the brand in H2, reading every price of the brand.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Price> findAllByDateRanges(Collection<BrandProductDateRange> ranges) {
+        List<BrandProductDateRange> all = List.copyOf(ranges);
+        List<Price> prices = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += MAX_RANGES_PER_QUERY) {
+            List<BrandProductDateRange> chunk = all.subList(from, Math.min(from + MAX_RANGES_PER_QUERY, all.size()));
+            String query = selectPricesInRanges(chunk.size());
+            Object[] arguments = rangesArguments(chunk);
+            // mapped row by row by JDBC, which the query timer includes
+            prices.addAll(dateRangesQuery.record(() -> jdbcTemplate.query(query, PRICE_ROW_MAPPER, arguments)));
+        }
+        return prices;
+    }
+
+    private static String selectPricesInRanges(int ranges) {
+        // the casts of the first row type the columns of the table
+        StringJoiner rows = new StringJoiner(", ", "(VALUES ", ")");
+        rows.add("(CAST(? AS INTEGER), CAST(? AS BIGINT), CAST(? AS TIMESTAMP(6)), CAST(? AS TIMESTAMP(6)))");
+        for (int i = 1; i < ranges; i++) {
+            rows.add("(?, ?, ?, ?)");
+        }
+        return SELECT_PRICES_IN_RANGES.formatted(rows);
+    }
 
-        return priceJpaRepository.findTop1ByBrandIdAndProductIdAndStartDateLessThanEqualAndEndDateGreaterThanEqualOrderByPriorityDesc(brandId, productId, applicationDate, applicationDate).
-                                 map(PriceEntityMapper::toPriceFromSummary);
+    private static Object[] rangesArguments(List<BrandProductDateRange> ranges) {
+        Object[] arguments = new Object[ranges.size() * 4];
+        int i = 0;
+        for (BrandProductDateRange range : ranges) {
+            arguments[i++] = range.key().brandId();
+            arguments[i++] = range.key().productId();
+            arguments[i++] = Timestamp.valueOf(range.from());
+            arguments[i++] = Timestamp.valueOf(range.to());
+        }
+        return arguments;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Price> findAllByDateRange(LocalDateTime from, LocalDateTime to) {
+        List<PriceEntity> entities = dateRangeQuery.record(() -> priceJpaRepository.findByStartDateLessThanEqualAndEndDateGreaterThanEqual(to, from));
+        return dateRangeMapping.record(() -> toPrices(entities));
     }
 
     @Override
     public Price save(Price price) {
-        return PriceEntityMapper.toPrice(priceJpaRepository.save(PriceEntityMapper.toPriceEntity(price)));
+        return PriceEntityMapper.toPrice(save.record(() -> priceJpaRepository.save(PriceEntityMapper.toPriceEntity(price))));
+    }
+
+    /**
+     * Updates the price through JDBC with a single {@code UPDATE ... WHERE ID = ? AND VERSION = ?} returning the
+     * replaced row, for its previous brand/product and its priority, which is kept, with no previous read nor lock
+     * held between reading and writing the price. The id is only looked up when no row is updated, to tell a missing
+     * price from a version conflict. On a database whose update cannot return the replaced row, the row is read first
+     * and updated only if it still has the version read.
+     */
+    @Override
+    @Transactional
+    public Optional<UpdatedPrice> update(Price price) {
+        Optional<Price> previous = update.record(() -> updatePriceReturningPrevious == null ? readAndUpdate(price) : updateReturningPrevious(price));
+        if (previous.isEmpty()) {
+            return Optional.empty();
+        }
+        Price before = previous.get();
+        priceCacheEvictor.evictAfterCommit(price.getId());
+        return Optional.of(new UpdatedPrice(before, new Price(price.getId(), price.getBrandId(), price.getProductId(),
+                price.getStartDate(), price.getEndDate(), price.getPriceList(), price.getPrice(), price.getCurrency(),
+                before.getPriority(), before.getVersion() + 1)));
+    }
+
+    private Optional<Price> updateReturningPrevious(Price price) {
+        List<Price> previous = jdbcTemplate.query(updatePriceReturningPrevious, PRICE_ROW_MAPPER, updateArguments(price));
+        if (previous.isEmpty()) {
+            if (priceJpaRepository.existsById(price.getId())) {
+                throw versionConflict(price);
+            }
+            return Optional.empty();
+        }
+        return Optional.of(previous.get(0));
+    }
+
+    // only the row of the version read is updated, so the values read are the ones replaced when a row is updated
+    private Optional<Price> readAndUpdate(Price price) {
+        Optional<Price> read = jdbcTemplate.query(SELECT_PRICE, PRICE_ROW_MAPPER, price.getId())
+                                           .stream()
+                                           .findFirst();
+        if (read.isPresent() && (!read.get().getVersion().equals(price.getVersion())
+                || jdbcTemplate.update(UPDATE_PRICE, updateArguments(price)) == 0)) {
+            throw versionConflict(price);
+        }
+        return read;
+    }
+
+    private static Object[] updateArguments(Price price) {
+        return new Object[]{price.getBrandId(), price.getProductId(), price.getPriceList(), Timestamp.valueOf(price.getStartDate()),
+                Timestamp.valueOf(price.getEndDate()), price.getPrice(), price.getCurrency().toString(), price.getId(),
+                price.getVersion()};
+    }
+
+    private static OptimisticLockingFailureException versionConflict(Price price) {
+        return new OptimisticLockingFailureException("Price " + price.getId() + " has been updated since version " + price.getVersion());
+    }
+
+    static String updatePriceReturningPrevious(String databaseProductName) {
+        return switch (databaseProductName) {
+            case "H2" -> H2_UPDATE_PRICE_RETURNING_PREVIOUS;
+            case "PostgreSQL" -> POSTGRESQL_UPDATE_PRICE_RETURNING_PREVIOUS;
+            default -> null;
+        };
+    }
+
+    /**
+     * Inserts the prices with a single JDBC batch, the IDENTITY id of the entity disables the insert batching of
+     * Hibernate, and reads the generated ids back.
+     *
+     * @param prices the prices to be inserted, without id
+     * @return the inserted prices, with their generated ids, in the same order
+     */
+    @Override
+    @Transactional
+    public List<Price> saveAll(List<Price> prices) {
+        return saveAll.record(() -> jdbcTemplate.execute((ConnectionCallback<List<Price>>) connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_PRICE, new String[]{"ID"})) {
+                for (Price price : prices) {
+                    insert.setInt(1, price.getBrandId());
+                    insert.setLong(2, price.getProductId());
+                    insert.setInt(3, price.getPriceList());
+                    insert.setInt(4, price.getPriority());
+                    insert.setTimestamp(5, Timestamp.valueOf(price.getStartDate()));
+                    insert.setTimestamp(6, Timestamp.valueOf(price.getEndDate()));
+                    insert.setLong(7, price.getPrice());
+                    insert.setString(8, price.getCurrency().toString());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                List<Price> saved = new ArrayList<>(prices.size());
+                try (ResultSet generatedKeys = insert.getGeneratedKeys()) {
+                    for (Price price : prices) {
+                        generatedKeys.next();
+                        saved.add(new Price(generatedKeys.getLong(1), price.getBrandId(), price.getProductId(),
+                                price.getStartDate(), price.getEndDate(), price.getPriceList(), price.getPrice(),
+                                price.getCurrency(), price.getPriority()));
+                    }
+                }
+                priceCacheEvictor.evictAfterCommit(null);
+                return saved;
+            }
+        }));
     }
 
     public Optional<Price> findById(Long id) {
-        return priceJpaRepository.findById(id)
-                                 .map(PriceEntityMapper::toPrice);
+        return idQuery.record(() -> priceJpaRepository.findById(id))
+                      .map(PriceEntityMapper::toPrice);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Price> findAll() {
+        List<PriceEntity> entities = allQuery.record(() -> priceJpaRepository.findAll());
+        return allMapping.record(() -> toPrices(entities));
+    }
+
+    /**
+     * Streams the prices through JDBC, with a forward-only cursor fetching {@code pricing.export.fetch-size} rows at
+     * a time, and maps every row as it is read, with no entity in between nor persistence context holding them.
+     *
+     * <p>On H2 the lazy query execution is turned on for the query, and off again when the stream is closed, on the
+     * connection of the transaction the stream must be consumed in, so the rest of the queries of the pooled
+     * connections keep the default execution.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY, readOnly = true)
+    public Stream<Price> streamAll(PriceFilter filter) {
+        StringBuilder sql = new StringBuilder(SELECT_PRICES).append(" WHERE 1 = 1");
+        List<Object> parameters = new ArrayList<>(5);
+        if (filter.brandId() != null) {
+            sql.append(" AND BRAND_ID = ?");
+            parameters.add(filter.brandId());
+        }
+        if (filter.productIdFrom() != null) {
+            sql.append(" AND PRODUCT_ID >= ?");
+            parameters.add(filter.productIdFrom());
+        }
+        if (filter.productIdTo() != null) {
+            sql.append(" AND PRODUCT_ID <= ?");
+            parameters.add(filter.productIdTo());
+        }
+        if (filter.activeAt() != null) {
+            sql.append(" AND START_DATE <= ? AND END_DATE >= ?");
+            parameters.add(Timestamp.valueOf(filter.activeAt()));
+            parameters.add(Timestamp.valueOf(filter.activeAt()));
+        }
+        String query = sql.append(ORDER_BY_ID).toString();
+        if (!lazyQueryExecution) {
+            return queryForStream(query, parameters);
+        }
+        jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION TRUE");
+        try {
+            return queryForStream(query, parameters)
+                    .onClose(() -> jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION FALSE"));
+        } catch (RuntimeException e) {
+            jdbcTemplate.execute("SET LAZY_QUERY_EXECUTION FALSE");
+            throw e;
+        }
+    }
+
+    private Stream<Price> queryForStream(String query, List<Object> parameters) {
+        return exportQuery.record(() -> jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(exportFetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, PRICE_ROW_MAPPER));
+    }
+
+    private static List<Price> toPrices(List<PriceEntity> entities) {
+        return entities.stream()
+                       .map(PriceEntityMapper::toPrice)
+                       .toList();
+    }
+
+    private static Timer timer(String name, String tag, String value, MeterRegistry meterRegistry) {
+        return Timer.builder(name)
+                    .tag(tag, value)
+                    .register(meterRegistry);
     }
 
 }
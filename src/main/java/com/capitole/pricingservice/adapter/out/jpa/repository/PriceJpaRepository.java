@@ -2,9 +2,16 @@ package com.capitole.pricingservice.adapter.out.jpa.repository;
 
 import com.capitole.pricingservice.adapter.out.jpa.entity.PriceEntity;
 import com.capitole.pricingservice.adapter.out.jpa.entity.PriceSummaryProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 interface PriceJpaRepository extends JpaRepository<PriceEntity, Long> {
@@ -19,5 +26,59 @@ interface PriceJpaRepository extends JpaRepository<PriceEntity, Long> {
      * @param endDate the end date of the date range
      * @return the top 1 price summary
      */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = PriceEntity.LOOKUP_CACHE_REGION)})
     Optional<PriceSummaryProjection> findTop1ByBrandIdAndProductIdAndStartDateLessThanEqualAndEndDateGreaterThanEqualOrderByPriorityDesc(Integer brandId, Long productId, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Finds all the prices for the given brandId and productId.
+     *
+     * @param brandId the brand id
+     * @param productId the product id
+     * @return the list of prices
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = PriceEntity.LOOKUP_CACHE_REGION)})
+    List<PriceEntity> findByBrandIdAndProductId(Integer brandId, Long productId);
+
+    /**
+     * Finds the price winning at the application date for the given brandId and productId, the valid one with the
+     * highest priority and, for equal priorities, the lowest id, and the prices valid at some point of its period,
+     * in a single query.
+     *
+     * @param brandId the brand id
+     * @param productId the product id
+     * @param applicationDate the application date
+     * @return the winning price and the prices overlapping its period, or an empty list if no price is valid
+     */
+    @Query("""
+            SELECT p FROM PriceEntity p, PriceEntity w
+            WHERE w.id = (SELECT o.id FROM PriceEntity o WHERE o.brandId = :brandId AND o.productId = :productId
+                          AND o.startDate <= :applicationDate AND o.endDate >= :applicationDate
+                          ORDER BY o.priority DESC, o.id FETCH FIRST 1 ROWS ONLY)
+            AND p.brandId = :brandId AND p.productId = :productId AND p.startDate <= w.endDate AND p.endDate >= w.startDate""")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = PriceEntity.LOOKUP_CACHE_REGION)})
+    List<PriceEntity> findOverlappingTheWinner(@Param("brandId") Integer brandId, @Param("productId") Long productId,
+                                               @Param("applicationDate") LocalDateTime applicationDate);
+
+    /**
+     * Finds the prices of any of the given brandIds and productIds which are valid at some point of the date range.
+     *
+     * @param brandIds the brand ids
+     * @param productIds the product ids
+     * @param startDate the upper limit of the start date, the end of the date range
+     * @param endDate the lower limit of the end date, the start of the date range
+     * @return the list of prices
+     */
+    List<PriceEntity> findByBrandIdInAndProductIdInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(Collection<Integer> brandIds, Collection<Long> productIds, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Finds the prices of any brand and product which are valid at some point of the date range.
+     *
+     * @param startDate the upper limit of the start date, the end of the date range
+     * @param endDate the lower limit of the end date, the start of the date range
+     * @return the list of prices
+     */
+    List<PriceEntity> findByStartDateLessThanEqualAndEndDateGreaterThanEqual(LocalDateTime startDate, LocalDateTime endDate);
 }
@@ -0,0 +1,289 @@
+package com.capitole.pricingservice.adapter.out.jpa.repository;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import com.capitole.pricingservice.common.annotation.JpaAdapter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link PriceRepository} port that coalesces the concurrent lookups of a brand and product in
+ * front of the {@link PriceJpaAdapter}: the first lookup runs the query, and the lookups arriving while it is in
+ * flight wait for its {@link CompletableFuture} instead of running a query of their own, so a burst of requests for
+ * the same price costs a single query.
+ *
+ * <p>The lookups coalesced are the price, and the segment looked up by the {@code GET}, of a brand, product and
+ * application date, and the prices of a brand and product. The lookups of a price and of a segment share the flights
+ * of their brand and product whatever their application date, the clients asking for the price of now each sending
+ * a different one: the first one queries the segment of its date, and the ones waiting for it are answered with it
+ * when their date falls inside that segment, the others querying again. The rest of the reads and the writes go
+ * straight to the JPA adapter.
+ *
+ * <p>The flights in progress are kept in {@value #STRIPES} maps, each one guarded by its own lock, picked by the
+ * brand and product of the key, so the lookups of different products seldom contend, and the lock is only held to
+ * join or land a flight, never during the query. The lookups made within a transaction are not coalesced, as they
+ * must see its uncommitted writes. The flights of the brands and products written are forgotten once their
+ * transaction commits, so the lookups arriving after a write never join a query started before it.
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.repository.coalesced} - Counter of the lookups that waited for the query of a concurrent lookup
+ *   of the same brand and product, tagged with the {@code query} (lookup, segment, brand-product).</li>
+ * </ul>
+ *
+ * <p>It is enabled with {@code pricing.repository.type=jpa} and {@code pricing.repository.single-flight.enabled=true},
+ * and takes precedence over the JPA adapter.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceJpaAdapter
+ */
+@Primary
+@JpaAdapter
+@ConditionalOnExpression("'${pricing.repository.type}' == 'jpa' and ${pricing.repository.single-flight.enabled:false}")
+class PriceSingleFlightAdapter implements PriceRepository {
+
+    // a power of two, the stripe of a brand and product is picked by masking the hash of its key
+    private static final int STRIPES = 64;
+
+    private final PriceRepository priceJpaAdapter;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final Counter lookupCoalesced;
+    private final Counter segmentCoalesced;
+    private final Counter brandProductCoalesced;
+
+    PriceSingleFlightAdapter(@Qualifier("priceJpaAdapter") PriceRepository priceJpaAdapter, MeterRegistry meterRegistry) {
+        this.priceJpaAdapter = priceJpaAdapter;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.lookupCoalesced = coalescedCounter("lookup", meterRegistry);
+        this.segmentCoalesced = coalescedCounter("segment", meterRegistry);
+        this.brandProductCoalesced = coalescedCounter("brand-product", meterRegistry);
+    }
+
+    private static Counter coalescedCounter(String query, MeterRegistry meterRegistry) {
+        return Counter.builder("pricing.repository.coalesced")
+                      .description("Lookups that waited for the query of a concurrent lookup of the same brand and product")
+                      .tag("query", query)
+                      .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return priceJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(brandId, productId, applicationDate);
+        }
+        return segmentAt(brandId, productId, applicationDate, lookupCoalesced)
+                .map(segment -> PriceSummary.from(segment.price()));
+    }
+
+    @Override
+    public Optional<PriceTimeline.Segment> getPriceSegmentByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        return segmentAt(brandId, productId, applicationDate, segmentCoalesced);
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdAndProductId(Integer brandId, Long productId) {
+        BrandProductKey brandProduct = new BrandProductKey(brandId, productId);
+        return singleFlight(brandProduct, brandProduct, brandProductCoalesced,
+                () -> priceJpaAdapter.findAllByBrandIdAndProductId(brandId, productId), prices -> true);
+    }
+
+    // the segment of another date answers the lookup when the date falls inside it, an empty one tells nothing of it
+    private Optional<PriceTimeline.Segment> segmentAt(int brandId, long productId, LocalDateTime applicationDate, Counter coalesced) {
+        BrandProductKey brandProduct = new BrandProductKey(brandId, productId);
+        return singleFlight(brandProduct, new SegmentKey(brandProduct), coalesced,
+                () -> priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(brandId, productId, applicationDate),
+                segment -> segment.filter(found -> !applicationDate.isBefore(found.from()) && applicationDate.isBefore(found.to()))
+                                  .isPresent());
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdsAndProductIdsAndDateRange(Collection<Integer> brandIds, Collection<Long> productIds,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        return priceJpaAdapter.findAllByBrandIdsAndProductIdsAndDateRange(brandIds, productIds, from, to);
+    }
+
+    @Override
+    public List<Price> findAllByDateRanges(Collection<BrandProductDateRange> ranges) {
+        return priceJpaAdapter.findAllByDateRanges(ranges);
+    }
+
+    @Override
+    public List<Price> findAllByDateRange(LocalDateTime from, LocalDateTime to) {
+        return priceJpaAdapter.findAllByDateRange(from, to);
+    }
+
+    @Override
+    public Price save(Price price) {
+        Price saved = priceJpaAdapter.save(price);
+        forgetAfterCommit(Set.of(BrandProductKey.of(saved)));
+        return saved;
+    }
+
+    @Override
+    public Optional<UpdatedPrice> update(Price price) {
+        Optional<UpdatedPrice> updated = priceJpaAdapter.update(price);
+        // the price may have been moved from another brand/product, whose flights must be forgotten too
+        updated.ifPresent(updatedPrice -> forgetAfterCommit(new HashSet<>(List.of(BrandProductKey.of(updatedPrice.previous()),
+                BrandProductKey.of(updatedPrice.updated())))));
+        return updated;
+    }
+
+    @Override
+    public List<Price> saveAll(List<Price> prices) {
+        List<Price> saved = priceJpaAdapter.saveAll(prices);
+        Set<BrandProductKey> keys = new HashSet<>();
+        saved.forEach(price -> keys.add(BrandProductKey.of(price)));
+        forgetAfterCommit(keys);
+        return saved;
+    }
+
+    @Override
+    public Optional<Price> findById(Long id) {
+        return priceJpaAdapter.findById(id);
+    }
+
+    @Override
+    public List<Price> findAll() {
+        return priceJpaAdapter.findAll();
+    }
+
+    @Override
+    public Stream<Price> streamAll(PriceFilter filter) {
+        return priceJpaAdapter.streamAll(filter);
+    }
+
+    /**
+     * Runs the query of the key, unless a lookup of the same key is in flight, whose result, or exception, is
+     * returned instead when it answers the lookup; otherwise the lookup starts, or joins, the next flight of the key.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T singleFlight(BrandProductKey brandProduct, Object key, Counter coalesced, Supplier<T> query,
+                               Predicate<T> answers) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        Stripe stripe = stripeOf(brandProduct);
+        CompletableFuture<T> flight;
+        while (true) {
+            boolean leader;
+            synchronized (stripe) {
+                flight = (CompletableFuture<T>) stripe.flights.get(key);
+                leader = flight == null;
+                if (leader) {
+                    flight = new CompletableFuture<>();
+                    stripe.flights.put(key, flight);
+                }
+            }
+            if (leader) {
+                break;
+            }
+            // the flight is joined outside the lock, which its leader takes again to land it
+            coalesced.increment();
+            T result = join(flight);
+            if (answers.test(result)) {
+                return result;
+            }
+        }
+        T result;
+        try {
+            result = query.get();
+        } catch (RuntimeException | Error e) {
+            land(stripe, key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        land(stripe, key, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    // rethrows the exception of the query, as thrown to its leader
+    private static <T> T join(CompletableFuture<T> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // the lookups arriving from now on start a new flight, the flight may already have been forgotten by a write
+    private static void land(Stripe stripe, Object key, CompletableFuture<?> flight) {
+        synchronized (stripe) {
+            stripe.flights.remove(key, flight);
+        }
+    }
+
+    private void forgetAfterCommit(Set<BrandProductKey> keys) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    forget(keys);
+                }
+            });
+        } else {
+            forget(keys);
+        }
+    }
+
+    // the flights in progress still answer the lookups that joined them
+    private void forget(Set<BrandProductKey> keys) {
+        for (BrandProductKey brandProduct : keys) {
+            Stripe stripe = stripeOf(brandProduct);
+            synchronized (stripe) {
+                stripe.flights.remove(brandProduct);
+                stripe.flights.remove(new SegmentKey(brandProduct));
+            }
+        }
+    }
+
+    // every key of a brand and product falls in the same stripe, so forgetting them only locks that one
+    private Stripe stripeOf(BrandProductKey brandProduct) {
+        int hash = brandProduct.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    // the key of the lookups of the price and of the segment of a brand and product, at any application date
+    private record SegmentKey(BrandProductKey brandProduct) {
+    }
+
+    private static final class Stripe {
+
+        private final Map<Object, CompletableFuture<?>> flights = new HashMap<>();
+    }
+}
@@ -0,0 +1,265 @@
+package com.capitole.pricingservice.adapter.out.jpa.repository;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.port.out.PriceTimelineRepository;
+import com.capitole.pricingservice.common.annotation.JpaAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the {@link PriceTimelineRepository} port on the {@code PRICE_TIMELINE} table.
+ *
+ * <p>Each row is a segment {@code [VALID_FROM, VALID_TO)} of a brand and product pointing to the {@code PRICES} row
+ * that wins in it, so the lookup of the price at an application time reads the single segment starting at or before
+ * it through the primary key, with no priority ordering. The timelines are computed with {@link PriceTimeline} from
+ * the price rows read with JDBC, after flushing the persistence context so the prices written in the surrounding
+ * transaction are seen.
+ *
+ * <p>A refresh first locks, {@code FOR UPDATE} and in ascending order, the rows of {@code PRICE_TIMELINE_LOCKS} of the
+ * stripes of its brands and products, and a rebuild all of them, so concurrent transactions writing the same brand
+ * and product recompute its timeline one after the other, each from the prices committed by the previous one,
+ * instead of deleting and inserting the same segments at once.
+ *
+ * <p>It is enabled with {@code pricing.repository.type=timeline}, the only repository reading the persisted timelines.
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.repository.query} - Timer of the database reads, tagged with the {@code query}
+ *   (timeline-lookup, timeline-all).</li>
+ *   <li>{@code pricing.repository.write} - Timer of the database writes, tagged with the {@code operation}
+ *   (timeline-refresh, timeline-rebuild).</li>
+ * </ul>
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceTimelineRepository
+ * @see PriceTimeline
+ */
+@JpaAdapter
+@ConditionalOnProperty(name = "pricing.repository.type", havingValue = "timeline")
+class PriceTimelineJpaAdapter implements PriceTimelineRepository {
+
+    // keeps the number of parameters of the refresh queries bounded
+    static final int MAX_KEYS_PER_QUERY = 500;
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    // rows of PRICE_TIMELINE_LOCKS
+    static final int LOCK_STRIPES = 256;
+
+    private static final String SELECT_PRICES = "SELECT ID, BRAND_ID, PRODUCT_ID, PRICE_LIST, PRIORITY, START_DATE, END_DATE, PRICE, CURR, VERSION FROM PRICES";
+
+    private static final String SELECT_SEGMENTS = """
+            SELECT T.VALID_FROM, T.VALID_TO, P.ID, P.BRAND_ID, P.PRODUCT_ID, P.PRICE_LIST, P.PRIORITY, P.START_DATE, P.END_DATE, P.PRICE, P.CURR, P.VERSION
+            FROM PRICE_TIMELINE T JOIN PRICES P ON P.ID = T.PRICE_ID""";
+
+    private static final String SELECT_SEGMENT_AT = SELECT_SEGMENTS + """
+
+            WHERE T.BRAND_ID = ? AND T.PRODUCT_ID = ? AND T.VALID_FROM <= ?
+            ORDER BY T.VALID_FROM DESC
+            LIMIT 1""";
+
+    private static final String LOCK_STRIPES_QUERY = "SELECT STRIPE FROM PRICE_TIMELINE_LOCKS";
+
+    private static final String INSERT_SEGMENT = "INSERT INTO PRICE_TIMELINE (BRAND_ID, PRODUCT_ID, VALID_FROM, VALID_TO, PRICE_ID) VALUES (?, ?, ?, ?, ?)";
+
+    private final PriceJpaRepository priceJpaRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Timer lookupQuery;
+    private final Timer allQuery;
+    private final Timer refresh;
+    private final Timer rebuild;
+
+    PriceTimelineJpaAdapter(PriceJpaRepository priceJpaRepository, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.priceJpaRepository = priceJpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.lookupQuery = timer("pricing.repository.query", "query", "timeline-lookup", meterRegistry);
+        this.allQuery = timer("pricing.repository.query", "query", "timeline-all", meterRegistry);
+        this.refresh = timer("pricing.repository.write", "operation", "timeline-refresh", meterRegistry);
+        this.rebuild = timer("pricing.repository.write", "operation", "timeline-rebuild", meterRegistry);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        long start = System.nanoTime();
+        List<PriceSummary> prices = jdbcTemplate.query(SELECT_SEGMENT_AT,
+                (resultSet, row) -> resultSet.getObject("VALID_TO", LocalDateTime.class).isAfter(applicationDate)
+                        ? PriceSummary.from(toPrice(resultSet)) : null,
+                brandId, productId, Timestamp.valueOf(applicationDate));
+        lookupQuery.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        // the segment starting before the application date may have ended before it
+        return prices.isEmpty() ? Optional.empty() : Optional.ofNullable(prices.get(0));
+    }
+
+    @Override
+    @Transactional
+    public Map<BrandProductKey, PriceTimeline> refresh(Collection<BrandProductKey> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        return refresh.record(() -> {
+            // the JDBC reads don't see the prices still pending in the persistence context
+            priceJpaRepository.flush();
+            List<BrandProductKey> distinctKeys = List.copyOf(new LinkedHashSet<>(keys));
+            lock(distinctKeys);
+            Map<BrandProductKey, PriceTimeline> timelines = new HashMap<>();
+            List<Object[]> segments = new ArrayList<>();
+            for (int from = 0; from < distinctKeys.size(); from += MAX_KEYS_PER_QUERY) {
+                List<BrandProductKey> chunk = distinctKeys.subList(from, Math.min(from + MAX_KEYS_PER_QUERY, distinctKeys.size()));
+                String keysCondition = keysCondition(chunk.size());
+                Object[] keysArguments = keysArguments(chunk);
+                Map<BrandProductKey, List<Price>> pricesByKey = new HashMap<>();
+                jdbcTemplate.query(SELECT_PRICES + keysCondition, (RowCallbackHandler) resultSet -> {
+                    Price price = toPrice(resultSet);
+                    pricesByKey.computeIfAbsent(BrandProductKey.of(price), key -> new ArrayList<>()).add(price);
+                }, keysArguments);
+                jdbcTemplate.update("DELETE FROM PRICE_TIMELINE" + keysCondition, keysArguments);
+                for (BrandProductKey key : chunk) {
+                    PriceTimeline timeline = PriceTimeline.of(pricesByKey.getOrDefault(key, List.of()));
+                    timelines.put(key, timeline);
+                    addSegments(timeline, segments);
+                }
+            }
+            insert(segments);
+            return timelines;
+        });
+    }
+
+    /**
+     * Rebuilds the whole table in one pass over the prices sorted by brand and product, so only the prices of one
+     * brand and product and a batch of segments are kept in memory.
+     */
+    @Override
+    @Transactional
+    public void rebuild() {
+        rebuild.record(() -> {
+            priceJpaRepository.flush();
+            jdbcTemplate.queryForList(LOCK_STRIPES_QUERY + " ORDER BY STRIPE FOR UPDATE", Integer.class);
+            jdbcTemplate.update("DELETE FROM PRICE_TIMELINE");
+            List<Object[]> segments = new ArrayList<>();
+            List<Price> prices = new ArrayList<>();
+            jdbcTemplate.query(SELECT_PRICES + " ORDER BY BRAND_ID, PRODUCT_ID", (RowCallbackHandler) resultSet -> {
+                Price price = toPrice(resultSet);
+                if (!prices.isEmpty() && !BrandProductKey.of(prices.get(0)).equals(BrandProductKey.of(price))) {
+                    addSegments(PriceTimeline.of(prices), segments);
+                    prices.clear();
+                    if (segments.size() >= INSERT_BATCH_SIZE) {
+                        insert(segments);
+                        segments.clear();
+                    }
+                }
+                prices.add(price);
+            });
+            addSegments(PriceTimeline.of(prices), segments);
+            insert(segments);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<BrandProductKey, PriceTimeline> findAllTimelines() {
+        return allQuery.record(() -> {
+            Map<BrandProductKey, PriceTimeline> timelines = new HashMap<>();
+            List<PriceTimeline.Segment> segments = new ArrayList<>();
+            jdbcTemplate.query(SELECT_SEGMENTS + " ORDER BY T.BRAND_ID, T.PRODUCT_ID, T.VALID_FROM", (RowCallbackHandler) resultSet -> {
+                PriceTimeline.Segment segment = new PriceTimeline.Segment(resultSet.getObject("VALID_FROM", LocalDateTime.class),
+                        resultSet.getObject("VALID_TO", LocalDateTime.class), toPrice(resultSet));
+                if (!segments.isEmpty() && !BrandProductKey.of(segments.get(0).price()).equals(BrandProductKey.of(segment.price()))) {
+                    timelines.put(BrandProductKey.of(segments.get(0).price()), PriceTimeline.ofSegments(segments));
+                    segments.clear();
+                }
+                segments.add(segment);
+            });
+            if (!segments.isEmpty()) {
+                timelines.put(BrandProductKey.of(segments.get(0).price()), PriceTimeline.ofSegments(segments));
+            }
+            return timelines;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM PRICE_TIMELINE LIMIT 1").isEmpty();
+    }
+
+    // in ascending order, as every other refresh, so two refreshes never wait for each other's stripes
+    private void lock(List<BrandProductKey> keys) {
+        Object[] stripes = keys.stream()
+                               .map(PriceTimelineJpaAdapter::stripeOf)
+                               .distinct()
+                               .sorted()
+                               .toArray();
+        StringJoiner condition = new StringJoiner(", ", " WHERE STRIPE IN (", ") ORDER BY STRIPE FOR UPDATE");
+        for (int i = 0; i < stripes.length; i++) {
+            condition.add("?");
+        }
+        jdbcTemplate.queryForList(LOCK_STRIPES_QUERY + condition, Integer.class, stripes);
+    }
+
+    // the same on every instance of the service, unlike the hash code of the key
+    static int stripeOf(BrandProductKey key) {
+        return Math.floorMod(31 * Integer.hashCode(key.brandId()) + Long.hashCode(key.productId()), LOCK_STRIPES);
+    }
+
+    private void insert(List<Object[]> segments) {
+        if (!segments.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SEGMENT, segments);
+        }
+    }
+
+    private static void addSegments(PriceTimeline timeline, List<Object[]> segments) {
+        for (PriceTimeline.Segment segment : timeline.segments()) {
+            Price price = segment.price();
+            segments.add(new Object[]{price.getBrandId(), price.getProductId(), Timestamp.valueOf(segment.from()),
+                    Timestamp.valueOf(segment.to()), price.getId()});
+        }
+    }
+
+    private static String keysCondition(int keys) {
+        StringJoiner condition = new StringJoiner(", ", " WHERE (BRAND_ID, PRODUCT_ID) IN (", ")");
+        for (int i = 0; i < keys; i++) {
+            condition.add("(?, ?)");
+        }
+        return condition.toString();
+    }
+
+    private static Object[] keysArguments(List<BrandProductKey> keys) {
+        Object[] arguments = new Object[keys.size() * 2];
+        for (int i = 0; i < keys.size(); i++) {
+            arguments[i * 2] = keys.get(i).brandId();
+            arguments[i * 2 + 1] = keys.get(i).productId();
+        }
+        return arguments;
+    }
+
+    private static Price toPrice(ResultSet resultSet) throws SQLException {
+        return new Price(resultSet.getLong("ID"), resultSet.getInt("BRAND_ID"), resultSet.getLong("PRODUCT_ID"),
+                resultSet.getObject("START_DATE", LocalDateTime.class), resultSet.getObject("END_DATE", LocalDateTime.class),
+                resultSet.getInt("PRICE_LIST"), resultSet.getLong("PRICE"), CurrencyEnum.fromCode(resultSet.getString("CURR")),
+                resultSet.getInt("PRIORITY"), resultSet.getLong("VERSION"));
+    }
+
+    private static Timer timer(String name, String tag, String value, MeterRegistry meterRegistry) {
+        return Timer.builder(name)
+                    .tag(tag, value)
+                    .register(meterRegistry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+import com.capitole.pricingservice.application.domain.model.FxRateTable;
+import com.capitole.pricingservice.application.port.out.FxRateRepository;
+import com.capitole.pricingservice.common.annotation.InMemoryAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of the {@link FxRateRepository} port that resolves the exchange rates from an in-memory
+ * {@link FxRateTable}.
+ *
+ * <p>All the rates are loaded at startup from the JPA adapter, so converting a price is an array access and a binary
+ * search, with no database round trip. A refresh goes through the JPA adapter, which remains the system of record,
+ * and the table is replaced by the one of the new rates once the surrounding transaction commits.
+ *
+ * <p>It is always enabled and takes precedence over the JPA adapter.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see FxRateRepository
+ * @see FxRateTable
+ */
+@Primary
+@InMemoryAdapter
+class FxRateInMemoryAdapter implements FxRateRepository, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateInMemoryAdapter.class);
+
+    private final FxRateRepository fxRateJpaAdapter;
+
+    private volatile FxRateTable table = FxRateTable.empty();
+
+    FxRateInMemoryAdapter(@Qualifier("fxRateJpaAdapter") FxRateRepository fxRateJpaAdapter) {
+        this.fxRateJpaAdapter = fxRateJpaAdapter;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        table = FxRateTable.of(fxRateJpaAdapter.findAll());
+        logger.info("In-memory FX rate table loaded with {} rates", table.size());
+    }
+
+    @Override
+    public Optional<FxRate> findRate(CurrencyEnum baseCurrency, CurrencyEnum quoteCurrency, LocalDateTime applicationDate) {
+        return table.rateAt(baseCurrency, quoteCurrency, applicationDate);
+    }
+
+    @Override
+    public List<FxRate> findAll() {
+        return table.rates();
+    }
+
+    @Override
+    public void replaceAll(List<FxRate> rates) {
+        FxRateTable replacement = FxRateTable.of(rates);
+        fxRateJpaAdapter.replaceAll(rates);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    table = replacement;
+                }
+            });
+        } else {
+            table = replacement;
+        }
+    }
+}
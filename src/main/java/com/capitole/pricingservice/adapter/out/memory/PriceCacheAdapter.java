@@ -0,0 +1,191 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceChangeListener;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import com.capitole.pricingservice.common.annotation.InMemoryAdapter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link PriceRepository} port that caches the resolved prices in front of the JPA adapter.
+ *
+ * <p>Each cache entry holds the {@link PriceTimeline} of a brand and product, that is, the validity windows of the
+ * winning prices, so after the first miss any application time of that brand and product is resolved without
+ * touching JPA. The cache is bounded by {@code pricing.repository.cache.maximum-size} entries and
+ * {@code pricing.repository.cache.expire-after-write}, and an entry is invalidated when a saved price, before or
+ * after the change, belongs to its brand and product. The entries of the brands and products written by other
+ * instances of the service are invalidated when their changes are relayed, so the entries stay fresh without a short
+ * expiration. Hit, miss and eviction counters are registered in the
+ * {@link MeterRegistry} under the {@code prices} cache name.
+ *
+ * <p>It is enabled with {@code pricing.repository.type=cache} and takes precedence over the JPA adapter.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceRepository
+ * @see PriceTimeline
+ */
+@Primary
+@InMemoryAdapter
+@ConditionalOnProperty(name = "pricing.repository.type", havingValue = "cache")
+class PriceCacheAdapter implements PriceRepository, PriceChangeListener {
+
+    static final String CACHE_NAME = "prices";
+
+    private final PriceRepository priceJpaAdapter;
+
+    private final Cache<BrandProductKey, PriceTimeline> timelines;
+
+    PriceCacheAdapter(@Qualifier("priceJpaAdapter") PriceRepository priceJpaAdapter,
+                      @Value("${pricing.repository.cache.maximum-size}") long maximumSize,
+                      @Value("${pricing.repository.cache.expire-after-write}") Duration expireAfterWrite,
+                      MeterRegistry meterRegistry) {
+        this.priceJpaAdapter = priceJpaAdapter;
+        this.timelines = Caffeine.newBuilder()
+                                 .maximumSize(maximumSize)
+                                 .expireAfterWrite(expireAfterWrite)
+                                 .recordStats()
+                                 .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, CACHE_NAME);
+    }
+
+    @Override
+    public Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        return timelines.get(new BrandProductKey(brandId, productId), this::load)
+                        .priceAt(applicationDate)
+                        .map(PriceSummary::from);
+    }
+
+    @Override
+    public Optional<PriceTimeline.Segment> getPriceSegmentByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        return timelines.get(new BrandProductKey(brandId, productId), this::load)
+                        .segmentAt(applicationDate);
+    }
+
+    @Override
+    public List<PriceTimeline.Segment> getPriceSegmentsByBrandIdAndProductIdAndDateRange(int brandId, long productId, LocalDateTime from, LocalDateTime to) {
+        return timelines.get(new BrandProductKey(brandId, productId), this::load)
+                        .segmentsBetween(from, to);
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdAndProductId(Integer brandId, Long productId) {
+        return timelines.get(new BrandProductKey(brandId, productId), this::load)
+                        .prices();
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdsAndProductIdsAndDateRange(Collection<Integer> brandIds, Collection<Long> productIds,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        return priceJpaAdapter.findAllByBrandIdsAndProductIdsAndDateRange(brandIds, productIds, from, to);
+    }
+
+    @Override
+    public List<Price> findAllByDateRanges(Collection<BrandProductDateRange> ranges) {
+        return priceJpaAdapter.findAllByDateRanges(ranges);
+    }
+
+    @Override
+    public Price save(Price price) {
+        // an update may move the price to another brand/product, whose entry must be invalidated too
+        Optional<BrandProductKey> previousKey = price.getId() == null ? Optional.empty()
+                : priceJpaAdapter.findById(price.getId()).map(BrandProductKey::of);
+        Price saved = priceJpaAdapter.save(price);
+
+        Set<BrandProductKey> keys = new HashSet<>();
+        keys.add(BrandProductKey.of(saved));
+        previousKey.ifPresent(keys::add);
+        invalidateAfterCommit(keys);
+        return saved;
+    }
+
+    @Override
+    public Optional<UpdatedPrice> update(Price price) {
+        Optional<UpdatedPrice> updated = priceJpaAdapter.update(price);
+        // the price may have been moved from another brand/product, whose entry must be invalidated too
+        updated.ifPresent(updatedPrice -> {
+            Set<BrandProductKey> keys = new HashSet<>();
+            keys.add(BrandProductKey.of(updatedPrice.previous()));
+            keys.add(BrandProductKey.of(updatedPrice.updated()));
+            invalidateAfterCommit(keys);
+        });
+        return updated;
+    }
+
+    @Override
+    public List<Price> saveAll(List<Price> prices) {
+        List<Price> saved = priceJpaAdapter.saveAll(prices);
+        Set<BrandProductKey> keys = new HashSet<>();
+        saved.forEach(price -> keys.add(BrandProductKey.of(price)));
+        invalidateAfterCommit(keys);
+        return saved;
+    }
+
+    @Override
+    public Optional<Price> findById(Long id) {
+        return priceJpaAdapter.findById(id);
+    }
+
+    @Override
+    public List<Price> findAll() {
+        return priceJpaAdapter.findAll();
+    }
+
+    @Override
+    public Stream<Price> streamAll(PriceFilter filter) {
+        return priceJpaAdapter.streamAll(filter);
+    }
+
+    @Override
+    public void onPriceChanges(Set<BrandProductKey> keys) {
+        timelines.invalidateAll(keys);
+    }
+
+    /**
+     * @return the hit, miss and eviction counters of the cache
+     */
+    public CacheStats stats() {
+        return timelines.stats();
+    }
+
+    private PriceTimeline load(BrandProductKey key) {
+        return PriceTimeline.of(priceJpaAdapter.findAllByBrandIdAndProductId(key.brandId(), key.productId()));
+    }
+
+    private void invalidateAfterCommit(Set<BrandProductKey> keys) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    timelines.invalidateAll(keys);
+                }
+            });
+        } else {
+            timelines.invalidateAll(keys);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceChangeListener;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import com.capitole.pricingservice.common.annotation.InMemoryAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link PriceRepository} port that resolves prices from an in-memory index.
+ *
+ * <p>All the prices are loaded at startup from the JPA adapter and kept in a {@link PriceTimeline} per brand and
+ * product, so the lookup of the price at an application time is a binary search with no database round trip.
+ * Writes go through the JPA adapter, which remains the system of record, and the index is updated once the
+ * surrounding transaction commits. A reload builds a new index and then replaces the previous one, which answers the
+ * lookups until then. The brands and products written by other instances of the service are reloaded
+ * from the JPA adapter when their changes are relayed.
+ *
+ * <p>It is enabled with {@code pricing.repository.type=in-memory} and takes precedence over the JPA adapter.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceRepository
+ * @see PriceTimeline
+ */
+@Primary
+@InMemoryAdapter
+@ConditionalOnProperty(name = "pricing.repository.type", havingValue = "in-memory")
+class PriceInMemoryAdapter implements PriceRepository, PriceChangeListener, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceInMemoryAdapter.class);
+
+    private final PriceRepository priceJpaAdapter;
+
+    // replaced as a whole by a reload, so a lookup never reads an index half built
+    private volatile Index index = Index.EMPTY;
+
+    PriceInMemoryAdapter(@Qualifier("priceJpaAdapter") PriceRepository priceJpaAdapter) {
+        this.priceJpaAdapter = priceJpaAdapter;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /**
+     * Rebuilds the whole index from the JPA adapter.
+     */
+    public synchronized void reload() {
+        Index reloaded = Index.of(priceJpaAdapter.findAll());
+        index = reloaded;
+        logger.info("In-memory price index loaded with {} prices for {} brand/products", reloaded.keysById().size(),
+                reloaded.timelines().size());
+    }
+
+    @Override
+    public Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        PriceTimeline timeline = index.timelines().get(new BrandProductKey(brandId, productId));
+        if (timeline == null) {
+            return Optional.empty();
+        }
+        return timeline.priceAt(applicationDate)
+                       .map(PriceSummary::from);
+    }
+
+    @Override
+    public Optional<PriceTimeline.Segment> getPriceSegmentByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        PriceTimeline timeline = index.timelines().get(new BrandProductKey(brandId, productId));
+        return timeline == null ? Optional.empty() : timeline.segmentAt(applicationDate);
+    }
+
+    @Override
+    public List<PriceTimeline.Segment> getPriceSegmentsByBrandIdAndProductIdAndDateRange(int brandId, long productId, LocalDateTime from, LocalDateTime to) {
+        PriceTimeline timeline = index.timelines().get(new BrandProductKey(brandId, productId));
+        return timeline == null ? List.of() : timeline.segmentsBetween(from, to);
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdAndProductId(Integer brandId, Long productId) {
+        PriceTimeline timeline = index.timelines().get(new BrandProductKey(brandId, productId));
+        return timeline == null ? List.of() : timeline.prices();
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdsAndProductIdsAndDateRange(Collection<Integer> brandIds, Collection<Long> productIds,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        Map<BrandProductKey, PriceTimeline> timelines = index.timelines();
+        List<Price> prices = new ArrayList<>();
+        for (Integer brandId : brandIds) {
+            for (Long productId : productIds) {
+                PriceTimeline timeline = timelines.get(new BrandProductKey(brandId, productId));
+                if (timeline != null) {
+                    timeline.prices()
+                            .stream()
+                            .filter(price -> !price.getStartDate().isAfter(to) && !price.getEndDate().isBefore(from))
+                            .forEach(prices::add);
+                }
+            }
+        }
+        return prices;
+    }
+
+    @Override
+    public Price save(Price price) {
+        Price saved = priceJpaAdapter.save(price);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(saved);
+                }
+            });
+        } else {
+            index(saved);
+        }
+        return saved;
+    }
+
+    // the index moves the price from its previous brand/product by itself
+    @Override
+    public Optional<UpdatedPrice> update(Price price) {
+        Optional<UpdatedPrice> updated = priceJpaAdapter.update(price);
+        updated.ifPresent(updatedPrice -> {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        index(updatedPrice.updated());
+                    }
+                });
+            } else {
+                index(updatedPrice.updated());
+            }
+        });
+        return updated;
+    }
+
+    @Override
+    public List<Price> saveAll(List<Price> prices) {
+        List<Price> saved = priceJpaAdapter.saveAll(prices);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexAll(saved);
+                }
+            });
+        } else {
+            indexAll(saved);
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<Price> findById(Long id) {
+        return priceJpaAdapter.findById(id);
+    }
+
+    @Override
+    public List<Price> findAll() {
+        return index.timelines()
+                    .values()
+                    .stream()
+                    .flatMap(timeline -> timeline.prices().stream())
+                    .toList();
+    }
+
+    // read from the database, with its cursor, rather than from the prices in memory, which are not sorted
+    @Override
+    public Stream<Price> streamAll(PriceFilter filter) {
+        return priceJpaAdapter.streamAll(filter);
+    }
+
+    @Override
+    public synchronized void onPriceChanges(Set<BrandProductKey> keys) {
+        Map<BrandProductKey, PriceTimeline> timelines = index.timelines();
+        Map<Long, BrandProductKey> keysById = index.keysById();
+        for (BrandProductKey key : keys) {
+            List<Price> prices = priceJpaAdapter.findAllByBrandIdAndProductId(key.brandId(), key.productId());
+            PriceTimeline previous = prices.isEmpty() ? timelines.remove(key) : timelines.put(key, PriceTimeline.of(prices));
+            if (previous != null) {
+                // the prices moved to another brand/product are indexed again with it
+                previous.prices().forEach(price -> keysById.remove(price.getId(), key));
+            }
+            prices.forEach(price -> keysById.put(price.getId(), key));
+        }
+    }
+
+    private synchronized void index(Price price) {
+        Map<BrandProductKey, PriceTimeline> timelines = index.timelines();
+        BrandProductKey key = BrandProductKey.of(price);
+        BrandProductKey previousKey = index.keysById().put(price.getId(), key);
+        if (previousKey != null && !previousKey.equals(key)) {
+            // the price has been moved to another brand/product
+            timelines.computeIfPresent(previousKey, (k, timeline) -> {
+                PriceTimeline updated = timeline.without(price.getId());
+                return updated.isEmpty() ? null : updated;
+            });
+        }
+        timelines.merge(key, PriceTimeline.of(List.of(price)), (timeline, ignored) -> timeline.with(price));
+    }
+
+    // new prices only, so each timeline is rebuilt once for all the prices of its brand/product
+    private synchronized void indexAll(List<Price> prices) {
+        Map<BrandProductKey, PriceTimeline> timelines = index.timelines();
+        Map<Long, BrandProductKey> keysById = index.keysById();
+        prices.stream()
+              .collect(Collectors.groupingBy(BrandProductKey::of))
+              .forEach((key, added) -> {
+                  added.forEach(price -> keysById.put(price.getId(), key));
+                  timelines.merge(key, PriceTimeline.of(added), (timeline, ignored) -> timeline.withAll(added));
+              });
+    }
+
+    /**
+     * The timeline of each brand and product, and the brand and product of each price, updated in place by the
+     * writes and replaced as a whole by a reload.
+     */
+    private record Index(Map<BrandProductKey, PriceTimeline> timelines, Map<Long, BrandProductKey> keysById) {
+
+        // before the first load
+        static final Index EMPTY = new Index(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+        static Index of(List<Price> prices) {
+            Map<BrandProductKey, PriceTimeline> timelines = new ConcurrentHashMap<>();
+            Map<Long, BrandProductKey> keysById = new ConcurrentHashMap<>();
+            prices.stream()
+                  .collect(Collectors.groupingBy(BrandProductKey::of))
+                  .forEach((key, keyPrices) -> {
+                      timelines.put(key, PriceTimeline.of(keyPrices));
+                      keyPrices.forEach(price -> keysById.put(price.getId(), key));
+                  });
+            return new Index(timelines, keysById);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only catalog of prices kept in a memory-mapped binary file.
+ *
+ * <p>The file starts with a 16 bytes header (magic, version, number of rows and a reserved int) followed by one
+ * column per {@link Price} field, each column holding the values of all the rows as primitives:
+ * <pre>
+ * long   id, productId, startDate, endDate   (dates in epoch-seconds)
+ * long   price                               (minor units of the currency)
+ * long   version                             (of the optimistic lock)
+ * int    brandId, priority, priceList
+ * byte   currency                            (ordinal of {@link CurrencyEnum})
+ * </pre>
+ * Rows are sorted by brand, product and start date, so the rows of a brand and product are found with a binary
+ * search and the winning price among them, the covering price with the highest priority and, for equal priorities,
+ * the lowest id, as in the {@code PriceTimeline}, with a scan of that range, as is the segment in which it keeps
+ * winning. The columns are read in place from the mapping, so the catalog takes no heap besides this object.
+ *
+ * <p>A single mapping is limited to 2 GB, about 40 million rows.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+final class PriceSnapshot {
+
+    private static final int MAGIC = 0x50524353; // "PRCS"
+    // 2 since the prices are minor units and 3 since the rows keep their version, an older file is refused
+    private static final int VERSION = 3;
+    private static final int HEADER_BYTES = 16;
+    private static final int ROW_BYTES = 6 * Long.BYTES + 3 * Integer.BYTES + Byte.BYTES;
+
+    private static final Comparator<Price> ROW_ORDER = Comparator.comparing(Price::getBrandId)
+                                                                 .thenComparing(Price::getProductId)
+                                                                 .thenComparing(Price::getStartDate)
+                                                                 .thenComparing(Price::getId);
+
+    private static final CurrencyEnum[] CURRENCIES = CurrencyEnum.values();
+
+    private final MappedByteBuffer buffer;
+    private final int rows;
+    // column offsets in the mapping
+    private final int ids;
+    private final int productIds;
+    private final int startDates;
+    private final int endDates;
+    private final int prices;
+    private final int versions;
+    private final int brandIds;
+    private final int priorities;
+    private final int priceLists;
+    private final int currencies;
+
+    private PriceSnapshot(MappedByteBuffer buffer, int rows) {
+        this.buffer = buffer;
+        this.rows = rows;
+        this.ids = HEADER_BYTES;
+        this.productIds = ids + rows * Long.BYTES;
+        this.startDates = productIds + rows * Long.BYTES;
+        this.endDates = startDates + rows * Long.BYTES;
+        this.prices = endDates + rows * Long.BYTES;
+        this.versions = prices + rows * Long.BYTES;
+        this.brandIds = versions + rows * Long.BYTES;
+        this.priorities = brandIds + rows * Integer.BYTES;
+        this.priceLists = priorities + rows * Integer.BYTES;
+        this.currencies = priceLists + rows * Integer.BYTES;
+    }
+
+    /**
+     * Writes the prices to a snapshot file, replacing the previous one only once the new one is complete.
+     *
+     * @param prices the prices of the catalog
+     * @param path the snapshot file
+     */
+    static void write(Collection<Price> prices, Path path) {
+        List<Price> sorted = new ArrayList<>(prices);
+        sorted.sort(ROW_ORDER);
+        long size = HEADER_BYTES + (long) sorted.size() * ROW_BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many prices for a snapshot: " + sorted.size());
+        }
+        int rows = sorted.size();
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(0);
+                sorted.forEach(price -> buffer.putLong(price.getId()));
+                sorted.forEach(price -> buffer.putLong(price.getProductId()));
+                sorted.forEach(price -> buffer.putLong(toEpochSecond(price.getStartDate())));
+                sorted.forEach(price -> buffer.putLong(toEpochSecond(price.getEndDate())));
+                sorted.forEach(price -> buffer.putLong(price.getPrice()));
+                sorted.forEach(price -> buffer.putLong(price.getVersion()));
+                sorted.forEach(price -> buffer.putInt(price.getBrandId()));
+                sorted.forEach(price -> buffer.putInt(price.getPriority()));
+                sorted.forEach(price -> buffer.putInt(price.getPriceList()));
+                sorted.forEach(price -> buffer.put((byte) price.getCurrency().ordinal()));
+                buffer.force();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the price snapshot " + path, e);
+        }
+    }
+
+    /**
+     * Maps a snapshot file written by {@link #write(Collection, Path)}.
+     *
+     * @param path the snapshot file
+     * @return the snapshot, backed by the mapping of the file
+     */
+    static PriceSnapshot map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid once the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("Not a price snapshot: " + path);
+            }
+            int rows = buffer.getInt(8);
+            if (channel.size() != HEADER_BYTES + (long) rows * ROW_BYTES) {
+                throw new IllegalStateException("Truncated price snapshot: " + path);
+            }
+            return new PriceSnapshot(buffer, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map the price snapshot " + path, e);
+        }
+    }
+
+    /**
+     * Resolves the price of a brand and product at an application time.
+     */
+    Optional<PriceSummary> priceAt(int brandId, long productId, LocalDateTime applicationDate) {
+        long instant = toEpochSecond(applicationDate);
+        int winner = -1;
+        for (int row = firstRowOf(brandId, productId); row < rows && isRowOf(row, brandId, productId); row++) {
+            long start = buffer.getLong(startDates + row * Long.BYTES);
+            if (start > instant) {
+                // rows are sorted by start date, none of the next ones has started yet
+                break;
+            }
+            if (instant <= buffer.getLong(endDates + row * Long.BYTES) && (winner < 0 || wins(row, winner))) {
+                winner = row;
+            }
+        }
+        return winner < 0 ? Optional.empty() : Optional.of(summaryAt(winner));
+    }
+
+    /**
+     * Resolves the segment of the timeline of a brand and product covering an application time, as
+     * {@link PriceTimeline#segmentAt(LocalDateTime)} does, with no timeline built: the winning price keeps winning
+     * from the end of the last price beating it before the application time to the start of the first one beating it
+     * after, within its own period.
+     */
+    Optional<PriceTimeline.Segment> segmentAt(int brandId, long productId, LocalDateTime applicationDate) {
+        long instant = toEpochSecond(applicationDate);
+        int first = firstRowOf(brandId, productId);
+        int winner = -1;
+        for (int row = first; row < rows && isRowOf(row, brandId, productId); row++) {
+            if (buffer.getLong(startDates + row * Long.BYTES) > instant) {
+                break;
+            }
+            if (instant <= buffer.getLong(endDates + row * Long.BYTES) && (winner < 0 || wins(row, winner))) {
+                winner = row;
+            }
+        }
+        if (winner < 0) {
+            return Optional.empty();
+        }
+        long winnerEnd = buffer.getLong(endDates + winner * Long.BYTES);
+        long from = buffer.getLong(startDates + winner * Long.BYTES);
+        long to = winnerEnd + 1;
+        for (int row = first; row < rows && isRowOf(row, brandId, productId); row++) {
+            long start = buffer.getLong(startDates + row * Long.BYTES);
+            if (start > winnerEnd) {
+                break;
+            }
+            if (row != winner && wins(row, winner)) {
+                if (start > instant) {
+                    // rows are sorted by start date, this one is the first to beat the winner after the application time
+                    to = start;
+                    break;
+                }
+                // it doesn't cover the application time, which the winner would not win otherwise
+                from = Math.max(from, buffer.getLong(endDates + row * Long.BYTES) + 1);
+            }
+        }
+        return Optional.of(new PriceTimeline.Segment(toDateTime(from), toDateTime(to), priceAt(winner)));
+    }
+
+    /**
+     * @return the prices of a brand and product
+     */
+    List<Price> prices(int brandId, long productId) {
+        List<Price> found = new ArrayList<>();
+        for (int row = firstRowOf(brandId, productId); row < rows && isRowOf(row, brandId, productId); row++) {
+            found.add(priceAt(row));
+        }
+        return found;
+    }
+
+    /**
+     * @return all the prices of the snapshot
+     */
+    List<Price> prices() {
+        List<Price> all = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            all.add(priceAt(row));
+        }
+        return all;
+    }
+
+    int size() {
+        return rows;
+    }
+
+    private boolean wins(int row, int winner) {
+        int priority = buffer.getInt(priorities + row * Integer.BYTES);
+        int winnerPriority = buffer.getInt(priorities + winner * Integer.BYTES);
+        return priority > winnerPriority
+                || priority == winnerPriority && buffer.getLong(ids + row * Long.BYTES) < buffer.getLong(ids + winner * Long.BYTES);
+    }
+
+    // lower bound of the brand and product in the (brand, product) order of the rows
+    private int firstRowOf(int brandId, long productId) {
+        int low = 0;
+        int high = rows;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int brand = buffer.getInt(brandIds + mid * Integer.BYTES);
+            if (brand < brandId || brand == brandId && buffer.getLong(productIds + mid * Long.BYTES) < productId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean isRowOf(int row, int brandId, long productId) {
+        return buffer.getInt(brandIds + row * Integer.BYTES) == brandId
+                && buffer.getLong(productIds + row * Long.BYTES) == productId;
+    }
+
+    private PriceSummary summaryAt(int row) {
+        return new PriceSummary(buffer.getInt(brandIds + row * Integer.BYTES),
+                buffer.getLong(productIds + row * Long.BYTES),
+                toDateTime(buffer.getLong(startDates + row * Long.BYTES)),
+                toDateTime(buffer.getLong(endDates + row * Long.BYTES)),
+                buffer.getInt(priceLists + row * Integer.BYTES),
+                buffer.getLong(prices + row * Long.BYTES),
+                CURRENCIES[buffer.get(currencies + row)]);
+    }
+
+    private Price priceAt(int row) {
+        return new Price(buffer.getLong(ids + row * Long.BYTES),
+                buffer.getInt(brandIds + row * Integer.BYTES),
+                buffer.getLong(productIds + row * Long.BYTES),
+                toDateTime(buffer.getLong(startDates + row * Long.BYTES)),
+                toDateTime(buffer.getLong(endDates + row * Long.BYTES)),
+                buffer.getInt(priceLists + row * Integer.BYTES),
+                buffer.getLong(prices + row * Long.BYTES),
+                CURRENCIES[buffer.get(currencies + row)],
+                buffer.getInt(priorities + row * Integer.BYTES),
+                buffer.getLong(versions + row * Long.BYTES));
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,269 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceChangeListener;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import com.capitole.pricingservice.common.annotation.InMemoryAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link PriceRepository} port that resolves prices from a memory-mapped {@link PriceSnapshot}
+ * of the whole catalog.
+ *
+ * <p>At startup the snapshot file at {@code pricing.repository.snapshot.path} is mapped as it is, so the catalog is
+ * neither read through JPA nor held in the heap. The file is exported from the JPA adapter when it does not exist
+ * yet, when it is of an older format or truncated, or on every startup with
+ * {@code pricing.repository.snapshot.export-on-startup=true}, which a database not kept across restarts needs.
+ *
+ * <p>Writes go through the JPA adapter, which remains the system of record. Once the surrounding transaction
+ * commits, the {@link PriceTimeline} of the brands and products written is kept in the heap and takes precedence
+ * over the snapshot, until the next {@link #export()} folds those changes into a new snapshot file. The same is done
+ * with the brands and products written by other instances of the service, read from the JPA adapter when their
+ * changes are relayed. The export runs every {@code pricing.repository.snapshot.export-interval} when there are
+ * changes, so the timelines kept in the heap are bounded by the writes of an interval.
+ *
+ * <p>It is enabled with {@code pricing.repository.type=snapshot} and takes precedence over the JPA adapter.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceRepository
+ * @see PriceSnapshot
+ */
+@Primary
+@InMemoryAdapter
+@ConditionalOnProperty(name = "pricing.repository.type", havingValue = "snapshot")
+class PriceSnapshotAdapter implements PriceRepository, PriceChangeListener, SmartInitializingSingleton, SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceSnapshotAdapter.class);
+
+    private final PriceRepository priceJpaAdapter;
+    private final Path path;
+    private final boolean exportOnStartup;
+    private final Duration exportInterval;
+
+    private volatile PriceSnapshot snapshot;
+    // timelines of the brands and products written since the snapshot was mapped
+    private final Map<BrandProductKey, PriceTimeline> changed = new ConcurrentHashMap<>();
+
+    PriceSnapshotAdapter(@Qualifier("priceJpaAdapter") PriceRepository priceJpaAdapter,
+                         @Value("${pricing.repository.snapshot.path}") Path path,
+                         @Value("${pricing.repository.snapshot.export-on-startup:false}") boolean exportOnStartup,
+                         @Value("${pricing.repository.snapshot.export-interval}") Duration exportInterval) {
+        this.priceJpaAdapter = priceJpaAdapter;
+        this.path = path;
+        this.exportOnStartup = exportOnStartup;
+        this.exportInterval = exportInterval;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (exportOnStartup || Files.notExists(path)) {
+            PriceSnapshot.write(priceJpaAdapter.findAll(), path);
+        }
+        snapshot = mapOrExport();
+        logger.info("Price snapshot {} mapped with {} prices", path, snapshot.size());
+    }
+
+    // a file of an older format, or truncated, is exported again instead of failing the startup
+    private PriceSnapshot mapOrExport() {
+        try {
+            return PriceSnapshot.map(path);
+        } catch (IllegalStateException e) {
+            logger.warn("{}, exporting it again from the database", e.getMessage());
+            PriceSnapshot.write(priceJpaAdapter.findAll(), path);
+            return PriceSnapshot.map(path);
+        }
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::exportChanges, exportInterval, exportInterval));
+    }
+
+    /**
+     * Exports a new snapshot file when prices have been written since the last one.
+     */
+    public void exportChanges() {
+        if (!changed.isEmpty()) {
+            export();
+        }
+    }
+
+    /**
+     * Writes a new snapshot file with the current prices, the mapped ones and the ones written since, and maps it.
+     */
+    public synchronized void export() {
+        PriceSnapshot.write(findAll(), path);
+        snapshot = PriceSnapshot.map(path);
+        changed.clear();
+        logger.info("Price snapshot {} exported with {} prices", path, snapshot.size());
+    }
+
+    @Override
+    public Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        if (!changed.isEmpty()) {
+            PriceTimeline timeline = changed.get(new BrandProductKey(brandId, productId));
+            if (timeline != null) {
+                return timeline.priceAt(applicationDate)
+                               .map(PriceSummary::from);
+            }
+        }
+        return snapshot.priceAt(brandId, productId, applicationDate);
+    }
+
+    @Override
+    public Optional<PriceTimeline.Segment> getPriceSegmentByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        if (!changed.isEmpty()) {
+            PriceTimeline timeline = changed.get(new BrandProductKey(brandId, productId));
+            if (timeline != null) {
+                return timeline.segmentAt(applicationDate);
+            }
+        }
+        return snapshot.segmentAt(brandId, productId, applicationDate);
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdAndProductId(Integer brandId, Long productId) {
+        return pricesOf(new BrandProductKey(brandId, productId));
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdsAndProductIdsAndDateRange(Collection<Integer> brandIds, Collection<Long> productIds,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        List<Price> prices = new ArrayList<>();
+        for (Integer brandId : brandIds) {
+            for (Long productId : productIds) {
+                pricesOf(new BrandProductKey(brandId, productId))
+                        .stream()
+                        .filter(price -> !price.getStartDate().isAfter(to) && !price.getEndDate().isBefore(from))
+                        .forEach(prices::add);
+            }
+        }
+        return prices;
+    }
+
+    @Override
+    public Price save(Price price) {
+        // an update may move the price to another brand/product, which has to stop resolving it
+        BrandProductKey previousKey = price.getId() == null ? null : priceJpaAdapter.findById(price.getId())
+                                                                                    .map(BrandProductKey::of)
+                                                                                    .orElse(null);
+        Price saved = priceJpaAdapter.save(price);
+        afterCommit(() -> index(saved, previousKey));
+        return saved;
+    }
+
+    @Override
+    public Optional<UpdatedPrice> update(Price price) {
+        Optional<UpdatedPrice> updated = priceJpaAdapter.update(price);
+        updated.ifPresent(updatedPrice -> afterCommit(() -> index(updatedPrice.updated(), BrandProductKey.of(updatedPrice.previous()))));
+        return updated;
+    }
+
+    @Override
+    public List<Price> saveAll(List<Price> prices) {
+        List<Price> saved = priceJpaAdapter.saveAll(prices);
+        afterCommit(() -> indexAll(saved));
+        return saved;
+    }
+
+    @Override
+    public Optional<Price> findById(Long id) {
+        return priceJpaAdapter.findById(id);
+    }
+
+    @Override
+    public List<Price> findAll() {
+        List<Price> prices = new ArrayList<>();
+        if (changed.isEmpty()) {
+            prices.addAll(snapshot.prices());
+        } else {
+            snapshot.prices()
+                    .stream()
+                    .filter(price -> !changed.containsKey(BrandProductKey.of(price)))
+                    .forEach(prices::add);
+            changed.values().forEach(timeline -> prices.addAll(timeline.prices()));
+        }
+        return prices;
+    }
+
+    // read from the database, with its cursor, rather than from the prices in memory, which are not sorted
+    @Override
+    public Stream<Price> streamAll(PriceFilter filter) {
+        return priceJpaAdapter.streamAll(filter);
+    }
+
+    // kept even when empty, so the snapshot rows of a brand/product left without prices are no longer resolved
+    @Override
+    public synchronized void onPriceChanges(Set<BrandProductKey> keys) {
+        keys.forEach(key -> changed.put(key, PriceTimeline.of(priceJpaAdapter.findAllByBrandIdAndProductId(key.brandId(), key.productId()))));
+    }
+
+    private List<Price> pricesOf(BrandProductKey key) {
+        PriceTimeline timeline = changed.get(key);
+        return timeline == null ? snapshot.prices(key.brandId(), key.productId()) : timeline.prices();
+    }
+
+    private PriceTimeline timelineOf(BrandProductKey key) {
+        PriceTimeline timeline = changed.get(key);
+        return timeline == null ? PriceTimeline.of(snapshot.prices(key.brandId(), key.productId())) : timeline;
+    }
+
+    private synchronized void index(Price price, BrandProductKey previousKey) {
+        BrandProductKey key = BrandProductKey.of(price);
+        if (previousKey != null && !previousKey.equals(key)) {
+            // kept even when empty, so the snapshot rows of the previous brand/product are no longer resolved
+            changed.put(previousKey, timelineOf(previousKey).without(price.getId()));
+        }
+        changed.put(key, timelineOf(key).with(price));
+    }
+
+    // new prices only, so each timeline is rebuilt once for all the prices of its brand/product
+    private synchronized void indexAll(List<Price> prices) {
+        prices.stream()
+              .collect(Collectors.groupingBy(BrandProductKey::of))
+              .forEach((key, added) -> changed.put(key, timelineOf(key).withAll(added)));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceChangeListener;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import com.capitole.pricingservice.common.annotation.InMemoryAdapter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link PriceRepository} port that resolves the prices of a hot window around now from an
+ * in-memory index, and the rest of them from the JPA adapter.
+ *
+ * <p>The hot window goes from {@code pricing.repository.tiered.window-before} before now to
+ * {@code pricing.repository.tiered.window-after} after it, and only the prices valid at some point of it are kept in
+ * memory, in a {@link PriceTimeline} per brand and product, so the years of expired prices of the database are never
+ * loaded. As every price valid at an instant of the window is in memory, the lookups within the window are answered
+ * from it, found or not, with no database round trip, while the lookups outside the window, and the reads of all the
+ * prices of a brand and product, fall through to the JPA adapter. The segments resolved in memory are clipped to the
+ * window, beyond which the prices that could end them are not known.
+ *
+ * <p>The window is slid forward every {@code pricing.repository.tiered.slide-interval}, reloading the prices valid
+ * in the new window from the JPA adapter, so the expired prices leave the index and the ones about to start enter
+ * it. A lookup is answered from memory only while it falls within the window loaded, so a late slide makes more of
+ * them fall through, never answers them wrongly. Writes go through the JPA adapter, which remains the system of
+ * record, and the index is updated once the surrounding transaction commits. The brands and products written by
+ * other instances of the service are reloaded from the JPA adapter when their changes are relayed.
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.repository.tier.lookups} - Counter of the lookups, tagged with the {@code tier} answering
+ *   them (hot, cold); a batch of date ranges counts once per tier answering some of them.</li>
+ *   <li>{@code pricing.repository.tier.hit.ratio} - Gauge of the share of the lookups answered by the hot tier.</li>
+ *   <li>{@code pricing.repository.tier.hot.prices} - Gauge of the prices held by the hot tier.</li>
+ * </ul>
+ *
+ * <p>It is enabled with {@code pricing.repository.type=tiered} and takes precedence over the JPA adapter.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceRepository
+ * @see PriceTimeline
+ */
+@Primary
+@InMemoryAdapter
+@ConditionalOnProperty(name = "pricing.repository.type", havingValue = "tiered")
+class PriceTieredAdapter implements PriceRepository, PriceChangeListener, SmartInitializingSingleton, SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceTieredAdapter.class);
+
+    private final PriceRepository priceJpaAdapter;
+
+    private final Clock clock;
+
+    private final Duration windowBefore;
+    private final Duration windowAfter;
+    private final Duration slideInterval;
+
+    // replaced as a whole when the window slides, so a lookup reads a window and the prices of that window
+    private volatile HotTier hot = HotTier.NONE;
+
+    private final Counter hotLookups;
+    private final Counter coldLookups;
+
+    PriceTieredAdapter(@Qualifier("priceJpaAdapter") PriceRepository priceJpaAdapter,
+                       @Value("${pricing.repository.tiered.window-before}") Duration windowBefore,
+                       @Value("${pricing.repository.tiered.window-after}") Duration windowAfter,
+                       @Value("${pricing.repository.tiered.slide-interval}") Duration slideInterval,
+                       Clock clock,
+                       MeterRegistry meterRegistry) {
+        if (windowBefore.isNegative() || windowAfter.isNegative()) {
+            throw new IllegalArgumentException("pricing.repository.tiered.window-before and window-after must not be negative.");
+        }
+        this.priceJpaAdapter = priceJpaAdapter;
+        this.windowBefore = windowBefore;
+        this.windowAfter = windowAfter;
+        this.slideInterval = slideInterval;
+        this.clock = clock;
+        this.hotLookups = lookupCounter("hot", meterRegistry);
+        this.coldLookups = lookupCounter("cold", meterRegistry);
+        Gauge.builder("pricing.repository.tier.hit.ratio", this, PriceTieredAdapter::hitRatio)
+             .description("Share of the lookups answered by the hot tier")
+             .register(meterRegistry);
+        Gauge.builder("pricing.repository.tier.hot.prices", this, adapter -> adapter.hot.keysById().size())
+             .description("Prices held by the hot tier")
+             .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(String tier, MeterRegistry meterRegistry) {
+        return Counter.builder("pricing.repository.tier.lookups")
+                      .description("Lookups of prices by the tier answering them")
+                      .tag("tier", tier)
+                      .register(meterRegistry);
+    }
+
+    // no lookup yet, no ratio
+    private double hitRatio() {
+        double hits = hotLookups.count();
+        double total = hits + coldLookups.count();
+        return total == 0 ? Double.NaN : hits / total;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        slide();
+    }
+
+    // registered here rather than with @Scheduled, which doesn't take the durations of the properties, like 1h
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::slide, slideInterval, slideInterval));
+    }
+
+    /**
+     * Slides the hot window to the current time, in the zone of the dates of the prices.
+     */
+    public void slide() {
+        slide(LocalDateTime.now(clock));
+    }
+
+    /**
+     * Slides the hot window to the given time, reloading the prices valid in it from the JPA adapter.
+     */
+    synchronized void slide(LocalDateTime now) {
+        LocalDateTime from = now.minus(windowBefore).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime to = now.plus(windowAfter).truncatedTo(ChronoUnit.SECONDS);
+        HotTier slid = HotTier.of(from, to, priceJpaAdapter.findAllByDateRange(from, to));
+        hot = slid;
+        logger.info("Hot price tier slid to [{}, {}] with {} prices for {} brand/products", from, to,
+                slid.keysById().size(), slid.timelines().size());
+    }
+
+    @Override
+    public Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        HotTier tier = hot;
+        if (!tier.covers(applicationDate)) {
+            coldLookups.increment();
+            return priceJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(brandId, productId, applicationDate);
+        }
+        hotLookups.increment();
+        PriceTimeline timeline = tier.timelines().get(new BrandProductKey(brandId, productId));
+        if (timeline == null) {
+            return Optional.empty();
+        }
+        return timeline.priceAt(applicationDate)
+                       .map(PriceSummary::from);
+    }
+
+    @Override
+    public Optional<PriceTimeline.Segment> getPriceSegmentByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        HotTier tier = hot;
+        if (!tier.covers(applicationDate)) {
+            coldLookups.increment();
+            return priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(brandId, productId, applicationDate);
+        }
+        hotLookups.increment();
+        PriceTimeline timeline = tier.timelines().get(new BrandProductKey(brandId, productId));
+        return timeline == null ? Optional.empty() : timeline.segmentAt(applicationDate).map(tier::clip);
+    }
+
+    // clipped to the range, which is within the window, by the timeline itself
+    @Override
+    public List<PriceTimeline.Segment> getPriceSegmentsByBrandIdAndProductIdAndDateRange(int brandId, long productId, LocalDateTime from, LocalDateTime to) {
+        HotTier tier = hot;
+        if (!tier.covers(from) || !tier.covers(to)) {
+            coldLookups.increment();
+            return priceJpaAdapter.getPriceSegmentsByBrandIdAndProductIdAndDateRange(brandId, productId, from, to);
+        }
+        hotLookups.increment();
+        PriceTimeline timeline = tier.timelines().get(new BrandProductKey(brandId, productId));
+        return timeline == null ? List.of() : timeline.segmentsBetween(from, to);
+    }
+
+    // the expired prices and the ones not started yet are only in the database
+    @Override
+    public List<Price> findAllByBrandIdAndProductId(Integer brandId, Long productId) {
+        return priceJpaAdapter.findAllByBrandIdAndProductId(brandId, productId);
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdsAndProductIdsAndDateRange(Collection<Integer> brandIds, Collection<Long> productIds,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        HotTier tier = hot;
+        if (!tier.covers(from) || !tier.covers(to)) {
+            coldLookups.increment();
+            return priceJpaAdapter.findAllByBrandIdsAndProductIdsAndDateRange(brandIds, productIds, from, to);
+        }
+        hotLookups.increment();
+        List<Price> prices = new ArrayList<>();
+        for (Integer brandId : brandIds) {
+            for (Long productId : productIds) {
+                PriceTimeline timeline = tier.timelines().get(new BrandProductKey(brandId, productId));
+                if (timeline != null) {
+                    timeline.prices()
+                            .stream()
+                            .filter(price -> !price.getStartDate().isAfter(to) && !price.getEndDate().isBefore(from))
+                            .forEach(prices::add);
+                }
+            }
+        }
+        return prices;
+    }
+
+    // the ranges within the window are answered by the hot tier, the others by a single query of the database
+    @Override
+    public List<Price> findAllByDateRanges(Collection<BrandProductDateRange> ranges) {
+        HotTier tier = hot;
+        List<BrandProductDateRange> cold = new ArrayList<>();
+        List<Price> prices = new ArrayList<>();
+        for (BrandProductDateRange range : ranges) {
+            if (!tier.covers(range.from()) || !tier.covers(range.to())) {
+                cold.add(range);
+                continue;
+            }
+            PriceTimeline timeline = tier.timelines().get(range.key());
+            if (timeline != null) {
+                timeline.prices()
+                        .stream()
+                        .filter(range::includes)
+                        .forEach(prices::add);
+            }
+        }
+        if (cold.size() < ranges.size()) {
+            hotLookups.increment();
+        }
+        if (!cold.isEmpty()) {
+            coldLookups.increment();
+            prices.addAll(priceJpaAdapter.findAllByDateRanges(cold));
+        }
+        return prices;
+    }
+
+    @Override
+    public List<Price> findAllByDateRange(LocalDateTime from, LocalDateTime to) {
+        return priceJpaAdapter.findAllByDateRange(from, to);
+    }
+
+    @Override
+    public Price save(Price price) {
+        Price saved = priceJpaAdapter.save(price);
+        afterCommit(() -> index(saved));
+        return saved;
+    }
+
+    // the index moves the price from its previous brand/product, or out of the window, by itself
+    @Override
+    public Optional<UpdatedPrice> update(Price price) {
+        Optional<UpdatedPrice> updated = priceJpaAdapter.update(price);
+        updated.ifPresent(updatedPrice -> afterCommit(() -> index(updatedPrice.updated())));
+        return updated;
+    }
+
+    @Override
+    public List<Price> saveAll(List<Price> prices) {
+        List<Price> saved = priceJpaAdapter.saveAll(prices);
+        afterCommit(() -> indexAll(saved));
+        return saved;
+    }
+
+    @Override
+    public Optional<Price> findById(Long id) {
+        return priceJpaAdapter.findById(id);
+    }
+
+    @Override
+    public List<Price> findAll() {
+        return priceJpaAdapter.findAll();
+    }
+
+    @Override
+    public Stream<Price> streamAll(PriceFilter filter) {
+        return priceJpaAdapter.streamAll(filter);
+    }
+
+    @Override
+    public synchronized void onPriceChanges(Set<BrandProductKey> keys) {
+        HotTier tier = hot;
+        if (tier == HotTier.NONE) {
+            return;
+        }
+        for (BrandProductKey key : keys) {
+            List<Price> prices = priceJpaAdapter.findAllByBrandIdsAndProductIdsAndDateRange(List.of(key.brandId()),
+                    List.of(key.productId()), tier.from(), tier.to());
+            PriceTimeline previous = prices.isEmpty() ? tier.timelines().remove(key) : tier.timelines().put(key, PriceTimeline.of(prices));
+            if (previous != null) {
+                // the prices moved to another brand/product are indexed again with it
+                previous.prices().forEach(price -> tier.keysById().remove(price.getId(), key));
+            }
+            prices.forEach(price -> tier.keysById().put(price.getId(), key));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private synchronized void index(Price price) {
+        HotTier tier = hot;
+        if (tier == HotTier.NONE) {
+            return;
+        }
+        BrandProductKey key = BrandProductKey.of(price);
+        boolean hotPrice = tier.intersects(price);
+        BrandProductKey previousKey = hotPrice ? tier.keysById().put(price.getId(), key) : tier.keysById().remove(price.getId());
+        if (previousKey != null && (!hotPrice || !previousKey.equals(key))) {
+            // the price has been moved to another brand/product, or out of the window
+            tier.timelines().computeIfPresent(previousKey, (k, timeline) -> {
+                PriceTimeline updated = timeline.without(price.getId());
+                return updated.isEmpty() ? null : updated;
+            });
+        }
+        if (hotPrice) {
+            tier.timelines().merge(key, PriceTimeline.of(List.of(price)), (timeline, ignored) -> timeline.with(price));
+        }
+    }
+
+    // new prices only, so each timeline is rebuilt once for all the prices of its brand/product
+    private synchronized void indexAll(List<Price> prices) {
+        HotTier tier = hot;
+        prices.stream()
+              .filter(tier::intersects)
+              .collect(Collectors.groupingBy(BrandProductKey::of))
+              .forEach((key, added) -> {
+                  added.forEach(price -> tier.keysById().put(price.getId(), key));
+                  tier.timelines().merge(key, PriceTimeline.of(added), (timeline, ignored) -> timeline.withAll(added));
+              });
+    }
+
+    /**
+     * The prices valid at some point of the window {@code [from, to]}, both bounds included as the dates of the
+     * prices, by brand and product.
+     */
+    private record HotTier(LocalDateTime from, LocalDateTime to, Map<BrandProductKey, PriceTimeline> timelines,
+                           Map<Long, BrandProductKey> keysById) {
+
+        // before the first slide, covering no instant
+        private static final HotTier NONE = new HotTier(LocalDateTime.MAX, LocalDateTime.MIN, Map.of(), Map.of());
+
+        static HotTier of(LocalDateTime from, LocalDateTime to, List<Price> prices) {
+            Map<BrandProductKey, PriceTimeline> timelines = new ConcurrentHashMap<>();
+            Map<Long, BrandProductKey> keysById = new ConcurrentHashMap<>();
+            prices.stream()
+                  .collect(Collectors.groupingBy(BrandProductKey::of))
+                  .forEach((key, keyPrices) -> {
+                      timelines.put(key, PriceTimeline.of(keyPrices));
+                      keyPrices.forEach(price -> keysById.put(price.getId(), key));
+                  });
+            return new HotTier(from, to, timelines, keysById);
+        }
+
+        boolean covers(LocalDateTime instant) {
+            return !instant.isBefore(from) && !instant.isAfter(to);
+        }
+
+        boolean intersects(Price price) {
+            return !price.getStartDate().isAfter(to) && !price.getEndDate().isBefore(from);
+        }
+
+        // the segments end one second after the end date closing them, as the window does
+        PriceTimeline.Segment clip(PriceTimeline.Segment segment) {
+            LocalDateTime end = to.plusSeconds(1);
+            if (!segment.from().isBefore(from) && !segment.to().isAfter(end)) {
+                return segment;
+            }
+            return new PriceTimeline.Segment(segment.from().isBefore(from) ? from : segment.from(),
+                    segment.to().isAfter(end) ? end : segment.to(), segment.price());
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceChangeListener;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import com.capitole.pricingservice.application.port.out.PriceTimelineRepository;
+import com.capitole.pricingservice.common.annotation.InMemoryAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link PriceRepository} and {@link PriceTimelineRepository} ports that resolves prices from
+ * the persisted effective price timelines, loaded into memory.
+ *
+ * <p>At startup the timelines persisted by the JPA timeline adapter are loaded as they are, one {@link PriceTimeline}
+ * per brand and product, so the lookup of the price at an application time is a binary search over non-overlapping
+ * segments, with neither a database round trip nor a priority resolution. The timelines are rebuilt from the prices
+ * before being loaded when none has been persisted yet, or on every startup with
+ * {@code pricing.repository.timeline.rebuild-on-startup=true}, for prices written without refreshing them, like the
+ * ones of {@code data.sql}.
+ *
+ * <p>Writes go through the JPA adapters, which remain the system of record. The timelines refreshed by a write replace
+ * the loaded ones once the surrounding transaction commits. The timelines of the brands and products written by other
+ * instances of the service are computed again from their prices when their changes are relayed, as those instances
+ * persisted them.
+ *
+ * <p>It is enabled with {@code pricing.repository.type=timeline} and takes precedence over the JPA adapters.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceRepository
+ * @see PriceTimelineRepository
+ * @see PriceTimeline
+ */
+@Primary
+@InMemoryAdapter
+@ConditionalOnProperty(name = "pricing.repository.type", havingValue = "timeline")
+class PriceTimelineAdapter implements PriceRepository, PriceTimelineRepository, PriceChangeListener, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceTimelineAdapter.class);
+
+    private final PriceRepository priceJpaAdapter;
+    private final PriceTimelineRepository priceTimelineJpaAdapter;
+    private final boolean rebuildOnStartup;
+
+    private final Map<BrandProductKey, PriceTimeline> timelines = new ConcurrentHashMap<>();
+
+    PriceTimelineAdapter(@Qualifier("priceJpaAdapter") PriceRepository priceJpaAdapter,
+                         @Qualifier("priceTimelineJpaAdapter") PriceTimelineRepository priceTimelineJpaAdapter,
+                         @Value("${pricing.repository.timeline.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.priceJpaAdapter = priceJpaAdapter;
+        this.priceTimelineJpaAdapter = priceTimelineJpaAdapter;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (rebuildOnStartup || priceTimelineJpaAdapter.isEmpty()) {
+            priceTimelineJpaAdapter.rebuild();
+        }
+        load();
+    }
+
+    @Override
+    public Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        PriceTimeline timeline = timelines.get(new BrandProductKey(brandId, productId));
+        if (timeline == null) {
+            return Optional.empty();
+        }
+        return timeline.priceAt(applicationDate)
+                       .map(PriceSummary::from);
+    }
+
+    @Override
+    public Optional<PriceTimeline.Segment> getPriceSegmentByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        PriceTimeline timeline = timelines.get(new BrandProductKey(brandId, productId));
+        return timeline == null ? Optional.empty() : timeline.segmentAt(applicationDate);
+    }
+
+    @Override
+    public List<PriceTimeline.Segment> getPriceSegmentsByBrandIdAndProductIdAndDateRange(int brandId, long productId, LocalDateTime from, LocalDateTime to) {
+        PriceTimeline timeline = timelines.get(new BrandProductKey(brandId, productId));
+        return timeline == null ? List.of() : timeline.segmentsBetween(from, to);
+    }
+
+    @Override
+    public Map<BrandProductKey, PriceTimeline> refresh(Collection<BrandProductKey> keys) {
+        Map<BrandProductKey, PriceTimeline> refreshed = priceTimelineJpaAdapter.refresh(keys);
+        afterCommit(() -> refreshed.forEach((key, timeline) -> {
+            if (timeline.isEmpty()) {
+                timelines.remove(key);
+            } else {
+                timelines.put(key, timeline);
+            }
+        }));
+        return refreshed;
+    }
+
+    @Override
+    public void rebuild() {
+        priceTimelineJpaAdapter.rebuild();
+        afterCommit(this::load);
+    }
+
+    @Override
+    public Map<BrandProductKey, PriceTimeline> findAllTimelines() {
+        return Map.copyOf(timelines);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return priceTimelineJpaAdapter.isEmpty();
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdAndProductId(Integer brandId, Long productId) {
+        return priceJpaAdapter.findAllByBrandIdAndProductId(brandId, productId);
+    }
+
+    @Override
+    public List<Price> findAllByBrandIdsAndProductIdsAndDateRange(Collection<Integer> brandIds, Collection<Long> productIds,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        return priceJpaAdapter.findAllByBrandIdsAndProductIdsAndDateRange(brandIds, productIds, from, to);
+    }
+
+    @Override
+    public List<Price> findAllByDateRanges(Collection<BrandProductDateRange> ranges) {
+        return priceJpaAdapter.findAllByDateRanges(ranges);
+    }
+
+    @Override
+    public Price save(Price price) {
+        return priceJpaAdapter.save(price);
+    }
+
+    // the timelines are refreshed by the service, as for the rest of the writes
+    @Override
+    public Optional<UpdatedPrice> update(Price price) {
+        return priceJpaAdapter.update(price);
+    }
+
+    @Override
+    public List<Price> saveAll(List<Price> prices) {
+        return priceJpaAdapter.saveAll(prices);
+    }
+
+    @Override
+    public Optional<Price> findById(Long id) {
+        return priceJpaAdapter.findById(id);
+    }
+
+    @Override
+    public List<Price> findAll() {
+        return priceJpaAdapter.findAll();
+    }
+
+    @Override
+    public Stream<Price> streamAll(PriceFilter filter) {
+        return priceJpaAdapter.streamAll(filter);
+    }
+
+    @Override
+    public void onPriceChanges(Set<BrandProductKey> keys) {
+        for (BrandProductKey key : keys) {
+            PriceTimeline timeline = PriceTimeline.of(priceJpaAdapter.findAllByBrandIdAndProductId(key.brandId(), key.productId()));
+            if (timeline.isEmpty()) {
+                timelines.remove(key);
+            } else {
+                timelines.put(key, timeline);
+            }
+        }
+    }
+
+    private synchronized void load() {
+        Map<BrandProductKey, PriceTimeline> loaded = priceTimelineJpaAdapter.findAllTimelines();
+        timelines.clear();
+        timelines.putAll(loaded);
+        logger.info("Price timelines loaded for {} brand/products", timelines.size());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
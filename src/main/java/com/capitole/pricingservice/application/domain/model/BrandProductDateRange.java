@@ -0,0 +1,24 @@
+package com.capitole.pricingservice.application.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Date range of the prices of a brand and product, both bounds included: the prices valid at some point of it.
+ *
+ * @param key  the brand and product
+ * @param from the start of the date range
+ * @param to   the end of the date range
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public record BrandProductDateRange(BrandProductKey key, LocalDateTime from, LocalDateTime to) {
+
+    public BrandProductDateRange {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to.");
+        }
+    }
+
+    public boolean includes(Price price) {
+        return key.equals(BrandProductKey.of(price)) && !price.getStartDate().isAfter(to) && !price.getEndDate().isBefore(from);
+    }
+}
@@ -0,0 +1,11 @@
+package com.capitole.pricingservice.application.domain.model;
+
+/*
+ * Identifies the prices of a product for a brand, the unit the price timelines are built for
+ */
+public record BrandProductKey(int brandId, long productId) {
+
+    public static BrandProductKey of(Price price) {
+        return new BrandProductKey(price.getBrandId(), price.getProductId());
+    }
+}
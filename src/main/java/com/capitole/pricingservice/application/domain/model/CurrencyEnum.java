@@ -1,20 +1,51 @@
 package com.capitole.pricingservice.application.domain.model;
 
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 
 public enum CurrencyEnum {
-    USD("USD"),
-    EUR("EUR"),
-    COP("COP");
+    USD("USD", 2),
+    EUR("EUR", 2),
+    COP("COP", 2);
 
     // Getter
     private final String code;
+    // digits of the minor unit, the prices are amounts of minor units: 3550 is 35.50 with a scale of 2
+    private final int scale;
 
     // Constructor
-    CurrencyEnum(String code) {
+    CurrencyEnum(String code, int scale) {
         this.code = code;
+        this.scale = scale;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * Converts an amount of the currency to minor units.
+     *
+     * @param amount the amount, with no more decimals than the scale of the currency
+     * @return the amount in minor units
+     * @throws IllegalArgumentException if the amount has more decimals than the scale or does not fit in a long
+     */
+    public long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.movePointRight(scale).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("The amount " + amount + " is out of range or has more than " + scale + " decimals of " + code);
+        }
+    }
+
+    /**
+     * @param minorUnits an amount in minor units
+     * @return the same amount of the currency, with its scale
+     */
+    public BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, scale);
     }
 
     // Static map for fast lookup
@@ -0,0 +1,55 @@
+package com.capitole.pricingservice.application.domain.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Exchange rate from a base currency to a quote currency, valid from its start date to its end date, both included,
+ * as the prices are: an amount in the base currency is worth {@code rate} times that amount in the quote currency.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public record FxRate(CurrencyEnum baseCurrency, CurrencyEnum quoteCurrency,
+                     LocalDateTime startDate, LocalDateTime endDate, double rate) {
+
+    public FxRate {
+        if (baseCurrency == null || quoteCurrency == null) {
+            throw new IllegalArgumentException("base and quote currencies must not be null.");
+        }
+        if (baseCurrency == quoteCurrency) {
+            throw new IllegalArgumentException("base and quote currencies must be different.");
+        }
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("startDate must be before endDate and not null.");
+        }
+        if (!(rate > 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("rate must be a positive number.");
+        }
+    }
+
+    /**
+     * @return the rate from the quote currency to the base currency, valid in the same period
+     */
+    public FxRate inverse() {
+        return new FxRate(quoteCurrency, baseCurrency, startDate, endDate, 1 / rate);
+    }
+
+    /**
+     * Converts a price in the base currency to the quote currency, rounded half-even to the minor unit of the quote
+     * currency.
+     *
+     * @param price the price, in the base currency
+     * @return the same price in the quote currency
+     */
+    public PriceSummary convert(PriceSummary price) {
+        if (price.currency() != baseCurrency) {
+            throw new IllegalArgumentException("The price is in " + price.currency() + " and the rate converts from " + baseCurrency);
+        }
+        long converted = quoteCurrency.toMinorUnits(baseCurrency.fromMinorUnits(price.price())
+                                                                .multiply(BigDecimal.valueOf(rate))
+                                                                .setScale(quoteCurrency.scale(), RoundingMode.HALF_EVEN));
+        return new PriceSummary(price.brandId(), price.productId(), price.startDate(), price.endDate(), price.priceList(),
+                converted, quoteCurrency);
+    }
+}
@@ -0,0 +1,124 @@
+package com.capitole.pricingservice.application.domain.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Table of the exchange rates between the {@link CurrencyEnum currencies}, indexed by currency pair and date.
+ *
+ * <p>The rates of each pair are stored in a slot of an array indexed by the ordinals of the pair, sorted by start
+ * date with their start and end dates as epoch-seconds, so the rate at an instant is an array access and a binary
+ * search, with no map lookup. The rates of a pair must not overlap. A pair without rates is answered with the inverse
+ * of the opposite pair, when it has them.
+ *
+ * <p>Instances are immutable, the table is replaced as a whole when the rates are refreshed.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public final class FxRateTable {
+
+    private static final CurrencyEnum[] CURRENCIES = CurrencyEnum.values();
+
+    private static final FxRateTable EMPTY = of(List.of());
+
+    private final List<FxRate> rates;
+    // the rates of the pair (base, quote) are at index base.ordinal() * CURRENCIES.length + quote.ordinal()
+    private final long[][] starts;
+    private final long[][] ends;
+    private final FxRate[][] ratesByPair;
+
+    private FxRateTable(List<FxRate> rates, long[][] starts, long[][] ends, FxRate[][] ratesByPair) {
+        this.rates = rates;
+        this.starts = starts;
+        this.ends = ends;
+        this.ratesByPair = ratesByPair;
+    }
+
+    public static FxRateTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds the table of the given rates.
+     *
+     * @param rates the rates of any currency pairs
+     * @return the table of the rates
+     * @throws IllegalArgumentException if two rates of the same pair overlap
+     */
+    public static FxRateTable of(Collection<FxRate> rates) {
+        int pairs = CURRENCIES.length * CURRENCIES.length;
+        List<List<FxRate>> byPair = new ArrayList<>(pairs);
+        for (int i = 0; i < pairs; i++) {
+            byPair.add(new ArrayList<>());
+        }
+        rates.forEach(rate -> byPair.get(pair(rate.baseCurrency(), rate.quoteCurrency())).add(rate));
+
+        long[][] starts = new long[pairs][];
+        long[][] ends = new long[pairs][];
+        FxRate[][] ratesByPair = new FxRate[pairs][];
+        for (int i = 0; i < pairs; i++) {
+            List<FxRate> pairRates = byPair.get(i);
+            pairRates.sort(Comparator.comparing(FxRate::startDate));
+            starts[i] = new long[pairRates.size()];
+            ends[i] = new long[pairRates.size()];
+            ratesByPair[i] = pairRates.toArray(FxRate[]::new);
+            for (int j = 0; j < pairRates.size(); j++) {
+                starts[i][j] = epochSecond(pairRates.get(j).startDate());
+                ends[i][j] = epochSecond(pairRates.get(j).endDate());
+                if (j > 0 && starts[i][j] <= ends[i][j - 1]) {
+                    throw new IllegalArgumentException("The rates of " + pairRates.get(j).baseCurrency() + "/" + pairRates.get(j).quoteCurrency()
+                            + " from " + pairRates.get(j - 1).startDate() + " and from " + pairRates.get(j).startDate() + " overlap");
+                }
+            }
+        }
+        return new FxRateTable(List.copyOf(rates), starts, ends, ratesByPair);
+    }
+
+    /**
+     * Retrieves the rate from a currency to another at an instant.
+     *
+     * @param baseCurrency  the currency to convert from
+     * @param quoteCurrency the currency to convert to
+     * @param instant       the instant the rate must be valid at
+     * @return an Optional containing the rate, the inverse of the opposite one if the pair has no rates, or an empty
+     * Optional if neither of them is valid at the instant
+     */
+    public Optional<FxRate> rateAt(CurrencyEnum baseCurrency, CurrencyEnum quoteCurrency, LocalDateTime instant) {
+        long second = epochSecond(instant);
+        int pair = pair(baseCurrency, quoteCurrency);
+        if (ratesByPair[pair].length > 0) {
+            return Optional.ofNullable(rateAt(pair, second));
+        }
+        FxRate opposite = rateAt(pair(quoteCurrency, baseCurrency), second);
+        return opposite == null ? Optional.empty() : Optional.of(opposite.inverse());
+    }
+
+    private FxRate rateAt(int pair, long second) {
+        // last rate starting at or before the instant
+        int index = Arrays.binarySearch(starts[pair], second);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index >= 0 && ends[pair][index] >= second ? ratesByPair[pair][index] : null;
+    }
+
+    /**
+     * @return all the rates of the table
+     */
+    public List<FxRate> rates() {
+        return rates;
+    }
+
+    public int size() {
+        return rates.size();
+    }
+
+    private static int pair(CurrencyEnum baseCurrency, CurrencyEnum quoteCurrency) {
+        return baseCurrency.ordinal() * CURRENCIES.length + quoteCurrency.ordinal();
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -15,14 +15,23 @@ public class Price {
     private final LocalDateTime startDate;
     private final LocalDateTime endDate;
     private final Integer priceList;
-    private final Double price;
+    // in minor units of the currency
+    private final long price;
     private final CurrencyEnum currency;
     private final Integer priority;
+    // incremented by every update, null until the price is saved
+    private final Long version;
 
 
     public Price(Long id, Integer brandId, Long productId, LocalDateTime startDate,
-                 LocalDateTime endDate, Integer priceList, Double price,
+                 LocalDateTime endDate, Integer priceList, long price,
                  CurrencyEnum currency, Integer priority) {
+        this(id, brandId, productId, startDate, endDate, priceList, price, currency, priority, 0L);
+    }
+
+    public Price(Long id, Integer brandId, Long productId, LocalDateTime startDate,
+                 LocalDateTime endDate, Integer priceList, long price,
+                 CurrencyEnum currency, Integer priority, Long version) {
 
         if (id == null || brandId == null || productId == null || currency == null) {
             throw new IllegalArgumentException("id, brandId, productId and currency must not be null.");
@@ -33,12 +42,15 @@ public class Price {
         if (priceList == null || priceList < 0) {
             throw new IllegalArgumentException("price list must not be null or negative.");
         }
-        if (price == null || price < 0) {
-            throw new IllegalArgumentException("price must not be null or negative.");
+        if (price < 0) {
+            throw new IllegalArgumentException("price must not be negative.");
         }
         if (priority == null || priority < 0) {
             throw new IllegalArgumentException("priority must not be null or negative.");
         }
+        if (version == null || version < 0) {
+            throw new IllegalArgumentException("version must not be null or negative.");
+        }
 
 
         this.id = id;
@@ -50,6 +62,7 @@ public class Price {
         this.price = price;
         this.currency = currency;
         this.priority = priority;
+        this.version = version;
     }
 
     /**
@@ -57,7 +70,7 @@ public class Price {
      * to use just to create a price save in persistence
      */
     public Price(Integer brandId, Long productId, LocalDateTime startDate,
-                 LocalDateTime endDate, Integer priceList, Double price, CurrencyEnum currency) {
+                 LocalDateTime endDate, Integer priceList, long price, CurrencyEnum currency) {
 
         if (brandId == null || productId == null || currency == null) {
             throw new IllegalArgumentException("brandId, productId and currency must not be null.");
@@ -68,8 +81,8 @@ public class Price {
         if (priceList == null || priceList < 0) {
             throw new IllegalArgumentException("price list must not be null or negative.");
         }
-        if (price == null || price < 0) {
-            throw new IllegalArgumentException("price must not be null or negative.");
+        if (price < 0) {
+            throw new IllegalArgumentException("price must not be negative.");
         }
 
         this.id = null;
@@ -81,6 +94,7 @@ public class Price {
         this.price = price;
         this.currency = currency;
         this.priority = 0;
+        this.version = null;
     }
 }
 
@@ -0,0 +1,15 @@
+package com.capitole.pricingservice.application.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Change of the prices of a brand and product, recorded in the outbox by the write that made it.
+ *
+ * @param id        the position of the change in the outbox, increasing with the writes
+ * @param key       the brand and product whose prices have been written
+ * @param origin    the instance of the service that made the write
+ * @param createdAt the time the change was recorded, before its transaction committed
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public record PriceChange(long id, BrandProductKey key, String origin, LocalDateTime createdAt) {
+}
@@ -0,0 +1,34 @@
+package com.capitole.pricingservice.application.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filter of the prices of an export: the prices of a brand, of a range of products, both bounds included, and valid at
+ * an instant. Every criterion is optional, a null one matches all the prices.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public record PriceFilter(Integer brandId, Long productIdFrom, Long productIdTo, LocalDateTime activeAt) {
+
+    private static final PriceFilter ALL = new PriceFilter(null, null, null, null);
+
+    public PriceFilter {
+        if (productIdFrom != null && productIdTo != null && productIdFrom > productIdTo) {
+            throw new IllegalArgumentException("productIdFrom must not be greater than productIdTo.");
+        }
+    }
+
+    /**
+     * @return the filter matching all the prices
+     */
+    public static PriceFilter all() {
+        return ALL;
+    }
+
+    public boolean matches(Price price) {
+        return (brandId == null || brandId.equals(price.getBrandId()))
+                && (productIdFrom == null || price.getProductId() >= productIdFrom)
+                && (productIdTo == null || price.getProductId() <= productIdTo)
+                && (activeAt == null || (!price.getStartDate().isAfter(activeAt) && !price.getEndDate().isBefore(activeAt)));
+    }
+}
@@ -3,7 +3,14 @@ package com.capitole.pricingservice.application.domain.model;
 
 import java.time.LocalDateTime;
 
+// the price is in minor units of the currency
 public record PriceSummary(Integer brandId, Long productId,
                            LocalDateTime startDate, LocalDateTime endDate, Integer priceList,
-                           Double price, CurrencyEnum currency) {
+                           long price, CurrencyEnum currency) {
+
+    public static PriceSummary from(Price price) {
+        return new PriceSummary(price.getBrandId(), price.getProductId(),
+                price.getStartDate(), price.getEndDate(), price.getPriceList(),
+                price.getPrice(), price.getCurrency());
+    }
 }
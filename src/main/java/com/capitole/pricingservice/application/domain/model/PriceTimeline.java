@@ -0,0 +1,284 @@
+package com.capitole.pricingservice.application.domain.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Effective price timeline of a single brand and product.
+ *
+ * <p>The timeline flattens the (possibly overlapping) price rows of a brand/product into non-overlapping
+ * segments, each one pointing to the price that wins in that period: the covering price with the highest
+ * priority and, for equal priorities, the one with the lowest id. Segments are stored as sorted arrays of
+ * epoch-seconds, so resolving the price for an instant is a binary search, O(log n).
+ *
+ * <p>Instances are immutable; {@link #with(Price)} and {@link #without(Long)} return a new timeline. The segments can
+ * be read with {@link #segments()} to be persisted, and a timeline rebuilt from them with {@link #ofSegments(List)}.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public final class PriceTimeline {
+
+    private static final PriceTimeline EMPTY = new PriceTimeline(List.of(), new long[0], new long[0], new Price[0]);
+
+    private static final Comparator<Price> WINNER_ORDER = Comparator.comparing(Price::getPriority)
+                                                                    .reversed()
+                                                                    .thenComparing(Price::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final List<Price> prices;
+    // segment i covers [from[i], to[i]) in epoch-seconds and is won by winners[i]
+    private final long[] from;
+    private final long[] to;
+    private final Price[] winners;
+
+    private PriceTimeline(List<Price> prices, long[] from, long[] to, Price[] winners) {
+        this.prices = prices;
+        this.from = from;
+        this.to = to;
+        this.winners = winners;
+    }
+
+    /**
+     * Builds the timeline for the given prices, all of them expected to belong to the same brand and product.
+     *
+     * @param prices the price rows of the brand and product
+     * @return the effective price timeline
+     */
+    public static PriceTimeline of(Collection<Price> prices) {
+        if (prices.isEmpty()) {
+            return EMPTY;
+        }
+        List<Price> byStart = new ArrayList<>(prices);
+        byStart.sort(Comparator.comparing(Price::getStartDate));
+
+        long[] boundaries = byStart.stream()
+                                   .flatMapToLong(price -> Arrays.stream(new long[]{startOf(price), endOf(price)}))
+                                   .sorted()
+                                   .distinct()
+                                   .toArray();
+
+        long[] from = new long[boundaries.length];
+        long[] to = new long[boundaries.length];
+        Price[] winners = new Price[boundaries.length];
+        int segments = 0;
+
+        PriorityQueue<Price> active = new PriorityQueue<>(WINNER_ORDER);
+        int next = 0;
+        for (int i = 0; i < boundaries.length - 1; i++) {
+            long segmentStart = boundaries[i];
+            while (next < byStart.size() && startOf(byStart.get(next)) == segmentStart) {
+                active.add(byStart.get(next++));
+            }
+            // lazily drop the prices that are no longer valid
+            while (!active.isEmpty() && endOf(active.peek()) <= segmentStart) {
+                active.poll();
+            }
+            if (active.isEmpty()) {
+                continue;
+            }
+            Price winner = active.peek();
+            if (segments > 0 && winners[segments - 1] == winner && to[segments - 1] == segmentStart) {
+                to[segments - 1] = boundaries[i + 1];
+            } else {
+                from[segments] = segmentStart;
+                to[segments] = boundaries[i + 1];
+                winners[segments] = winner;
+                segments++;
+            }
+        }
+
+        return new PriceTimeline(List.copyOf(prices),
+                Arrays.copyOf(from, segments), Arrays.copyOf(to, segments), Arrays.copyOf(winners, segments));
+    }
+
+    /**
+     * Builds the timeline from segments previously read with {@link #segments()}.
+     *
+     * <p>Such a timeline only knows the winning prices, which is enough to resolve the price at any instant, but
+     * not to replace or remove a price, since a price that never won could win once another one is gone: changes
+     * have to be applied to the price rows and the timeline rebuilt with {@link #of(Collection)}.
+     *
+     * @param segments the non-overlapping segments of a brand and product, sorted by start
+     * @return the effective price timeline
+     */
+    public static PriceTimeline ofSegments(List<Segment> segments) {
+        if (segments.isEmpty()) {
+            return EMPTY;
+        }
+        long[] from = new long[segments.size()];
+        long[] to = new long[segments.size()];
+        Price[] winners = new Price[segments.size()];
+        Map<Long, Price> prices = new LinkedHashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            from[i] = toEpochSecond(segment.from());
+            to[i] = toEpochSecond(segment.to());
+            winners[i] = prices.computeIfAbsent(segment.price().getId(), id -> segment.price());
+        }
+        return new PriceTimeline(List.copyOf(prices.values()), from, to, winners);
+    }
+
+    /**
+     * Retrieves the price that applies at the given instant.
+     *
+     * @param applicationDate the date and time for which the price is requested
+     * @return an Optional containing the winning Price if any, or an empty Optional if not
+     */
+    public Optional<Price> priceAt(LocalDateTime applicationDate) {
+        int segment = segmentIndexAt(toEpochSecond(applicationDate));
+        return segment < 0 ? Optional.empty() : Optional.of(winners[segment]);
+    }
+
+    /**
+     * Retrieves the segment that applies at the given instant, so the caller knows not only the winning price but
+     * also until when it keeps winning.
+     *
+     * @param applicationDate the date and time for which the price is requested
+     * @return an Optional containing the Segment covering the instant if any, or an empty Optional if not
+     */
+    public Optional<Segment> segmentAt(LocalDateTime applicationDate) {
+        int segment = segmentIndexAt(toEpochSecond(applicationDate));
+        return segment < 0 ? Optional.empty()
+                : Optional.of(new Segment(toDateTime(from[segment]), toDateTime(to[segment]), winners[segment]));
+    }
+
+    /**
+     * Retrieves the segments overlapping a date range, clipped to it: the winning prices over the whole range, found
+     * with a binary search for the first segment and a sweep of the following ones, instead of a lookup per instant.
+     *
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, inclusive as the end dates of the prices
+     * @return the segments overlapping the range, sorted by start, with gaps where no price applies
+     */
+    public List<Segment> segmentsBetween(LocalDateTime from, LocalDateTime to) {
+        long start = toEpochSecond(from);
+        long end = toEpochSecond(to) + 1;
+        List<Segment> segments = new ArrayList<>();
+        for (int i = firstSegmentEndingAfter(start); i < this.from.length && this.from[i] < end; i++) {
+            segments.add(new Segment(toDateTime(Math.max(this.from[i], start)), toDateTime(Math.min(this.to[i], end)), winners[i]));
+        }
+        return segments;
+    }
+
+    /**
+     * Returns a new timeline where the price with the same id as the given one is replaced, or the price is added
+     * if it was not part of this timeline.
+     */
+    public PriceTimeline with(Price price) {
+        List<Price> updated = new ArrayList<>(prices.size() + 1);
+        for (Price current : prices) {
+            if (!Objects.equals(current.getId(), price.getId())) {
+                updated.add(current);
+            }
+        }
+        updated.add(price);
+        return of(updated);
+    }
+
+    /**
+     * Returns a new timeline where the prices with the same id as the given ones are replaced, and the rest of them
+     * are added.
+     */
+    public PriceTimeline withAll(Collection<Price> added) {
+        Set<Long> ids = new HashSet<>();
+        added.forEach(price -> ids.add(price.getId()));
+        List<Price> updated = new ArrayList<>(prices.size() + added.size());
+        for (Price current : prices) {
+            if (!ids.contains(current.getId())) {
+                updated.add(current);
+            }
+        }
+        updated.addAll(added);
+        return of(updated);
+    }
+
+    /**
+     * Returns a new timeline without the price with the given id.
+     */
+    public PriceTimeline without(Long id) {
+        return of(prices.stream()
+                        .filter(price -> !Objects.equals(price.getId(), id))
+                        .toList());
+    }
+
+    /**
+     * @return the price rows this timeline has been built from
+     */
+    public List<Price> prices() {
+        return prices;
+    }
+
+    /**
+     * @return the non-overlapping segments of this timeline, sorted by start
+     */
+    public List<Segment> segments() {
+        List<Segment> segments = new ArrayList<>(from.length);
+        for (int i = 0; i < from.length; i++) {
+            segments.add(new Segment(toDateTime(from[i]), toDateTime(to[i]), winners[i]));
+        }
+        return segments;
+    }
+
+    public boolean isEmpty() {
+        return prices.isEmpty();
+    }
+
+    private int segmentIndexAt(long epochSecond) {
+        int low = 0;
+        int high = from.length - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (from[mid] <= epochSecond) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return candidate >= 0 && epochSecond < to[candidate] ? candidate : -1;
+    }
+
+    // the segments don't overlap, so their ends are sorted as their starts
+    private int firstSegmentEndingAfter(long epochSecond) {
+        int low = 0;
+        int high = to.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (to[mid] > epochSecond) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static long startOf(Price price) {
+        return toEpochSecond(price.getStartDate());
+    }
+
+    // end dates are inclusive, so the segment ends one second after them
+    private static long endOf(Price price) {
+        return toEpochSecond(price.getEndDate()) + 1;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Period {@code [from, to)} of a timeline in which {@code price} is the winning price.
+     *
+     * @param from  the start of the period, inclusive
+     * @param to    the end of the period, exclusive: one second after the end date of the price when it is the one
+     *              closing the period
+     * @param price the winning price
+     */
+    public record Segment(LocalDateTime from, LocalDateTime to, Price price) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.capitole.pricingservice.application.domain.model;
+
+/**
+ * Result of the update of a price: the row as it was before the update and as it is after it, so the callers can
+ * tell the brand and product the price has been moved from without reading it again.
+ *
+ * @param previous the price before the update
+ * @param updated  the price after the update, with its new version
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public record UpdatedPrice(Price previous, Price updated) {
+}
@@ -0,0 +1,76 @@
+package com.capitole.pricingservice.application.domain.service;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+import com.capitole.pricingservice.application.domain.model.FxRateTable;
+import com.capitole.pricingservice.application.port.in.FxRateService;
+import com.capitole.pricingservice.application.port.out.FxRateRepository;
+import com.capitole.pricingservice.common.annotation.UseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the {@link FxRateService} port on top of the {@link FxRateRepository}.
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.fx.rate.resolve} - Timer of the rate lookups.</li>
+ *   <li>{@code pricing.fx.rate.resolve.result} - Counter of the rates looked up, tagged with the {@code result}
+ *   (hit, miss).</li>
+ * </ul>
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see FxRateService
+ * @see UseCase
+ * @see FxRateRepository
+ */
+@UseCase
+class FxRateServiceImpl implements FxRateService {
+
+    private final FxRateRepository fxRateRepository;
+
+    private final Timer resolveTimer;
+    private final Counter resolveHits;
+    private final Counter resolveMisses;
+
+    FxRateServiceImpl(FxRateRepository fxRateRepository, MeterRegistry meterRegistry) {
+        this.fxRateRepository = fxRateRepository;
+        this.resolveTimer = Timer.builder("pricing.fx.rate.resolve")
+                                 .description("Lookup of the exchange rates the prices are converted with")
+                                 .register(meterRegistry);
+        this.resolveHits = resolveCounter("hit", meterRegistry);
+        this.resolveMisses = resolveCounter("miss", meterRegistry);
+    }
+
+    @Override
+    public Optional<FxRate> getRate(CurrencyEnum baseCurrency, CurrencyEnum quoteCurrency, LocalDateTime applicationTime) {
+        long start = System.nanoTime();
+        Optional<FxRate> rate = fxRateRepository.findRate(baseCurrency, quoteCurrency, applicationTime);
+        resolveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (rate.isPresent() ? resolveHits : resolveMisses).increment();
+        return rate;
+    }
+
+    @Override
+    @Transactional
+    public int replaceRates(List<FxRate> rates) {
+        // validate business rules: no overlapping rates of the same pair
+        FxRateTable.of(rates);
+        fxRateRepository.replaceAll(rates);
+        return rates.size();
+    }
+
+    private static Counter resolveCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("pricing.fx.rate.resolve.result")
+                      .description("Exchange rates looked up, found (hit) or not (miss)")
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+}
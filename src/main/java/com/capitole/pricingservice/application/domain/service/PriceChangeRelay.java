@@ -0,0 +1,120 @@
+package com.capitole.pricingservice.application.domain.service;
+
+import com.capitole.pricingservice.application.domain.model.PriceChange;
+import com.capitole.pricingservice.application.port.in.PriceChangeRelayService;
+import com.capitole.pricingservice.application.port.out.PriceChangeListener;
+import com.capitole.pricingservice.application.port.out.PriceChangeOutbox;
+import com.capitole.pricingservice.application.port.out.PriceChangePublisher;
+import com.capitole.pricingservice.common.annotation.UseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relay of the price changes recorded in the {@link PriceChangeOutbox} to the {@link PriceChangePublisher}.
+ *
+ * <p>On every poll, run every {@code pricing.changes.poll-interval}, it reads the changes after the last one read, and
+ * publishes the ones made by other instances of the service: the changes of this instance are already applied to its copies of the
+ * prices once their transaction commits. The positions of the outbox are taken before the commit, so a change may
+ * become visible after a later one has been read: the changes recorded within {@code pricing.changes.lookback} are
+ * read again on every poll, and the ones not relayed yet are published. The lookback must then be longer than the
+ * longest write transaction. The changes older than {@code pricing.changes.retention} are deleted from the outbox.
+ *
+ * <p>A failed publication is not recorded, and the same changes are published again on the next poll, which the
+ * {@link PriceChangeListener}s tolerate as they evict or reload the brands and products changed.
+ *
+ * <p>The outbox is a table of the database of the prices, so the changes only reach the instances sharing that
+ * database, not the ones with a database of their own, like an in-memory H2 per instance.
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.price.changes.relay} - Timer of the polls of the outbox, publication included.</li>
+ *   <li>{@code pricing.price.changes.relayed} - Counter of the changes of other instances published.</li>
+ * </ul>
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceChangeRelayService
+ * @see PriceChangeOutbox
+ * @see PriceChangePublisher
+ */
+@UseCase
+class PriceChangeRelay implements PriceChangeRelayService {
+
+    // no change read yet, the changes are read by the time they were recorded only
+    private static final long NONE = Long.MAX_VALUE;
+
+    private final PriceChangeOutbox priceChangeOutbox;
+
+    private final PriceChangePublisher priceChangePublisher;
+
+    private final Duration lookback;
+    private final Duration retention;
+
+    private final Clock clock;
+    private final LocalDateTime startedAt;
+    private long lastId = NONE;
+    // the changes within the lookback already relayed, with the time they were recorded
+    private final Map<Long, LocalDateTime> relayed = new HashMap<>();
+
+    private final Timer relayTimer;
+    private final Counter relayedCounter;
+
+    PriceChangeRelay(PriceChangeOutbox priceChangeOutbox,
+                     PriceChangePublisher priceChangePublisher,
+                     @Value("${pricing.changes.lookback}") Duration lookback,
+                     @Value("${pricing.changes.retention}") Duration retention,
+                     Clock clock,
+                     MeterRegistry meterRegistry) {
+        if (retention.compareTo(lookback) < 0) {
+            throw new IllegalArgumentException("pricing.changes.retention must not be shorter than pricing.changes.lookback.");
+        }
+        this.priceChangeOutbox = priceChangeOutbox;
+        this.priceChangePublisher = priceChangePublisher;
+        this.lookback = lookback;
+        this.retention = retention;
+        this.clock = clock;
+        this.startedAt = LocalDateTime.now(clock);
+        this.relayTimer = Timer.builder("pricing.price.changes.relay")
+                               .description("Polls of the outbox of the price changes")
+                               .register(meterRegistry);
+        this.relayedCounter = Counter.builder("pricing.price.changes.relayed")
+                                     .description("Price changes of other instances published")
+                                     .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void poll() {
+        relayTimer.record(this::relay);
+    }
+
+    private void relay() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        // the first poll reads the changes since this instance started, which its copies may have missed
+        LocalDateTime since = (lastId == NONE ? startedAt : now).minus(lookback);
+        List<PriceChange> changes = priceChangeOutbox.findChanges(lastId, since)
+                                                     .stream()
+                                                     .filter(change -> !relayed.containsKey(change.id()))
+                                                     .toList();
+        String origin = priceChangeOutbox.origin();
+        List<PriceChange> others = changes.stream()
+                                          .filter(change -> !origin.equals(change.origin()))
+                                          .toList();
+        priceChangePublisher.publish(others);
+        relayedCounter.increment(others.size());
+
+        for (PriceChange change : changes) {
+            relayed.put(change.id(), change.createdAt());
+            lastId = lastId == NONE ? change.id() : Math.max(lastId, change.id());
+        }
+        relayed.values().removeIf(createdAt -> createdAt.isBefore(since));
+        priceChangeOutbox.deleteBefore(now.minus(retention));
+    }
+}
@@ -1,18 +1,37 @@
 package com.capitole.pricingservice.application.domain.service;
 
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
 import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
 import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
 import com.capitole.pricingservice.application.port.in.PriceService;
 import com.capitole.pricingservice.application.port.in.model.PriceCreateCommand;
+import com.capitole.pricingservice.application.port.in.model.PriceImportResult;
+import com.capitole.pricingservice.application.port.in.model.PriceImportRow;
 import com.capitole.pricingservice.application.port.in.model.PriceMapper;
 import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.capitole.pricingservice.application.port.in.model.PriceRangeQuery;
 import com.capitole.pricingservice.application.port.in.model.PriceUpdateCommand;
+import com.capitole.pricingservice.application.port.out.PriceChangeOutbox;
 import com.capitole.pricingservice.application.port.out.PriceRepository;
+import com.capitole.pricingservice.application.port.out.PriceTimelineRepository;
 import com.capitole.pricingservice.common.annotation.UseCase;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the {@link PriceService} port using a JPA repository.
@@ -20,25 +39,149 @@ import java.util.Optional;
  * <p>This class uses{@link PriceRepository} to query the database and retrieve the price for a given brand and product
  * at a specific application time.
  *
+ * <p>Every write recomputes, in its transaction, the effective price timeline of the brands and products it touches
+ * through the {@link PriceTimelineRepository}, when the repository of the prices persists their timelines, so these
+ * never lag behind the price rows, and records
+ * those brands and products in the {@link PriceChangeOutbox}, so the other instances of the service evict or reload
+ * their copies of them once the write commits.
+ *
  * <p>It implements the {@link PriceService} port.in interface and is annotated with the {@link UseCase} annotation.
  *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.price.resolve} - Timer of the price resolution, tagged with the {@code operation}
+ *   (single, batch, range).</li>
+ *   <li>{@code pricing.price.resolve.result} - Counter of the prices resolved, tagged with the {@code result}
+ *   (hit, miss); a batch counts every query of it, and a range one hit if any price applies in it.</li>
+ *   <li>{@code pricing.price.save} - Timer of the writes, timeline refresh included, tagged with the {@code operation}
+ *   (create, update, import). The commit of the create and update transactions is not included.</li>
+ *   <li>{@code pricing.price.export} - Timer of the exports, the writing of every price by the consumer included.</li>
+ * </ul>
+ *
  * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
  * @see PriceService
  * @see UseCase
  * @see PriceRepository
+ * @see PriceTimelineRepository
+ * @see PriceChangeOutbox
  */
-@RequiredArgsConstructor
 @UseCase
 class PriceServiceImpl implements PriceService {
 
+    static final int MAX_REPORTED_IMPORT_ERRORS = 1000;
+
     private final PriceRepository priceRepository;
 
+    // only with the timeline repository
+    private final Optional<PriceTimelineRepository> priceTimelineRepository;
+
+    private final PriceChangeOutbox priceChangeOutbox;
+
+    private final TransactionOperations transactionOperations;
+
+    private final int importBatchSize;
+
+    private final Timer resolveTimer;
+    private final Timer resolveBatchTimer;
+    private final Timer resolveRangeTimer;
+    private final Counter resolveHits;
+    private final Counter resolveMisses;
+    private final Timer createTimer;
+    private final Timer updateTimer;
+    private final Timer importTimer;
+    private final Timer exportTimer;
+
+    PriceServiceImpl(PriceRepository priceRepository,
+                     Optional<PriceTimelineRepository> priceTimelineRepository,
+                     PriceChangeOutbox priceChangeOutbox,
+                     TransactionOperations transactionOperations,
+                     @Value("${pricing.import.batch-size}") int importBatchSize,
+                     MeterRegistry meterRegistry) {
+        this.priceRepository = priceRepository;
+        this.priceTimelineRepository = priceTimelineRepository;
+        this.priceChangeOutbox = priceChangeOutbox;
+        this.transactionOperations = transactionOperations;
+        this.importBatchSize = importBatchSize;
+        this.resolveTimer = resolveTimer("single", meterRegistry);
+        this.resolveBatchTimer = resolveTimer("batch", meterRegistry);
+        this.resolveRangeTimer = resolveTimer("range", meterRegistry);
+        this.resolveHits = resolveCounter("hit", meterRegistry);
+        this.resolveMisses = resolveCounter("miss", meterRegistry);
+        this.createTimer = saveTimer("create", meterRegistry);
+        this.updateTimer = saveTimer("update", meterRegistry);
+        this.importTimer = saveTimer("import", meterRegistry);
+        this.exportTimer = Timer.builder("pricing.price.export")
+                                .description("Exports of prices")
+                                .register(meterRegistry);
+    }
+
+    // not transactional: the read-only transaction is opened by the repository adapter that needs it,
+    // so adapters resolving the price in memory don't pay for one
     @Override
-    @Transactional(readOnly = true)
     public Optional<PriceSummary> getPriceByApplicationTimeBrandIdProductId(PriceQuery priceQuery) {
         // validate business rules
-        return priceRepository.getPriceByBrandIdAndProductIdAndApplicationTime(priceQuery.brandId(), priceQuery.productId(), priceQuery.applicationTime());
+        // timed by hand, a capturing Supplier would be allocated on every lookup
+        long start = System.nanoTime();
+        Optional<PriceSummary> price = priceRepository.getPriceByBrandIdAndProductIdAndApplicationTime(priceQuery.brandId(), priceQuery.productId(), priceQuery.applicationTime());
+        resolveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (price.isPresent() ? resolveHits : resolveMisses).increment();
+        return price;
+    }
+
+    @Override
+    public Optional<PriceTimeline.Segment> getPriceSegmentByApplicationTimeBrandIdProductId(PriceQuery priceQuery) {
+        long start = System.nanoTime();
+        Optional<PriceTimeline.Segment> segment = priceRepository.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(priceQuery.brandId(), priceQuery.productId(), priceQuery.applicationTime());
+        resolveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (segment.isPresent() ? resolveHits : resolveMisses).increment();
+        return segment;
+    }
+
+    @Override
+    public List<PriceTimeline.Segment> getPriceSegmentsByDateRangeBrandIdProductId(PriceRangeQuery priceRangeQuery) {
+        long start = System.nanoTime();
+        List<PriceTimeline.Segment> segments = priceRepository.getPriceSegmentsByBrandIdAndProductIdAndDateRange(priceRangeQuery.brandId(), priceRangeQuery.productId(),
+                priceRangeQuery.from(), priceRangeQuery.to());
+        resolveRangeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (segments.isEmpty() ? resolveMisses : resolveHits).increment();
+        return segments;
+    }
+
+    @Override
+    public List<Optional<PriceSummary>> getPricesByApplicationTimeBrandIdProductId(List<PriceQuery> priceQueries) {
+        if (priceQueries.isEmpty()) {
+            return List.of();
+        }
+        List<Optional<PriceSummary>> prices = resolveBatchTimer.record(() -> resolve(priceQueries));
+        long hits = prices.stream()
+                          .filter(Optional::isPresent)
+                          .count();
+        resolveHits.increment(hits);
+        resolveMisses.increment(prices.size() - hits);
+        return prices;
+    }
+
+    private List<Optional<PriceSummary>> resolve(List<PriceQuery> priceQueries) {
+        // the application times of every brand/product, rather than the span of the whole batch
+        Map<BrandProductKey, BrandProductDateRange> ranges = new HashMap<>();
+        for (PriceQuery priceQuery : priceQueries) {
+            BrandProductKey key = new BrandProductKey(priceQuery.brandId(), priceQuery.productId());
+            LocalDateTime applicationTime = priceQuery.applicationTime();
+            ranges.merge(key, new BrandProductDateRange(key, applicationTime, applicationTime),
+                    (range, added) -> new BrandProductDateRange(key, range.from().isBefore(applicationTime) ? range.from() : applicationTime,
+                            range.to().isAfter(applicationTime) ? range.to() : applicationTime));
+        }
 
+        // one query for the whole batch, then every query is resolved against the timeline of its brand/product
+        Map<BrandProductKey, PriceTimeline> timelines = priceRepository.findAllByDateRanges(ranges.values())
+                                                                       .stream()
+                                                                       .collect(Collectors.groupingBy(BrandProductKey::of,
+                                                                               Collectors.collectingAndThen(Collectors.toList(), PriceTimeline::of)));
+        return priceQueries.stream()
+                           .map(priceQuery -> Optional.ofNullable(timelines.get(new BrandProductKey(priceQuery.brandId(), priceQuery.productId())))
+                                                      .flatMap(timeline -> timeline.priceAt(priceQuery.applicationTime()))
+                                                      .map(PriceSummary::from))
+                           .toList();
     }
 
     @Override
@@ -49,21 +192,118 @@ class PriceServiceImpl implements PriceService {
                  .isAfter(price.endDate())) {
             throw new IllegalArgumentException("Start date must be before end date.");
         }
-        return priceRepository.save(PriceMapper.toPriceToCreateWithDefaultPriority(price));
+        return createTimer.record(() -> {
+            Price saved = priceRepository.save(PriceMapper.toPriceToCreateWithDefaultPriority(price));
+            written(List.of(BrandProductKey.of(saved)));
+            return saved;
+        });
+    }
+
+    // not transactional: every batch is saved in its own transaction, so a big import neither holds a long
+    // transaction nor keeps all its rows in memory
+    @Override
+    public PriceImportResult importPrices(Stream<PriceImportRow> rows) {
+        return importTimer.record(() -> importAll(rows));
+    }
+
+    private PriceImportResult importAll(Stream<PriceImportRow> rows) {
+        List<Price> batch = new ArrayList<>(importBatchSize);
+        List<PriceImportResult.RowError> errors = new ArrayList<>();
+        long imported = 0;
+        long failed = 0;
+        for (Iterator<PriceImportRow> iterator = rows.iterator(); iterator.hasNext(); ) {
+            PriceImportRow row = iterator.next();
+            String error = row.error();
+            if (!row.isFailed()) {
+                try {
+                    batch.add(PriceMapper.toPriceToCreateWithDefaultPriority(row.command()));
+                } catch (IllegalArgumentException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error != null) {
+                failed++;
+                if (errors.size() < MAX_REPORTED_IMPORT_ERRORS) {
+                    errors.add(new PriceImportResult.RowError(row.line(), error));
+                }
+            }
+            if (batch.size() == importBatchSize) {
+                imported += saveBatch(batch);
+                batch = new ArrayList<>(importBatchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            imported += saveBatch(batch);
+        }
+        return new PriceImportResult(imported, failed, errors);
+    }
+
+    // the timelines are refreshed and the changes recorded in the transaction of the batch
+    private int saveBatch(List<Price> batch) {
+        Integer saved = transactionOperations.execute(status -> {
+            List<Price> prices = priceRepository.saveAll(batch);
+            written(prices.stream()
+                          .map(BrandProductKey::of)
+                          .collect(Collectors.toSet()));
+            return prices.size();
+        });
+        return saved == null ? 0 : saved;
+    }
+
+    // the stream is consumed within a read-only transaction, for the cursor of the repository to fetch its rows in
+    // chunks, and closed even when the consumer fails, to release the cursor and its connection
+    @Override
+    @Transactional(readOnly = true)
+    public long exportPrices(PriceFilter filter, Consumer<Price> consumer) {
+        return exportTimer.record(() -> {
+            long exported = 0;
+            try (Stream<Price> prices = priceRepository.streamAll(filter)) {
+                for (Iterator<Price> iterator = prices.iterator(); iterator.hasNext(); exported++) {
+                    consumer.accept(iterator.next());
+                }
+            }
+            return exported;
+        });
     }
 
     @Override
     @Transactional
     public Optional<Price> update(PriceUpdateCommand priceCommand) {
-        Optional<Price> priceOp = priceRepository.findById(priceCommand.id());
-        if (priceOp.isPresent()) {
-            Price priceToUpdate = new Price(priceOp.get().getId(), priceCommand.brandId(), priceCommand.productId(),
-                    priceCommand.startDate(), priceCommand.endDate(), priceCommand.priceList(),
-                    priceCommand.price(), priceCommand.currency(), priceOp.get().getPriority()
-            );
-            return Optional.ofNullable(priceRepository.save(priceToUpdate));
-        }
-        return Optional.empty();
+        return updateTimer.record(() -> updatePrice(priceCommand));
+    }
+
+    // a conditional write of the repository, failing when the version is not the one read, which also returns the
+    // price replaced
+    private Optional<Price> updatePrice(PriceUpdateCommand priceCommand) {
+        Optional<UpdatedPrice> updated = priceRepository.update(PriceMapper.toPriceToUpdate(priceCommand));
+        // the price may have been moved from another brand/product
+        updated.ifPresent(price -> written(List.of(BrandProductKey.of(price.previous()), BrandProductKey.of(price.updated()))));
+        return updated.map(UpdatedPrice::updated);
+    }
+
+    private void written(Collection<BrandProductKey> keys) {
+        priceTimelineRepository.ifPresent(repository -> repository.refresh(keys));
+        priceChangeOutbox.append(keys);
     }
 
+    private static Timer resolveTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("pricing.price.resolve")
+                    .description("Resolution of the prices that apply at an application time")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+    }
+
+    private static Counter resolveCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("pricing.price.resolve.result")
+                      .description("Prices resolved, found (hit) or not (miss)")
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+
+    private static Timer saveTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("pricing.price.save")
+                    .description("Writes of prices")
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+    }
 }
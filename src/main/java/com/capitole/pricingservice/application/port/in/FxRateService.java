@@ -0,0 +1,35 @@
+package com.capitole.pricingservice.application.port.in;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Port of the exchange rates the prices are converted with to the currency requested.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public interface FxRateService {
+
+    /**
+     * Retrieves the rate to convert a price from its currency to another at a specific application time.
+     *
+     * @param baseCurrency    the currency of the price
+     * @param quoteCurrency   the currency requested
+     * @param applicationTime the application time of the price
+     * @return an Optional containing the rate if found, or an empty Optional if not
+     */
+    Optional<FxRate> getRate(CurrencyEnum baseCurrency, CurrencyEnum quoteCurrency, LocalDateTime applicationTime);
+
+    /**
+     * Replaces all the exchange rates with the given ones, in a single transaction.
+     *
+     * @param rates the new rates
+     * @return the number of rates stored
+     * @throws IllegalArgumentException if two rates of the same currency pair overlap
+     */
+    int replaceRates(List<FxRate> rates);
+}
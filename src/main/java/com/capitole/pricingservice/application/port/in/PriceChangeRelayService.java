@@ -0,0 +1,15 @@
+package com.capitole.pricingservice.application.port.in;
+
+/**
+ * Port of the relay of the price changes recorded in the outbox by the instances of the service to the copies of the
+ * prices of this one.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+public interface PriceChangeRelayService {
+
+    /**
+     * Reads the changes recorded in the outbox since the last poll and publishes the ones of the other instances.
+     */
+    void poll();
+}
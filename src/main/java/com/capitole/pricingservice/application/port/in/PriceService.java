@@ -1,12 +1,20 @@
 package com.capitole.pricingservice.application.port.in;
 
 import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
 import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
 import com.capitole.pricingservice.application.port.in.model.PriceCreateCommand;
+import com.capitole.pricingservice.application.port.in.model.PriceImportResult;
+import com.capitole.pricingservice.application.port.in.model.PriceImportRow;
 import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.capitole.pricingservice.application.port.in.model.PriceRangeQuery;
 import com.capitole.pricingservice.application.port.in.model.PriceUpdateCommand;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 
 public interface PriceService {
@@ -19,6 +27,33 @@ public interface PriceService {
      */
     Optional<PriceSummary> getPriceByApplicationTimeBrandIdProductId(PriceQuery priceQuery);
 
+    /**
+     * Retrieves the segment of the price timeline covering a specific application time for a given brand and product:
+     * the winning price and the period in which it keeps winning, so callers can tell how long the price is valid.
+     *
+     * @param priceQuery the query containing the brandId, productId and applicationDate
+     * @return an Optional containing the Segment if found, or an empty Optional if not
+     */
+    Optional<PriceTimeline.Segment> getPriceSegmentByApplicationTimeBrandIdProductId(PriceQuery priceQuery);
+
+    /**
+     * Retrieves the segments of the price timeline of a brand and product over a date range: the winning price of
+     * every period of the range, resolved in a single pass instead of a lookup per instant.
+     *
+     * @param priceRangeQuery the query containing the brandId, productId and the from and to dates
+     * @return the segments overlapping the range, clipped to it and sorted by start, or an empty list if no price
+     * applies in it
+     */
+    List<PriceTimeline.Segment> getPriceSegmentsByDateRangeBrandIdProductId(PriceRangeQuery priceRangeQuery);
+
+    /**
+     * Retrieves the prices for many brands and products at specific application times, resolving all of them at once.
+     *
+     * @param priceQueries the queries containing the brandId, productId and applicationDate
+     * @return a list with an Optional per query, in the same order, containing the Price if found, or an empty Optional if not
+     */
+    List<Optional<PriceSummary>> getPricesByApplicationTimeBrandIdProductId(List<PriceQuery> priceQueries);
+
     /**
      * Creates a new price and saves it into the database
      *
@@ -29,10 +64,33 @@ public interface PriceService {
 
 
     /**
-     * Updates a price in the database
+     * Creates the new prices of a bulk import. The rows are read as they are consumed and saved in batches, each one
+     * in its own transaction, so the memory used doesn't depend on the size of the import. Rows which have already
+     * failed to be read, or which break the price rules, are reported without stopping the import.
+     *
+     * @param rows the rows of the import, in order
+     * @return the number of prices imported and failed, and the errors of the failed rows
+     */
+    PriceImportResult importPrices(Stream<PriceImportRow> rows);
+
+    /**
+     * Exports the prices matching a filter, handing every one to the consumer as it is read from the database, so the
+     * memory used doesn't depend on the number of prices exported. The read holds a database connection until the
+     * last price is consumed.
+     *
+     * @param filter   the filter of the prices to export
+     * @param consumer the consumer of the prices, sorted by id
+     * @return the number of prices exported
+     */
+    long exportPrices(PriceFilter filter, Consumer<Price> consumer);
+
+    /**
+     * Updates a price in the database, provided it has not been updated since the version in the command was read
      *
-     * @param price the command containing the data for the updated price
-     * @return the updated price
+     * @param price the command containing the data for the updated price and the version it is based on
+     * @return the updated price, with its new version, or an empty Optional if there is no price with the id
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the price has been updated since that
+     * version
      */
     Optional<Price> update(PriceUpdateCommand price);
 
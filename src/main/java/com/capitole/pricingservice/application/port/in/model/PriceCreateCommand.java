@@ -14,11 +14,12 @@ public record PriceCreateCommand(
         @NotNull LocalDateTime startDate,
         @NotNull LocalDateTime endDate,
         @NotNull @PositiveOrZero Integer priceList,
-        @NotNull @PositiveOrZero Double price,
+        // in minor units of the currency
+        @NotNull @PositiveOrZero Long price,
         @NotNull CurrencyEnum currency) {
 
     public PriceCreateCommand(Integer brandId, Long productId, LocalDateTime startDate,
-                              LocalDateTime endDate, Integer priceList, Double price, CurrencyEnum currency) {
+                              LocalDateTime endDate, Integer priceList, Long price, CurrencyEnum currency) {
 
         this.brandId = brandId;
         this.productId = productId;
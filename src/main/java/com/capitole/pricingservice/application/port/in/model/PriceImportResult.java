@@ -0,0 +1,13 @@
+package com.capitole.pricingservice.application.port.in.model;
+
+import java.util.List;
+
+/*
+ * Class model for the outcome of a bulk price import: the number of prices imported and failed, and the errors of
+ * the failed rows, up to a maximum so the result stays bounded whatever the size of the import
+ */
+public record PriceImportResult(long imported, long failed, List<RowError> errors) {
+
+    public record RowError(long line, String message) {
+    }
+}
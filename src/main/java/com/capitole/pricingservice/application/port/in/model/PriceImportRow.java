@@ -0,0 +1,19 @@
+package com.capitole.pricingservice.application.port.in.model;
+
+/*
+ * Class model for a row of a bulk price import: the command to create the price, or the error found reading it
+ */
+public record PriceImportRow(long line, PriceCreateCommand command, String error) {
+
+    public static PriceImportRow of(long line, PriceCreateCommand command) {
+        return new PriceImportRow(line, command, null);
+    }
+
+    public static PriceImportRow failed(long line, String error) {
+        return new PriceImportRow(line, null, error);
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+}
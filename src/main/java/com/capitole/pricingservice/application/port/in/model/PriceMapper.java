@@ -8,4 +8,11 @@ public class PriceMapper {
                 priceCommand.startDate(), priceCommand.endDate(), priceCommand.priceList(),
                 priceCommand.price(), priceCommand.currency());
     }
+
+    // the priority is not updatable, the repository keeps the one of the price updated
+    public static Price toPriceToUpdate(PriceUpdateCommand priceCommand) {
+        return new Price(priceCommand.id(), priceCommand.brandId(), priceCommand.productId(),
+                priceCommand.startDate(), priceCommand.endDate(), priceCommand.priceList(),
+                priceCommand.price(), priceCommand.currency(), 0, priceCommand.version());
+    }
 }
@@ -19,6 +19,10 @@ public record PriceQuery(@NotNull LocalDateTime applicationTime,
         this.applicationTime = applicationTime;
         this.brandId = brandId;
         this.productId = productId;
-        validate(this);
+        // direct checks of the @NotNull constraints above on the lookup path, the Bean Validation reflection only runs
+        // to report the violations
+        if (applicationTime == null || brandId == null || productId == null) {
+            validate(this);
+        }
     }
 }
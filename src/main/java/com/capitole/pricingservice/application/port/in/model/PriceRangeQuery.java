@@ -0,0 +1,27 @@
+package com.capitole.pricingservice.application.port.in.model;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+import static com.capitole.pricingservice.common.validation.BeanValidation.validate;
+
+/*
+ * Class model for handle the inputs for the price timeline query of a date range, both dates included, and validate them
+ */
+public record PriceRangeQuery(@NotNull Integer brandId,
+                              @NotNull Long productId,
+                              @NotNull LocalDateTime from,
+                              @NotNull LocalDateTime to) {
+
+    public PriceRangeQuery(Integer brandId, Long productId, LocalDateTime from, LocalDateTime to) {
+        this.brandId = brandId;
+        this.productId = productId;
+        this.from = from;
+        this.to = to;
+        validate(this);
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to.");
+        }
+    }
+}
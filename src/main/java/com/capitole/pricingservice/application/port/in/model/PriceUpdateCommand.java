@@ -15,11 +15,14 @@ public record PriceUpdateCommand(
         @NotNull LocalDateTime startDate,
         @NotNull LocalDateTime endDate,
         @NotNull @PositiveOrZero Integer priceList,
-        @NotNull @PositiveOrZero Double price,
-        @NotNull CurrencyEnum currency) {
+        // in minor units of the currency
+        @NotNull @PositiveOrZero Long price,
+        @NotNull CurrencyEnum currency,
+        @NotNull @PositiveOrZero Long version) {
 
     public PriceUpdateCommand(Long id,Integer brandId, Long productId, LocalDateTime startDate,
-                              LocalDateTime endDate, Integer priceList, Double price, CurrencyEnum currency) {
+                              LocalDateTime endDate, Integer priceList, Long price, CurrencyEnum currency,
+                              Long version) {
 
         this.id = id;
         this.brandId = brandId;
@@ -29,6 +32,7 @@ public record PriceUpdateCommand(
         this.priceList = priceList;
         this.price = price;
         this.currency = currency;
+        this.version = version;
         validate(this);
     }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.capitole.pricingservice.application.port.out;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Port of the locally stored exchange rates, used to convert the prices to the currency requested.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see FxRate
+ */
+public interface FxRateRepository {
+
+    /**
+     * Retrieves the rate from a currency to another at a specific time.
+     *
+     * @param baseCurrency    the currency to convert from
+     * @param quoteCurrency   the currency to convert to
+     * @param applicationDate the date and time the rate must be valid at
+     * @return an Optional containing the rate, the inverse of the opposite one if the pair has no rates, or an empty
+     * Optional if neither of them is valid at that time
+     */
+    Optional<FxRate> findRate(CurrencyEnum baseCurrency, CurrencyEnum quoteCurrency, LocalDateTime applicationDate);
+
+    /**
+     * @return all the rates
+     */
+    List<FxRate> findAll();
+
+    /**
+     * Replaces all the rates with the given ones.
+     *
+     * @param rates the new rates, already validated not to overlap
+     */
+    void replaceAll(List<FxRate> rates);
+}
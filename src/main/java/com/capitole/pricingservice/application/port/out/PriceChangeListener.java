@@ -0,0 +1,22 @@
+package com.capitole.pricingservice.application.port.out;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+
+import java.util.Set;
+
+/**
+ * Port of the adapters keeping a copy of the prices, notified of the brands and products whose prices have been
+ * written by another instance of the service, to evict or reload only those.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceChangePublisher
+ */
+public interface PriceChangeListener {
+
+    /**
+     * Evicts or reloads the prices of the given brands and products, already committed.
+     *
+     * @param keys the brands and products whose prices have changed
+     */
+    void onPriceChanges(Set<BrandProductKey> keys);
+}
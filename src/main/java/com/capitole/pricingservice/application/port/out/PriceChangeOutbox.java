@@ -0,0 +1,48 @@
+package com.capitole.pricingservice.application.port.out;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.PriceChange;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Port of the transactional outbox of the price changes: the brands and products written are recorded in the
+ * transaction of the write, so a change is relayed if and only if the write commits.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceChange
+ */
+public interface PriceChangeOutbox {
+
+    /**
+     * Records the change of the prices of the given brands and products in the surrounding transaction.
+     *
+     * @param keys the brands and products whose prices have been written
+     */
+    void append(Collection<BrandProductKey> keys);
+
+    /**
+     * @return the origin of the changes appended by this instance of the service
+     */
+    String origin();
+
+    /**
+     * Retrieves the committed changes after a position of the outbox, and the ones recorded since a time, whatever
+     * their position, for the changes whose transaction committed after a later one.
+     *
+     * @param afterId      the position of the last change read
+     * @param createdSince the time since which the changes are read again
+     * @return the changes, sorted by position
+     */
+    List<PriceChange> findChanges(long afterId, LocalDateTime createdSince);
+
+    /**
+     * Deletes the changes recorded before a time.
+     *
+     * @param createdBefore the time before which the changes are deleted
+     * @return the number of changes deleted
+     */
+    int deleteBefore(LocalDateTime createdBefore);
+}
@@ -0,0 +1,22 @@
+package com.capitole.pricingservice.application.port.out;
+
+import com.capitole.pricingservice.application.domain.model.PriceChange;
+
+import java.util.List;
+
+/**
+ * Port of the transport delivering the price changes read from the outbox to the {@link PriceChangeListener}s.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceChangeOutbox
+ * @see PriceChangeListener
+ */
+public interface PriceChangePublisher {
+
+    /**
+     * Publishes the changes, in the given order.
+     *
+     * @param changes the changes to publish
+     */
+    void publish(List<PriceChange> changes);
+}
@@ -1,10 +1,19 @@
 package com.capitole.pricingservice.application.port.out;
 
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
 import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
 import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface   PriceRepository {
     /**
@@ -15,7 +24,100 @@ public interface   PriceRepository {
      * @param applicationDate the date and time for which the price is requested
      * @return an Optional containing the Price if found, or an empty Optional if not
      */
-    Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(Integer brandId, Long productId, LocalDateTime applicationDate);
+    Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate);
+
+    /**
+     * Retrieves the segment of the price timeline of a brand and product covering a specific application time: the
+     * winning price and the period in which it keeps winning, until it ends or a price with higher priority starts.
+     *
+     * <p>By default the timeline is built from all the prices of the brand and product; the adapters already holding
+     * the timelines in memory resolve it from them, and the JPA adapter reads the prices overlapping the winning one
+     * only.
+     *
+     * @param brandId the identifier of the brand
+     * @param productId the identifier of the product
+     * @param applicationDate the date and time for which the price is requested
+     * @return an Optional containing the Segment if found, or an empty Optional if not
+     */
+    default Optional<PriceTimeline.Segment> getPriceSegmentByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        return PriceTimeline.of(findAllByBrandIdAndProductId(brandId, productId))
+                            .segmentAt(applicationDate);
+    }
+
+    /**
+     * Retrieves the segments of the price timeline of a brand and product overlapping a date range, clipped to it:
+     * the winning prices over the whole range at once.
+     *
+     * <p>By default the timeline is built from the prices valid at some point of the range, read with a single range
+     * query; the adapters already holding the timelines in memory sweep them.
+     *
+     * @param brandId the identifier of the brand
+     * @param productId the identifier of the product
+     * @param from the start of the date range, inclusive
+     * @param to the end of the date range, inclusive
+     * @return the segments overlapping the range, sorted by start, or an empty list if no price applies in it
+     */
+    default List<PriceTimeline.Segment> getPriceSegmentsByBrandIdAndProductIdAndDateRange(int brandId, long productId, LocalDateTime from, LocalDateTime to) {
+        return PriceTimeline.of(findAllByBrandIdsAndProductIdsAndDateRange(List.of(brandId), List.of(productId), from, to))
+                            .segmentsBetween(from, to);
+    }
+
+    /**
+     * Retrieves all the prices of a brand and product.
+     *
+     * @param brandId the identifier of the brand
+     * @param productId the identifier of the product
+     * @return the list of prices of the brand and product
+     */
+    List<Price> findAllByBrandIdAndProductId(Integer brandId, Long productId);
+
+    /**
+     * Retrieves, in a single query, the prices of the given brands and products that are valid at some point of the
+     * given date range.
+     *
+     * @param brandIds the identifiers of the brands
+     * @param productIds the identifiers of the products
+     * @param from the start of the date range
+     * @param to the end of the date range
+     * @return the list of prices found, which may include combinations of brand and product not requested
+     */
+    List<Price> findAllByBrandIdsAndProductIdsAndDateRange(Collection<Integer> brandIds, Collection<Long> productIds,
+                                                           LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Retrieves the prices of every brand and product valid at some point of its own date range, so neither the
+     * combinations of brand and product not requested nor the dates between the ranges of different brands and
+     * products are read.
+     *
+     * <p>By default the prices of each range are read on their own; the JPA adapter reads the ranges of a batch with
+     * a single query.
+     *
+     * @param ranges the date ranges, at most one per brand and product
+     * @return the list of prices valid in the range of their brand and product
+     */
+    default List<Price> findAllByDateRanges(Collection<BrandProductDateRange> ranges) {
+        List<Price> prices = new ArrayList<>();
+        for (BrandProductDateRange range : ranges) {
+            prices.addAll(findAllByBrandIdsAndProductIdsAndDateRange(List.of(range.key().brandId()), List.of(range.key().productId()),
+                    range.from(), range.to()));
+        }
+        return prices;
+    }
+
+    /**
+     * Retrieves all the prices, of any brand and product, that are valid at some point of the given date range.
+     *
+     * <p>By default the prices are filtered from all of them; the JPA adapter reads them with a single range query.
+     *
+     * @param from the start of the date range, inclusive
+     * @param to the end of the date range, inclusive
+     * @return the list of prices valid at some point of the range
+     */
+    default List<Price> findAllByDateRange(LocalDateTime from, LocalDateTime to) {
+        return findAll().stream()
+                        .filter(price -> !price.getStartDate().isAfter(to) && !price.getEndDate().isBefore(from))
+                        .toList();
+    }
 
     /**
      * Saves a price to the database.
@@ -25,6 +127,26 @@ public interface   PriceRepository {
      */
     Price save(Price price);
 
+    /**
+     * Updates a price in the database, provided it still has the version of the given one, with a single conditional
+     * write returning the replaced price, and no previous read on the databases that can return it. The priority is
+     * not updatable, the one of the database is kept.
+     *
+     * @param price the price to be updated, with its id and the version it was read with
+     * @return an Optional containing the price before and after the update, or an empty Optional if there is no
+     * price with the id
+     * @throws OptimisticLockingFailureException if the price has been updated since it was read with that version
+     */
+    Optional<UpdatedPrice> update(Price price);
+
+    /**
+     * Inserts new prices to the database in a single batch and transaction.
+     *
+     * @param prices the prices to be inserted, without id
+     * @return the inserted prices, with their generated ids, in the same order
+     */
+    List<Price> saveAll(List<Price> prices);
+
     /**
      * Retrieves a price by id from the database.
      *
@@ -33,5 +155,23 @@ public interface   PriceRepository {
      */
     Optional<Price> findById(Long id);
 
+    /**
+     * Retrieves all the prices from the database.
+     *
+     * @return the list of all the prices
+     */
+    List<Price> findAll();
+
+    /**
+     * Streams the prices matching a filter from the database, read through a cursor as the stream is consumed, so
+     * the memory used doesn't depend on the number of prices. The prices are sorted by id.
+     *
+     * <p>The stream holds the cursor and its connection until it is closed, and must be consumed within a
+     * transaction for the database to fetch the rows in chunks instead of all at once.
+     *
+     * @param filter the filter of the prices
+     * @return the stream of the prices matching the filter, to be closed once consumed
+     */
+    Stream<Price> streamAll(PriceFilter filter);
 
 }
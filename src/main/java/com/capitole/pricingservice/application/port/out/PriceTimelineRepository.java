@@ -0,0 +1,57 @@
+package com.capitole.pricingservice.application.port.out;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Port of the persisted effective price timelines, the non-overlapping segments of each brand and product with the
+ * price that wins in each of them, kept up to date with the price rows they are computed from.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceTimeline
+ */
+public interface PriceTimelineRepository {
+
+    /**
+     * Retrieves the price for a given brand and product at a specific application time from the segment covering it.
+     *
+     * @param brandId the identifier of the brand
+     * @param productId the identifier of the product
+     * @param applicationDate the date and time for which the price is requested
+     * @return an Optional containing the Price if found, or an empty Optional if not
+     */
+    Optional<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate);
+
+    /**
+     * Recomputes the timelines of the given brands and products from their current price rows, written in the
+     * surrounding transaction included, and persists them in place of the previous ones.
+     *
+     * @param keys the brands and products whose prices have been written
+     * @return the recomputed timelines, empty for the brands and products without prices
+     */
+    Map<BrandProductKey, PriceTimeline> refresh(Collection<BrandProductKey> keys);
+
+    /**
+     * Recomputes and persists the timelines of all the brands and products, for prices written without
+     * refreshing them.
+     */
+    void rebuild();
+
+    /**
+     * Loads all the persisted timelines.
+     *
+     * @return the timeline of each brand and product with prices
+     */
+    Map<BrandProductKey, PriceTimeline> findAllTimelines();
+
+    /**
+     * @return whether no timeline has been persisted yet
+     */
+    boolean isEmpty();
+}
@@ -0,0 +1,27 @@
+package com.capitole.pricingservice.common.annotation;
+
+
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.*;
+
+/**
+ * Annotation that marks a class as a Spring component which is an adapter that uses R2DBC, the non-blocking database access.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Component
+public @interface R2dbcAdapter {
+
+    /*
+     * The value may indicate a suggestion for a logical component name,
+     * @return the suggested component name, if any (or empty String otherwise)
+     */
+    @AliasFor(annotation = Component.class)
+    String value() default "";
+
+}
\ No newline at end of file
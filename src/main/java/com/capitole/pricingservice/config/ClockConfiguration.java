@@ -0,0 +1,21 @@
+package com.capitole.pricingservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+/*
+ * Clock of the current time, in the zone of the dates of the prices, rather than the one of the JVM, which may differ
+ * between the instances of the service
+ */
+@Configuration
+class ClockConfiguration {
+
+    @Bean
+    Clock clock(@Value("${pricing.time-zone}") ZoneId timeZone) {
+        return Clock.system(timeZone);
+    }
+}
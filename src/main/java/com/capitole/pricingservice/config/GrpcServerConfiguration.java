@@ -0,0 +1,50 @@
+package com.capitole.pricingservice.config;
+
+import io.grpc.BindableService;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.grpc.MetricCollectingServerInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/*
+ * Serves the gRPC adapters on their own HTTP/2 port, next to the web server, with the grpc.server.* metrics of every
+ * call, and on virtual threads when the requests of the web server are
+ */
+@Configuration
+@ConditionalOnProperty(name = "pricing.grpc.enabled", havingValue = "true")
+class GrpcServerConfiguration {
+
+    @Bean
+    public Server grpcServer(List<BindableService> services,
+                             @Value("${pricing.grpc.port}") int port,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                             MeterRegistry meterRegistry) {
+        MetricCollectingServerInterceptor metrics = new MetricCollectingServerInterceptor(meterRegistry);
+        ServerBuilder<?> builder = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create());
+        for (BindableService service : services) {
+            builder.addService(service);
+            metrics.preregisterService(service);
+        }
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        return builder.intercept(metrics)
+                      .build();
+    }
+
+    @Bean
+    public GrpcServerLifecycle grpcServerLifecycle(Server grpcServer,
+                                                   @Value("${pricing.grpc.shutdown-timeout}") Duration shutdownTimeout) {
+        return new GrpcServerLifecycle(grpcServer, shutdownTimeout);
+    }
+}
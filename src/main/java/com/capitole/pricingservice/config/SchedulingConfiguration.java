@@ -0,0 +1,35 @@
+package com.capitole.pricingservice.config;
+
+import com.capitole.pricingservice.application.port.in.PriceChangeRelayService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+
+/*
+ * Runs the scheduled tasks, like the relay of the outbox of the price changes, registered here rather than with
+ * @Scheduled, which doesn't take the durations of the properties, like 1s
+ */
+@Configuration
+@EnableScheduling
+class SchedulingConfiguration implements SchedulingConfigurer {
+
+    private final PriceChangeRelayService priceChangeRelayService;
+
+    private final Duration pollInterval;
+
+    SchedulingConfiguration(PriceChangeRelayService priceChangeRelayService,
+                            @Value("${pricing.changes.poll-interval}") Duration pollInterval) {
+        this.priceChangeRelayService = priceChangeRelayService;
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(priceChangeRelayService::poll, pollInterval, pollInterval));
+    }
+}
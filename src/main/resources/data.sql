@@ -1,5 +1,9 @@
 INSERT INTO PRICES (brand_id, start_date, end_date, price_list, product_id, priority, price, curr)
-VALUES (1, '2020-06-14 00:00:00', '2020-12-31 23:59:59', 1, 35455, 0, 35.50, 'EUR'),
-       (1, '2020-06-14 15:00:00', '2020-06-14 18:30:00', 2, 35455, 1, 25.45, 'EUR'),
-       (1, '2020-06-15 00:00:00', '2020-06-15 11:00:00', 3, 35455, 1, 30.50, 'EUR'),
-       (1, '2020-06-15 16:00:00', '2020-12-31 23:59:59', 4, 35455, 1, 38.95, 'EUR');
\ No newline at end of file
+VALUES (1, '2020-06-14 00:00:00', '2020-12-31 23:59:59', 1, 35455, 0, 3550, 'EUR'),
+       (1, '2020-06-14 15:00:00', '2020-06-14 18:30:00', 2, 35455, 1, 2545, 'EUR'),
+       (1, '2020-06-15 00:00:00', '2020-06-15 11:00:00', 3, 35455, 1, 3050, 'EUR'),
+       (1, '2020-06-15 16:00:00', '2020-12-31 23:59:59', 4, 35455, 1, 3895, 'EUR');
+
+INSERT INTO FX_RATES (base_curr, quote_curr, start_date, end_date, rate)
+VALUES ('EUR', 'USD', '2020-01-01 00:00:00', '2020-12-31 23:59:59', 1.1422),
+       ('EUR', 'COP', '2020-01-01 00:00:00', '2020-12-31 23:59:59', 4213.76);
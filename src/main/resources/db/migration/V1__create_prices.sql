@@ -0,0 +1,15 @@
+CREATE TABLE PRICES
+(
+    ID         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    BRAND_ID   INTEGER          NOT NULL,
+    PRODUCT_ID BIGINT           NOT NULL,
+    PRICE_LIST INTEGER          NOT NULL,
+    PRIORITY   INTEGER          NOT NULL,
+    START_DATE TIMESTAMP(6)     NOT NULL,
+    END_DATE   TIMESTAMP(6)     NOT NULL,
+    PRICE      DOUBLE PRECISION NOT NULL,
+    CURR       VARCHAR(3)       NOT NULL
+);
+
+-- covers the lookup of the price of a brand and product at an application date, ordered by priority
+CREATE INDEX IDX_PRICES_LOOKUP ON PRICES (BRAND_ID, PRODUCT_ID, START_DATE, END_DATE, PRIORITY DESC);
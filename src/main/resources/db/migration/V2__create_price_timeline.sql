@@ -0,0 +1,11 @@
+-- effective price timeline: the non-overlapping segments [VALID_FROM, VALID_TO) of each brand and product, with
+-- the price that wins in each of them
+CREATE TABLE PRICE_TIMELINE
+(
+    BRAND_ID   INTEGER      NOT NULL,
+    PRODUCT_ID BIGINT       NOT NULL,
+    VALID_FROM TIMESTAMP(6) NOT NULL,
+    VALID_TO   TIMESTAMP(6) NOT NULL,
+    PRICE_ID   BIGINT       NOT NULL REFERENCES PRICES (ID) ON DELETE CASCADE,
+    PRIMARY KEY (BRAND_ID, PRODUCT_ID, VALID_FROM)
+);
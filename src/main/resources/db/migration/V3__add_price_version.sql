@@ -0,0 +1,2 @@
+-- optimistic locking of the price updates, incremented by every update
+ALTER TABLE PRICES ADD COLUMN VERSION BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,11 @@
+-- exchange rates from BASE_CURR to QUOTE_CURR, valid from START_DATE to END_DATE both included, to convert the prices
+-- to the currency requested
+CREATE TABLE FX_RATES
+(
+    BASE_CURR  VARCHAR(3)       NOT NULL,
+    QUOTE_CURR VARCHAR(3)       NOT NULL,
+    START_DATE TIMESTAMP(6)     NOT NULL,
+    END_DATE   TIMESTAMP(6)     NOT NULL,
+    RATE       DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (BASE_CURR, QUOTE_CURR, START_DATE)
+);
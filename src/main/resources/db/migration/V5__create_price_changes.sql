@@ -0,0 +1,12 @@
+-- transactional outbox of the brands and products whose prices have been written, recorded in the transaction of
+-- the write and relayed to the replicas holding a copy of the prices
+CREATE TABLE PRICE_CHANGES
+(
+    ID         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    BRAND_ID   INTEGER      NOT NULL,
+    PRODUCT_ID BIGINT       NOT NULL,
+    ORIGIN     VARCHAR(64)  NOT NULL,
+    CREATED_AT TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IDX_PRICE_CHANGES_CREATED_AT ON PRICE_CHANGES (CREATED_AT);
@@ -0,0 +1,4 @@
+-- the prices are amounts of minor units of their currency instead of floating point amounts: 35.50 EUR is 3550;
+-- every currency of CurrencyEnum has a minor unit of 2 digits
+UPDATE PRICES SET PRICE = ROUND(PRICE * 100);
+ALTER TABLE PRICES ALTER COLUMN PRICE SET DATA TYPE BIGINT;
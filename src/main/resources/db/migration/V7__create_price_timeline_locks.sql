@@ -0,0 +1,12 @@
+-- locks of the refreshes of the PRICE_TIMELINE, one row per stripe of the brands and products, taken FOR UPDATE by a
+-- refresh before it reads the prices, so two transactions never recompute the timeline of a brand and product at once
+CREATE TABLE PRICE_TIMELINE_LOCKS
+(
+    STRIPE INTEGER NOT NULL PRIMARY KEY
+);
+
+-- 256 stripes, 0 to 255
+INSERT INTO PRICE_TIMELINE_LOCKS (STRIPE)
+SELECT HIGH.N * 16 + LOW.N
+FROM (VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9), (10), (11), (12), (13), (14), (15)) AS HIGH (N)
+         CROSS JOIN (VALUES (0), (1), (2), (3), (4), (5), (6), (7), (8), (9), (10), (11), (12), (13), (14), (15)) AS LOW (N);
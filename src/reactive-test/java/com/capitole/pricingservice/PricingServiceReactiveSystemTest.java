@@ -0,0 +1,95 @@
+package com.capitole.pricingservice;
+
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceDTO;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+/*
+ * System tests of the price lookup with the reactive profile, WebFlux and R2DBC.
+ *
+ * The application is started on its own in-memory database and the tests use the WebTestClient to send the same
+ * requests as the PricingServiceSystemTest, verifying that both stacks answer the same.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+        "spring.sql.init.mode=never",
+        "spring.datasource.url=jdbc:h2:mem:reactive-system-test",
+        "pricing.r2dbc.url=r2dbc:h2:mem:///reactive-system-test",
+        "pricing.grpc.port=0"
+})
+@Sql(scripts = "classpath:/system-test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class PricingServiceReactiveSystemTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private static final String ENDPOINT = "/api/prices";
+
+    @CsvSource({
+            "1, 35455, 2020-06-14 10:00:00, 35.50",
+            "1, 35455, 2020-06-14 16:00:00, 25.45",
+            "1, 35455, 2020-06-14 21:00:00, 35.50",
+            "1, 35455, 2020-06-15 10:00:00, 30.50",
+            "1, 35455, 2020-06-15 21:00:00, 38.95"
+    })
+    @ParameterizedTest
+    void priceByBrandIdAndProductId_returnsOK(Integer brandId, Long productId, String applicationDate, BigDecimal expectedPrice) {
+
+        //Given - Build the URL with query parameters
+        String uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/{brandId}/{productId}")
+                                         .queryParam("applicationDate", applicationDate)
+                                         .buildAndExpand(brandId, productId)
+                                         .toUriString();
+
+        //When - Make the request
+        PriceDTO body = webTestClient.get()
+                                     .uri(uri)
+                                     .exchange()
+                                     .expectStatus().isOk()
+                                     .expectBody(PriceDTO.class)
+                                     .returnResult()
+                                     .getResponseBody();
+
+        //Then - Check the response body and price
+        then(body).isNotNull();
+        then(body.price()).isEqualTo(expectedPrice);
+    }
+
+    @CsvSource({
+            "1, 35455, 2020-06-13 14:00:00, NOT_FOUND",
+            "1, 35455, 2021-06-13 14:00:00, NOT_FOUND",
+            "1, 35455, 2020-06-13, BAD_REQUEST",
+            "1, 35455, , BAD_REQUEST",
+            "1, , 2020-06-13 14:00:00, NOT_FOUND",
+            " , , 2020-06-13 14:00:00, NOT_FOUND"
+    })
+    @ParameterizedTest
+    void priceByBrandIdAndProductId_returnsError(Integer brandId, Long productId, String applicationDate, HttpStatus expectedStatus) {
+        //Given - Build the URL with query parameters
+        String uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/{brandId}/{productId}")
+                                         .queryParam("applicationDate", applicationDate)
+                                         .buildAndExpand(brandId, productId)
+                                         .toUriString();
+
+        //When - Make the request
+        //Then - Check the response status
+        webTestClient.get()
+                     .uri(uri)
+                     .exchange()
+                     .expectStatus().isEqualTo(expectedStatus);
+    }
+}
@@ -0,0 +1,156 @@
+package com.capitole.pricingservice.adapter.in.reactive.controller;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.FxRateService;
+import com.capitole.pricingservice.application.port.in.ReactivePriceService;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+/**
+ * Integration tests for the PriceReactiveController.
+ * <p>
+ * This class includes test cases to verify that the reactive price lookup answers with the same status codes and
+ * bodies as the servlet PriceRestController. It uses the WebTestClient to perform requests and Mockito to mock the
+ * ReactivePriceService interactions.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@WebFluxTest(controllers = PriceReactiveController.class)
+@ActiveProfiles("reactive")
+@Import(SimpleMeterRegistry.class)
+class PriceReactiveControllerTest {
+
+    private static final String ENDPOINT = "/api/prices/{brandId}/{productId}?applicationDate={applicationDate}";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private ReactivePriceService priceService;
+
+    @MockBean
+    private FxRateService fxRateService;
+
+    @Test
+    void testGetPrice() {
+        // Given - A price found by the service
+        given(priceService.getPriceByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Mono.just(new PriceSummary(41, 42L, LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2024, 12, 1, 0, 0, 0), 1, 2000, CurrencyEnum.USD)));
+
+        // When - Then
+        webTestClient.get()
+                     .uri(ENDPOINT, 41, 42L, "2024-05-01 12:00:00")
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectBody()
+                     .jsonPath("$.brandId").isEqualTo(41)
+                     .jsonPath("$.productId").isEqualTo(42)
+                     .jsonPath("$.startDate").isEqualTo("2024-01-01 00:00:00")
+                     .jsonPath("$.price").isEqualTo(20.0)
+                     .jsonPath("$.currency").isEqualTo("USD");
+        then(priceService).should()
+                          .getPriceByApplicationTimeBrandIdProductId(new PriceQuery(LocalDateTime.of(2024, 5, 1, 12, 0, 0), 41, 42L));
+    }
+
+    @Test
+    void testGetPriceInAnotherCurrency() {
+        // Given - A price in EUR and the rate to USD at the application date
+        LocalDateTime applicationDate = LocalDateTime.of(2024, 5, 1, 12, 0, 0);
+        given(priceService.getPriceByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Mono.just(new PriceSummary(41, 42L, LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2024, 12, 1, 0, 0, 0), 1, 3550, CurrencyEnum.EUR)));
+        given(fxRateService.getRate(CurrencyEnum.EUR, CurrencyEnum.USD, applicationDate))
+                .willReturn(Optional.of(new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2024, 12, 31, 23, 59, 59), 1.0845)));
+
+        // When - Then
+        webTestClient.get()
+                     .uri(ENDPOINT + "&currency={currency}", 41, 42L, "2024-05-01 12:00:00", "USD")
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectBody()
+                     .jsonPath("$.price").isEqualTo(38.5)
+                     .jsonPath("$.currency").isEqualTo("USD");
+    }
+
+    @Test
+    void testGetPriceFxRateNotFound() {
+        // Given - No rate from the currency of the price to the one requested
+        given(priceService.getPriceByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Mono.just(new PriceSummary(41, 42L, LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2024, 12, 1, 0, 0, 0), 1, 3550, CurrencyEnum.EUR)));
+        given(fxRateService.getRate(any(), any(), any())).willReturn(Optional.empty());
+
+        // When - Then
+        webTestClient.get()
+                     .uri(ENDPOINT + "&currency={currency}", 41, 42L, "2024-05-01 12:00:00", "COP")
+                     .exchange()
+                     .expectStatus().isNotFound()
+                     .expectBody()
+                     .jsonPath("$.message").isEqualTo("Exchange rate not found.");
+    }
+
+    @Test
+    void testGetPriceNotFound() {
+        // Given - No price found by the service
+        given(priceService.getPriceByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Mono.empty());
+        double notFound = meterRegistry.get("pricing.price.not.found").tag("operation", "get").counter().count();
+
+        // When - Then
+        webTestClient.get()
+                     .uri(ENDPOINT, 41, 42L, "2024-05-01 12:00:00")
+                     .exchange()
+                     .expectStatus().isNotFound()
+                     .expectBody()
+                     .jsonPath("$.code").isEqualTo("NOT_FOUND");
+        assertEquals(notFound + 1, meterRegistry.get("pricing.price.not.found").tag("operation", "get").counter().count());
+    }
+
+    @Test
+    void testGetPriceInvalidApplicationDate() {
+        // When - Then
+        webTestClient.get()
+                     .uri(ENDPOINT, 41, 42L, "Invalid date")
+                     .exchange()
+                     .expectStatus().isBadRequest()
+                     .expectBody()
+                     .jsonPath("$.code").isEqualTo("INVALID_DATE_FORMAT");
+        then(priceService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void testGetPriceMissingApplicationDate() {
+        // When - Then
+        webTestClient.get()
+                     .uri("/api/prices/{brandId}/{productId}", 41, 42L)
+                     .exchange()
+                     .expectStatus().isBadRequest()
+                     .expectBody()
+                     .jsonPath("$.code").isEqualTo("BAD_REQUEST");
+        then(priceService).shouldHaveNoInteractions();
+    }
+}
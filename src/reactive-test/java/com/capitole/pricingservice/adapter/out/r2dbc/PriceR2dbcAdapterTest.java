@@ -0,0 +1,80 @@
+package com.capitole.pricingservice.adapter.out.r2dbc;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Integration tests for the PriceR2dbcAdapter.
+ * <p>
+ * This class includes test cases to verify the price lookup of the PriceR2dbcAdapter against an H2 in-memory
+ * database, created with the Flyway migrations and the test data of the JPA adapter tests, so both adapters are
+ * checked against the same rows.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceR2dbcAdapterTest {
+
+    private static final String DATABASE = "r2dbc-adapter-test";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // keeps the in-memory database alive during the test
+    private Connection connection;
+    private PriceR2dbcAdapter priceR2dbcAdapter;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:" + DATABASE;
+        connection = DriverManager.getConnection(url, "sa", "");
+        Flyway.configure()
+              .dataSource(url, "sa", "")
+              .load()
+              .migrate();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:/jpa-adapter-test-data.sql'");
+        }
+        priceR2dbcAdapter = new PriceR2dbcAdapter("r2dbc:h2:mem:///" + DATABASE, "sa", "", 2, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        priceR2dbcAdapter.destroy();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_priceExists() {
+        StepVerifier.create(priceR2dbcAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, LocalDateTime.of(2020, 7, 14, 0, 0, 0)))
+                    .expectNext(new PriceSummary(1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                            LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 1050, CurrencyEnum.EUR))
+                    .verifyComplete();
+
+        assertEquals(1, meterRegistry.get("pricing.repository.query").tag("query", "r2dbc-lookup").timer().count());
+    }
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_priceNotExists() {
+        StepVerifier.create(priceR2dbcAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1122L, LocalDateTime.of(2020, 7, 14, 0, 0, 0)))
+                    .verifyComplete();
+        StepVerifier.create(priceR2dbcAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, LocalDateTime.of(2021, 1, 1, 0, 0, 0)))
+                    .verifyComplete();
+    }
+}
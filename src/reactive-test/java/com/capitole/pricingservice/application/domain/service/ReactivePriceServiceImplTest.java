@@ -0,0 +1,78 @@
+package com.capitole.pricingservice.application.domain.service;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.capitole.pricingservice.application.port.out.ReactivePriceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ReactivePriceServiceImpl.
+ * <p>
+ * This class includes test cases to verify that the price lookup is delegated to the ReactivePriceRepository and
+ * that its result is counted as a hit or a miss. It uses Mockito to mock the repository and StepVerifier to
+ * subscribe to the results.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class ReactivePriceServiceImplTest {
+
+    private static final LocalDateTime APPLICATION_DATE = LocalDateTime.of(2022, 1, 1, 12, 0, 0);
+
+    private final ReactivePriceRepository priceRepository = Mockito.mock(ReactivePriceRepository.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ReactivePriceServiceImpl priceService = new ReactivePriceServiceImpl(priceRepository, meterRegistry);
+
+    @Test
+    void getPriceByApplicationTimeBrandIdProductId_ReturnsPrice_WhenPriceExists() {
+        // Given - A price in the repository
+        PriceSummary price = new PriceSummary(1122, 1234L, APPLICATION_DATE.minusDays(1), APPLICATION_DATE.plusDays(1), 1, 2000, CurrencyEnum.USD);
+        when(priceRepository.getPriceByBrandIdAndProductIdAndApplicationTime(1122, 1234L, APPLICATION_DATE)).thenReturn(Mono.just(price));
+
+        // When - Then
+        StepVerifier.create(priceService.getPriceByApplicationTimeBrandIdProductId(new PriceQuery(APPLICATION_DATE, 1122, 1234L)))
+                    .expectNext(price)
+                    .verifyComplete();
+        then(priceRepository).should()
+                             .getPriceByBrandIdAndProductIdAndApplicationTime(eq(1122), eq(1234L), eq(APPLICATION_DATE));
+        assertEquals(1, meterRegistry.get("pricing.price.resolve").tag("operation", "reactive").timer().count());
+        assertEquals(1.0, meterRegistry.get("pricing.price.resolve.result").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void getPriceByApplicationTimeBrandIdProductId_ReturnsEmpty_WhenPriceDoesNotExist() {
+        // Given - No price in the repository
+        when(priceRepository.getPriceByBrandIdAndProductIdAndApplicationTime(1122, 1234L, APPLICATION_DATE)).thenReturn(Mono.empty());
+
+        // When - Then
+        StepVerifier.create(priceService.getPriceByApplicationTimeBrandIdProductId(new PriceQuery(APPLICATION_DATE, 1122, 1234L)))
+                    .verifyComplete();
+        assertEquals(1.0, meterRegistry.get("pricing.price.resolve.result").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void getPriceByApplicationTimeBrandIdProductId_QueriesOnSubscription() {
+        // Given - A price in the repository
+        when(priceRepository.getPriceByBrandIdAndProductIdAndApplicationTime(1122, 1234L, APPLICATION_DATE)).thenReturn(Mono.empty());
+
+        // When - The lookup is built but not subscribed
+        priceService.getPriceByApplicationTimeBrandIdProductId(new PriceQuery(APPLICATION_DATE, 1122, 1234L));
+
+        // Then - The repository is not called
+        then(priceRepository).shouldHaveNoInteractions();
+    }
+}
@@ -0,0 +1,103 @@
+package com.capitole.pricingservice.adapter.in.reactive.controller;
+
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceDTO;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceQueryDTO;
+import com.capitole.pricingservice.adapter.in.rest.exception.FxRateNotFoundException;
+import com.capitole.pricingservice.adapter.in.rest.exception.PriceNotFoundException;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.FxRateService;
+import com.capitole.pricingservice.application.port.in.ReactivePriceService;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.capitole.pricingservice.common.annotation.RestAdapter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reactive REST controller for the price lookup.
+ * <p>
+ * It serves the same {@code GET /api/prices/{brandId}/{productId}} as the servlet {@code PriceRestController}, with
+ * the same request, response body and errors, on WebFlux and the {@link ReactivePriceService}, so no thread waits
+ * for the database while a lookup is in flight. The conversion to the {@code currency} requested reads the rates kept
+ * in memory by the {@link FxRateService}, so it doesn't block either. The rest of the price endpoints are only served
+ * by the servlet stack.
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.price.not.found} - Counter of the {@link PriceNotFoundException} thrown, tagged with
+ *   {@code operation=get}.</li>
+ *   <li>{@code pricing.fx.rate.not.found} - Counter of the {@link FxRateNotFoundException} thrown, tagged with
+ *   {@code operation=get}.</li>
+ * </ul>
+ *
+ * <p>It is enabled with the {@code reactive} profile, which also switches the application to a reactive web server.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@RestController
+@RequestMapping("api/prices")
+@RestAdapter
+@Profile("reactive")
+class PriceReactiveController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceReactiveController.class);
+
+    private final ReactivePriceService priceService;
+
+    private final FxRateService fxRateService;
+
+    private final Counter getNotFound;
+    private final Counter getFxRateNotFound;
+
+    PriceReactiveController(ReactivePriceService priceService, FxRateService fxRateService, MeterRegistry meterRegistry) {
+        this.priceService = priceService;
+        this.fxRateService = fxRateService;
+        this.getNotFound = Counter.builder("pricing.price.not.found")
+                                  .description("Price requests answered with a PriceNotFoundException")
+                                  .tag("operation", "get")
+                                  .register(meterRegistry);
+        this.getFxRateNotFound = Counter.builder("pricing.fx.rate.not.found")
+                                        .description("Price requests answered with a FxRateNotFoundException")
+                                        .tag("operation", "get")
+                                        .register(meterRegistry);
+    }
+
+    @GetMapping("/{brandId}/{productId}")
+    public Mono<ResponseEntity<String>> getPrice(@PathVariable(value = "brandId") Integer brandId,
+                                                 @PathVariable(value = "productId") Long productId,
+                                                 @RequestParam(value = "applicationDate") String applicationDate,
+                                                 @RequestParam(value = "currency", required = false) String currency) {
+        LocalDateTime applicationDateTime = PriceQueryDTO.parseApplicationDate(applicationDate);
+        CurrencyEnum targetCurrency = currency == null ? null : CurrencyEnum.fromCode(currency);
+        return priceService.getPriceByApplicationTimeBrandIdProductId(new PriceQuery(applicationDateTime, brandId, productId))
+                           .doOnSuccess(price -> logger.info("Requesting price for brandId: {}, productId: {}, applicationDate: {},  priceFound: {}", brandId, productId, applicationDate, price != null))
+                           .map(summary -> ResponseEntity.ok()
+                                                         .contentType(MediaType.APPLICATION_JSON)
+                                                         .body(PriceDTO.toJson(convert(summary, targetCurrency, applicationDateTime))))
+                           .switchIfEmpty(Mono.defer(() -> {
+                               getNotFound.increment();
+                               return Mono.error(new PriceNotFoundException("Price not found for parameters in request"));
+                           }));
+    }
+
+    private PriceSummary convert(PriceSummary price, CurrencyEnum targetCurrency, LocalDateTime applicationDateTime) {
+        if (targetCurrency == null || targetCurrency == price.currency()) {
+            return price;
+        }
+        return fxRateService.getRate(price.currency(), targetCurrency, applicationDateTime)
+                            .orElseThrow(() -> {
+                                getFxRateNotFound.increment();
+                                return new FxRateNotFoundException("No exchange rate from " + price.currency() + " to " + targetCurrency + " at " + applicationDateTime);
+                            })
+                            .convert(price);
+    }
+}
@@ -0,0 +1,42 @@
+package com.capitole.pricingservice.adapter.in.rest.exception;
+
+
+import com.capitole.pricingservice.adapter.in.rest.dto.ErrorResponseDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.reactive.resource.NoResourceFoundException;
+
+/**
+ * This class contains the exception handlers of the WebFlux stack, built with the {@code reactive} Maven profile, for
+ * the exceptions of classes the {@link RestExceptionAdvise} can't refer to without it.
+ *
+ * <p>It is ordered first, the catch-all handler of the {@link RestExceptionAdvise} would be picked otherwise.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see RestExceptionAdvise
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class ReactiveRestExceptionAdvise {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveRestExceptionAdvise.class);
+
+    // no handler for the request in the reactive stack
+    @ExceptionHandler(NoResourceFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleNoResourceFoundException(NoResourceFoundException e) {
+        ErrorResponseDTO errorResponse = ErrorResponseDTO.builder()
+                .message("Resource not found.")
+                .code(HttpStatus.NOT_FOUND.name())
+                .details(e.getMessage())
+                .build();
+        logger.warn("Resource not found. exception: {}",e.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+    }
+
+}
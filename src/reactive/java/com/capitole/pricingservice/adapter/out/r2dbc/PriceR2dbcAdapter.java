@@ -0,0 +1,105 @@
+package com.capitole.pricingservice.adapter.out.r2dbc;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.out.ReactivePriceRepository;
+import com.capitole.pricingservice.common.annotation.R2dbcAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the {@link ReactivePriceRepository} port using R2DBC.
+ *
+ * <p>The lookup is the same query the JPA adapter derives, run through a {@link DatabaseClient} on a pool of
+ * {@code pricing.r2dbc.pool-size} R2DBC connections to {@code pricing.r2dbc.url}, so no thread is blocked while the
+ * database answers. It reads the {@code PRICES} table created by the Flyway migrations, which keep running on the
+ * JDBC data source. The pool is owned by the adapter instead of being a {@code ConnectionFactory} bean, Spring Boot
+ * would back off from the JDBC data source the JPA adapter and Flyway need otherwise.
+ *
+ * <p>Metrics, registered in the {@link MeterRegistry}:
+ * <ul>
+ *   <li>{@code pricing.repository.query} - Timer of the lookup, tagged with {@code query=r2dbc-lookup}.</li>
+ * </ul>
+ *
+ * <p>It is enabled with the {@code reactive} profile.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see ReactivePriceRepository
+ * @see R2dbcAdapter
+ */
+@Profile("reactive")
+@R2dbcAdapter
+class PriceR2dbcAdapter implements ReactivePriceRepository, DisposableBean {
+
+    private static final String SELECT_PRICE = """
+            SELECT BRAND_ID, PRODUCT_ID, START_DATE, END_DATE, PRICE_LIST, PRICE, CURR
+            FROM PRICES
+            WHERE BRAND_ID = :brandId AND PRODUCT_ID = :productId AND START_DATE <= :applicationDate AND END_DATE >= :applicationDate
+            ORDER BY PRIORITY DESC
+            LIMIT 1""";
+
+    private final ConnectionPool connectionPool;
+
+    private final DatabaseClient databaseClient;
+
+    private final Timer lookupQuery;
+
+    PriceR2dbcAdapter(@Value("${pricing.r2dbc.url}") String url,
+                      @Value("${pricing.r2dbc.username}") String username,
+                      @Value("${pricing.r2dbc.password}") String password,
+                      @Value("${pricing.r2dbc.pool-size}") int poolSize,
+                      MeterRegistry meterRegistry) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url)
+                                                                   .mutate()
+                                                                   .option(ConnectionFactoryOptions.USER, username)
+                                                                   .option(ConnectionFactoryOptions.PASSWORD, password)
+                                                                   .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                                                                            .initialSize(poolSize)
+                                                                            .maxSize(poolSize)
+                                                                            .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+        this.lookupQuery = Timer.builder("pricing.repository.query")
+                                .tag("query", "r2dbc-lookup")
+                                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return databaseClient.sql(SELECT_PRICE)
+                                 .bind("brandId", brandId)
+                                 .bind("productId", productId)
+                                 .bind("applicationDate", applicationDate)
+                                 .map(PriceR2dbcAdapter::toPriceSummary)
+                                 .one()
+                                 .doFinally(signal -> lookupQuery.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+
+    private static PriceSummary toPriceSummary(Readable row) {
+        return new PriceSummary(row.get("BRAND_ID", Integer.class), row.get("PRODUCT_ID", Long.class),
+                row.get("START_DATE", LocalDateTime.class), row.get("END_DATE", LocalDateTime.class),
+                row.get("PRICE_LIST", Integer.class), row.get("PRICE", Long.class),
+                CurrencyEnum.fromCode(row.get("CURR", String.class)));
+    }
+}
@@ -0,0 +1,67 @@
+package com.capitole.pricingservice.application.domain.service;
+
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.ReactivePriceService;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.capitole.pricingservice.application.port.out.ReactivePriceRepository;
+import com.capitole.pricingservice.common.annotation.UseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Profile;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the {@link ReactivePriceService} port on top of the {@link ReactivePriceRepository}.
+ *
+ * <p>It resolves the price the same way {@link PriceServiceImpl} does, and publishes the same
+ * {@code pricing.price.resolve} timer, tagged with {@code operation=reactive}, and {@code pricing.price.resolve.result}
+ * counters, so both stacks can be compared on the same metrics.
+ *
+ * <p>It is enabled with the {@code reactive} profile.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see ReactivePriceService
+ * @see UseCase
+ * @see ReactivePriceRepository
+ */
+@Profile("reactive")
+@UseCase
+class ReactivePriceServiceImpl implements ReactivePriceService {
+
+    private final ReactivePriceRepository priceRepository;
+
+    private final Timer resolveTimer;
+    private final Counter resolveHits;
+    private final Counter resolveMisses;
+
+    ReactivePriceServiceImpl(ReactivePriceRepository priceRepository, MeterRegistry meterRegistry) {
+        this.priceRepository = priceRepository;
+        this.resolveTimer = Timer.builder("pricing.price.resolve")
+                                 .description("Resolution of the prices that apply at an application time")
+                                 .tag("operation", "reactive")
+                                 .register(meterRegistry);
+        this.resolveHits = Counter.builder("pricing.price.resolve.result")
+                                  .description("Prices resolved, found (hit) or not (miss)")
+                                  .tag("result", "hit")
+                                  .register(meterRegistry);
+        this.resolveMisses = Counter.builder("pricing.price.resolve.result")
+                                    .description("Prices resolved, found (hit) or not (miss)")
+                                    .tag("result", "miss")
+                                    .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<PriceSummary> getPriceByApplicationTimeBrandIdProductId(PriceQuery priceQuery) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return priceRepository.getPriceByBrandIdAndProductIdAndApplicationTime(priceQuery.brandId(), priceQuery.productId(), priceQuery.applicationTime())
+                                  .doOnSuccess(price -> {
+                                      resolveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                                      (price != null ? resolveHits : resolveMisses).increment();
+                                  });
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.capitole.pricingservice.application.port.in;
+
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of the price lookup of {@link PriceService}, used by the reactive stack.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceService
+ */
+public interface ReactivePriceService {
+
+    /**
+     * Retrieves the price for a given brand and product at a specific application time.
+     *
+     * @param priceQuery the query containing the brandId, productId and applicationDate
+     * @return a Mono emitting the Price if found, or completing empty if not
+     */
+    Mono<PriceSummary> getPriceByApplicationTimeBrandIdProductId(PriceQuery priceQuery);
+}
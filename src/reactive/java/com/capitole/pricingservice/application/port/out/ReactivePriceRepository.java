@@ -0,0 +1,25 @@
+package com.capitole.pricingservice.application.port.out;
+
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking variant of the price lookup of {@link PriceRepository}, used by the reactive stack.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ * @see PriceRepository
+ */
+public interface ReactivePriceRepository {
+
+    /**
+     * Retrieves the price for a given brand and product at a specific application time.
+     *
+     * @param brandId the identifier of the brand
+     * @param productId the identifier of the product
+     * @param applicationDate the date and time for which the price is requested
+     * @return a Mono emitting the Price if found, or completing empty if not
+     */
+    Mono<PriceSummary> getPriceByBrandIdAndProductIdAndApplicationTime(int brandId, long productId, LocalDateTime applicationDate);
+}
@@ -0,0 +1,19 @@
+package com.capitole.pricingservice.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/*
+ * Runs the reactive profile on Netty, Tomcat is also in the classpath for the servlet stack and would be picked first
+ */
+@Configuration
+@Profile("reactive")
+class ReactiveWebServerConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -1,8 +1,25 @@
 package com.capitole.pricingservice;
 
 import com.capitole.pricingservice.adapter.in.rest.dto.PriceDTO;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceImportResultDTO;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceProtobuf;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceResolutionDTO;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceSegmentDTO;
+import com.capitole.pricingservice.api.v1.Price;
+import com.capitole.pricingservice.api.v1.PriceQuery;
+import com.capitole.pricingservice.api.v1.PriceResolution;
+import com.capitole.pricingservice.api.v1.PricingServiceGrpc;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,17 +27,30 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.groups.Tuple.tuple;
 
 /*
  * This class contains system tests for the Pricing Service application.
@@ -40,7 +70,7 @@ import static org.assertj.core.api.BDDAssertions.then;
  * expected data according to use case
  */
 @SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
-@TestPropertySource(properties = "spring.sql.init.mode=never")
+@TestPropertySource(properties = {"spring.sql.init.mode=never", "pricing.grpc.port=0"})
 @Sql(scripts = "classpath:/system-test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 //@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // to reset the DB after each test
 class PricingServiceSystemTest {
@@ -51,19 +81,28 @@ class PricingServiceSystemTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Server grpcServer;
+
     private static final String ENDPOINT = "/api/prices";
 
     @CsvSource({
-            "1, 35455, 2020-06-14 10:00:00, OK, 35.5",
+            "1, 35455, 2020-06-14 10:00:00, OK, 35.50",
             "1, 35455, 2020-06-14 16:00:00, OK, 25.45",
-            "1, 35455, 2020-06-14 21:00:00, OK, 35.5",
-            "1, 35455, 2020-06-15 10:00:00, OK, 30.5",
+            "1, 35455, 2020-06-14 21:00:00, OK, 35.50",
+            "1, 35455, 2020-06-15 10:00:00, OK, 30.50",
             "1, 35455, 2020-06-15 21:00:00, OK , 38.95"
     })
     @Sql(scripts = "classpath:/system-test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     @ParameterizedTest
 
-    void priceByBrandIdAndProductId_returnsOK(Integer brandId, Long productId, String applicationDate, HttpStatus expectedStatus, Double expectedPrice) {
+    void priceByBrandIdAndProductId_returnsOK(Integer brandId, Long productId, String applicationDate, HttpStatus expectedStatus, BigDecimal expectedPrice) {
 
         //Given - Build the URL with query parameters
         String baseUrl = ENDPOINT+"/{brandId}/{productId}";
@@ -116,15 +155,15 @@ class PricingServiceSystemTest {
     }
 
     @CsvSource({
-            "1, 35455, 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.5, EUR, CREATED ",
+            "1, 35455, 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.50, EUR, CREATED ",
             "1, 35455, 1, 2020-06-14 16:00:00, 2020-06-15 16:00:00, 25.45, EUR, CREATED",
-            "1, 35455, 1, 2020-06-14 21:00:00, 2020-06-15 21:00:00, 35.5, EUR, CREATED",
-            "1, 35455, 1, 2020-06-15 10:00:00, 2020-06-16 10:00:00, 30.5, EUR, CREATED",
+            "1, 35455, 1, 2020-06-14 21:00:00, 2020-06-15 21:00:00, 35.50, EUR, CREATED",
+            "1, 35455, 1, 2020-06-15 10:00:00, 2020-06-16 10:00:00, 30.50, EUR, CREATED",
             "1, 35455, 1, 2020-06-15 21:00:00, 2020-06-15 21:00:00, 38.95, EUR, CREATED "
     })
     @ParameterizedTest
     void savePrice_OK(Integer brandId, Long productId, Integer priceList, String startDate, String endDate,
-                      Double price, String currency, HttpStatus expectedStatus) {
+                      BigDecimal price, String currency, HttpStatus expectedStatus) {
 
         //Given - Build the URL with query parameters
         String uri = UriComponentsBuilder.fromUriString(ENDPOINT)
@@ -132,7 +171,8 @@ class PricingServiceSystemTest {
                                          .toUriString();
         LocalDateTime startDateLocal = LocalDateTime.parse(startDate, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
         LocalDateTime endDateLocal = LocalDateTime.parse(endDate, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        PriceDTO priceDTO = new PriceDTO(productId, brandId, priceList, startDateLocal, endDateLocal, price, currency);
+        // a new price starts at version 0
+        PriceDTO priceDTO = new PriceDTO(productId, brandId, priceList, startDateLocal, endDateLocal, price, currency, 0L);
 
         //When - Make the request
 
@@ -153,23 +193,24 @@ class PricingServiceSystemTest {
 
 
     @CsvSource({
-            ", 35455 , 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.5, EUR, BAD_REQUEST",
-            "1, , 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.5, EUR, BAD_REQUEST",
+            ", 35455 , 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.50, EUR, BAD_REQUEST",
+            "1, , 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.50, EUR, BAD_REQUEST",
             "1, 35455, , 2020-06-14 16:00:00, 2020-06-15 16:00:00, 25.45, EUR, BAD_REQUEST",
             "1, 35455, 1, 2020-06-14 21:00:00, 2020-06-15 21:00:00, , EUR, BAD_REQUEST",
-            "1, 35455, 1, 2020-06-15 10:00:00, 2020-06-16 10:00:00, 30.5, , BAD_REQUEST",
-            "1, 35455, 1, 2020-06-15 21:00:00, 2020-06-15 21:00:00, 30.5, CurrencyError, BAD_REQUEST",
-            "1, 35455, 1, , 2020-06-15 21:00:00, 30.5, EUR, BAD_REQUEST",
-            "1, 35455, 1, 2020-06-15 21:00:00, , 30.5, CurrencyError, BAD_REQUEST",
+            "1, 35455, 1, 2020-06-15 10:00:00, 2020-06-16 10:00:00, 30.50, , BAD_REQUEST",
+            "1, 35455, 1, 2020-06-15 21:00:00, 2020-06-15 21:00:00, 30.50, CurrencyError, BAD_REQUEST",
+            "1, 35455, 1, , 2020-06-15 21:00:00, 30.50, EUR, BAD_REQUEST",
+            "1, 35455, 1, 2020-06-15 21:00:00, , 30.50, CurrencyError, BAD_REQUEST",
             "1, 35455, 1, 2020-06-15, 2020-06-15 21:00:00, 38.95, EUR, BAD_REQUEST ",
             "1, 35455, 1, 2020-06-15 21:00:00, 2020-06-15, 38.95, EUR, BAD_REQUEST ",
             "1, 35455, 1, abc, 2020-06-15 21:00:00, 38.95, EUR, BAD_REQUEST ",
             "1, 35455, 1, 2020-06-15 21:00:00, abc, 38.95, EUR, BAD_REQUEST ",
-            "1, 35455, 1, 2020-06-15 21:00:00, 2020-06-14 21:00:00, 38.95, EUR, BAD_REQUEST "
+            "1, 35455, 1, 2020-06-15 21:00:00, 2020-06-14 21:00:00, 38.95, EUR, BAD_REQUEST ",
+            "1, 35455, 1, 2020-06-15 10:00:00, 2020-06-16 10:00:00, 38.955, EUR, BAD_REQUEST "
     })
     @ParameterizedTest
     void savePrice_Error(Integer brandId, Long productId, Integer priceList, String startDate, String endDate,
-                         Double price, String currency, HttpStatus expectedStatus) throws JsonProcessingException {
+                         BigDecimal price, String currency, HttpStatus expectedStatus) throws JsonProcessingException {
 
         //Given - Build the URL with query parameters
         String uri = UriComponentsBuilder.fromUriString(ENDPOINT)
@@ -205,15 +246,15 @@ class PricingServiceSystemTest {
     }
 
     @CsvSource({
-            "1, 35455, 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.5, EUR, OK ",
+            "1, 35455, 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.50, EUR, OK ",
             "1, 35455, 1, 2020-06-14 16:00:00, 2020-06-15 16:00:00, 25.45, EUR, OK",
-            "1, 35455, 1, 2020-06-14 21:00:00, 2020-06-15 21:00:00, 35.5, EUR, OK",
-            "1, 35455, 1, 2020-06-15 10:00:00, 2020-06-16 10:00:00, 30.5, EUR, OK",
+            "1, 35455, 1, 2020-06-14 21:00:00, 2020-06-15 21:00:00, 35.50, EUR, OK",
+            "1, 35455, 1, 2020-06-15 10:00:00, 2020-06-16 10:00:00, 30.50, EUR, OK",
             "1, 35455, 1, 2020-06-15 21:00:00, 2020-06-15 21:00:00, 38.95, EUR, OK "
     })
     @ParameterizedTest
     void updatePrice_OK(Integer brandId, Long productId, Integer priceList, String startDate, String endDate,
-                      Double price, String currency, HttpStatus expectedStatus) {
+                      BigDecimal price, String currency, HttpStatus expectedStatus) {
 
         //Given - Build the URL with query parameters
         String baseUrl = ENDPOINT+"/{id}";
@@ -222,7 +263,8 @@ class PricingServiceSystemTest {
                                          .toUriString();
         LocalDateTime startDateLocal = LocalDateTime.parse(startDate, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
         LocalDateTime endDateLocal = LocalDateTime.parse(endDate, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        PriceDTO priceDTO = new PriceDTO(productId, brandId, priceList, startDateLocal, endDateLocal, price, currency);
+        long version = versionOf(1L);
+        PriceDTO priceDTO = new PriceDTO(productId, brandId, priceList, startDateLocal, endDateLocal, price, currency, version);
 
         //When - Make the request
 
@@ -238,24 +280,24 @@ class PricingServiceSystemTest {
                 .isEqualTo(expectedStatus);
 
         if (response.getStatusCode()
-                    .isSameCodeAs(HttpStatus.CREATED)) {
-            // check the response body and price
+                    .isSameCodeAs(HttpStatus.OK)) {
+            // check the response body and price, with its new version
             PriceDTO body = response.getBody();
             then(body).isNotNull();
-            then(body).isEqualTo(priceDTO);
+            then(body).isEqualTo(new PriceDTO(productId, brandId, priceList, startDateLocal, endDateLocal, price, currency, version + 1));
         }
     }
 
 
     @CsvSource({
-            ", 35455 , 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.5, EUR, BAD_REQUEST",
-            "1, , 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.5, EUR, BAD_REQUEST",
+            ", 35455 , 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.50, EUR, BAD_REQUEST",
+            "1, , 1, 2020-06-14 10:00:00, 2020-06-15 10:00:00, 35.50, EUR, BAD_REQUEST",
             "1, 35455, , 2020-06-14 16:00:00, 2020-06-15 16:00:00, 25.45, EUR, BAD_REQUEST",
             "1, 35455, 1, 2020-06-14 21:00:00, 2020-06-15 21:00:00, , EUR, BAD_REQUEST",
-            "1, 35455, 1, 2020-06-15 10:00:00, 2020-06-16 10:00:00, 30.5, , BAD_REQUEST",
-            "1, 35455, 1, 2020-06-15 21:00:00, 2020-06-15 21:00:00, 30.5, CurrencyError, BAD_REQUEST",
-            "1, 35455, 1, , 2020-06-15 21:00:00, 30.5, EUR, BAD_REQUEST",
-            "1, 35455, 1, 2020-06-15 21:00:00, , 30.5, CurrencyError, BAD_REQUEST",
+            "1, 35455, 1, 2020-06-15 10:00:00, 2020-06-16 10:00:00, 30.50, , BAD_REQUEST",
+            "1, 35455, 1, 2020-06-15 21:00:00, 2020-06-15 21:00:00, 30.50, CurrencyError, BAD_REQUEST",
+            "1, 35455, 1, , 2020-06-15 21:00:00, 30.50, EUR, BAD_REQUEST",
+            "1, 35455, 1, 2020-06-15 21:00:00, , 30.50, CurrencyError, BAD_REQUEST",
             "1, 35455, 1, 2020-06-15, 2020-06-15 21:00:00, 38.95, EUR, BAD_REQUEST ",
             "1, 35455, 1, 2020-06-15 21:00:00, 2020-06-15, 38.95, EUR, BAD_REQUEST ",
             "1, 35455, 1, abc, 2020-06-15 21:00:00, 38.95, EUR, BAD_REQUEST ",
@@ -264,7 +306,7 @@ class PricingServiceSystemTest {
     })
     @ParameterizedTest
     void updatePrice_Error(Integer brandId, Long productId, Integer priceList, String startDate, String endDate,
-                         Double price, String currency, HttpStatus expectedStatus) throws JsonProcessingException {
+                         BigDecimal price, String currency, HttpStatus expectedStatus) throws JsonProcessingException {
 
         //Given - Build the URL with query parameters
         String baseUrl = ENDPOINT+"/{id}";
@@ -281,6 +323,7 @@ class PricingServiceSystemTest {
         if(endDate != null) requestBody.put("endDate", endDate);
         if(price != null) requestBody.put("price", price);
         if(currency != null) requestBody.put("currency", currency);
+        requestBody.put("version", versionOf(1L));
         String jsonBody = objectMapper.writeValueAsString(requestBody);
 
         //When - Make the request
@@ -307,6 +350,337 @@ class PricingServiceSystemTest {
 
     }
 
+    @Test
+    void updatePrice_staleVersion_returnsConflict() {
 
-}
+        //Given - A price updated after its version was read
+        long version = versionOf(1L);
+        PriceDTO priceDTO = new PriceDTO(35455L, 1, 1, LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), new BigDecimal("36.50"), "EUR", version);
+        restTemplate.exchange(ENDPOINT + "/{id}", HttpMethod.PUT, new HttpEntity<>(priceDTO), PriceDTO.class, 1L);
+
+        //When - Update it again with the version read
+        ResponseEntity<String> response = restTemplate.exchange(ENDPOINT + "/{id}", HttpMethod.PUT, new HttpEntity<>(priceDTO), String.class, 1L);
+
+        //Then - The second update is rejected, and the first one kept
+        then(response.getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+        then(versionOf(1L))
+                .isEqualTo(version + 1);
+    }
+
+    @Test
+    void updatePrice_concurrentUpdatesOfTheSameVersion_onlyOneWins() throws Exception {
+
+        //Given - Concurrent updates of the same price, all of them based on the same version
+        long version = versionOf(1L);
+        int updates = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(updates);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpStatusCode>> responses = new ArrayList<>();
+        for (int i = 0; i < updates; i++) {
+            PriceDTO priceDTO = new PriceDTO(35455L, 1, 1, LocalDateTime.of(2020, 6, 14, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), BigDecimal.valueOf(4000 + i, 2), "EUR", version);
+            responses.add(executor.submit(() -> {
+                start.await();
+                return restTemplate.exchange(ENDPOINT + "/{id}", HttpMethod.PUT, new HttpEntity<>(priceDTO), String.class, 1L)
+                                   .getStatusCode();
+            }));
+        }
+
+        //When - They are sent at once
+        start.countDown();
+        List<HttpStatusCode> statuses = new ArrayList<>();
+        for (Future<HttpStatusCode> response : responses) {
+            statuses.add(response.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        //Then - Exactly one of them is applied, the rest are conflicts instead of lost updates
+        then(statuses)
+                .filteredOn(status -> status.isSameCodeAs(HttpStatus.OK))
+                .hasSize(1);
+        then(statuses)
+                .filteredOn(status -> status.isSameCodeAs(HttpStatus.CONFLICT))
+                .hasSize(updates - 1);
+        then(versionOf(1L))
+                .isEqualTo(version + 1);
+    }
+
+    @Test
+    void resolvePrices_OK() {
+
+        //Given - Build the body with the queries of the use case and one without price
+        String uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/resolve")
+                                         .build()
+                                         .toUriString();
+        List<Map<String, Object>> queries = List.of(
+                Map.of("brandId", 1, "productId", 35455, "applicationDate", "2020-06-14 10:00:00"),
+                Map.of("brandId", 1, "productId", 35455, "applicationDate", "2020-06-14 16:00:00"),
+                Map.of("brandId", 1, "productId", 35455, "applicationDate", "2020-06-14 21:00:00"),
+                Map.of("brandId", 1, "productId", 35455, "applicationDate", "2020-06-15 10:00:00"),
+                Map.of("brandId", 1, "productId", 35455, "applicationDate", "2020-06-15 21:00:00"),
+                Map.of("brandId", 1, "productId", 35455, "applicationDate", "2021-06-13 14:00:00"));
+
+        //When - Make the request
+        ResponseEntity<PriceResolutionDTO[]> response = restTemplate.postForEntity(uri, queries, PriceResolutionDTO[].class);
+
+        //Then - Check the response
+        then(response.getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        then(response.getBody())
+                .extracting(resolution -> resolution.found() ? resolution.price().price() : null)
+                .containsExactly(new BigDecimal("35.50"), new BigDecimal("25.45"), new BigDecimal("35.50"), new BigDecimal("30.50"), new BigDecimal("38.95"), null);
+    }
+
+    @Test
+    void importPrices_OK() {
+
+        //Given - Build a CSV body with the prices of two new products and a row with an invalid currency
+        String uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/import")
+                                         .build()
+                                         .toUriString();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        String body = """
+                brandId,productId,priceList,startDate,endDate,price,currency
+                2,99999,1,2020-06-14 00:00:00,2020-12-31 23:59:59,10.00,EUR
+                2,99999,2,2020-06-15 00:00:00,2020-06-15 23:59:59,8.00,XYZ
+                2,99998,1,2020-07-01 00:00:00,2020-07-31 23:59:59,12.00,EUR
+                """;
+
+        //When - Make the request
+        ResponseEntity<PriceImportResultDTO> response = restTemplate.postForEntity(uri, new HttpEntity<>(body, headers), PriceImportResultDTO.class);
+
+        //Then - Check the response and that the imported prices are resolved
+        then(response.getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        then(response.getBody())
+                .isEqualTo(new PriceImportResultDTO(2, 1, List.of(new PriceImportResultDTO.RowErrorDTO(3, "No matching currency for code: XYZ"))));
+        ResponseEntity<PriceDTO> price = restTemplate.getForEntity(ENDPOINT + "/2/99998?applicationDate=2020-07-10 10:00:00", PriceDTO.class);
+        then(price.getBody())
+                .extracting(PriceDTO::price)
+                .isEqualTo(new BigDecimal("12.00"));
+    }
+
+    @Test
+    void exportPrices_csv() {
+
+        //Given - The prices of a brand and product active at an instant, in the database
+        String activeAt = "2020-06-14 16:00:00";
+        Integer expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRICES WHERE BRAND_ID = 1 AND PRODUCT_ID = 35455 AND START_DATE <= ? AND END_DATE >= ?",
+                Integer.class, Timestamp.valueOf(activeAt), Timestamp.valueOf(activeAt));
+        String uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/export")
+                                         .queryParam("brandId", 1)
+                                         .queryParam("productIdFrom", 35455)
+                                         .queryParam("productIdTo", 35455)
+                                         .queryParam("activeAt", activeAt)
+                                         .build()
+                                         .toUriString();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.parseMediaType("text/csv")));
+
+        //When - Make the request
+        ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        //Then - Check the header line and that a line is written per price
+        then(response.getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        List<String> lines = response.getBody().lines().toList();
+        then(lines.get(0))
+                .isEqualTo("id,brandId,productId,priceList,priority,startDate,endDate,price,currency,version");
+        then(lines.subList(1, lines.size()))
+                .hasSize(expected)
+                .allMatch(line -> line.matches("\\d+,1,35455,\\d+,\\d+,\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2},\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2},\\d+\\.\\d{2},[A-Z]{3},\\d+"))
+                .anyMatch(line -> line.contains(",2020-06-14 15:00:00,2020-06-14 18:30:00,25.45,EUR,"));
+    }
+
+    @Test
+    void getPrice_protobuf() {
+        //Given - A request accepting protobuf
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.parseMediaType("application/x-protobuf")));
+
+        //When - Make the request
+        ResponseEntity<byte[]> response = restTemplate.exchange(ENDPOINT + "/1/35455?applicationDate={date}", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class, "2020-06-14 16:00:00");
+
+        //Then - The Price message of the winning price is sent
+        then(response.getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        then(response.getHeaders().getContentType())
+                .isEqualTo(MediaType.parseMediaType("application/x-protobuf"));
+        then(response.getBody())
+                .isEqualTo(PriceProtobuf.toProtobuf(new PriceSummary(1, 35455L, LocalDateTime.of(2020, 6, 14, 15, 0),
+                        LocalDateTime.of(2020, 6, 14, 18, 30), 2, 2545, CurrencyEnum.EUR)));
+    }
+
+    @Test
+    void getPrice_grpc() {
+        //Given - A channel to the gRPC server
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", grpcServer.getPort())
+                                                      .usePlaintext()
+                                                      .build();
+        try {
+            //When - Call GetPrice
+            Price price = PricingServiceGrpc.newBlockingStub(channel)
+                                            .getPrice(grpcQuery(35455L, "2020-06-14 16:00:00"));
+
+            //Then - The Price message of the winning price is sent, the same as the protobuf body of the REST API
+            then(price.toByteArray())
+                    .isEqualTo(PriceProtobuf.toProtobuf(new PriceSummary(1, 35455L, LocalDateTime.of(2020, 6, 14, 15, 0),
+                            LocalDateTime.of(2020, 6, 14, 18, 30), 2, 2545, CurrencyEnum.EUR)));
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    @Test
+    void resolvePrices_grpc() throws InterruptedException {
+        //Given - A channel to the gRPC server
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", grpcServer.getPort())
+                                                      .usePlaintext()
+                                                      .build();
+        List<PriceResolution> resolutions = new CopyOnWriteArrayList<>();
+        CountDownLatch completed = new CountDownLatch(1);
+        try {
+            //When - The queries are streamed over a single call
+            StreamObserver<PriceQuery> queries = PricingServiceGrpc.newStub(channel)
+                                                                   .resolvePrices(new StreamObserver<>() {
+                                                                       @Override
+                                                                       public void onNext(PriceResolution value) {
+                                                                           resolutions.add(value);
+                                                                       }
+
+                                                                       @Override
+                                                                       public void onError(Throwable t) {
+                                                                       }
+
+                                                                       @Override
+                                                                       public void onCompleted() {
+                                                                           completed.countDown();
+                                                                       }
+                                                                   });
+            queries.onNext(grpcQuery(35455L, "2020-06-14 16:00:00"));
+            queries.onNext(grpcQuery(35455L, "2021-06-13 14:00:00"));
+            queries.onNext(grpcQuery(35455L, "2020-06-15 21:00:00"));
+            queries.onCompleted();
+
+            //Then - A resolution per query, in order
+            then(completed.await(10, TimeUnit.SECONDS)).isTrue();
+            then(resolutions)
+                    .extracting(PriceResolution::getFound, resolution -> resolution.getPrice().getPrice())
+                    .containsExactly(tuple(true, 2545L), tuple(false, 0L), tuple(true, 3895L));
+        } finally {
+            channel.shutdownNow();
+        }
+    }
 
+    private static PriceQuery grpcQuery(long productId, String applicationDate) {
+        return PriceQuery.newBuilder()
+                         .setBrandId(1)
+                         .setProductId(productId)
+                         .setApplicationDate(LocalDateTime.parse(applicationDate, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
+                                                          .toEpochSecond(ZoneOffset.UTC))
+                         .build();
+    }
+
+    @Test
+    void exportPrices_ndjson() throws JsonProcessingException {
+
+        //Given - All the prices in the database
+        Integer expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRICES", Integer.class);
+
+        //When - Make the request with no filter
+        ResponseEntity<String> response = restTemplate.getForEntity(ENDPOINT + "/export", String.class);
+
+        //Then - Check that a JSON line is written per price
+        then(response.getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        then(response.getHeaders().getContentType())
+                .isEqualTo(MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"));
+        List<String> lines = response.getBody().lines().toList();
+        then(lines)
+                .hasSize(expected);
+        then(objectMapper.readTree(lines.get(0)).fieldNames())
+                .toIterable()
+                .containsExactly("id", "brandId", "productId", "priceList", "priority", "startDate", "endDate", "price", "currency", "version");
+    }
+
+    @Test
+    void priceTimeline_returnsTheWinningPriceOfEveryPeriodOfTheRange() {
+
+        //Given - A base price and two promotions of a product, the second overlapping the end of the first
+        jdbcTemplate.update("DELETE FROM PRICES WHERE BRAND_ID = 8");
+        jdbcTemplate.update("""
+                INSERT INTO PRICES (BRAND_ID, PRODUCT_ID, PRICE_LIST, PRIORITY, START_DATE, END_DATE, PRICE, CURR)
+                VALUES (8, 1, 1, 0, '2020-06-14 00:00:00', '2020-12-31 23:59:59', 3550, 'EUR'),
+                       (8, 1, 2, 1, '2020-06-14 15:00:00', '2020-06-14 18:30:00', 2545, 'EUR'),
+                       (8, 1, 3, 2, '2020-06-14 18:00:00', '2020-06-14 20:00:00', 3050, 'EUR')""");
+
+        //When - The timeline of the day is requested
+        ResponseEntity<PriceSegmentDTO[]> response = restTemplate.getForEntity(ENDPOINT + "/8/1/timeline?from={from}&to={to}",
+                PriceSegmentDTO[].class, "2020-06-14 10:00:00", "2020-06-14 23:59:59");
+
+        //Then - Every period of the range comes with the price winning in it, clipped to the range
+        then(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(response.getBody())
+                .extracting(segment -> segment.from().toString(), segment -> segment.to().toString(),
+                        segment -> segment.price().priceList(), segment -> segment.price().price())
+                .containsExactly(tuple("2020-06-14T10:00", "2020-06-14T14:59:59", 1, new BigDecimal("35.50")),
+                        tuple("2020-06-14T15:00", "2020-06-14T17:59:59", 2, new BigDecimal("25.45")),
+                        tuple("2020-06-14T18:00", "2020-06-14T20:00", 3, new BigDecimal("30.50")),
+                        tuple("2020-06-14T20:00:01", "2020-06-14T23:59:59", 1, new BigDecimal("35.50")));
+    }
+
+    @Test
+    void priceInAnotherCurrency_convertedWithTheRefreshedRates() {
+
+        //Given - A price in EUR and the exchange rates refreshed from a CSV file
+        jdbcTemplate.update("DELETE FROM PRICES WHERE BRAND_ID = 9");
+        jdbcTemplate.update("INSERT INTO PRICES (BRAND_ID, PRODUCT_ID, PRICE_LIST, PRIORITY, START_DATE, END_DATE, PRICE, CURR) VALUES (9, 1, 1, 0, '2020-01-01 00:00:00', '2020-12-31 23:59:59', 3550, 'EUR')");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        String rates = """
+                baseCurrency,quoteCurrency,startDate,endDate,rate
+                EUR,USD,2020-01-01 00:00:00,2020-06-30 23:59:59,1.1102
+                EUR,USD,2020-07-01 00:00:00,2020-12-31 23:59:59,1.1422
+                """;
+        ResponseEntity<String> refresh = restTemplate.exchange("/api/fx-rates", HttpMethod.PUT, new HttpEntity<>(rates, headers), String.class);
+        then(refresh.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        //When - The price is requested in USD and COP
+        ResponseEntity<PriceDTO> june = restTemplate.getForEntity(ENDPOINT + "/9/1?applicationDate={date}&currency=USD", PriceDTO.class, "2020-06-14 10:00:00");
+        ResponseEntity<PriceDTO> july = restTemplate.getForEntity(ENDPOINT + "/9/1?applicationDate={date}&currency=USD", PriceDTO.class, "2020-07-14 10:00:00");
+        ResponseEntity<String> cop = restTemplate.getForEntity(ENDPOINT + "/9/1?applicationDate={date}&currency=COP", String.class, "2020-07-14 10:00:00");
+
+        //Then - It is converted with the rate of each application date, and not found without a rate
+        then(june.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(june.getBody().price()).isEqualTo(new BigDecimal("39.41"));
+        then(june.getBody().currency()).isEqualTo("USD");
+        then(july.getBody().price()).isEqualTo(new BigDecimal("40.55"));
+        then(june.getHeaders().getETag()).isNotEqualTo(july.getHeaders().getETag());
+        then(cop.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void priceChangeOfAnotherInstance_relayedByTheScheduledPoll() throws InterruptedException {
+        //Given - A change recorded in the outbox by another instance of the service
+        Counter relayed = meterRegistry.get("pricing.price.changes.relayed").counter();
+        double before = relayed.count();
+        jdbcTemplate.update("INSERT INTO PRICE_CHANGES (BRAND_ID, PRODUCT_ID, ORIGIN, CREATED_AT) VALUES (1, 35455, 'another-instance', ?)",
+                Timestamp.valueOf(LocalDateTime.now()));
+
+        //When - The outbox is polled
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (relayed.count() == before && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+
+        //Then - The change is relayed
+        then(relayed.count()).isEqualTo(before + 1);
+    }
+
+    // the service doesn't expose the version of a price but in the responses of its writes
+    private long versionOf(long id) {
+        return jdbcTemplate.queryForObject("SELECT VERSION FROM PRICES WHERE ID = ?", Long.class, id);
+    }
+}
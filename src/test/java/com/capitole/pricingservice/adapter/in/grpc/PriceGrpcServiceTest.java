@@ -0,0 +1,222 @@
+package com.capitole.pricingservice.adapter.in.grpc;
+
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceProtobuf;
+import com.capitole.pricingservice.api.v1.Price;
+import com.capitole.pricingservice.api.v1.PriceQuery;
+import com.capitole.pricingservice.api.v1.PriceResolution;
+import com.capitole.pricingservice.api.v1.PricingServiceGrpc;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.port.in.PriceService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+/**
+ * Unit tests for the PriceGrpcService.
+ * <p>
+ * This class includes test cases to verify the GetPrice and ResolvePrices RPCs against an in-process gRPC server,
+ * run on the calling thread so the calls are deterministic, and Mockito to mock the PriceService interactions.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceGrpcServiceTest {
+
+    private static final LocalDateTime APPLICATION_DATE = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+
+    private static final PriceSummary PRICE = new PriceSummary(1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+            LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR);
+
+    private final PriceService priceService = Mockito.mock(PriceService.class);
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                                       .directExecutor()
+                                       .addService(new PriceGrpcService(priceService))
+                                       .build()
+                                       .start();
+        channel = InProcessChannelBuilder.forName(name)
+                                         .directExecutor()
+                                         .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void getPrice() {
+        // Given - A price found by the service
+        given(priceService.getPriceByApplicationTimeBrandIdProductId(any())).willReturn(Optional.of(PRICE));
+
+        // When
+        Price price = PricingServiceGrpc.newBlockingStub(channel)
+                                        .getPrice(query(1, 35455L));
+
+        // Then - The price with its dates in epoch seconds and its minor units, as the protobuf body of the REST API
+        assertEquals(35455L, price.getProductId());
+        assertEquals(1, price.getBrandId());
+        assertEquals(1, price.getPriceList());
+        assertEquals(LocalDateTime.of(2020, 6, 14, 0, 0, 0).toEpochSecond(ZoneOffset.UTC), price.getStartDate());
+        assertEquals(LocalDateTime.of(2020, 12, 31, 23, 59, 59).toEpochSecond(ZoneOffset.UTC), price.getEndDate());
+        assertEquals(3550L, price.getPrice());
+        assertEquals("EUR", price.getCurrency());
+        assertEquals(2, price.getScale());
+        assertArrayEquals(PriceProtobuf.toProtobuf(PRICE), price.toByteArray());
+        then(priceService).should()
+                          .getPriceByApplicationTimeBrandIdProductId(
+                                  new com.capitole.pricingservice.application.port.in.model.PriceQuery(APPLICATION_DATE, 1, 35455L));
+    }
+
+    @Test
+    void getPrice_notFound() {
+        // Given - No price found by the service
+        given(priceService.getPriceByApplicationTimeBrandIdProductId(any())).willReturn(Optional.empty());
+
+        // When
+        StatusRuntimeException exception = assertThrows(StatusRuntimeException.class,
+                () -> PricingServiceGrpc.newBlockingStub(channel).getPrice(query(1, 35455L)));
+
+        // Then
+        assertEquals(Status.Code.NOT_FOUND, exception.getStatus().getCode());
+    }
+
+    @Test
+    void resolvePrices() {
+        // Given - The prices of every product but the ones ending in 9
+        given(priceService.getPriceByApplicationTimeBrandIdProductId(any()))
+                .willAnswer(invocation -> {
+                    com.capitole.pricingservice.application.port.in.model.PriceQuery query = invocation.getArgument(0);
+                    return query.productId() % 10 == 9 ? Optional.empty() : Optional.of(new PriceSummary(query.brandId(),
+                            query.productId(), PRICE.startDate(), PRICE.endDate(), 1, 3550, CurrencyEnum.EUR));
+                });
+        List<PriceResolution> resolutions = new ArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean();
+
+        // When - 1000 queries are pipelined over a single call
+        StreamObserver<PriceQuery> queries = PricingServiceGrpc.newStub(channel)
+                                                               .resolvePrices(collect(resolutions, completed));
+        for (long productId = 0; productId < 1000; productId++) {
+            queries.onNext(query(1, productId));
+        }
+        queries.onCompleted();
+
+        // Then - A resolution per query, in order
+        assertTrue(completed.get());
+        assertEquals(1000, resolutions.size());
+        for (int i = 0; i < 1000; i++) {
+            PriceResolution resolution = resolutions.get(i);
+            assertEquals(i, resolution.getProductId());
+            assertEquals(APPLICATION_DATE.toEpochSecond(ZoneOffset.UTC), resolution.getApplicationDate());
+            assertEquals(i % 10 != 9, resolution.getFound());
+            assertEquals(i % 10 != 9, resolution.hasPrice());
+        }
+    }
+
+    @Test
+    void resolvePrices_waitsForTheClientToReadTheResolutions() {
+        // Given - A client reading no resolution until it requests them
+        given(priceService.getPriceByApplicationTimeBrandIdProductId(any())).willReturn(Optional.of(PRICE));
+        List<PriceResolution> resolutions = new ArrayList<>();
+        AtomicReference<ClientCallStreamObserver<PriceQuery>> call = new AtomicReference<>();
+        ClientResponseObserver<PriceQuery, PriceResolution> observer = new ClientResponseObserver<>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<PriceQuery> requestStream) {
+                requestStream.disableAutoRequestWithInitial(0);
+                call.set(requestStream);
+            }
+
+            @Override
+            public void onNext(PriceResolution value) {
+                resolutions.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+
+        // When - 100 queries are sent
+        StreamObserver<PriceQuery> queries = PricingServiceGrpc.newStub(channel)
+                                                               .resolvePrices(observer);
+        for (long productId = 0; productId < 100; productId++) {
+            queries.onNext(query(1, productId));
+        }
+
+        // Then - The server reads no query while it couldn't send its resolution
+        then(priceService).should(never()).getPriceByApplicationTimeBrandIdProductId(any());
+        assertTrue(resolutions.isEmpty());
+
+        // When - The client reads the resolutions
+        call.get().request(100);
+
+        // Then - The rest of the queries are resolved
+        then(priceService).should(times(100)).getPriceByApplicationTimeBrandIdProductId(any());
+        assertEquals(100, resolutions.size());
+        queries.onCompleted();
+    }
+
+    private static PriceQuery query(int brandId, long productId) {
+        return PriceQuery.newBuilder()
+                         .setBrandId(brandId)
+                         .setProductId(productId)
+                         .setApplicationDate(APPLICATION_DATE.toEpochSecond(ZoneOffset.UTC))
+                         .build();
+    }
+
+    private static StreamObserver<PriceResolution> collect(List<PriceResolution> resolutions, AtomicBoolean completed) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(PriceResolution value) {
+                resolutions.add(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                fail(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.set(true);
+            }
+        };
+    }
+}
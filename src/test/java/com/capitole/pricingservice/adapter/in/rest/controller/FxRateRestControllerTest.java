@@ -0,0 +1,123 @@
+package com.capitole.pricingservice.adapter.in.rest.controller;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+import com.capitole.pricingservice.application.port.in.FxRateService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the FxRateRestController.
+ * <p>
+ * This class includes test cases to verify that the exchange rates of a CSV body are read and replace the stored
+ * ones, and that a body with a line that can't be read is rejected as a whole. It uses MockMvc to perform requests
+ * and Mockito to mock the FxRateService interactions.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@WebMvcTest(controllers = FxRateRestController.class)
+class FxRateRestControllerTest {
+
+    private static final String ENDPOINT = "/api/fx-rates";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private FxRateService fxRateService;
+
+    @Test
+    void testRefreshRates() throws Exception {
+
+        // Given - A CSV body with a header line and a blank line
+        String body = """
+                baseCurrency,quoteCurrency,startDate,endDate,rate
+                EUR,USD,2020-01-01 00:00:00,2020-12-31 23:59:59,1.1422
+
+                EUR,COP,2020-01-01 00:00:00,2020-12-31 23:59:59,4213.76
+                """;
+        given(fxRateService.replaceRates(anyList())).willReturn(2);
+
+        // When
+        ResultActions results = mockMvc.perform(put(ENDPOINT).contentType("text/csv").content(body));
+
+        // Then
+        results.andExpect(status().isOk())
+               .andExpect(jsonPath("$.rates").value(2));
+        then(fxRateService).should().replaceRates(List.of(
+                new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1.1422),
+                new FxRate(CurrencyEnum.EUR, CurrencyEnum.COP, LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 4213.76)));
+    }
+
+    @Test
+    void testRefreshRates_invalidLine() throws Exception {
+
+        // Given - A CSV body with an unknown currency in its second line
+        String body = """
+                EUR,USD,2020-01-01 00:00:00,2020-12-31 23:59:59,1.1422
+                EUR,XYZ,2020-01-01 00:00:00,2020-12-31 23:59:59,4213.76
+                """;
+
+        // When
+        ResultActions results = mockMvc.perform(put(ENDPOINT).contentType("text/csv").content(body));
+
+        // Then - No rate is replaced
+        results.andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.code").value("BAD_REQUEST"))
+               .andExpect(jsonPath("$.details").value("Line 2: No matching currency for code: XYZ"));
+        then(fxRateService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void testRefreshRates_invalidDate() throws Exception {
+
+        // When
+        ResultActions results = mockMvc.perform(put(ENDPOINT).contentType("text/csv").content("EUR,USD,2020-01-01,2020-12-31 23:59:59,1.1422"));
+
+        // Then
+        results.andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+        then(fxRateService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void testRefreshRates_overlappingRates() throws Exception {
+
+        // Given - Rates rejected by the service
+        given(fxRateService.replaceRates(anyList())).willThrow(new IllegalArgumentException("The rates of EUR/USD overlap"));
+
+        // When
+        ResultActions results = mockMvc.perform(put(ENDPOINT).contentType("text/csv")
+                                                              .content("EUR,USD,2020-01-01 00:00:00,2020-12-31 23:59:59,1.1422"));
+
+        // Then
+        results.andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.details").value("The rates of EUR/USD overlap"));
+    }
+
+    @Test
+    void testRefreshRates_unsupportedMediaType() throws Exception {
+
+        // When
+        ResultActions results = mockMvc.perform(put(ENDPOINT).contentType(MediaType.APPLICATION_JSON).content("[]"));
+
+        // Then
+        results.andExpect(status().isUnsupportedMediaType());
+        then(fxRateService).shouldHaveNoInteractions();
+    }
+}
@@ -1,34 +1,66 @@
 package com.capitole.pricingservice.adapter.in.rest.controller;
 
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceDTO;
 import com.capitole.pricingservice.adapter.in.rest.dto.PriceToCreateDTO;
+import com.capitole.pricingservice.adapter.in.rest.dto.PriceToUpdateDTO;
+import com.capitole.pricingservice.adapter.in.rest.exception.PriceExportAbortedException;
 import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
 import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
 import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.port.in.FxRateService;
 import com.capitole.pricingservice.application.port.in.PriceService;
 import com.capitole.pricingservice.application.port.in.model.PriceCreateCommand;
+import com.capitole.pricingservice.application.port.in.model.PriceImportResult;
+import com.capitole.pricingservice.application.port.in.model.PriceImportRow;
 import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.capitole.pricingservice.application.port.in.model.PriceRangeQuery;
 import com.capitole.pricingservice.application.port.in.model.PriceUpdateCommand;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.math.BigDecimal;
 import java.net.URI;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +75,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
  */
 @WebMvcTest(controllers = PriceRestController.class)
+@Import(SimpleMeterRegistry.class)
 public class PriceRestControllerTest {
 
     @Autowired
@@ -51,12 +84,30 @@ public class PriceRestControllerTest {
     @MockBean
     private PriceService priceService;
 
+    @MockBean
+    private FxRateService fxRateService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
 
     private static final String ENDPOINT = "/api/prices";
 
+    // the current time of the clock of the controller
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0, 0);
+
+    @TestConfiguration
+    static class ClockTestConfiguration {
+
+        @Bean
+        Clock clock() {
+            return Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        }
+    }
+
 
     @Test
     public void testGetPrice() throws Exception {
@@ -68,13 +119,13 @@ public class PriceRestControllerTest {
                                       .queryParam("applicationDate", applicationDate)
                                       .buildAndExpand(41, 42L)
                                       .toUri();
-        given(priceService.getPriceByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
-                .willReturn(Optional.of(new PriceSummary(41,
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segmentOf(new PriceSummary(41,
                         42L,
                         LocalDateTime.of(2024, 1, 1, 0, 0, 0),
                         LocalDateTime.of(2024, 12, 1, 0, 0, 0),
                         1,
-                        20.0, CurrencyEnum.USD)));
+                        2000, CurrencyEnum.USD))));
 
         // When - Make the request
         ResultActions results = mockMvc.perform(get(uri));
@@ -89,7 +140,7 @@ public class PriceRestControllerTest {
 
         // Verify that the method was called with the correct arguments
         then(priceService).should()
-                          .getPriceByApplicationTimeBrandIdProductId(eq(new PriceQuery(applicationDateTime, 41, 42L)));
+                          .getPriceSegmentByApplicationTimeBrandIdProductId(eq(new PriceQuery(applicationDateTime, 41, 42L)));
     }
 
     @Test
@@ -116,6 +167,325 @@ public class PriceRestControllerTest {
 
     }
 
+    @Test
+    void testGetPriceNonExistentApplicationDate() throws Exception {
+
+        // Given - A well formed date that does not exist in the calendar
+        URI uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/{brandId}/{productId}")
+                                      .queryParam("applicationDate", "2024-02-30 12:00:00")
+                                      .buildAndExpand(41, 42L)
+                                      .toUri();
+
+        // When
+        ResultActions results = mockMvc.perform(get(uri));
+
+        // Then - It is rejected as an invalid date instead of being moved to the end of the month
+        results.andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.code").value("INVALID_DATE_FORMAT"));
+        then(priceService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void testGetPriceBodyMatchesPriceDTO() throws Exception {
+
+        // Given - A price whose fields need padding and a fractional amount
+        PriceSummary summary = new PriceSummary(1, 35455L,
+                LocalDateTime.of(2020, 6, 4, 9, 5, 7),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59),
+                4, 3895, CurrencyEnum.EUR);
+        URI uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/{brandId}/{productId}")
+                                      .queryParam("applicationDate", "2020-06-14 16:00:00")
+                                      .buildAndExpand(1, 35455L)
+                                      .toUri();
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segmentOf(summary)));
+
+        // When
+        String body = mockMvc.perform(get(uri))
+                             .andExpect(status().isOk())
+                             .andReturn().getResponse().getContentAsString();
+
+        // Then - The hand written body is the same Jackson writes for the PriceDTO
+        assertEquals(objectMapper.writeValueAsString(PriceDTO.toPriceDTO(summary)), body);
+    }
+
+    @Test
+    void testGetPriceNotFound() throws Exception {
+
+        // Given - No price for the parameters in the request
+        URI uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/{brandId}/{productId}")
+                                      .queryParam("applicationDate", "2024-05-01 12:00:00")
+                                      .buildAndExpand(41, 42L)
+                                      .toUri();
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.empty());
+        double notFound = meterRegistry.get("pricing.price.not.found").tag("operation", "get").counter().count();
+
+        // When
+        ResultActions results = mockMvc.perform(get(uri));
+
+        // Then - The response is a 404 and it is counted
+        results.andExpect(status().isNotFound());
+        assertEquals(notFound + 1, meterRegistry.get("pricing.price.not.found").tag("operation", "get").counter().count());
+    }
+
+    @Test
+    void testGetPriceNotFoundProtobufSendsJsonError() throws Exception {
+
+        // Given - No price for a request accepting protobuf only
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.empty());
+
+        // When
+        ResultActions results = mockMvc.perform(get(priceUri()).header(HttpHeaders.ACCEPT, "application/x-protobuf"));
+
+        // Then - The error is written as JSON whatever the Accept header
+        results.andExpect(status().isNotFound())
+               .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+               .andExpect(jsonPath("$.code").value("NOT_FOUND"));
+    }
+
+    @Test
+    void testGetPriceSendsETagAndCacheControl() throws Exception {
+
+        // Given - A price that keeps winning long after the configured max-age
+        PriceTimeline.Segment segment = segmentOf(new PriceSummary(41, 42L,
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                LocalDateTime.of(2999, 12, 31, 23, 59, 59),
+                1, 2000, CurrencyEnum.USD));
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segment));
+
+        // When
+        ResultActions results = mockMvc.perform(get(priceUri()));
+
+        // Then - The strong ETag of the price and the configured max-age are sent
+        results.andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, PriceRestController.eTag(segment.price())))
+               .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60"));
+        assertTrue(PriceRestController.eTag(segment.price()).startsWith("\"1-"));
+    }
+
+    @Test
+    void testGetPriceMaxAgeBoundedByTheEndOfTheSegment() throws Exception {
+
+        // Given - A price that stops winning in 30 seconds, when it ends or a price with higher priority starts
+        Price price = new Price(1L, 41, 42L, NOW.minusDays(1), NOW.plusDays(1), 1, 2000, CurrencyEnum.USD, 0);
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(new PriceTimeline.Segment(NOW.minusDays(1), NOW.plusSeconds(30), price)));
+
+        // When
+        String cacheControl = mockMvc.perform(get(priceUri()))
+                                     .andExpect(status().isOk())
+                                     .andReturn().getResponse().getHeader(HttpHeaders.CACHE_CONTROL);
+
+        // Then - The max-age doesn't go beyond the end of the segment
+        assertEquals("max-age=30", cacheControl);
+    }
+
+    @Test
+    void testGetPriceNotModified() throws Exception {
+
+        // Given - A request with the ETag of the price found, among others
+        PriceTimeline.Segment segment = segmentOf(new PriceSummary(41, 42L,
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                LocalDateTime.of(2024, 12, 1, 0, 0, 0),
+                1, 2000, CurrencyEnum.USD));
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segment));
+        String eTag = PriceRestController.eTag(segment.price());
+        double notModified = meterRegistry.get("pricing.price.not.modified").tag("operation", "get").counter().count();
+
+        // When
+        ResultActions results = mockMvc.perform(get(priceUri()).header(HttpHeaders.IF_NONE_MATCH, "\"0-0\", W/" + eTag));
+
+        // Then - A 304 with no body is answered and counted
+        results.andExpect(status().isNotModified())
+               .andExpect(header().string(HttpHeaders.ETAG, eTag))
+               .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60"))
+               .andExpect(content().string(""));
+        assertEquals(notModified + 1, meterRegistry.get("pricing.price.not.modified").tag("operation", "get").counter().count());
+    }
+
+    @Test
+    void testGetPriceModified() throws Exception {
+
+        // Given - A request with the ETag of a price updated since then
+        PriceSummary summary = new PriceSummary(41, 42L,
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                LocalDateTime.of(2024, 12, 1, 0, 0, 0),
+                1, 2000, CurrencyEnum.USD);
+        String previousETag = PriceRestController.eTag(segmentOf(summary).price());
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segmentOf(new PriceSummary(41, 42L, summary.startDate(), summary.endDate(),
+                        1, 2100, CurrencyEnum.USD))));
+
+        // When
+        ResultActions results = mockMvc.perform(get(priceUri()).header(HttpHeaders.IF_NONE_MATCH, previousETag));
+
+        // Then - The new price is sent with its new ETag
+        results.andExpect(status().isOk())
+               .andExpect(jsonPath("$.price").value(21.0));
+        assertNotEquals(previousETag, results.andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testGetPriceProtobuf() throws Exception {
+
+        // Given - A request accepting protobuf before JSON
+        PriceTimeline.Segment segment = segmentOf(new PriceSummary(41, 42L,
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                LocalDateTime.of(2024, 12, 1, 0, 0, 0),
+                1, 2000, CurrencyEnum.USD));
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segment));
+
+        // When
+        ResultActions results = mockMvc.perform(get(priceUri()).header(HttpHeaders.ACCEPT, "application/x-protobuf, application/json"));
+
+        // Then - The Price message is sent, with the dates in epoch seconds and the price in minor units, and its own ETag
+        results.andExpect(status().isOk())
+               .andExpect(content().contentType("application/x-protobuf"))
+               .andExpect(content().bytes(HexFormat.of().parseHex(
+                       "082a" // productId 42
+                       + "1029" // brandId 41
+                       + "1801" // priceList 1
+                       + "208081c8ac06" // startDate 1704067200, 2024-01-01 00:00:00
+                       + "2880ceaeba06" // endDate 1733011200, 2024-12-01 00:00:00
+                       + "30d00f" // price 2000
+                       + "3a03555344" // currency USD
+                       + "4002"))) // scale 2
+               .andExpect(header().string(HttpHeaders.ETAG, PriceRestController.eTag(segment.price(), null, true)))
+               .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        assertNotEquals(PriceRestController.eTag(segment.price()), PriceRestController.eTag(segment.price(), null, true));
+    }
+
+    @Test
+    void testGetPriceJsonAcceptedFirst() throws Exception {
+
+        // Given - A request accepting JSON before protobuf
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segmentOf(new PriceSummary(41, 42L,
+                        LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2024, 12, 1, 0, 0, 0),
+                        1, 2000, CurrencyEnum.USD))));
+
+        // When
+        ResultActions results = mockMvc.perform(get(priceUri()).header(HttpHeaders.ACCEPT, "application/json, application/x-protobuf"));
+
+        // Then - JSON is sent
+        results.andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+               .andExpect(jsonPath("$.price").value(20.0));
+    }
+
+    @Test
+    void testGetPriceInAnotherCurrency() throws Exception {
+
+        // Given - A price in EUR and the rate to USD at the application date
+        LocalDateTime applicationDate = LocalDateTime.of(2024, 5, 1, 12, 0, 0);
+        PriceTimeline.Segment segment = segmentOf(new PriceSummary(41, 42L,
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                LocalDateTime.of(2024, 12, 1, 0, 0, 0),
+                1, 3550, CurrencyEnum.EUR));
+        FxRate rate = new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                LocalDateTime.of(2024, 12, 31, 23, 59, 59), 1.0845);
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segment));
+        given(fxRateService.getRate(CurrencyEnum.EUR, CurrencyEnum.USD, applicationDate))
+                .willReturn(Optional.of(rate));
+
+        // When
+        ResultActions results = mockMvc.perform(get(priceUri("usd")));
+
+        // Then - The price is converted, and the rate is part of the ETag
+        results.andExpect(status().isOk())
+               .andExpect(jsonPath("$.price").value(38.5))
+               .andExpect(jsonPath("$.currency").value("USD"))
+               .andExpect(jsonPath("$.priceList").value(1))
+               .andExpect(header().string(HttpHeaders.ETAG, PriceRestController.eTag(segment.price(), rate)));
+        assertNotEquals(PriceRestController.eTag(segment.price()), PriceRestController.eTag(segment.price(), rate));
+    }
+
+    @Test
+    void testGetPriceInItsOwnCurrency() throws Exception {
+
+        // Given - A price already in the currency requested
+        PriceTimeline.Segment segment = segmentOf(new PriceSummary(41, 42L,
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                LocalDateTime.of(2024, 12, 1, 0, 0, 0),
+                1, 3550, CurrencyEnum.EUR));
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segment));
+
+        // When
+        ResultActions results = mockMvc.perform(get(priceUri("EUR")));
+
+        // Then - The price is sent as it is, with no rate looked up, and with the decimals of its currency
+        results.andExpect(status().isOk())
+               .andExpect(content().string(containsString("\"price\":35.50,")))
+               .andExpect(jsonPath("$.price").value(35.5))
+               .andExpect(jsonPath("$.currency").value("EUR"))
+               .andExpect(header().string(HttpHeaders.ETAG, PriceRestController.eTag(segment.price())));
+        then(fxRateService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void testGetPriceMaxAgeBoundedByTheEndOfTheRate() throws Exception {
+
+        // Given - A rate that ends in 30 seconds
+        PriceTimeline.Segment segment = segmentOf(new PriceSummary(41, 42L, NOW.minusDays(1), NOW.plusDays(1),
+                1, 3550, CurrencyEnum.EUR));
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segment));
+        given(fxRateService.getRate(eq(CurrencyEnum.EUR), eq(CurrencyEnum.COP), any(LocalDateTime.class)))
+                .willReturn(Optional.of(new FxRate(CurrencyEnum.EUR, CurrencyEnum.COP, NOW.minusDays(1), NOW.plusSeconds(30), 4213.76)));
+
+        // When
+        String cacheControl = mockMvc.perform(get(priceUri("COP")))
+                                     .andExpect(status().isOk())
+                                     .andExpect(jsonPath("$.price").value(149588.48))
+                                     .andReturn().getResponse().getHeader(HttpHeaders.CACHE_CONTROL);
+
+        // Then - The max-age doesn't go beyond the end of the rate
+        assertEquals("max-age=30", cacheControl);
+    }
+
+    @Test
+    void testGetPriceFxRateNotFound() throws Exception {
+
+        // Given - No rate from the currency of the price to the one requested
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+                .willReturn(Optional.of(segmentOf(new PriceSummary(41, 42L,
+                        LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                        LocalDateTime.of(2024, 12, 1, 0, 0, 0),
+                        1, 3550, CurrencyEnum.EUR))));
+        given(fxRateService.getRate(any(), any(), any())).willReturn(Optional.empty());
+        double notFound = meterRegistry.get("pricing.fx.rate.not.found").tag("operation", "get").counter().count();
+
+        // When
+        ResultActions results = mockMvc.perform(get(priceUri("USD")));
+
+        // Then
+        results.andExpect(status().isNotFound())
+               .andExpect(jsonPath("$.code").value("NOT_FOUND"))
+               .andExpect(jsonPath("$.message").value("Exchange rate not found."));
+        assertEquals(notFound + 1, meterRegistry.get("pricing.fx.rate.not.found").tag("operation", "get").counter().count());
+    }
+
+    @Test
+    void testGetPriceInvalidCurrency() throws Exception {
+
+        // When
+        ResultActions results = mockMvc.perform(get(priceUri("XYZ")));
+
+        // Then - The request is rejected before looking the price up
+        results.andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+        then(priceService).shouldHaveNoInteractions();
+        then(fxRateService).shouldHaveNoInteractions();
+    }
+
     @Test
     void testGetPriceInvalidPriceQuery() throws Exception {
         // Given - Build the URL with query parameters and a mock ConstraintViolationException
@@ -124,7 +494,7 @@ public class PriceRestControllerTest {
                                       .queryParam("applicationDate", applicationDate)
                                       .buildAndExpand(41, 42L)
                                       .toUri();
-        given(priceService.getPriceByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
                 .willThrow(new ConstraintViolationException("Error", null));
 
         // When - Make the request
@@ -164,7 +534,7 @@ public class PriceRestControllerTest {
                                       .buildAndExpand(41, 42L)
                                       .toUri();
 
-        given(priceService.getPriceByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
+        given(priceService.getPriceSegmentByApplicationTimeBrandIdProductId(any(PriceQuery.class)))
                 .willThrow(new RuntimeException("Error", null));
 
         // When - Make the request
@@ -177,17 +547,92 @@ public class PriceRestControllerTest {
 
     }
 
+    @Test
+    void testGetPriceTimeline() throws Exception {
+        // Given - Build the URL with the range and a mock response of two segments
+        URI uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/{brandId}/{productId}/timeline")
+                                      .queryParam("from", "2020-06-14 10:00:00")
+                                      .queryParam("to", "2020-06-14 20:00:00")
+                                      .buildAndExpand(1, 35455L)
+                                      .toUri();
+        Price base = new Price(1L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR, 0);
+        Price promotion = new Price(2L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 15, 0, 0),
+                LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2, 2545, CurrencyEnum.EUR, 0);
+        given(priceService.getPriceSegmentsByDateRangeBrandIdProductId(any(PriceRangeQuery.class)))
+                .willReturn(List.of(new PriceTimeline.Segment(LocalDateTime.of(2020, 6, 14, 10, 0, 0), LocalDateTime.of(2020, 6, 14, 15, 0, 0), base),
+                        new PriceTimeline.Segment(LocalDateTime.of(2020, 6, 14, 15, 0, 0), LocalDateTime.of(2020, 6, 14, 18, 30, 1), promotion),
+                        new PriceTimeline.Segment(LocalDateTime.of(2020, 6, 14, 18, 30, 1), LocalDateTime.of(2020, 6, 14, 20, 0, 1), base)));
+
+        // When - Make the request
+        ResultActions results = mockMvc.perform(get(uri));
+
+        // Then - Every segment is returned with its dates included and its price
+        results.andExpect(status().isOk())
+               .andExpect(jsonPath("$.length()").value(3))
+               .andExpect(jsonPath("$[0].from").value("2020-06-14 10:00:00"))
+               .andExpect(jsonPath("$[0].to").value("2020-06-14 14:59:59"))
+               .andExpect(jsonPath("$[0].price.priceList").value(1))
+               .andExpect(jsonPath("$[0].price.price").value(35.5))
+               .andExpect(jsonPath("$[1].from").value("2020-06-14 15:00:00"))
+               .andExpect(jsonPath("$[1].to").value("2020-06-14 18:30:00"))
+               .andExpect(jsonPath("$[1].price.priceList").value(2))
+               .andExpect(jsonPath("$[1].price.price").value(25.45))
+               .andExpect(jsonPath("$[2].from").value("2020-06-14 18:30:01"))
+               .andExpect(jsonPath("$[2].to").value("2020-06-14 20:00:00"))
+               .andExpect(jsonPath("$[2].price.priceList").value(1));
+        then(priceService).should()
+                          .getPriceSegmentsByDateRangeBrandIdProductId(eq(new PriceRangeQuery(1, 35455L,
+                                  LocalDateTime.of(2020, 6, 14, 10, 0, 0), LocalDateTime.of(2020, 6, 14, 20, 0, 0))));
+        assertEquals(1, meterRegistry.get("pricing.price.mapping").tag("operation", "timeline").timer().count());
+    }
+
+    @Test
+    void testGetPriceTimelineFromAfterTo() throws Exception {
+        // Given - Build the URL with a range ending before it starts
+        URI uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/{brandId}/{productId}/timeline")
+                                      .queryParam("from", "2020-06-15 00:00:00")
+                                      .queryParam("to", "2020-06-14 00:00:00")
+                                      .buildAndExpand(1, 35455L)
+                                      .toUri();
+
+        // When - Make the request
+        ResultActions results = mockMvc.perform(get(uri));
+
+        // Then - The request is rejected before resolving the prices
+        results.andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+        then(priceService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void testGetPriceTimelineInvalidDate() throws Exception {
+        // Given - Build the URL with a date in another format
+        URI uri = UriComponentsBuilder.fromUriString(ENDPOINT + "/{brandId}/{productId}/timeline")
+                                      .queryParam("from", "2020-06-14T00:00:00")
+                                      .queryParam("to", "2020-06-15 00:00:00")
+                                      .buildAndExpand(1, 35455L)
+                                      .toUri();
+
+        // When - Make the request
+        ResultActions results = mockMvc.perform(get(uri));
+
+        // Then - The request is rejected before resolving the prices
+        results.andExpect(status().isBadRequest());
+        then(priceService).shouldHaveNoInteractions();
+    }
+
     @Test
     public void testSavePrice() throws Exception {
 
         // Given - Build  Body  and a mock response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(41, 42L, 1, dateTime, dateTime.plusDays(2), 20.0, "EUR");
-        PriceCreateCommand priceCommand = new PriceCreateCommand(41, 42L, dateTime, dateTime.plusDays(2), 1, 20.0, CurrencyEnum.EUR);
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(41, 42L, 1, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), "EUR");
+        PriceCreateCommand priceCommand = new PriceCreateCommand(41, 42L, dateTime, dateTime.plusDays(2), 1, 2000L, CurrencyEnum.EUR);
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
-        Price saveExpected = new Price(1L, 41, 42L, dateTime, dateTime.plusDays(2), 1, 20.0, CurrencyEnum.EUR, 0);
+        Price saveExpected = new Price(1L, 41, 42L, dateTime, dateTime.plusDays(2), 1, 2000, CurrencyEnum.EUR, 0);
         given(priceService.save(any(PriceCreateCommand.class)))
                 .willReturn(saveExpected);
 
@@ -218,7 +663,7 @@ public class PriceRestControllerTest {
 
         // Given - Build  Body  and a mock response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(null, 42L, 1, dateTime, dateTime.plusDays(2), 20.0, "EUR");
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(null, 42L, 1, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), "EUR");
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
@@ -242,7 +687,7 @@ public class PriceRestControllerTest {
 
         // Given - Build  Body  and a mock response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, null, 1, dateTime, dateTime.plusDays(2), 20.0, "EUR");
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, null, 1, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), "EUR");
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
@@ -266,7 +711,7 @@ public class PriceRestControllerTest {
 
         // Given - Build  Body  and a mock response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 42L, 1, null, dateTime.plusDays(2), 20.0, "EUR");
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 42L, 1, null, dateTime.plusDays(2), new BigDecimal("20.00"), "EUR");
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
@@ -290,7 +735,7 @@ public class PriceRestControllerTest {
 
         // Given - Build  Body  and a mock response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 42L, 1, dateTime, null, 20.0, "EUR");
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 42L, 1, dateTime, null, new BigDecimal("20.00"), "EUR");
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
@@ -373,7 +818,7 @@ public class PriceRestControllerTest {
         // Given - Build  Body  and a mock response
         LocalDateTime startDate = LocalDateTime.of(2022, 1, 12, 0, 0);
         LocalDateTime endDate = LocalDateTime.of(2022, 1, 10, 0, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, 1, startDate, endDate, 20.0, "EUR");
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, 1, startDate, endDate, new BigDecimal("20.00"), "EUR");
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
@@ -395,7 +840,7 @@ public class PriceRestControllerTest {
     public void testSavePrice_currencyNull() throws Exception {
         // Given - Build  Body  and a mock response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 12, 0, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, 1, dateTime, dateTime.plusDays(2), 20.0, null);
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, 1, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), null);
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
@@ -440,7 +885,7 @@ public class PriceRestControllerTest {
     public void testSavePrice_priceListNull() throws Exception {
         // Given - Build  Body  and a mock response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 12, 0, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, null, dateTime, dateTime.plusDays(2), 20.0, "USD");
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, null, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), "USD");
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
@@ -462,7 +907,7 @@ public class PriceRestControllerTest {
     public void testSavePrice_priceListNegative() throws Exception {
         // Given - Build  Body  and a mock response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 12, 0, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, -1, dateTime, dateTime.plusDays(2), 20.0, "EUR");
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, -1, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), "EUR");
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
@@ -484,7 +929,7 @@ public class PriceRestControllerTest {
     public void testSavePrice_priceNegative() throws Exception {
         // Given - Build  Body  and a mock response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 12, 0, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, 1, dateTime, dateTime.plusDays(2), -20.0, "EUR");
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, 1, dateTime, dateTime.plusDays(2), new BigDecimal("-20.00"), "EUR");
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
@@ -507,7 +952,7 @@ public class PriceRestControllerTest {
     public void testSavePrice_currencyInvalid() throws Exception {
         // Given - Build  Body  and a mock response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 12, 0, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, 1, dateTime, dateTime.plusDays(2), 20.0, "InvalidCurrency");
+        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(42, 1L, 1, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), "InvalidCurrency");
         // Serialize DTO into JSON
         String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
 
@@ -534,12 +979,12 @@ public class PriceRestControllerTest {
                                       .toUri();
 
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(41, 42L, 1, dateTime, dateTime.plusDays(2), 20.0, "EUR");
-        PriceUpdateCommand priceCommand = new PriceUpdateCommand(1L, 41, 42L, dateTime, dateTime.plusDays(2), 1, 20.0, CurrencyEnum.EUR);
+        PriceToUpdateDTO priceToUpdateDTO = new PriceToUpdateDTO(41, 42L, 1, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), "EUR", 3L);
+        PriceUpdateCommand priceCommand = new PriceUpdateCommand(1L, 41, 42L, dateTime, dateTime.plusDays(2), 1, 2000L, CurrencyEnum.EUR, 3L);
         // Serialize DTO into JSON
-        String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
+        String requestBody = objectMapper.writeValueAsString(priceToUpdateDTO);
 
-        Price updateExpected = new Price(1L, 41, 42L, dateTime, dateTime.plusDays(2), 1, 20.0, CurrencyEnum.EUR, 0);
+        Price updateExpected = new Price(1L, 41, 42L, dateTime, dateTime.plusDays(2), 1, 2000, CurrencyEnum.EUR, 0, 4L);
         given(priceService.update(any(PriceUpdateCommand.class)))
                 .willReturn(Optional.of(updateExpected));
 
@@ -556,7 +1001,8 @@ public class PriceRestControllerTest {
                .andExpect(jsonPath("$.productId").value(42L))
                .andExpect(jsonPath("$.startDate").value("2022-01-01 12:00:00"))
                .andExpect(jsonPath("$.endDate").value("2022-01-03 12:00:00"))
-               .andExpect(jsonPath("$.price").value(20.0));
+               .andExpect(jsonPath("$.price").value(20.0))
+               .andExpect(jsonPath("$.version").value(4L));
 
         // Verify that the method was called with the correct arguments
         then(priceService).should()
@@ -573,10 +1019,10 @@ public class PriceRestControllerTest {
                                       .toUri();
 
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        PriceToCreateDTO priceToCreateDTO = new PriceToCreateDTO(41, 42L, 1, dateTime, dateTime.plusDays(2), 20.0, "EUR");
-        PriceUpdateCommand priceCommand = new PriceUpdateCommand(1L,41, 42L, dateTime, dateTime.plusDays(2), 1, 20.0, CurrencyEnum.EUR);
+        PriceToUpdateDTO priceToUpdateDTO = new PriceToUpdateDTO(41, 42L, 1, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), "EUR", 3L);
+        PriceUpdateCommand priceCommand = new PriceUpdateCommand(1L,41, 42L, dateTime, dateTime.plusDays(2), 1, 2000L, CurrencyEnum.EUR, 3L);
         // Serialize DTO into JSON
-        String requestBody = objectMapper.writeValueAsString(priceToCreateDTO);
+        String requestBody = objectMapper.writeValueAsString(priceToUpdateDTO);
 
         given(priceService.update(any(PriceUpdateCommand.class)))
                 .willReturn(Optional.empty());
@@ -597,6 +1043,403 @@ public class PriceRestControllerTest {
 
     }
 
+    @Test
+    public void testUpdatePrice_versionConflict() throws Exception {
+
+        // Given - A price updated since the version in the body was read
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        String requestBody = objectMapper.writeValueAsString(new PriceToUpdateDTO(41, 42L, 1, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), "EUR", 3L));
+        given(priceService.update(any(PriceUpdateCommand.class)))
+                .willThrow(new OptimisticLockingFailureException("Price 1 has been updated since version 3"));
+
+        // When - Make the request
+        ResultActions results = mockMvc.perform(
+                put(ENDPOINT + "/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+        );
+
+        // Then - The conflict is answered with a 409
+        results.andExpect(status().isConflict())
+               .andExpect(jsonPath("$.code").value("CONFLICT"))
+               .andExpect(jsonPath("$.details").value("Price 1 has been updated since version 3"));
+    }
+
+    @Test
+    public void testUpdatePrice_missingVersion() throws Exception {
+
+        // Given - A body without the version the update is based on
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        String requestBody = objectMapper.writeValueAsString(new PriceToUpdateDTO(41, 42L, 1, dateTime, dateTime.plusDays(2), new BigDecimal("20.00"), "EUR", null));
+
+        // When - Make the request
+        ResultActions results = mockMvc.perform(
+                put(ENDPOINT + "/{id}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+        );
+
+        // Then - It is rejected before reaching the service
+        results.andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+        then(priceService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    public void testResolvePrices() throws Exception {
+
+        // Given - Build the body with a price found and a price not found
+        String jsonBody = """
+                [
+                  {"brandId": 41, "productId": 42, "applicationDate": "2024-05-01 12:00:00"},
+                  {"brandId": 41, "productId": 43, "applicationDate": "2024-05-01 12:00:00"}
+                ]""";
+        LocalDateTime applicationDateTime = LocalDateTime.of(2024, 5, 1, 12, 0, 0);
+        given(priceService.getPricesByApplicationTimeBrandIdProductId(anyList()))
+                .willReturn(List.of(Optional.of(new PriceSummary(41, 42L,
+                                LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                                LocalDateTime.of(2024, 12, 1, 0, 0, 0),
+                                1, 2000, CurrencyEnum.USD)),
+                        Optional.empty()));
+
+        // When - Make the request
+        ResultActions results = mockMvc.perform(
+                post(ENDPOINT + "/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody)
+        );
+
+        // Then - Validate the response
+        results.andExpect(status().isOk())
+               .andExpect(jsonPath("$.length()").value(2))
+               .andExpect(jsonPath("$[0].found").value(true))
+               .andExpect(jsonPath("$[0].price.productId").value(42L))
+               .andExpect(jsonPath("$[0].price.price").value(20.0))
+               .andExpect(jsonPath("$[1].found").value(false))
+               .andExpect(jsonPath("$[1].productId").value(43L))
+               .andExpect(jsonPath("$[1].applicationDate").value("2024-05-01 12:00:00"))
+               .andExpect(jsonPath("$[1].price").doesNotExist());
+
+        // Verify that the method was called with the correct arguments
+        then(priceService).should()
+                          .getPricesByApplicationTimeBrandIdProductId(eq(List.of(new PriceQuery(applicationDateTime, 41, 42L),
+                                  new PriceQuery(applicationDateTime, 41, 43L))));
+    }
+
+    @Test
+    public void testResolvePrices_protobuf() throws Exception {
+
+        // Given - A price found and a price not found
+        String jsonBody = """
+                [
+                  {"brandId": 41, "productId": 42, "applicationDate": "2024-05-01 12:00:00"},
+                  {"brandId": 41, "productId": 43, "applicationDate": "2024-05-01 12:00:00"}
+                ]""";
+        given(priceService.getPricesByApplicationTimeBrandIdProductId(anyList()))
+                .willReturn(List.of(Optional.of(new PriceSummary(41, 42L,
+                                LocalDateTime.of(2024, 1, 1, 0, 0, 0),
+                                LocalDateTime.of(2024, 12, 1, 0, 0, 0),
+                                1, 2000, CurrencyEnum.USD)),
+                        Optional.empty()));
+
+        // When
+        ResultActions results = mockMvc.perform(
+                post(ENDPOINT + "/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept("application/x-protobuf")
+                        .content(jsonBody)
+        );
+
+        // Then - The PriceResolutions message is sent, with a PriceResolution per query in the same order
+        results.andExpect(status().isOk())
+               .andExpect(content().contentType("application/x-protobuf"))
+               .andExpect(content().bytes(HexFormat.of().parseHex(
+                       "0a2a" // resolution of 42 bytes
+                       + "0829" + "102a" + "18c0ddc8b106" // brandId 41, productId 42, applicationDate 1714564800
+                       + "2001" // found
+                       + "2a1c" // price of 28 bytes, the Price of testGetPriceProtobuf
+                       + "082a" + "1029" + "1801" + "208081c8ac06" + "2880ceaeba06" + "30d00f" + "3a03555344" + "4002"
+                       + "0a0a" // resolution of 10 bytes
+                       + "0829" + "102b" + "18c0ddc8b106"))); // brandId 41, productId 43, not found
+    }
+
+    @Test
+    public void testResolvePrices_brandIdNull() throws Exception {
+
+        // Given - Build the body with a query without brandId
+        String jsonBody = """
+                [
+                  {"productId": 42, "applicationDate": "2024-05-01 12:00:00"}
+                ]""";
+
+        // When - Make the request
+        ResultActions results = mockMvc.perform(
+                post(ENDPOINT + "/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody)
+        );
+
+        // Then - Validate the response
+        results.andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.details").value("brandId: must not be null"))
+               .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+
+        then(priceService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    public void testResolvePrices_tooManyQueries() throws Exception {
+
+        // Given - Build a body bigger than the maximum batch size
+        List<Map<String, Object>> queries = Collections.nCopies(1001, Map.of("brandId", 1, "productId", 1, "applicationDate", "2024-05-01 12:00:00"));
+
+        // When - Make the request
+        ResultActions results = mockMvc.perform(
+                post(ENDPOINT + "/resolve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(queries))
+        );
+
+        // Then - Validate the response
+        results.andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.code").value("BAD_REQUEST"));
+
+        then(priceService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    public void testImportPrices_csv() throws Exception {
+
+        // Given - A CSV body with a header, a valid row, a row with an invalid date and a row with missing fields
+        String body = """
+                brandId,productId,priceList,startDate,endDate,price,currency
+                1,35455,1,2020-06-14 00:00:00,2020-12-31 23:59:59,35.50,EUR
+                1,35455,2,2020-06-14,2020-06-14 18:30:00,25.45,EUR
+
+                1,35455,3
+                """;
+        List<PriceImportRow> rows = new ArrayList<>();
+        given(priceService.importPrices(any())).willAnswer(invocation -> {
+            invocation.<Stream<PriceImportRow>>getArgument(0).forEach(rows::add);
+            return new PriceImportResult(1, 2, List.of(new PriceImportResult.RowError(3, "Invalid date"), new PriceImportResult.RowError(5, "Expected 7 fields")));
+        });
+
+        // When - Make the request
+        ResultActions results = mockMvc.perform(
+                post(ENDPOINT + "/import")
+                        .contentType("text/csv")
+                        .content(body)
+        );
+
+        // Then - Validate the response and the rows read
+        results.andExpect(status().isOk())
+               .andExpect(jsonPath("$.imported").value(1))
+               .andExpect(jsonPath("$.failed").value(2))
+               .andExpect(jsonPath("$.errors[0].line").value(3))
+               .andExpect(jsonPath("$.errors[1].line").value(5));
+
+        assertEquals(3, rows.size());
+        assertEquals(PriceImportRow.of(2, new PriceCreateCommand(1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550L, CurrencyEnum.EUR)), rows.get(0));
+        assertEquals(3, rows.get(1).line());
+        assertTrue(rows.get(1).isFailed());
+        assertEquals(5, rows.get(2).line());
+        assertTrue(rows.get(2).isFailed());
+    }
+
+    @Test
+    public void testImportPrices_ndjson() throws Exception {
+
+        // Given - An NDJSON body with a valid row, a row breaking the rules and a malformed row
+        String body = """
+                {"brandId":1,"productId":35455,"priceList":1,"startDate":"2020-06-14 00:00:00","endDate":"2020-12-31 23:59:59","price":35.5,"currency":"EUR"}
+                {"brandId":1,"productId":35455,"priceList":1,"startDate":"2020-06-14 00:00:00","endDate":"2020-12-31 23:59:59","price":35.5,"currency":"XYZ"}
+                {"brandId":1,
+                """;
+        List<PriceImportRow> rows = new ArrayList<>();
+        given(priceService.importPrices(any())).willAnswer(invocation -> {
+            invocation.<Stream<PriceImportRow>>getArgument(0).forEach(rows::add);
+            return new PriceImportResult(1, 2, List.of());
+        });
+
+        // When - Make the request
+        ResultActions results = mockMvc.perform(
+                post(ENDPOINT + "/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body)
+        );
+
+        // Then - Validate the response and the rows read
+        results.andExpect(status().isOk())
+               .andExpect(jsonPath("$.imported").value(1));
+
+        assertEquals(3, rows.size());
+        assertFalse(rows.get(0).isFailed());
+        assertEquals("No matching currency for code: XYZ", rows.get(1).error());
+        assertTrue(rows.get(2).error().startsWith("Invalid JSON"));
+    }
+
+    @Test
+    public void testImportPrices_unsupportedMediaType() throws Exception {
+
+        // When - Make the request with a JSON body
+        ResultActions results = mockMvc.perform(
+                post(ENDPOINT + "/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]")
+        );
+
+        // Then - Validate the response
+        results.andExpect(status().isUnsupportedMediaType());
+
+        then(priceService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    public void testExportPrices_ndjson() throws Exception {
+
+        // Given - Two prices to export
+        given(priceService.exportPrices(eq(PriceFilter.all()), any())).willAnswer(invocation -> {
+            Consumer<Price> consumer = invocation.getArgument(1);
+            consumer.accept(new Price(1L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0),
+                    LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR, 0, 0L));
+            consumer.accept(new Price(2L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 15, 0),
+                    LocalDateTime.of(2020, 6, 14, 18, 30), 2, 2545, CurrencyEnum.EUR, 1, 3L));
+            return 2L;
+        });
+
+        // When - Make the request with no Accept header
+        ResultActions results = mockMvc.perform(get(ENDPOINT + "/export"));
+
+        // Then - Validate the lines written
+        results.andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString(MediaType.APPLICATION_NDJSON_VALUE)))
+               .andExpect(content().string("""
+                       {"id":1,"brandId":1,"productId":35455,"priceList":1,"priority":0,"startDate":"2020-06-14 00:00:00","endDate":"2020-12-31 23:59:59","price":35.50,"currency":"EUR","version":0}
+                       {"id":2,"brandId":1,"productId":35455,"priceList":2,"priority":1,"startDate":"2020-06-14 15:00:00","endDate":"2020-06-14 18:30:00","price":25.45,"currency":"EUR","version":3}
+                       """));
+    }
+
+    @Test
+    public void testExportPrices_csv() throws Exception {
+
+        // Given - A price to export
+        PriceFilter filter = new PriceFilter(1, 35000L, 36000L, LocalDateTime.of(2020, 6, 14, 16, 0));
+        given(priceService.exportPrices(eq(filter), any())).willAnswer(invocation -> {
+            invocation.<Consumer<Price>>getArgument(1).accept(new Price(2L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 15, 0),
+                    LocalDateTime.of(2020, 6, 14, 18, 30), 2, 2545, CurrencyEnum.EUR, 1, 3L));
+            return 1L;
+        });
+
+        // When - Make the filtered request accepting CSV first
+        ResultActions results = mockMvc.perform(
+                get(ENDPOINT + "/export")
+                        .queryParam("brandId", "1")
+                        .queryParam("productIdFrom", "35000")
+                        .queryParam("productIdTo", "36000")
+                        .queryParam("activeAt", "2020-06-14 16:00:00")
+                        .header(HttpHeaders.ACCEPT, "text/csv, application/x-ndjson;q=0.5")
+        );
+
+        // Then - Validate the header and the line written
+        results.andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString("text/csv")))
+               .andExpect(content().string("""
+                       id,brandId,productId,priceList,priority,startDate,endDate,price,currency,version
+                       2,1,35455,2,1,2020-06-14 15:00:00,2020-06-14 18:30:00,25.45,EUR,3
+                       """));
+    }
+
+    @Test
+    public void testExportPrices_failedBeforeAnyPriceIsSent() throws Exception {
+
+        // Given - An export failing on its first price
+        given(priceService.exportPrices(eq(PriceFilter.all()), any())).willThrow(new IllegalStateException("database down"));
+
+        // When
+        ResultActions results = mockMvc.perform(get(ENDPOINT + "/export"));
+
+        // Then - Validate the error is still sent as JSON
+        results.andExpect(status().isInternalServerError())
+               .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString(MediaType.APPLICATION_JSON_VALUE)))
+               .andExpect(jsonPath("$.details").value("database down"));
+    }
+
+    @Test
+    public void testExportPrices_failedAfterThePricesSent() {
+
+        // Given - An export failing once its first prices have been sent
+        given(priceService.exportPrices(eq(PriceFilter.all()), any())).willAnswer(invocation -> {
+            Consumer<Price> consumer = invocation.getArgument(1);
+            for (long id = 1; id <= 10_000; id++) {
+                consumer.accept(new Price(id, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0),
+                        LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR, 0, 0L));
+            }
+            throw new IllegalStateException("database down");
+        });
+
+        // When
+        Exception exception = assertThrows(Exception.class, () -> mockMvc.perform(get(ENDPOINT + "/export")));
+
+        // Then - No error is written after the prices, the exception is left to the servlet container to close the connection
+        assertInstanceOf(PriceExportAbortedException.class, exception.getCause());
+        assertEquals("database down", exception.getCause().getCause().getMessage());
+    }
+
+    @Test
+    public void testExportPrices_invalidProductRange() throws Exception {
+
+        // When - Make the request with a product range upside down
+        ResultActions results = mockMvc.perform(
+                get(ENDPOINT + "/export")
+                        .queryParam("productIdFrom", "36000")
+                        .queryParam("productIdTo", "35000")
+        );
+
+        // Then - Validate the response
+        results.andExpect(status().isBadRequest())
+               .andExpect(content().string(containsString("productIdFrom must not be greater than productIdTo.")));
+
+        then(priceService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    public void testExportPrices_invalidActiveAt() throws Exception {
 
+        // When - Make the request with an invalid date, accepting CSV
+        ResultActions results = mockMvc.perform(
+                get(ENDPOINT + "/export")
+                        .queryParam("activeAt", "2020-06-14")
+                        .header(HttpHeaders.ACCEPT, "text/csv")
+        );
 
-}
\ No newline at end of file
+        // Then - Validate the error is still sent as JSON
+        results.andExpect(status().isBadRequest())
+               .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString(MediaType.APPLICATION_JSON_VALUE)))
+               .andExpect(jsonPath("$.code").value("INVALID_DATE_FORMAT"));
+
+        then(priceService).shouldHaveNoInteractions();
+    }
+
+    private static URI priceUri() {
+        return UriComponentsBuilder.fromUriString(ENDPOINT + "/{brandId}/{productId}")
+                                   .queryParam("applicationDate", "2024-05-01 12:00:00")
+                                   .buildAndExpand(41, 42L)
+                                   .toUri();
+    }
+
+    private static URI priceUri(String currency) {
+        return UriComponentsBuilder.fromUriString(ENDPOINT + "/{brandId}/{productId}")
+                                   .queryParam("applicationDate", "2024-05-01 12:00:00")
+                                   .queryParam("currency", currency)
+                                   .buildAndExpand(41, 42L)
+                                   .toUri();
+    }
+
+    // the segment of a price winning for its whole validity
+    private static PriceTimeline.Segment segmentOf(PriceSummary summary) {
+        Price price = new Price(1L, summary.brandId(), summary.productId(), summary.startDate(), summary.endDate(),
+                summary.priceList(), summary.price(), summary.currency(), 0);
+        return new PriceTimeline.Segment(summary.startDate(), summary.endDate().plusSeconds(1), price);
+    }
+}
@@ -0,0 +1,62 @@
+package com.capitole.pricingservice.adapter.out.event;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.PriceChange;
+import com.capitole.pricingservice.application.port.out.PriceChangeListener;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.BDDMockito.then;
+
+/**
+ * Unit tests for the LocalPriceChangePublisher.
+ * <p>
+ * This class includes test cases to verify that the changes published are delivered to every listener of the
+ * instance, once per brand and product. It uses Mockito to mock the listeners.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class LocalPriceChangePublisherTest {
+
+    private final PriceChangeListener firstListener = Mockito.mock(PriceChangeListener.class);
+
+    private final PriceChangeListener secondListener = Mockito.mock(PriceChangeListener.class);
+
+    private final LocalPriceChangePublisher localPriceChangePublisher = new LocalPriceChangePublisher(listeners(firstListener, secondListener));
+
+    @Test
+    void publish_deliversTheBrandsAndProductsToEveryListener() {
+        LocalDateTime now = LocalDateTime.now();
+
+        localPriceChangePublisher.publish(List.of(
+                new PriceChange(1, new BrandProductKey(1, 35455L), "instance-2", now),
+                new PriceChange(2, new BrandProductKey(1, 1234L), "instance-2", now),
+                new PriceChange(3, new BrandProductKey(1, 35455L), "instance-3", now)));
+
+        Set<BrandProductKey> keys = Set.of(new BrandProductKey(1, 35455L), new BrandProductKey(1, 1234L));
+        then(firstListener).should().onPriceChanges(keys);
+        then(secondListener).should().onPriceChanges(keys);
+    }
+
+    @Test
+    void publish_noChanges() {
+        localPriceChangePublisher.publish(List.of());
+
+        then(firstListener).shouldHaveNoInteractions();
+        then(secondListener).shouldHaveNoInteractions();
+    }
+
+    private static ObjectProvider<PriceChangeListener> listeners(PriceChangeListener... listeners) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        for (int i = 0; i < listeners.length; i++) {
+            beanFactory.registerSingleton("listener" + i, listeners[i]);
+        }
+        return beanFactory.getBeanProvider(PriceChangeListener.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.capitole.pricingservice.adapter.out.jpa.repository;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the FxRateJpaAdapter.
+ * <p>
+ * This class includes test cases to verify that the exchange rates are replaced as a whole in the {@code FX_RATES}
+ * table and that the rate of a currency pair at an application time is read from it. It uses the Spring Boot test
+ * framework to perform the tests.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@DataJpaTest
+@Import({FxRateJpaAdapter.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = "spring.sql.init.mode=never")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // to reset the DB after each test
+class FxRateJpaAdapterTest {
+
+    private static final FxRate EUR_USD = new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD,
+            LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1.1422);
+    private static final FxRate EUR_COP = new FxRate(CurrencyEnum.EUR, CurrencyEnum.COP,
+            LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 4213.76);
+
+    @Autowired
+    private FxRateJpaAdapter fxRateJpaAdapter;
+
+    @Test
+    void replaceAll_replacesThePreviousRates() {
+        fxRateJpaAdapter.replaceAll(List.of(EUR_USD));
+
+        fxRateJpaAdapter.replaceAll(List.of(EUR_COP));
+
+        assertEquals(List.of(EUR_COP), fxRateJpaAdapter.findAll());
+    }
+
+    @Test
+    void replaceAll_noRates() {
+        fxRateJpaAdapter.replaceAll(List.of(EUR_USD));
+
+        fxRateJpaAdapter.replaceAll(List.of());
+
+        assertTrue(fxRateJpaAdapter.findAll().isEmpty());
+    }
+
+    @Test
+    void findRate_ok() {
+        fxRateJpaAdapter.replaceAll(List.of(EUR_USD, EUR_COP));
+
+        Optional<FxRate> rate = fxRateJpaAdapter.findRate(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.of(2020, 6, 14, 10, 0, 0));
+
+        assertEquals(Optional.of(EUR_USD), rate);
+    }
+
+    @Test
+    void findRate_inverseOfTheOppositePair() {
+        fxRateJpaAdapter.replaceAll(List.of(EUR_USD));
+
+        Optional<FxRate> rate = fxRateJpaAdapter.findRate(CurrencyEnum.USD, CurrencyEnum.EUR, LocalDateTime.of(2020, 6, 14, 10, 0, 0));
+
+        assertEquals(Optional.of(EUR_USD.inverse()), rate);
+    }
+
+    @Test
+    void findRate_rateNotExists() {
+        fxRateJpaAdapter.replaceAll(List.of(EUR_USD));
+
+        assertTrue(fxRateJpaAdapter.findRate(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.of(2021, 1, 1, 0, 0, 0)).isEmpty());
+        assertTrue(fxRateJpaAdapter.findRate(CurrencyEnum.USD, CurrencyEnum.COP, LocalDateTime.of(2020, 6, 14, 10, 0, 0)).isEmpty());
+    }
+}
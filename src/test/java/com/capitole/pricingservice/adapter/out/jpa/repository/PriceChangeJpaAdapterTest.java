@@ -0,0 +1,117 @@
+package com.capitole.pricingservice.adapter.out.jpa.repository;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.PriceChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the PriceChangeJpaAdapter.
+ * <p>
+ * This class includes test cases to verify that the changes of the prices are recorded in the {@code PRICE_CHANGES}
+ * outbox with the origin of this instance, read after a position or since a time, and purged. It uses the Spring
+ * Boot test framework to perform the tests.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@DataJpaTest
+@Import({PriceChangeJpaAdapter.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {"spring.sql.init.mode=never", "pricing.changes.instance-id=instance-1"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // to reset the DB after each test
+class PriceChangeJpaAdapterTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    // the current time of the clock of the adapter
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+
+    @TestConfiguration
+    static class ClockTestConfiguration {
+
+        @Bean
+        Clock clock() {
+            return Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        }
+    }
+
+    @Autowired
+    private PriceChangeJpaAdapter priceChangeJpaAdapter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void append_recordsEveryBrandAndProductOnceWithTheOriginOfTheInstance() {
+        priceChangeJpaAdapter.append(List.of(new BrandProductKey(1, 35455L), new BrandProductKey(1, 1234L), new BrandProductKey(1, 35455L)));
+
+        List<PriceChange> changes = priceChangeJpaAdapter.findChanges(0, NOW.plusDays(1));
+
+        assertEquals(List.of(new BrandProductKey(1, 35455L), new BrandProductKey(1, 1234L)), changes.stream().map(PriceChange::key).toList());
+        assertTrue(changes.stream().allMatch(change -> change.origin().equals("instance-1")));
+        assertTrue(changes.stream().allMatch(change -> change.createdAt().equals(NOW)));
+        assertEquals("instance-1", priceChangeJpaAdapter.origin());
+    }
+
+    @Test
+    void append_noKeys() {
+        priceChangeJpaAdapter.append(List.of());
+
+        assertTrue(priceChangeJpaAdapter.findChanges(0, LONG_AGO).isEmpty());
+    }
+
+    @Test
+    void findChanges_afterTheLastOneRead() {
+        priceChangeJpaAdapter.append(List.of(new BrandProductKey(1, 1L)));
+        long lastId = priceChangeJpaAdapter.findChanges(0, NOW.plusDays(1)).get(0).id();
+        priceChangeJpaAdapter.append(List.of(new BrandProductKey(1, 2L)));
+
+        List<PriceChange> changes = priceChangeJpaAdapter.findChanges(lastId, NOW.plusDays(1));
+
+        assertEquals(List.of(new BrandProductKey(1, 2L)), changes.stream().map(PriceChange::key).toList());
+    }
+
+    @Test
+    void findChanges_readsAgainTheOnesRecordedSinceTheTime() {
+        insert(1, NOW.minusSeconds(5));
+        insert(2, NOW.minusHours(1));
+
+        List<PriceChange> changes = priceChangeJpaAdapter.findChanges(Long.MAX_VALUE, NOW.minusSeconds(10));
+
+        assertEquals(List.of(new BrandProductKey(1, 1L)), changes.stream().map(PriceChange::key).toList());
+        assertEquals("instance-2", changes.get(0).origin());
+    }
+
+    @Test
+    void deleteBefore_purgesTheOlderChanges() {
+        insert(1, NOW.minusHours(2));
+        insert(2, NOW);
+
+        int deleted = priceChangeJpaAdapter.deleteBefore(NOW.minusHours(1));
+
+        assertEquals(1, deleted);
+        assertEquals(List.of(new BrandProductKey(1, 2L)), priceChangeJpaAdapter.findChanges(0, LONG_AGO).stream().map(PriceChange::key).toList());
+    }
+
+    // a change recorded by another instance
+    private void insert(long productId, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO PRICE_CHANGES (BRAND_ID, PRODUCT_ID, ORIGIN, CREATED_AT) VALUES (1, ?, 'instance-2', ?)",
+                productId, Timestamp.valueOf(createdAt));
+    }
+}
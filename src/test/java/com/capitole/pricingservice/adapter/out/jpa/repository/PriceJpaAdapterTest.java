@@ -1,20 +1,46 @@
 package com.capitole.pricingservice.adapter.out.jpa.repository;
 
+import com.capitole.pricingservice.adapter.out.jpa.entity.PriceEntity;
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
 import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
 import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
 import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -27,14 +53,23 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
  */
 @DataJpaTest
-@Import({PriceJpaAdapter.class})
-@TestPropertySource(properties = "spring.sql.init.mode=never")
+@Import({PriceJpaAdapter.class, PriceCacheEvictor.class, PriceCacheConfiguration.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {"spring.sql.init.mode=never", "pricing.jpa.cache.enabled=true"})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // to reset the DB after each test
 class PriceJpaAdapterTest {
 
     @Autowired
     private PriceJpaAdapter priceJpaAdapter;
 
+    @Autowired
+    private PriceCacheEvictor priceCacheEvictor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void getPriceByBrandIdAndProductIdAndApplicationTime_priceNotExists() {
         Optional<PriceSummary> price = priceJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1122L, LocalDateTime.of(2020, 7, 14, 0, 0, 0));
@@ -47,34 +82,145 @@ class PriceJpaAdapterTest {
         Optional<PriceSummary> price = priceJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, LocalDateTime.of(2020, 7, 14, 0, 0, 0));
 
         assertTrue(price.isPresent());
-        assertEquals(price.get()
-                          .price(), 10.50);
+        assertEquals(1050, price.get()
+                                .price());
     }
 
     @Test
     void save_creation_ok() {
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        Price price = new Price(1122, 1234L, dateTime, dateTime.plusDays(2), 1, 10.0, CurrencyEnum.EUR);
-        Price priceExpected = new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 10.0, CurrencyEnum.EUR, 0);
+        Price price = new Price(1122, 1234L, dateTime, dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR);
+        Price priceExpected = new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR, 0);
         Price priceSaved = priceJpaAdapter.save(price);
         assertEquals(priceExpected, priceSaved);
     }
 
 
+    @Test
+    void saveAll_ok() {
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        List<Price> prices = List.of(new Price(1122, 1234L, dateTime, dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR),
+                new Price(1122, 5678L, dateTime, dateTime.plusDays(3), 2, 2000, CurrencyEnum.USD));
+
+        List<Price> saved = priceJpaAdapter.saveAll(prices);
+
+        assertEquals(List.of(new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR, 0),
+                new Price(2L, 1122, 5678L, dateTime, dateTime.plusDays(3), 2, 2000, CurrencyEnum.USD, 0)), saved);
+        assertEquals(saved, priceJpaAdapter.findAll());
+    }
+
     @Test
     void save_update_ok() {
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        Price price = new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 10.0, CurrencyEnum.EUR, 2);
-        Price priceExpected = new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 10.0, CurrencyEnum.EUR, 2);
+        Price price = new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR, 2);
+        Price priceExpected = new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR, 2);
         Price priceSaved = priceJpaAdapter.save(price);
         assertEquals(priceExpected, priceSaved);
     }
 
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void update_ok() {
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        Price price = new Price(33L, 1, 1234L, dateTime, dateTime.plusDays(2), 2, 1200, CurrencyEnum.USD, 0, 0L);
+
+        Optional<UpdatedPrice> updated = priceJpaAdapter.update(price);
+
+        // the previous brand/product is returned, and the version incremented
+        Price previous = new Price(33L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 1050, CurrencyEnum.EUR, 0, 0L);
+        Price expected = new Price(33L, 1, 1234L, dateTime, dateTime.plusDays(2), 2, 1200, CurrencyEnum.USD, 0, 1L);
+        assertEquals(Optional.of(new UpdatedPrice(previous, expected)), updated);
+        assertEquals(Optional.of(expected), priceJpaAdapter.findById(33L));
+    }
+
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void update_keepsThePriority() {
+        jdbcTemplate.update("UPDATE PRICES SET PRIORITY = 3 WHERE ID = 33");
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+
+        Price updated = priceJpaAdapter.update(new Price(33L, 1, 35455L, dateTime, dateTime.plusDays(2), 1, 1200, CurrencyEnum.EUR, 0, 0L))
+                                       .orElseThrow()
+                                       .updated();
+
+        assertEquals(3, updated.getPriority());
+        assertEquals(3, priceJpaAdapter.findById(33L).orElseThrow().getPriority());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void update_staleVersion_throwsOptimisticLockingFailure() {
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        Price price = new Price(33L, 1, 35455L, dateTime, dateTime.plusDays(2), 1, 1200, CurrencyEnum.EUR, 0, 0L);
+        priceJpaAdapter.update(price);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> priceJpaAdapter.update(price));
+        assertEquals(1L, priceJpaAdapter.findById(33L).orElseThrow().getVersion());
+    }
+
+    @Test
+    void update_priceNotExists() {
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+
+        assertTrue(priceJpaAdapter.update(new Price(33L, 1, 35455L, dateTime, dateTime.plusDays(2), 1, 1200, CurrencyEnum.EUR, 0, 0L)).isEmpty());
+    }
+
+    @Test
+    void updatePriceReturningPrevious_singleStatementOnTheDatabasesThatCanReturnTheReplacedRow() {
+        assertTrue(PriceJpaAdapter.updatePriceReturningPrevious("H2").contains("FROM OLD TABLE (UPDATE PRICES"));
+        assertTrue(PriceJpaAdapter.updatePriceReturningPrevious("PostgreSQL").contains("RETURNING O.ID"));
+        assertNull(PriceJpaAdapter.updatePriceReturningPrevious("MySQL"));
+    }
+
+    // every thread reads the version and retries its increment on a conflict, each one in its own committed transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void update_concurrentIncrements_noneLost() throws Exception {
+        int threads = 4;
+        int increments = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < increments; j++) {
+                        while (!increment(33L)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT PRICE, VERSION FROM PRICES WHERE ID = 33");
+        assertEquals(1050L + threads * increments, ((Number) row.get("PRICE")).longValue());
+        assertEquals((long) threads * increments, ((Number) row.get("VERSION")).longValue());
+    }
+
+    private boolean increment(long id) {
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT PRICE, VERSION FROM PRICES WHERE ID = ?", id);
+        try {
+            priceJpaAdapter.update(new Price(id, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                    LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, ((Number) row.get("PRICE")).longValue() + 1,
+                    CurrencyEnum.EUR, 0, ((Number) row.get("VERSION")).longValue()));
+            return true;
+        } catch (OptimisticLockingFailureException e) {
+            return false;
+        }
+    }
+
     @Test
     @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
     void findById_ok() {
         Optional<Price> price = priceJpaAdapter.findById(33L);
-        Price expected = new Price(33L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 10.50, CurrencyEnum.EUR, 0);
+        Price expected = new Price(33L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 1050, CurrencyEnum.EUR, 0);
         assertTrue(price.isPresent());
         assertEquals(expected, price.get());
     }
@@ -86,4 +232,217 @@ class PriceJpaAdapterTest {
         assertTrue(price.isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void findAll_ok() {
+        List<Price> prices = priceJpaAdapter.findAll();
+        Price expected = new Price(33L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 1050, CurrencyEnum.EUR, 0);
+        assertEquals(List.of(expected), prices);
+    }
+
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void findAllByBrandIdsAndProductIdsAndDateRange_ok() {
+        List<Price> prices = priceJpaAdapter.findAllByBrandIdsAndProductIdsAndDateRange(Set.of(1), Set.of(35455L, 1122L),
+                LocalDateTime.of(2020, 5, 1, 0, 0, 0), LocalDateTime.of(2020, 7, 14, 0, 0, 0));
+        assertEquals(1, prices.size());
+        assertEquals(33L, prices.get(0).getId());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void findAllByBrandIdsAndProductIdsAndDateRange_outOfRange() {
+        List<Price> prices = priceJpaAdapter.findAllByBrandIdsAndProductIdsAndDateRange(Set.of(1), Set.of(35455L),
+                LocalDateTime.of(2021, 1, 1, 0, 0, 0), LocalDateTime.of(2021, 2, 1, 0, 0, 0));
+        assertTrue(prices.isEmpty());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void findAllByDateRanges_eachBrandAndProductWithinItsOwnDates() {
+        insertPrice(1L, LocalDateTime.of(2019, 1, 1, 0, 0, 0), LocalDateTime.of(2019, 12, 31, 23, 59, 59), 0);
+        insertPrice(2L, LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 0);
+        List<BrandProductDateRange> ranges = new ArrayList<>();
+        // more ranges than a single query takes
+        LongStream.range(0, PriceJpaAdapter.MAX_RANGES_PER_QUERY)
+                  .forEach(productId -> ranges.add(new BrandProductDateRange(new BrandProductKey(2, productId),
+                          LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 0, 0, 0))));
+        ranges.add(new BrandProductDateRange(new BrandProductKey(1, 1234L), LocalDateTime.of(2019, 6, 1, 0, 0, 0), LocalDateTime.of(2019, 6, 1, 0, 0, 0)));
+        ranges.add(new BrandProductDateRange(new BrandProductKey(1, 35455L), LocalDateTime.of(2020, 7, 1, 0, 0, 0), LocalDateTime.of(2020, 7, 1, 0, 0, 0)));
+
+        List<Price> prices = priceJpaAdapter.findAllByDateRanges(ranges);
+
+        // the price 2 of the product 1234 is valid at the dates of the product 35455 only
+        assertEquals(Set.of(1L, 33L), prices.stream()
+                                            .map(Price::getId)
+                                            .collect(Collectors.toSet()));
+        assertEquals(2, meterRegistry.get("pricing.repository.query").tag("query", "date-ranges").timer().count());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void findAllByDateRange_ok() {
+        List<Price> prices = priceJpaAdapter.findAllByDateRange(LocalDateTime.of(2020, 12, 31, 23, 59, 59), LocalDateTime.of(2021, 1, 30, 0, 0, 0));
+        assertEquals(1, prices.size());
+        assertEquals(33L, prices.get(0).getId());
+        assertTrue(priceJpaAdapter.findAllByDateRange(LocalDateTime.of(2021, 1, 1, 0, 0, 0), LocalDateTime.of(2021, 1, 30, 0, 0, 0)).isEmpty());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void getPriceSegmentByBrandIdAndProductIdAndApplicationTime_ok() {
+        Optional<PriceTimeline.Segment> segment = priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, LocalDateTime.of(2020, 6, 14, 10, 0, 0));
+
+        assertTrue(segment.isPresent());
+        assertEquals(33L, segment.get().price().getId());
+        assertEquals(LocalDateTime.of(2021, 1, 1, 0, 0, 0), segment.get().to());
+        assertTrue(priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, LocalDateTime.of(2021, 1, 1, 0, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void getPriceSegmentByBrandIdAndProductIdAndApplicationTime_boundedByThePricesOverlappingTheWinner() {
+        // a year of history, a base price and a promotion before and after the application date
+        insertPrice(1L, LocalDateTime.of(2019, 1, 1, 0, 0, 0), LocalDateTime.of(2019, 12, 31, 23, 59, 59), 5);
+        insertPrice(2L, LocalDateTime.of(2020, 1, 1, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59), 0);
+        insertPrice(3L, LocalDateTime.of(2020, 3, 1, 0, 0, 0), LocalDateTime.of(2020, 3, 31, 23, 59, 59), 1);
+        insertPrice(4L, LocalDateTime.of(2020, 6, 1, 0, 0, 0), LocalDateTime.of(2020, 6, 30, 23, 59, 59), 1);
+
+        PriceTimeline.Segment base = priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 1234L, LocalDateTime.of(2020, 5, 1, 0, 0, 0)).orElseThrow();
+        PriceTimeline.Segment promotion = priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 1234L, LocalDateTime.of(2020, 3, 15, 0, 0, 0)).orElseThrow();
+
+        // the base price wins between both promotions
+        assertEquals(new PriceTimeline.Segment(LocalDateTime.of(2020, 4, 1, 0, 0, 0), LocalDateTime.of(2020, 6, 1, 0, 0, 0), base.price()), base);
+        assertEquals(2L, base.price().getId());
+        assertEquals(new PriceTimeline.Segment(LocalDateTime.of(2020, 3, 1, 0, 0, 0), LocalDateTime.of(2020, 4, 1, 0, 0, 0), promotion.price()), promotion);
+        assertEquals(3L, promotion.price().getId());
+        // a single query per segment, and the prices of the brand and product are never read as a whole
+        assertEquals(2, meterRegistry.get("pricing.repository.query").tag("query", "segment").timer().count());
+        assertEquals(0, meterRegistry.get("pricing.repository.query").tag("query", "brand-product").timer().count());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void findAllByBrandIdAndProductId_ok() {
+        assertEquals(1, priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L).size());
+        assertTrue(priceJpaAdapter.findAllByBrandIdAndProductId(1, 1122L).isEmpty());
+    }
+
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void streamAll_sortedById() {
+        LocalDateTime dateTime = LocalDateTime.of(2020, 6, 14, 15, 0);
+        List<Price> saved = priceJpaAdapter.saveAll(List.of(new Price(2, 1234L, dateTime, dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR),
+                new Price(1, 35455L, dateTime, dateTime.plusHours(3), 2, 2545, CurrencyEnum.EUR)));
+
+        try (Stream<Price> prices = priceJpaAdapter.streamAll(PriceFilter.all())) {
+            assertEquals(Stream.of(33L, saved.get(0).getId(), saved.get(1).getId()).sorted().toList(), prices.map(Price::getId).toList());
+        }
+    }
+
+    @Test
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void streamAll_filtered() {
+        LocalDateTime dateTime = LocalDateTime.of(2020, 6, 14, 15, 0);
+        List<Price> saved = priceJpaAdapter.saveAll(List.of(new Price(1, 1234L, dateTime, dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR),
+                new Price(1, 35455L, dateTime, dateTime.plusHours(3), 2, 2545, CurrencyEnum.EUR),
+                new Price(2, 35455L, dateTime, dateTime.plusHours(3), 2, 2545, CurrencyEnum.EUR)));
+
+        try (Stream<Price> prices = priceJpaAdapter.streamAll(new PriceFilter(1, 35000L, 36000L, dateTime.plusHours(4)))) {
+            assertEquals(List.of(new Price(33L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0),
+                    LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 1050, CurrencyEnum.EUR, 0)), prices.toList());
+        }
+        try (Stream<Price> prices = priceJpaAdapter.streamAll(new PriceFilter(1, null, 35455L, dateTime))) {
+            assertEquals(Stream.of(33L, saved.get(0).getId(), saved.get(1).getId()).sorted().toList(), prices.map(Price::getId).toList());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void streamAll_outsideOfATransaction() {
+        assertThrows(IllegalTransactionStateException.class, () -> priceJpaAdapter.streamAll(PriceFilter.all()));
+    }
+
+    // the writes are committed for the cache to be evicted, instead of being rolled back with the transaction of the test
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void findById_cached_evictedOnceUpdated() {
+        priceJpaAdapter.findById(33L);
+        double hits = cacheHits(PriceEntity.CACHE_REGION);
+
+        assertEquals(1050, priceJpaAdapter.findById(33L).orElseThrow().getPrice());
+        assertEquals(hits + 1, cacheHits(PriceEntity.CACHE_REGION));
+
+        Price updated = priceJpaAdapter.update(new Price(33L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 1200, CurrencyEnum.EUR, 0, 0L)).orElseThrow().updated();
+
+        assertEquals(Optional.of(updated), priceJpaAdapter.findById(33L));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void getPriceByBrandIdAndProductIdAndApplicationTime_cached_evictedOnceUpdated() {
+        LocalDateTime applicationDate = LocalDateTime.of(2020, 7, 14, 0, 0, 0);
+        priceJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, applicationDate);
+        double hits = cacheHits(PriceEntity.LOOKUP_CACHE_REGION);
+
+        assertEquals(1050, priceJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, applicationDate).orElseThrow().price());
+        assertEquals(hits + 1, cacheHits(PriceEntity.LOOKUP_CACHE_REGION));
+
+        priceJpaAdapter.update(new Price(33L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 1200, CurrencyEnum.EUR, 0, 0L));
+
+        assertEquals(1200, priceJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, applicationDate).orElseThrow().price());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void findAllByBrandIdAndProductId_cached_evictedOnceSaved() {
+        LocalDateTime dateTime = LocalDateTime.of(2020, 6, 14, 15, 0);
+        priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L);
+        double hits = cacheHits(PriceEntity.LOOKUP_CACHE_REGION);
+
+        assertEquals(1, priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L).size());
+        assertEquals(hits + 1, cacheHits(PriceEntity.LOOKUP_CACHE_REGION));
+
+        // inserted through JDBC
+        priceJpaAdapter.saveAll(List.of(new Price(1, 35455L, dateTime, dateTime.plusHours(3), 2, 2545, CurrencyEnum.EUR)));
+        assertEquals(2, priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L).size());
+
+        // inserted through hibernate
+        priceJpaAdapter.save(new Price(1, 35455L, dateTime, dateTime.plusHours(3), 3, 3000, CurrencyEnum.EUR));
+        assertEquals(3, priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L).size());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Sql(scripts = "classpath:/jpa-adapter-test-data.sql")
+    void onPriceChanges_evictsThePricesWrittenByAnotherInstance() {
+        priceJpaAdapter.findById(33L);
+        priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L);
+        jdbcTemplate.update("UPDATE PRICES SET PRICE = 2000, VERSION = VERSION + 1 WHERE ID = 33");
+
+        // still cached until the change is relayed
+        assertEquals(1050, priceJpaAdapter.findById(33L).orElseThrow().getPrice());
+
+        priceCacheEvictor.onPriceChanges(Set.of(new BrandProductKey(1, 35455L)));
+
+        assertEquals(2000, priceJpaAdapter.findById(33L).orElseThrow().getPrice());
+        assertEquals(2000, priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L).get(0).getPrice());
+    }
+
+    private void insertPrice(long id, LocalDateTime startDate, LocalDateTime endDate, int priority) {
+        jdbcTemplate.update("INSERT INTO PRICES (ID, BRAND_ID, START_DATE, END_DATE, PRICE_LIST, PRODUCT_ID, PRIORITY, PRICE, CURR) VALUES (?, 1, ?, ?, 1, 1234, ?, 1000, 'EUR')",
+                id, startDate, endDate, priority);
+    }
+
+    private double cacheHits(String region) {
+        return meterRegistry.get("cache.gets")
+                            .tag("cache", region)
+                            .tag("result", "hit")
+                            .functionCounter()
+                            .count();
+    }
+}
@@ -0,0 +1,321 @@
+package com.capitole.pricingservice.adapter.out.jpa.repository;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+/**
+ * Unit and stress tests for the PriceSingleFlightAdapter.
+ * <p>
+ * This class includes test cases to verify that the concurrent lookups of a brand and product falling in the same
+ * segment are answered by a single query of the JPA adapter, mocked with Mockito and held on a latch so the lookups
+ * pile up while it is in flight, that the lookups outside of it and of other products still run their own query, and
+ * that failures and writes don't leave stale flights behind.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceSingleFlightAdapterTest {
+
+    private static final int THREADS = 64;
+
+    private static final LocalDateTime APPLICATION_DATE = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+
+    private static final PriceSummary PRICE = new PriceSummary(1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+            LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR);
+
+    private static final PriceTimeline.Segment SEGMENT = new PriceTimeline.Segment(PRICE.startDate(),
+            PRICE.endDate().plusSeconds(1), price());
+
+    private final PriceRepository priceJpaAdapter = Mockito.mock(PriceRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PriceSingleFlightAdapter priceSingleFlightAdapter = new PriceSingleFlightAdapter(priceJpaAdapter, meterRegistry);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getPrice_concurrentLookupsWithinTheSameSegmentRunASingleQuery() throws Exception {
+        // Given - A query of the segment held until every lookup is waiting for it
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(eq(1), eq(35455L), any()))
+                .willAnswer(invocation -> {
+                    queried.countDown();
+                    release.await();
+                    return Optional.of(SEGMENT);
+                });
+        AtomicInteger seconds = new AtomicInteger();
+
+        // When - The price of now is looked up by every thread at once, each one at a different second
+        List<Future<Optional<PriceSummary>>> lookups = submit(THREADS,
+                () -> priceSingleFlightAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L,
+                        APPLICATION_DATE.plusSeconds(seconds.getAndIncrement())));
+        assertTrue(queried.await(10, TimeUnit.SECONDS));
+        awaitCoalesced("lookup", THREADS - 1);
+        release.countDown();
+
+        // Then - A single query of the segment answers all of them
+        for (Future<Optional<PriceSummary>> lookup : lookups) {
+            assertEquals(Optional.of(PRICE), lookup.get(10, TimeUnit.SECONDS));
+        }
+        then(priceJpaAdapter).should(times(1)).getPriceSegmentByBrandIdAndProductIdAndApplicationTime(eq(1), eq(35455L), any());
+        then(priceJpaAdapter).should(times(0)).getPriceByBrandIdAndProductIdAndApplicationTime(anyInt(), anyLong(), any());
+    }
+
+    @Test
+    void getPrice_differentLookupsRunInParallel() throws Exception {
+        // Given - Queries held until all of them are running
+        CountDownLatch running = new CountDownLatch(THREADS);
+        given(priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(anyInt(), anyLong(), any()))
+                .willAnswer(invocation -> {
+                    running.countDown();
+                    assertTrue(running.await(10, TimeUnit.SECONDS));
+                    Price price = new Price(1L, 1, invocation.getArgument(1), PRICE.startDate(), PRICE.endDate(), 1, 3550,
+                            CurrencyEnum.EUR, 0);
+                    return Optional.of(new PriceTimeline.Segment(SEGMENT.from(), SEGMENT.to(), price));
+                });
+        AtomicInteger productIds = new AtomicInteger();
+
+        // When - A different product is looked up by every thread
+        List<Future<Optional<PriceSummary>>> lookups = submit(THREADS,
+                () -> priceSingleFlightAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, productIds.getAndIncrement(), APPLICATION_DATE));
+
+        // Then - No lookup waits for another one, whatever the stripe of its product
+        List<Long> found = new ArrayList<>();
+        for (Future<Optional<PriceSummary>> lookup : lookups) {
+            found.add(lookup.get(10, TimeUnit.SECONDS).orElseThrow().productId());
+        }
+        assertEquals(THREADS, found.stream().distinct().count());
+        then(priceJpaAdapter).should(times(THREADS)).getPriceSegmentByBrandIdAndProductIdAndApplicationTime(anyInt(), anyLong(), any());
+    }
+
+    @Test
+    void getPrice_aFailedQueryFailsEveryWaiterAndIsNotRemembered() throws Exception {
+        // Given - A query failing once every lookup is waiting for it
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE))
+                .willAnswer(invocation -> {
+                    queried.countDown();
+                    release.await();
+                    throw new IllegalStateException("database down");
+                })
+                .willReturn(Optional.of(SEGMENT));
+
+        // When
+        List<Future<Optional<PriceSummary>>> lookups = submit(THREADS,
+                () -> priceSingleFlightAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE));
+        assertTrue(queried.await(10, TimeUnit.SECONDS));
+        awaitCoalesced("lookup", THREADS - 1);
+        release.countDown();
+
+        // Then - Every lookup fails with the exception of the query, and the next one queries again
+        for (Future<Optional<PriceSummary>> lookup : lookups) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> lookup.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+            assertEquals("database down", exception.getCause().getMessage());
+        }
+        assertEquals(Optional.of(PRICE), priceSingleFlightAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE));
+        then(priceJpaAdapter).should(times(2)).getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE);
+    }
+
+    @Test
+    void getPrice_sequentialLookupsRunAQueryEach() {
+        given(priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE)).willReturn(Optional.of(SEGMENT));
+
+        priceSingleFlightAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE);
+        priceSingleFlightAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE);
+
+        then(priceJpaAdapter).should(times(2)).getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE);
+        assertEquals(0, coalesced("lookup"));
+    }
+
+    @Test
+    void getPriceSegment_concurrentLookupsWithinTheSameSegmentRunASingleQuery() throws Exception {
+        // Given - A query of the segment held until every lookup is waiting for it
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(eq(1), eq(35455L), any()))
+                .willAnswer(invocation -> {
+                    queried.countDown();
+                    release.await();
+                    return Optional.of(SEGMENT);
+                });
+        AtomicInteger milliseconds = new AtomicInteger();
+
+        // When - The segment of now is looked up by every thread at once, each one at a different instant
+        List<Future<Optional<PriceTimeline.Segment>>> lookups = submit(THREADS,
+                () -> priceSingleFlightAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L,
+                        APPLICATION_DATE.plusNanos(TimeUnit.MILLISECONDS.toNanos(milliseconds.getAndIncrement()))));
+        assertTrue(queried.await(10, TimeUnit.SECONDS));
+        awaitCoalesced("segment", THREADS - 1);
+        release.countDown();
+
+        // Then - A single query of the JPA adapter answers all of them
+        for (Future<Optional<PriceTimeline.Segment>> lookup : lookups) {
+            assertEquals(Optional.of(SEGMENT), lookup.get(10, TimeUnit.SECONDS));
+        }
+        then(priceJpaAdapter).should(times(1)).getPriceSegmentByBrandIdAndProductIdAndApplicationTime(eq(1), eq(35455L), any());
+        then(priceJpaAdapter).should(times(0)).findAllByBrandIdAndProductId(1, 35455L);
+    }
+
+    @Test
+    void getPriceSegment_aLookupOutsideTheSegmentInFlightRunsItsOwnQuery() throws Exception {
+        // Given - A query of the segment held until a lookup at a date after it is waiting for it
+        LocalDateTime afterTheSegment = SEGMENT.to();
+        PriceTimeline.Segment next = new PriceTimeline.Segment(afterTheSegment, afterTheSegment.plusDays(1), price());
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE))
+                .willAnswer(invocation -> {
+                    queried.countDown();
+                    release.await();
+                    return Optional.of(SEGMENT);
+                });
+        given(priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, afterTheSegment))
+                .willReturn(Optional.of(next));
+        Future<Optional<PriceTimeline.Segment>> inside = executor.submit(
+                () -> priceSingleFlightAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE));
+        assertTrue(queried.await(10, TimeUnit.SECONDS));
+
+        // When
+        Future<Optional<PriceTimeline.Segment>> outside = executor.submit(
+                () -> priceSingleFlightAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, afterTheSegment));
+        awaitCoalesced("segment", 1);
+        release.countDown();
+
+        // Then - The segment in flight doesn't cover the end of its period, so the lookup of it queries its own
+        assertEquals(Optional.of(SEGMENT), inside.get(10, TimeUnit.SECONDS));
+        assertEquals(Optional.of(next), outside.get(10, TimeUnit.SECONDS));
+        then(priceJpaAdapter).should(times(1)).getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, afterTheSegment);
+    }
+
+    @Test
+    void getPriceSegment_aWriteForgetsTheQueryInFlight() throws Exception {
+        // Given - A query of the segment held in flight
+        Price price = price();
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(priceJpaAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE))
+                .willAnswer(invocation -> {
+                    queried.countDown();
+                    release.await();
+                    return Optional.empty();
+                })
+                .willReturn(Optional.of(SEGMENT));
+        given(priceJpaAdapter.save(price)).willReturn(price);
+        Future<Optional<PriceTimeline.Segment>> before = executor.submit(
+                () -> priceSingleFlightAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE));
+        assertTrue(queried.await(10, TimeUnit.SECONDS));
+
+        // When - A price of the brand and product is written meanwhile
+        priceSingleFlightAdapter.save(price);
+
+        // Then - The lookups after the write don't join the query started before it
+        assertEquals(Optional.of(SEGMENT), priceSingleFlightAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, APPLICATION_DATE));
+        release.countDown();
+        assertEquals(Optional.empty(), before.get(10, TimeUnit.SECONDS));
+        assertEquals(0, coalesced("segment"));
+    }
+
+    @Test
+    void findAllByBrandIdAndProductId_aWriteForgetsTheQueryInFlight() throws Exception {
+        // Given - A query of the prices of a brand and product held in flight
+        Price price = price();
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L))
+                .willAnswer(invocation -> {
+                    queried.countDown();
+                    release.await();
+                    return List.of();
+                })
+                .willReturn(List.of(price));
+        given(priceJpaAdapter.save(price)).willReturn(price);
+        Future<List<Price>> before = executor.submit(() -> priceSingleFlightAdapter.findAllByBrandIdAndProductId(1, 35455L));
+        assertTrue(queried.await(10, TimeUnit.SECONDS));
+
+        // When - A price of the brand and product is written meanwhile
+        priceSingleFlightAdapter.save(price);
+
+        // Then - The lookups after the write don't join the query started before it
+        assertEquals(List.of(price), priceSingleFlightAdapter.findAllByBrandIdAndProductId(1, 35455L));
+        release.countDown();
+        assertEquals(List.of(), before.get(10, TimeUnit.SECONDS));
+        then(priceJpaAdapter).should(times(2)).findAllByBrandIdAndProductId(1, 35455L);
+        assertEquals(0, coalesced("brand-product"));
+    }
+
+    @Test
+    void update_withinTheSameBrandAndProduct() {
+        Price price = price();
+        UpdatedPrice updated = new UpdatedPrice(price, price);
+        given(priceJpaAdapter.update(price)).willReturn(Optional.of(updated));
+
+        assertEquals(Optional.of(updated), priceSingleFlightAdapter.update(price));
+    }
+
+    private <T> List<Future<T>> submit(int lookups, Callable<T> lookup) {
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < lookups; i++) {
+            futures.add(executor.submit(lookup));
+        }
+        return futures;
+    }
+
+    // the waiters are counted before joining the flight, so they are all waiting once counted
+    private void awaitCoalesced(String query, int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (coalesced(query) < waiters) {
+            assertTrue(System.nanoTime() < deadline, "Lookups not coalesced in time: " + coalesced(query));
+            Thread.sleep(1);
+        }
+    }
+
+    private double coalesced(String query) {
+        return meterRegistry.get("pricing.repository.coalesced")
+                            .tag("query", query)
+                            .counter()
+                            .count();
+    }
+
+    private static Price price() {
+        return new Price(1L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0), LocalDateTime.of(2020, 12, 31, 23, 59, 59),
+                1, 3550, CurrencyEnum.EUR, 0);
+    }
+}
@@ -0,0 +1,184 @@
+package com.capitole.pricingservice.adapter.out.jpa.repository;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the PriceTimelineJpaAdapter.
+ * <p>
+ * This class includes test cases to verify that the timelines persisted in the {@code PRICE_TIMELINE} table are
+ * computed from the price rows, including the ones written in the same transaction, and that the price at an
+ * application time is resolved from them, and that the refreshes of a brand and product run one after the other. It uses the Spring Boot test framework to perform the tests.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+@DataJpaTest
+@Import({PriceJpaAdapter.class, PriceCacheEvictor.class, PriceCacheConfiguration.class, PriceTimelineJpaAdapter.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {"spring.sql.init.mode=never", "pricing.repository.type=timeline"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // to reset the DB after each test
+@Sql(scripts = "classpath:/system-test-data.sql")
+class PriceTimelineJpaAdapterTest {
+
+    private static final BrandProductKey KEY = new BrandProductKey(1, 35455L);
+
+    @Autowired
+    private PriceTimelineJpaAdapter priceTimelineJpaAdapter;
+
+    @Autowired
+    private PriceJpaAdapter priceJpaAdapter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void rebuild_persistsTheSegmentsOfEveryBrandAndProduct() {
+        assertTrue(priceTimelineJpaAdapter.isEmpty());
+
+        priceTimelineJpaAdapter.rebuild();
+
+        assertFalse(priceTimelineJpaAdapter.isEmpty());
+        // base price, promotion, base price, morning price, base price, afternoon price
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRICE_TIMELINE", Integer.class));
+        assertEquals(PriceTimeline.of(priceJpaAdapter.findAll()).segments(), priceTimelineJpaAdapter.findAllTimelines().get(KEY).segments());
+    }
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_resolvesFromTheSegments() {
+        priceTimelineJpaAdapter.rebuild();
+
+        assertEquals(2545, price(LocalDateTime.of(2020, 6, 14, 16, 0)).orElseThrow().price());
+        assertEquals(2545, price(LocalDateTime.of(2020, 6, 14, 18, 30)).orElseThrow().price());
+        assertEquals(3550, price(LocalDateTime.of(2020, 6, 14, 18, 30, 1)).orElseThrow().price());
+        assertEquals(3895, price(LocalDateTime.of(2020, 12, 31, 23, 59, 59)).orElseThrow().price());
+        assertTrue(price(LocalDateTime.of(2020, 6, 13, 23, 59, 59)).isEmpty());
+        assertTrue(price(LocalDateTime.of(2021, 1, 1, 0, 0)).isEmpty());
+        assertTrue(priceTimelineJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1122L, LocalDateTime.of(2020, 6, 14, 16, 0)).isEmpty());
+    }
+
+    @Test
+    void refresh_recomputesTheTimelineWithThePricesOfTheTransaction() {
+        priceTimelineJpaAdapter.rebuild();
+        Price promotion = priceJpaAdapter.findAll()
+                                         .stream()
+                                         .filter(price -> price.getPriceList() == 2)
+                                         .findFirst()
+                                         .orElseThrow();
+        // the promotion is moved to another product, the change is still pending in the persistence context
+        Price moved = new Price(promotion.getId(), 1, 1234L, promotion.getStartDate(), promotion.getEndDate(),
+                promotion.getPriceList(), promotion.getPrice(), promotion.getCurrency(), promotion.getPriority());
+        priceJpaAdapter.save(moved);
+
+        Map<BrandProductKey, PriceTimeline> timelines = priceTimelineJpaAdapter.refresh(List.of(KEY, new BrandProductKey(1, 1234L)));
+
+        assertEquals(3550, timelines.get(KEY).priceAt(LocalDateTime.of(2020, 6, 14, 16, 0)).orElseThrow().getPrice());
+        assertEquals(3550, price(LocalDateTime.of(2020, 6, 14, 16, 0)).orElseThrow().price());
+        assertEquals(2545, priceTimelineJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, LocalDateTime.of(2020, 6, 14, 16, 0)).orElseThrow().price());
+        assertEquals(2, priceTimelineJpaAdapter.findAllTimelines().size());
+    }
+
+    @Test
+    void refresh_removesTheTimelineOfABrandAndProductWithoutPrices() {
+        priceTimelineJpaAdapter.rebuild();
+        jdbcTemplate.update("DELETE FROM PRICES WHERE PRODUCT_ID = 35455");
+
+        Map<BrandProductKey, PriceTimeline> timelines = priceTimelineJpaAdapter.refresh(List.of(KEY));
+
+        assertTrue(timelines.get(KEY).isEmpty());
+        assertTrue(priceTimelineJpaAdapter.isEmpty());
+    }
+
+    @Test
+    void refresh_manyKeys() {
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        int products = PriceTimelineJpaAdapter.MAX_KEYS_PER_QUERY + 1;
+        priceJpaAdapter.saveAll(LongStream.range(0, products)
+                                          .mapToObj(productId -> new Price(2, productId, dateTime, dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR))
+                                          .toList());
+
+        Map<BrandProductKey, PriceTimeline> timelines = priceTimelineJpaAdapter.refresh(LongStream.range(0, products)
+                                                                                                  .mapToObj(productId -> new BrandProductKey(2, productId))
+                                                                                                  .toList());
+
+        assertEquals(products, timelines.size());
+        assertEquals(products, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRICE_TIMELINE", Integer.class));
+        assertEquals(1000, priceTimelineJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(2, products - 1, dateTime).orElseThrow().price());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void refresh_waitsForTheRefreshOfTheSameBrandAndProductInProgress() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                priceTimelineJpaAdapter.refresh(List.of(KEY));
+                refreshed.countDown();
+                try {
+                    commit.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(refreshed.await(10, TimeUnit.SECONDS));
+            Future<?> second = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> priceTimelineJpaAdapter.refresh(List.of(KEY))));
+
+            Thread.sleep(200);
+            assertFalse(second.isDone());
+            commit.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // base price, promotion, base price, morning price, base price, afternoon price, written once
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRICE_TIMELINE", Integer.class));
+        assertEquals(2545, price(LocalDateTime.of(2020, 6, 14, 16, 0)).orElseThrow().price());
+    }
+
+    @Test
+    void stripeOf_withinTheLockRows() {
+        assertEquals(PriceTimelineJpaAdapter.LOCK_STRIPES, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM PRICE_TIMELINE_LOCKS", Integer.class));
+        assertTrue(LongStream.range(-1000, 1000)
+                             .mapToInt(productId -> PriceTimelineJpaAdapter.stripeOf(new BrandProductKey(-1, productId)))
+                             .allMatch(stripe -> stripe >= 0 && stripe < PriceTimelineJpaAdapter.LOCK_STRIPES));
+    }
+
+    private Optional<PriceSummary> price(LocalDateTime applicationDate) {
+        return priceTimelineJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, applicationDate);
+    }
+}
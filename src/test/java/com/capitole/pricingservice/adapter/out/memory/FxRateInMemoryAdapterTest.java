@@ -0,0 +1,79 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+import com.capitole.pricingservice.application.port.out.FxRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the FxRateInMemoryAdapter.
+ * <p>
+ * This class includes test cases to verify that the exchange rates are resolved from the in-memory table without
+ * querying the JPA adapter, and that the table is replaced with the refreshed rates. It uses Mockito to mock the JPA
+ * adapter.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class FxRateInMemoryAdapterTest {
+
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 1, 1, 0, 0, 0);
+    private static final LocalDateTime END_DATE = LocalDateTime.of(2020, 12, 31, 23, 59, 59);
+
+    private static final FxRate EUR_USD = new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, START_DATE, END_DATE, 1.1422);
+
+    private final FxRateRepository fxRateJpaAdapter = Mockito.mock(FxRateRepository.class);
+
+    private final FxRateInMemoryAdapter fxRateInMemoryAdapter = new FxRateInMemoryAdapter(fxRateJpaAdapter);
+
+    @BeforeEach
+    void setUp() {
+        when(fxRateJpaAdapter.findAll()).thenReturn(List.of(EUR_USD));
+        fxRateInMemoryAdapter.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void findRate_rateExists() {
+        Optional<FxRate> rate = fxRateInMemoryAdapter.findRate(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.of(2020, 6, 14, 10, 0, 0));
+
+        assertEquals(Optional.of(EUR_USD), rate);
+        then(fxRateJpaAdapter).should(Mockito.never()).findRate(any(), any(), any());
+    }
+
+    @Test
+    void findRate_rateNotExists() {
+        assertTrue(fxRateInMemoryAdapter.findRate(CurrencyEnum.EUR, CurrencyEnum.COP, LocalDateTime.of(2020, 6, 14, 10, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void replaceAll_replacesTheTable() {
+        FxRate eurCop = new FxRate(CurrencyEnum.EUR, CurrencyEnum.COP, START_DATE, END_DATE, 4213.76);
+
+        fxRateInMemoryAdapter.replaceAll(List.of(eurCop));
+
+        then(fxRateJpaAdapter).should().replaceAll(List.of(eurCop));
+        assertEquals(List.of(eurCop), fxRateInMemoryAdapter.findAll());
+        assertEquals(Optional.of(eurCop), fxRateInMemoryAdapter.findRate(CurrencyEnum.EUR, CurrencyEnum.COP, LocalDateTime.of(2020, 6, 14, 10, 0, 0)));
+        assertTrue(fxRateInMemoryAdapter.findRate(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.of(2020, 6, 14, 10, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void replaceAll_overlappingRates_keepsTheTable() {
+        List<FxRate> rates = List.of(EUR_USD, new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, START_DATE.plusMonths(6), END_DATE, 1.2));
+
+        assertThrows(IllegalArgumentException.class, () -> fxRateInMemoryAdapter.replaceAll(rates));
+
+        then(fxRateJpaAdapter).should(Mockito.never()).replaceAll(any());
+        assertEquals(List.of(EUR_USD), fxRateInMemoryAdapter.findAll());
+    }
+}
@@ -0,0 +1,149 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the PriceCacheAdapter.
+ * <p>
+ * This class includes test cases to verify that the resolved prices are served from the cache for any application
+ * time of a brand and product, and that the cache entries are invalidated when a price of the same brand and product
+ * is saved. It uses Mockito to mock the JPA adapter.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceCacheAdapterTest {
+
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 6, 14, 0, 0, 0);
+    private static final LocalDateTime END_DATE = LocalDateTime.of(2020, 12, 31, 23, 59, 59);
+
+    private static final Price BASE_PRICE = new Price(1L, 1, 35455L, START_DATE, END_DATE, 1, 3550, CurrencyEnum.EUR, 0);
+    private static final Price PROMOTION_PRICE = new Price(2L, 1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1);
+
+    private final PriceRepository priceJpaAdapter = Mockito.mock(PriceRepository.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PriceCacheAdapter priceCacheAdapter = new PriceCacheAdapter(priceJpaAdapter, 100, Duration.ofMinutes(10), meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L)).thenReturn(List.of(BASE_PRICE, PROMOTION_PRICE));
+    }
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_hitForAnyInstantOfTheBrandAndProduct() {
+        Optional<PriceSummary> first = priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(10));
+        Optional<PriceSummary> second = priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+        Optional<PriceSummary> third = priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, END_DATE.plusDays(1));
+
+        assertEquals(Optional.of(PriceSummary.from(BASE_PRICE)), first);
+        assertEquals(Optional.of(PriceSummary.from(PROMOTION_PRICE)), second);
+        assertTrue(third.isEmpty());
+
+        then(priceJpaAdapter).should(times(1)).findAllByBrandIdAndProductId(1, 35455L);
+        then(priceJpaAdapter).shouldHaveNoMoreInteractions();
+        assertEquals(1, priceCacheAdapter.stats().missCount());
+        assertEquals(2, priceCacheAdapter.stats().hitCount());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", PriceCacheAdapter.CACHE_NAME).tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void save_invalidatesTheBrandAndProduct() {
+        Price updated = new Price(2L, 1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2000, CurrencyEnum.EUR, 1);
+        when(priceJpaAdapter.findById(2L)).thenReturn(Optional.of(PROMOTION_PRICE));
+        when(priceJpaAdapter.save(any())).thenReturn(updated);
+        priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+
+        priceCacheAdapter.save(updated);
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L)).thenReturn(List.of(BASE_PRICE, updated));
+
+        assertEquals(2000, priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        then(priceJpaAdapter).should(times(2)).findAllByBrandIdAndProductId(1, 35455L);
+    }
+
+    @Test
+    void save_invalidatesThePreviousBrandAndProduct_whenThePriceIsMoved() {
+        Price moved = new Price(2L, 1, 1234L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1);
+        when(priceJpaAdapter.findById(2L)).thenReturn(Optional.of(PROMOTION_PRICE));
+        when(priceJpaAdapter.save(any())).thenReturn(moved);
+        priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+
+        priceCacheAdapter.save(moved);
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L)).thenReturn(List.of(BASE_PRICE));
+
+        assertEquals(3550, priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+    }
+
+    @Test
+    void update_invalidatesThePreviousBrandAndProduct_withoutReadingThePrice() {
+        Price moved = new Price(2L, 1, 1234L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1, 1L);
+        when(priceJpaAdapter.update(any())).thenReturn(Optional.of(new UpdatedPrice(PROMOTION_PRICE, moved)));
+        priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+
+        assertEquals(Optional.of(new UpdatedPrice(PROMOTION_PRICE, moved)), priceCacheAdapter.update(moved));
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L)).thenReturn(List.of(BASE_PRICE));
+
+        assertEquals(3550, priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        then(priceJpaAdapter).should(never()).findById(any());
+    }
+
+    @Test
+    void save_doesNotInvalidateOtherBrandsAndProducts() {
+        Price created = new Price(3L, 1, 1234L, START_DATE, END_DATE, 1, 1000, CurrencyEnum.EUR, 0);
+        when(priceJpaAdapter.save(any())).thenReturn(created);
+        priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+
+        priceCacheAdapter.save(new Price(1, 1234L, START_DATE, END_DATE, 1, 1000, CurrencyEnum.EUR));
+        priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+
+        then(priceJpaAdapter).should(times(1)).findAllByBrandIdAndProductId(1, 35455L);
+    }
+
+    @Test
+    void saveAll_invalidatesTheBrandsAndProductsOfTheSavedPrices() {
+        Price saved = new Price(3L, 1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 3, 2000, CurrencyEnum.EUR, 2);
+        when(priceJpaAdapter.saveAll(any())).thenReturn(List.of(saved));
+        priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+
+        priceCacheAdapter.saveAll(List.of(new Price(1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 3, 2000, CurrencyEnum.EUR)));
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L)).thenReturn(List.of(BASE_PRICE, PROMOTION_PRICE, saved));
+
+        assertEquals(2000, priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        then(priceJpaAdapter).should(times(2)).findAllByBrandIdAndProductId(1, 35455L);
+    }
+
+    @Test
+    void onPriceChanges_invalidatesTheBrandsAndProductsWrittenByOtherInstances() {
+        priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+        Price updated = new Price(2L, 1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2000, CurrencyEnum.EUR, 1, 1L);
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L)).thenReturn(List.of(BASE_PRICE, updated));
+
+        priceCacheAdapter.onPriceChanges(Set.of(new BrandProductKey(1, 35455L)));
+
+        assertEquals(2000, priceCacheAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        then(priceJpaAdapter).should(times(2)).findAllByBrandIdAndProductId(1, 35455L);
+    }
+}
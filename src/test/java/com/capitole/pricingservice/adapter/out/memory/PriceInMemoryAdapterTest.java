@@ -0,0 +1,202 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the PriceInMemoryAdapter.
+ * <p>
+ * This class includes test cases to verify that the prices are resolved from the in-memory index without
+ * querying the JPA adapter, and that the index is kept in sync with the saved prices. It uses Mockito
+ * to mock the JPA adapter.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceInMemoryAdapterTest {
+
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 6, 14, 0, 0, 0);
+    private static final LocalDateTime END_DATE = LocalDateTime.of(2020, 12, 31, 23, 59, 59);
+
+    private final PriceRepository priceJpaAdapter = Mockito.mock(PriceRepository.class);
+
+    private final PriceInMemoryAdapter priceInMemoryAdapter = new PriceInMemoryAdapter(priceJpaAdapter);
+
+    @BeforeEach
+    void setUp() {
+        when(priceJpaAdapter.findAll()).thenReturn(List.of(
+                new Price(1L, 1, 35455L, START_DATE, END_DATE, 1, 3550, CurrencyEnum.EUR, 0),
+                new Price(2L, 1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1)));
+        priceInMemoryAdapter.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_priceExists() {
+        Optional<PriceSummary> price = priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+
+        assertTrue(price.isPresent());
+        assertEquals(new PriceSummary(1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR), price.get());
+        then(priceJpaAdapter).should().findAll();
+        then(priceJpaAdapter).shouldHaveNoMoreInteractions();
+    }
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_priceNotExists() {
+        assertTrue(priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, END_DATE.plusSeconds(1)).isEmpty());
+        assertTrue(priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(2, 35455L, START_DATE).isEmpty());
+    }
+
+    @Test
+    void getPriceSegmentByBrandIdAndProductIdAndApplicationTime_priceExists() {
+        Optional<PriceTimeline.Segment> segment = priceInMemoryAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(1));
+
+        // the price 1 wins until the price 2, with higher priority, starts
+        assertTrue(segment.isPresent());
+        assertEquals(1L, segment.get().price().getId());
+        assertEquals(START_DATE.plusHours(15), segment.get().to());
+        assertTrue(priceInMemoryAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(2, 35455L, START_DATE).isEmpty());
+        then(priceJpaAdapter).should().findAll();
+        then(priceJpaAdapter).shouldHaveNoMoreInteractions();
+    }
+
+    @Test
+    void save_creation_indexesTheSavedPrice() {
+        Price price = new Price(1, 1234L, START_DATE, END_DATE, 1, 1000, CurrencyEnum.EUR);
+        Price saved = new Price(3L, 1, 1234L, START_DATE, END_DATE, 1, 1000, CurrencyEnum.EUR, 0);
+        when(priceJpaAdapter.save(any())).thenReturn(saved);
+
+        assertEquals(saved, priceInMemoryAdapter.save(price));
+
+        Optional<PriceSummary> found = priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE);
+        assertTrue(found.isPresent());
+        assertEquals(1000, found.get().price());
+    }
+
+    @Test
+    void save_update_movesThePriceToTheNewProduct() {
+        Price updated = new Price(2L, 1, 1234L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1);
+        when(priceJpaAdapter.save(any())).thenReturn(updated);
+
+        priceInMemoryAdapter.save(updated);
+
+        assertEquals(3550, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        assertEquals(2545, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE.plusHours(16)).orElseThrow().price());
+        assertEquals(2, priceInMemoryAdapter.findAll().size());
+    }
+
+    @Test
+    void update_movesThePriceToTheNewProduct() {
+        Price previous = new Price(2L, 1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1);
+        Price updated = new Price(2L, 1, 1234L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1, 1L);
+        when(priceJpaAdapter.update(any())).thenReturn(Optional.of(new UpdatedPrice(previous, updated)));
+
+        priceInMemoryAdapter.update(updated);
+
+        assertEquals(3550, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        assertEquals(2545, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE.plusHours(16)).orElseThrow().price());
+    }
+
+    @Test
+    void update_priceNotExists_leavesTheIndexUnchanged() {
+        Price updated = new Price(9L, 1, 1234L, START_DATE, END_DATE, 1, 1000, CurrencyEnum.EUR, 0, 0L);
+        when(priceJpaAdapter.update(any())).thenReturn(Optional.empty());
+
+        assertTrue(priceInMemoryAdapter.update(updated).isEmpty());
+        assertTrue(priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE).isEmpty());
+    }
+
+    @Test
+    void findById_delegatesToJpaAdapter() {
+        Price price = new Price(1L, 1, 35455L, START_DATE, END_DATE, 1, 3550, CurrencyEnum.EUR, 0);
+        when(priceJpaAdapter.findById(1L)).thenReturn(Optional.of(price));
+
+        assertEquals(Optional.of(price), priceInMemoryAdapter.findById(1L));
+    }
+
+    @Test
+    void findAllByBrandIdsAndProductIdsAndDateRange_returnsThePricesInRange() {
+        List<Price> prices = priceInMemoryAdapter.findAllByBrandIdsAndProductIdsAndDateRange(Set.of(1, 2), Set.of(35455L, 1234L),
+                START_DATE.minusDays(1), START_DATE.plusHours(1));
+
+        assertEquals(1, prices.size());
+        assertEquals(1L, prices.get(0).getId());
+    }
+
+    @Test
+    void findAllByBrandIdAndProductId_returnsThePricesOfTheBrandAndProduct() {
+        assertEquals(2, priceInMemoryAdapter.findAllByBrandIdAndProductId(1, 35455L).size());
+        assertTrue(priceInMemoryAdapter.findAllByBrandIdAndProductId(1, 1234L).isEmpty());
+    }
+
+    @Test
+    void saveAll_indexesTheSavedPrices() {
+        Price price = new Price(1, 1234L, START_DATE, END_DATE, 1, 1000, CurrencyEnum.EUR);
+        Price promotion = new Price(1, 35455L, START_DATE.plusDays(1), START_DATE.plusDays(2), 3, 1500, CurrencyEnum.EUR);
+        List<Price> saved = List.of(new Price(3L, 1, 1234L, START_DATE, END_DATE, 1, 1000, CurrencyEnum.EUR, 0),
+                new Price(4L, 1, 35455L, START_DATE.plusDays(1), START_DATE.plusDays(2), 3, 1500, CurrencyEnum.EUR, 2));
+        when(priceJpaAdapter.saveAll(any())).thenReturn(saved);
+
+        assertEquals(saved, priceInMemoryAdapter.saveAll(List.of(price, promotion)));
+
+        assertEquals(1000, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE).orElseThrow().price());
+        assertEquals(1500, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusDays(1)).orElseThrow().price());
+        assertEquals(3550, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE).orElseThrow().price());
+        assertEquals(4, priceInMemoryAdapter.findAll().size());
+    }
+
+    @Test
+    void onPriceChanges_reloadsTheBrandsAndProductsWrittenByOtherInstances() {
+        // the promotion has been moved to another product by another instance
+        Price moved = new Price(2L, 1, 1234L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1, 1L);
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L)).thenReturn(List.of(new Price(1L, 1, 35455L, START_DATE, END_DATE, 1, 3550, CurrencyEnum.EUR, 0)));
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 1234L)).thenReturn(List.of(moved));
+
+        priceInMemoryAdapter.onPriceChanges(Set.of(new BrandProductKey(1, 35455L), new BrandProductKey(1, 1234L)));
+
+        assertEquals(3550, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        assertEquals(2545, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE.plusHours(16)).orElseThrow().price());
+        assertEquals(2, priceInMemoryAdapter.findAll().size());
+    }
+
+    @Test
+    void onPriceChanges_removesTheBrandsAndProductsLeftWithoutPrices() {
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L)).thenReturn(List.of());
+
+        priceInMemoryAdapter.onPriceChanges(Set.of(new BrandProductKey(1, 35455L)));
+
+        assertTrue(priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE).isEmpty());
+        assertTrue(priceInMemoryAdapter.findAll().isEmpty());
+    }
+
+    @Test
+    void reload_answersFromThePreviousIndexUntilItIsReplaced() {
+        Price reloaded = new Price(3L, 1, 35455L, START_DATE, END_DATE, 3, 1990, CurrencyEnum.EUR, 0);
+        when(priceJpaAdapter.findAll()).thenAnswer(invocation -> {
+            // a lookup made while the prices are read back
+            assertEquals(2545, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+            return List.of(reloaded);
+        });
+
+        priceInMemoryAdapter.reload();
+
+        assertEquals(1990, priceInMemoryAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        assertEquals(List.of(reloaded), priceInMemoryAdapter.findAll());
+    }
+}
@@ -0,0 +1,229 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the PriceSnapshotAdapter.
+ * <p>
+ * This class includes test cases to verify that the snapshot file is exported from the JPA adapter only when it
+ * is missing or invalid, that the prices are resolved from the mapped snapshot without querying the JPA adapter, and that the
+ * saved prices take precedence over the snapshot until the next export, which keeps their versions. It uses Mockito to mock the JPA adapter.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceSnapshotAdapterTest {
+
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 6, 14, 0, 0, 0);
+    private static final LocalDateTime END_DATE = LocalDateTime.of(2020, 12, 31, 23, 59, 59);
+    private static final Duration EXPORT_INTERVAL = Duration.ofMinutes(5);
+
+    private static final List<Price> CATALOG = List.of(
+            new Price(1L, 1, 35455L, START_DATE, END_DATE, 1, 3550, CurrencyEnum.EUR, 0),
+            new Price(2L, 1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1),
+            new Price(3L, 2, 35455L, START_DATE, END_DATE, 1, 4000, CurrencyEnum.USD, 0));
+
+    @TempDir
+    private Path directory;
+
+    private final PriceRepository priceJpaAdapter = Mockito.mock(PriceRepository.class);
+
+    private Path path;
+    private PriceSnapshotAdapter priceSnapshotAdapter;
+
+    @BeforeEach
+    void setUp() {
+        path = directory.resolve("prices.snapshot");
+        when(priceJpaAdapter.findAll()).thenReturn(CATALOG);
+        priceSnapshotAdapter = new PriceSnapshotAdapter(priceJpaAdapter, path, false, EXPORT_INTERVAL);
+        priceSnapshotAdapter.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void afterSingletonsInstantiated_exportsTheMissingSnapshot() {
+        assertTrue(Files.exists(path));
+        then(priceJpaAdapter).should().findAll();
+    }
+
+    @Test
+    void afterSingletonsInstantiated_mapsTheExistingSnapshot() {
+        PriceRepository otherJpaAdapter = Mockito.mock(PriceRepository.class);
+        PriceSnapshotAdapter restarted = new PriceSnapshotAdapter(otherJpaAdapter, path, false, EXPORT_INTERVAL);
+
+        restarted.afterSingletonsInstantiated();
+
+        assertEquals(2545, restarted.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        then(otherJpaAdapter).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void afterSingletonsInstantiated_olderSnapshot_exportsItAgain() throws Exception {
+        // the header of a version 2 file
+        Files.write(path, ByteBuffer.allocate(16).putInt(0x50524353).putInt(2).putInt(0).putInt(0).array());
+        PriceSnapshotAdapter restarted = new PriceSnapshotAdapter(priceJpaAdapter, path, false, EXPORT_INTERVAL);
+
+        restarted.afterSingletonsInstantiated();
+
+        assertEquals(2545, restarted.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        then(priceJpaAdapter).should(Mockito.times(2)).findAll();
+    }
+
+    @Test
+    void afterSingletonsInstantiated_truncatedSnapshot_exportsItAgain() throws Exception {
+        byte[] content = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(content, content.length - 1));
+        PriceSnapshotAdapter restarted = new PriceSnapshotAdapter(priceJpaAdapter, path, false, EXPORT_INTERVAL);
+
+        restarted.afterSingletonsInstantiated();
+
+        assertEquals(CurrencyEnum.USD, restarted.getPriceByBrandIdAndProductIdAndApplicationTime(2, 35455L, END_DATE).orElseThrow().currency());
+        assertEquals(content.length, Files.size(path));
+        then(priceJpaAdapter).should(Mockito.times(2)).findAll();
+    }
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_priceExists() {
+        Optional<PriceSummary> price = priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+
+        assertTrue(price.isPresent());
+        assertEquals(new PriceSummary(1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR), price.get());
+        assertEquals(3550, priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(18).plusSeconds(1)).orElseThrow().price());
+        assertEquals(CurrencyEnum.USD, priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(2, 35455L, END_DATE).orElseThrow().currency());
+        then(priceJpaAdapter).should().findAll();
+        then(priceJpaAdapter).shouldHaveNoMoreInteractions();
+    }
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_priceNotExists() {
+        assertTrue(priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, END_DATE.plusSeconds(1)).isEmpty());
+        assertTrue(priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.minusSeconds(1)).isEmpty());
+        assertTrue(priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE).isEmpty());
+        assertTrue(priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(3, 35455L, START_DATE).isEmpty());
+    }
+
+    @Test
+    void getPriceSegmentByBrandIdAndProductIdAndApplicationTime_sameAsTheTimeline() {
+        PriceTimeline timeline = PriceTimeline.of(CATALOG.subList(0, 2));
+
+        // before, within and after the promotion, and out of the prices
+        for (LocalDateTime applicationDate : List.of(START_DATE.minusSeconds(1), START_DATE, START_DATE.plusHours(15).minusSeconds(1),
+                START_DATE.plusHours(16), START_DATE.plusHours(18), START_DATE.plusHours(18).plusSeconds(1), END_DATE, END_DATE.plusSeconds(1))) {
+            assertEquals(timeline.segmentAt(applicationDate),
+                    priceSnapshotAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, applicationDate), applicationDate.toString());
+        }
+        assertTrue(priceSnapshotAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE).isEmpty());
+        then(priceJpaAdapter).should().findAll();
+        then(priceJpaAdapter).shouldHaveNoMoreInteractions();
+    }
+
+    @Test
+    void save_update_movesThePriceToTheNewProduct() {
+        Price updated = new Price(2L, 1, 1234L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1);
+        when(priceJpaAdapter.findById(2L)).thenReturn(Optional.of(CATALOG.get(1)));
+        when(priceJpaAdapter.save(any())).thenReturn(updated);
+
+        priceSnapshotAdapter.save(updated);
+
+        assertEquals(3550, priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        assertEquals(2545, priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE.plusHours(16)).orElseThrow().price());
+        assertEquals(3, priceSnapshotAdapter.findAll().size());
+    }
+
+    @Test
+    void saveAll_indexesTheSavedPricesUntilTheNextExport() {
+        List<Price> saved = List.of(new Price(4L, 1, 1234L, START_DATE, END_DATE, 1, 1000, CurrencyEnum.EUR, 0),
+                new Price(5L, 1, 35455L, START_DATE.plusDays(1), START_DATE.plusDays(2), 3, 1500, CurrencyEnum.EUR, 2));
+        when(priceJpaAdapter.saveAll(any())).thenReturn(saved);
+
+        assertEquals(saved, priceSnapshotAdapter.saveAll(saved));
+        priceSnapshotAdapter.export();
+        PriceSnapshotAdapter restarted = new PriceSnapshotAdapter(Mockito.mock(PriceRepository.class), path, false, EXPORT_INTERVAL);
+        restarted.afterSingletonsInstantiated();
+
+        for (PriceSnapshotAdapter adapter : List.of(priceSnapshotAdapter, restarted)) {
+            assertEquals(1000, adapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE).orElseThrow().price());
+            assertEquals(1500, adapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusDays(1)).orElseThrow().price());
+            assertEquals(3550, adapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE).orElseThrow().price());
+            assertEquals(5, adapter.findAll().size());
+        }
+    }
+
+    @Test
+    void exportChanges_foldsTheWrittenPricesWithTheirVersionsIntoANewSnapshot() {
+        Price updated = new Price(3L, 2, 35455L, START_DATE, END_DATE, 1, 4500, CurrencyEnum.USD, 0, 7L);
+        when(priceJpaAdapter.update(any())).thenReturn(Optional.of(new UpdatedPrice(CATALOG.get(2), updated)));
+
+        priceSnapshotAdapter.update(updated);
+        priceSnapshotAdapter.exportChanges();
+        PriceRepository otherJpaAdapter = Mockito.mock(PriceRepository.class);
+        PriceSnapshotAdapter restarted = new PriceSnapshotAdapter(otherJpaAdapter, path, false, EXPORT_INTERVAL);
+        restarted.afterSingletonsInstantiated();
+
+        assertEquals(List.of(updated), restarted.findAllByBrandIdAndProductId(2, 35455L));
+        assertEquals(7L, restarted.findAllByBrandIdAndProductId(2, 35455L).get(0).getVersion());
+        then(otherJpaAdapter).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void exportChanges_noChanges_keepsTheSnapshot() throws Exception {
+        Files.setLastModifiedTime(path, FileTime.fromMillis(0));
+
+        priceSnapshotAdapter.exportChanges();
+
+        assertEquals(FileTime.fromMillis(0), Files.getLastModifiedTime(path));
+        then(priceJpaAdapter).should().findAll();
+        then(priceJpaAdapter).shouldHaveNoMoreInteractions();
+    }
+
+    @Test
+    void findAllByBrandIdsAndProductIdsAndDateRange_returnsThePricesInRange() {
+        List<Price> prices = priceSnapshotAdapter.findAllByBrandIdsAndProductIdsAndDateRange(Set.of(1, 3), Set.of(35455L, 1234L),
+                START_DATE.minusDays(1), START_DATE.plusHours(1));
+
+        assertEquals(List.of(CATALOG.get(0)), prices);
+    }
+
+    @Test
+    void findAllByBrandIdAndProductId_returnsThePricesOfTheBrandAndProduct() {
+        assertEquals(CATALOG.subList(0, 2), priceSnapshotAdapter.findAllByBrandIdAndProductId(1, 35455L));
+        assertTrue(priceSnapshotAdapter.findAllByBrandIdAndProductId(1, 1234L).isEmpty());
+    }
+
+    @Test
+    void onPriceChanges_readsTheBrandsAndProductsWrittenByOtherInstancesOverTheSnapshot() {
+        Price updated = new Price(3L, 2, 35455L, START_DATE, END_DATE, 1, 4500, CurrencyEnum.USD, 0, 1L);
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(2, 35455L)).thenReturn(List.of(updated));
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L)).thenReturn(List.of());
+
+        priceSnapshotAdapter.onPriceChanges(Set.of(new BrandProductKey(2, 35455L), new BrandProductKey(1, 35455L)));
+
+        assertEquals(4500, priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(2, 35455L, START_DATE).orElseThrow().price());
+        assertTrue(priceSnapshotAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE).isEmpty());
+        assertEquals(List.of(updated), priceSnapshotAdapter.findAll());
+    }
+}
@@ -0,0 +1,212 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+/**
+ * Unit tests for the PriceTieredAdapter.
+ * <p>
+ * This class includes test cases to verify that the lookups within the hot window are resolved from the prices
+ * valid in it, without querying the JPA adapter, that the rest of them fall through to it, and that the hot tier
+ * follows the window as it slides and the prices as they are written. It uses Mockito to mock the JPA adapter, which
+ * filters a list of prices standing for the database.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceTieredAdapterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+
+    // the hot window, from a day before to 30 days after now
+    private static final LocalDateTime WINDOW_FROM = NOW.minusDays(1);
+    private static final LocalDateTime WINDOW_TO = NOW.plusDays(30);
+
+    private static final Price EXPIRED = new Price(1L, 1, 35455L, LocalDateTime.of(2019, 1, 1, 0, 0, 0),
+            LocalDateTime.of(2019, 12, 31, 23, 59, 59), 1, 3000, CurrencyEnum.EUR, 0);
+    private static final Price BASE = new Price(2L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0, 0),
+            LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 3550, CurrencyEnum.EUR, 0);
+    private static final Price PROMOTION = new Price(3L, 1, 35455L, LocalDateTime.of(2020, 6, 14, 15, 0, 0),
+            LocalDateTime.of(2020, 6, 14, 18, 30, 0), 2, 2545, CurrencyEnum.EUR, 1);
+    private static final Price CHRISTMAS = new Price(4L, 1, 35455L, LocalDateTime.of(2020, 12, 20, 0, 0, 0),
+            LocalDateTime.of(2020, 12, 26, 23, 59, 59), 3, 2999, CurrencyEnum.EUR, 1);
+
+    private final List<Price> database = new ArrayList<>(List.of(EXPIRED, BASE, PROMOTION, CHRISTMAS));
+
+    private final PriceRepository priceJpaAdapter = Mockito.mock(PriceRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PriceTieredAdapter priceTieredAdapter = new PriceTieredAdapter(priceJpaAdapter, Duration.ofDays(1),
+            Duration.ofDays(30), Duration.ofHours(1), Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC), meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        given(priceJpaAdapter.findAllByDateRange(any(), any()))
+                .willAnswer(invocation -> validBetween(invocation.getArgument(0), invocation.getArgument(1)));
+        priceTieredAdapter.slide(NOW);
+    }
+
+    @Test
+    void slide_toTheCurrentTimeOfTheClock() {
+        priceTieredAdapter.slide();
+
+        then(priceJpaAdapter).should(Mockito.times(2)).findAllByDateRange(WINDOW_FROM, WINDOW_TO);
+    }
+
+    @Test
+    void slide_holdsThePricesValidInTheWindowOnly() {
+        then(priceJpaAdapter).should().findAllByDateRange(WINDOW_FROM, WINDOW_TO);
+        assertEquals(2, meterRegistry.get("pricing.repository.tier.hot.prices").gauge().value());
+    }
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_withinTheWindow_resolvedFromTheHotTier() {
+        assertEquals(Optional.of(PriceSummary.from(PROMOTION)), priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, NOW.plusHours(6)));
+        assertEquals(Optional.of(PriceSummary.from(BASE)), priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, WINDOW_TO));
+        // the hot tier holds every price valid in the window, so a price not found in it doesn't exist
+        assertTrue(priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, WINDOW_FROM).isEmpty());
+        assertTrue(priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(2, 35455L, NOW).isEmpty());
+
+        then(priceJpaAdapter).should(never()).getPriceByBrandIdAndProductIdAndApplicationTime(anyInt(), anyLong(), any());
+        assertEquals(4, lookups("hot"));
+        assertEquals(1.0, meterRegistry.get("pricing.repository.tier.hit.ratio").gauge().value());
+    }
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_outsideTheWindow_fallsThroughToTheDatabase() {
+        LocalDateTime lastYear = LocalDateTime.of(2019, 6, 1, 0, 0, 0);
+        given(priceJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, lastYear)).willReturn(Optional.of(PriceSummary.from(EXPIRED)));
+        given(priceJpaAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, WINDOW_TO.plusSeconds(1))).willReturn(Optional.of(PriceSummary.from(BASE)));
+
+        assertEquals(Optional.of(PriceSummary.from(EXPIRED)), priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, lastYear));
+        assertEquals(Optional.of(PriceSummary.from(BASE)), priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, WINDOW_TO.plusSeconds(1)));
+        priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, NOW);
+
+        assertEquals(2, lookups("cold"));
+        assertEquals(1, lookups("hot"));
+        assertEquals(1.0 / 3, meterRegistry.get("pricing.repository.tier.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void getPriceSegmentByBrandIdAndProductIdAndApplicationTime_clippedToTheWindow() {
+        // the promotion ends within the window
+        PriceTimeline.Segment promotion = priceTieredAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, NOW.plusHours(6)).orElseThrow();
+        assertEquals(new PriceTimeline.Segment(PROMOTION.getStartDate(), PROMOTION.getEndDate().plusSeconds(1), PROMOTION), promotion);
+
+        // the base price keeps winning until Christmas, a price out of the window, so it is only known to win until its end
+        PriceTimeline.Segment base = priceTieredAdapter.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(1, 35455L, NOW.plusDays(1)).orElseThrow();
+        assertEquals(new PriceTimeline.Segment(PROMOTION.getEndDate().plusSeconds(1), WINDOW_TO.plusSeconds(1), BASE), base);
+
+        then(priceJpaAdapter).should(never()).getPriceSegmentByBrandIdAndProductIdAndApplicationTime(anyInt(), anyLong(), any());
+    }
+
+    @Test
+    void findAllByBrandIdsAndProductIdsAndDateRange_withinTheWindow_resolvedFromTheHotTier() {
+        List<Price> prices = priceTieredAdapter.findAllByBrandIdsAndProductIdsAndDateRange(List.of(1), List.of(35455L), NOW, NOW.plusDays(1));
+
+        assertEquals(Set.of(BASE, PROMOTION), Set.copyOf(prices));
+        then(priceJpaAdapter).should(never()).findAllByBrandIdsAndProductIdsAndDateRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void findAllByDateRanges_theRangesOutOfTheWindowReadWithASingleQuery() {
+        BrandProductDateRange hotRange = new BrandProductDateRange(new BrandProductKey(1, 35455L), NOW, NOW.plusDays(1));
+        BrandProductDateRange coldRange = new BrandProductDateRange(new BrandProductKey(1, 35455L), LocalDateTime.of(2019, 6, 1, 0, 0, 0),
+                LocalDateTime.of(2019, 6, 1, 0, 0, 0));
+        given(priceJpaAdapter.findAllByDateRanges(List.of(coldRange))).willReturn(List.of(EXPIRED));
+
+        List<Price> prices = priceTieredAdapter.findAllByDateRanges(List.of(hotRange, coldRange));
+
+        assertEquals(Set.of(BASE, PROMOTION, EXPIRED), Set.copyOf(prices));
+        then(priceJpaAdapter).should().findAllByDateRanges(List.of(coldRange));
+        assertEquals(1, lookups("hot"));
+        assertEquals(1, lookups("cold"));
+    }
+
+    @Test
+    void slide_expiredPricesLeaveAndStartingPricesEnterTheHotTier() {
+        // When - Six months later
+        priceTieredAdapter.slide(LocalDateTime.of(2020, 12, 14, 10, 0, 0));
+
+        // Then - Christmas is resolved from memory, and the promotion is no longer held
+        assertEquals(Optional.of(PriceSummary.from(CHRISTMAS)), priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, LocalDateTime.of(2020, 12, 24, 12, 0, 0)));
+        assertEquals(2, meterRegistry.get("pricing.repository.tier.hot.prices").gauge().value());
+        then(priceJpaAdapter).should(never()).getPriceByBrandIdAndProductIdAndApplicationTime(anyInt(), anyLong(), any());
+    }
+
+    @Test
+    void save_priceWithinTheWindow_indexedInTheHotTier() {
+        Price flashSale = new Price(5L, 1, 35455L, NOW.plusDays(2), NOW.plusDays(3), 4, 1999, CurrencyEnum.EUR, 2);
+        given(priceJpaAdapter.save(flashSale)).willReturn(flashSale);
+
+        priceTieredAdapter.save(flashSale);
+
+        assertEquals(Optional.of(PriceSummary.from(flashSale)), priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, NOW.plusDays(2).plusHours(1)));
+        then(priceJpaAdapter).should(never()).getPriceByBrandIdAndProductIdAndApplicationTime(anyInt(), anyLong(), any());
+    }
+
+    @Test
+    void update_priceMovedOutOfTheWindow_removedFromTheHotTier() {
+        Price postponed = new Price(3L, 1, 35455L, NOW.plusDays(60), NOW.plusDays(61), 2, 2545, CurrencyEnum.EUR, 1);
+        given(priceJpaAdapter.update(postponed)).willReturn(Optional.of(new UpdatedPrice(PROMOTION, postponed)));
+
+        priceTieredAdapter.update(postponed);
+
+        assertEquals(Optional.of(PriceSummary.from(BASE)), priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, NOW.plusHours(6)));
+        assertEquals(1, meterRegistry.get("pricing.repository.tier.hot.prices").gauge().value());
+    }
+
+    @Test
+    void onPriceChanges_reloadsTheHotPricesOfTheBrandAndProduct() {
+        // Given - The promotion deleted by another instance
+        given(priceJpaAdapter.findAllByBrandIdsAndProductIdsAndDateRange(List.of(1), List.of(35455L), WINDOW_FROM, WINDOW_TO))
+                .willReturn(List.of(BASE));
+
+        // When
+        priceTieredAdapter.onPriceChanges(Set.of(new BrandProductKey(1, 35455L)));
+
+        // Then
+        assertEquals(Optional.of(PriceSummary.from(BASE)), priceTieredAdapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, NOW.plusHours(6)));
+        assertEquals(1, meterRegistry.get("pricing.repository.tier.hot.prices").gauge().value());
+    }
+
+    private List<Price> validBetween(LocalDateTime from, LocalDateTime to) {
+        return database.stream()
+                       .filter(price -> !price.getStartDate().isAfter(to) && !price.getEndDate().isBefore(from))
+                       .toList();
+    }
+
+    private double lookups(String tier) {
+        return meterRegistry.get("pricing.repository.tier.lookups")
+                            .tag("tier", tier)
+                            .counter()
+                            .count();
+    }
+}
@@ -0,0 +1,146 @@
+package com.capitole.pricingservice.adapter.out.memory;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.port.out.PriceRepository;
+import com.capitole.pricingservice.application.port.out.PriceTimelineRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the PriceTimelineAdapter.
+ * <p>
+ * This class includes test cases to verify that the prices are resolved from the persisted timelines loaded into
+ * memory, that they are rebuilt at startup only when needed, and that the refreshed timelines replace the loaded
+ * ones. It uses Mockito to mock the JPA adapters.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceTimelineAdapterTest {
+
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 6, 14, 0, 0, 0);
+    private static final LocalDateTime END_DATE = LocalDateTime.of(2020, 12, 31, 23, 59, 59);
+    private static final BrandProductKey KEY = new BrandProductKey(1, 35455L);
+
+    private static final Price BASE_PRICE = new Price(1L, 1, 35455L, START_DATE, END_DATE, 1, 3550, CurrencyEnum.EUR, 0);
+    private static final Price PROMOTION_PRICE = new Price(2L, 1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1);
+
+    private final PriceRepository priceJpaAdapter = Mockito.mock(PriceRepository.class);
+
+    private final PriceTimelineRepository priceTimelineJpaAdapter = Mockito.mock(PriceTimelineRepository.class);
+
+    @Test
+    void getPriceByBrandIdAndProductIdAndApplicationTime_resolvesFromTheLoadedTimelines() {
+        PriceTimelineAdapter adapter = loadedAdapter(false);
+
+        Optional<PriceSummary> price = adapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16));
+
+        assertEquals(Optional.of(PriceSummary.from(PROMOTION_PRICE)), price);
+        assertEquals(Optional.of(PriceSummary.from(BASE_PRICE)), adapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(19)));
+        assertTrue(adapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, END_DATE.plusSeconds(1)).isEmpty());
+        assertTrue(adapter.getPriceByBrandIdAndProductIdAndApplicationTime(2, 35455L, START_DATE).isEmpty());
+        then(priceJpaAdapter).shouldHaveNoInteractions();
+        then(priceTimelineJpaAdapter).should(never()).rebuild();
+    }
+
+    @Test
+    void getPriceSegmentsByBrandIdAndProductIdAndDateRange_sweepsTheLoadedTimeline() {
+        PriceTimelineAdapter adapter = loadedAdapter(false);
+
+        List<PriceTimeline.Segment> segments = adapter.getPriceSegmentsByBrandIdAndProductIdAndDateRange(1, 35455L,
+                START_DATE.plusHours(10), START_DATE.plusHours(20));
+
+        assertEquals(List.of(new PriceTimeline.Segment(START_DATE.plusHours(10), START_DATE.plusHours(15), BASE_PRICE),
+                new PriceTimeline.Segment(START_DATE.plusHours(15), START_DATE.plusHours(18).plusSeconds(1), PROMOTION_PRICE),
+                new PriceTimeline.Segment(START_DATE.plusHours(18).plusSeconds(1), START_DATE.plusHours(20).plusSeconds(1), BASE_PRICE)), segments);
+        assertTrue(adapter.getPriceSegmentsByBrandIdAndProductIdAndDateRange(2, 35455L, START_DATE, END_DATE).isEmpty());
+        then(priceJpaAdapter).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void afterSingletonsInstantiated_rebuildsTheTimelines_whenNoneIsPersisted() {
+        when(priceTimelineJpaAdapter.isEmpty()).thenReturn(true);
+
+        loadedAdapter(false);
+
+        then(priceTimelineJpaAdapter).should().rebuild();
+    }
+
+    @Test
+    void afterSingletonsInstantiated_rebuildsTheTimelines_whenRebuildOnStartup() {
+        loadedAdapter(true);
+
+        then(priceTimelineJpaAdapter).should().rebuild();
+    }
+
+    @Test
+    void refresh_replacesTheLoadedTimelines() {
+        PriceTimelineAdapter adapter = loadedAdapter(false);
+        BrandProductKey newKey = new BrandProductKey(1, 1234L);
+        Price moved = new Price(2L, 1, 1234L, START_DATE, END_DATE, 2, 2545, CurrencyEnum.EUR, 1);
+        when(priceTimelineJpaAdapter.refresh(any())).thenReturn(Map.of(
+                KEY, PriceTimeline.of(List.of(BASE_PRICE)),
+                newKey, PriceTimeline.of(List.of(moved))));
+
+        adapter.refresh(List.of(KEY, newKey));
+
+        assertEquals(Optional.of(PriceSummary.from(BASE_PRICE)), adapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)));
+        assertEquals(Optional.of(PriceSummary.from(moved)), adapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 1234L, START_DATE.plusHours(16)));
+    }
+
+    @Test
+    void refresh_removesTheTimelinesWithoutPrices() {
+        PriceTimelineAdapter adapter = loadedAdapter(false);
+        when(priceTimelineJpaAdapter.refresh(any())).thenReturn(Map.of(KEY, PriceTimeline.of(List.of())));
+
+        adapter.refresh(List.of(KEY));
+
+        assertTrue(adapter.findAllTimelines().isEmpty());
+        assertTrue(adapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE).isEmpty());
+    }
+
+    @Test
+    void save_delegatesToTheJpaAdapter() {
+        PriceTimelineAdapter adapter = loadedAdapter(false);
+        when(priceJpaAdapter.save(any())).thenReturn(PROMOTION_PRICE);
+
+        assertEquals(PROMOTION_PRICE, adapter.save(PROMOTION_PRICE));
+        then(priceJpaAdapter).should().save(PROMOTION_PRICE);
+    }
+
+    private PriceTimelineAdapter loadedAdapter(boolean rebuildOnStartup) {
+        when(priceTimelineJpaAdapter.findAllTimelines()).thenReturn(Map.of(KEY,
+                PriceTimeline.ofSegments(PriceTimeline.of(List.of(BASE_PRICE, PROMOTION_PRICE)).segments())));
+        PriceTimelineAdapter adapter = new PriceTimelineAdapter(priceJpaAdapter, priceTimelineJpaAdapter, rebuildOnStartup);
+        adapter.afterSingletonsInstantiated();
+        return adapter;
+    }
+
+    @Test
+    void onPriceChanges_recomputesTheTimelinesWrittenByOtherInstances() {
+        PriceTimelineAdapter adapter = loadedAdapter(false);
+        Price updated = new Price(2L, 1, 35455L, START_DATE.plusHours(15), START_DATE.plusHours(18), 2, 2000, CurrencyEnum.EUR, 1, 1L);
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 35455L)).thenReturn(List.of(BASE_PRICE, updated));
+        when(priceJpaAdapter.findAllByBrandIdAndProductId(1, 1234L)).thenReturn(List.of());
+
+        adapter.onPriceChanges(Set.of(KEY, new BrandProductKey(1, 1234L)));
+
+        assertEquals(2000, adapter.getPriceByBrandIdAndProductIdAndApplicationTime(1, 35455L, START_DATE.plusHours(16)).orElseThrow().price());
+        assertEquals(Set.of(KEY), adapter.findAllTimelines().keySet());
+    }
+}
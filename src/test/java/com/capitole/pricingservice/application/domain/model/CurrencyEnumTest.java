@@ -2,6 +2,8 @@ package com.capitole.pricingservice.application.domain.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -27,4 +29,22 @@ class CurrencyEnumTest {
     void testFromCode_EmptyCode_ThrowsIllegalArgumentException() {
         assertThrows(IllegalArgumentException.class, () -> CurrencyEnum.fromCode(""));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testToMinorUnits_AmountWithTheDecimalsOfTheCurrency_ReturnsMinorUnits() {
+        assertEquals(3550, CurrencyEnum.EUR.toMinorUnits(new BigDecimal("35.50")));
+        assertEquals(3550, CurrencyEnum.EUR.toMinorUnits(new BigDecimal("35.5")));
+        assertEquals(1000, CurrencyEnum.USD.toMinorUnits(new BigDecimal("10")));
+    }
+
+    @Test
+    void testToMinorUnits_MoreDecimalsThanTheCurrency_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> CurrencyEnum.EUR.toMinorUnits(new BigDecimal("35.505")));
+    }
+
+    @Test
+    void testFromMinorUnits_ReturnsAmountWithTheScaleOfTheCurrency() {
+        assertEquals(new BigDecimal("35.50"), CurrencyEnum.EUR.fromMinorUnits(3550));
+        assertEquals(new BigDecimal("0.05"), CurrencyEnum.COP.fromMinorUnits(5));
+    }
+}
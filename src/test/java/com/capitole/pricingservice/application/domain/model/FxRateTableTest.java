@@ -0,0 +1,135 @@
+package com.capitole.pricingservice.application.domain.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FxRateTable and the FxRate.
+ * <p>
+ * This class includes test cases to verify that the table resolves the rate of a currency pair valid at an instant,
+ * falls back to the inverse of the opposite pair, rejects overlapping rates, and that the prices are converted and
+ * rounded to the minor unit of the quote currency.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class FxRateTableTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final List<FxRate> RATES = List.of(
+            rate(CurrencyEnum.EUR, CurrencyEnum.USD, "2020-07-01 00:00:00", "2020-12-31 23:59:59", 1.1422),
+            rate(CurrencyEnum.EUR, CurrencyEnum.USD, "2020-01-01 00:00:00", "2020-06-30 23:59:59", 1.1102),
+            rate(CurrencyEnum.EUR, CurrencyEnum.COP, "2020-01-01 00:00:00", "2020-12-31 23:59:59", 4213.76));
+
+    @CsvSource({
+            "2020-01-01 00:00:00, 1.1102",
+            "2020-06-14 10:00:00, 1.1102",
+            "2020-06-30 23:59:59, 1.1102",
+            "2020-07-01 00:00:00, 1.1422",
+            "2020-12-31 23:59:59, 1.1422"
+    })
+    @ParameterizedTest
+    void rateAt_returnsTheRateValidAtTheInstant(String instant, double expectedRate) {
+        FxRateTable table = FxRateTable.of(RATES);
+
+        Optional<FxRate> rate = table.rateAt(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.parse(instant, FORMATTER));
+
+        assertTrue(rate.isPresent());
+        assertEquals(expectedRate, rate.get().rate());
+    }
+
+    @CsvSource({
+            "2019-12-31 23:59:59",
+            "2021-01-01 00:00:00"
+    })
+    @ParameterizedTest
+    void rateAt_noRateValidAtTheInstant(String instant) {
+        FxRateTable table = FxRateTable.of(RATES);
+
+        assertTrue(table.rateAt(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.parse(instant, FORMATTER)).isEmpty());
+    }
+
+    @Test
+    void rateAt_inverseOfTheOppositePair() {
+        FxRateTable table = FxRateTable.of(RATES);
+
+        FxRate rate = table.rateAt(CurrencyEnum.USD, CurrencyEnum.EUR, LocalDateTime.of(2020, 8, 1, 0, 0)).orElseThrow();
+
+        assertEquals(CurrencyEnum.USD, rate.baseCurrency());
+        assertEquals(CurrencyEnum.EUR, rate.quoteCurrency());
+        assertEquals(1 / 1.1422, rate.rate());
+        assertEquals(LocalDateTime.of(2020, 12, 31, 23, 59, 59), rate.endDate());
+    }
+
+    @Test
+    void rateAt_pairWithoutRates() {
+        FxRateTable table = FxRateTable.of(RATES);
+
+        assertTrue(table.rateAt(CurrencyEnum.USD, CurrencyEnum.COP, LocalDateTime.of(2020, 8, 1, 0, 0)).isEmpty());
+        assertTrue(FxRateTable.empty().rateAt(CurrencyEnum.EUR, CurrencyEnum.USD, LocalDateTime.of(2020, 8, 1, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void of_overlappingRatesOfTheSamePair_throwsIllegalArgumentException() {
+        List<FxRate> rates = List.of(
+                rate(CurrencyEnum.EUR, CurrencyEnum.USD, "2020-01-01 00:00:00", "2020-06-30 23:59:59", 1.1102),
+                rate(CurrencyEnum.EUR, CurrencyEnum.USD, "2020-06-30 23:59:59", "2020-12-31 23:59:59", 1.1422));
+
+        assertThrows(IllegalArgumentException.class, () -> FxRateTable.of(rates));
+    }
+
+    @Test
+    void of_keepsAllTheRates() {
+        FxRateTable table = FxRateTable.of(RATES);
+
+        assertEquals(3, table.size());
+        assertEquals(RATES, table.rates());
+    }
+
+    @CsvSource({
+            "EUR, USD, 1.0845, 3550, 3850",
+            "EUR, COP, 4213.76, 3550, 14958848",
+            "USD, EUR, 0.921659, 2545, 2346"
+    })
+    @ParameterizedTest
+    void convert_roundsToTheMinorUnitOfTheQuoteCurrency(CurrencyEnum base, CurrencyEnum quote, double rate, long price, long expectedPrice) {
+        FxRate fxRate = rate(base, quote, "2020-01-01 00:00:00", "2020-12-31 23:59:59", rate);
+        PriceSummary summary = new PriceSummary(1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, price, base);
+
+        PriceSummary converted = fxRate.convert(summary);
+
+        assertEquals(new PriceSummary(1, 35455L, summary.startDate(), summary.endDate(), 1, expectedPrice, quote), converted);
+    }
+
+    @Test
+    void convert_priceInAnotherCurrency_throwsIllegalArgumentException() {
+        FxRate fxRate = RATES.get(0);
+        PriceSummary summary = new PriceSummary(1, 35455L, LocalDateTime.of(2020, 6, 14, 0, 0),
+                LocalDateTime.of(2020, 12, 31, 23, 59, 59), 1, 1000, CurrencyEnum.USD);
+
+        assertThrows(IllegalArgumentException.class, () -> fxRate.convert(summary));
+    }
+
+    @Test
+    void fxRate_invalidFields_throwsIllegalArgumentException() {
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> new FxRate(CurrencyEnum.EUR, CurrencyEnum.EUR, start, start.plusDays(1), 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new FxRate(null, CurrencyEnum.USD, start, start.plusDays(1), 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, start, start.minusDays(1), 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, start, start.plusDays(1), 0));
+        assertThrows(IllegalArgumentException.class, () -> new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, start, start.plusDays(1), Double.NaN));
+    }
+
+    private static FxRate rate(CurrencyEnum base, CurrencyEnum quote, String startDate, String endDate, double rate) {
+        return new FxRate(base, quote, LocalDateTime.parse(startDate, FORMATTER), LocalDateTime.parse(endDate, FORMATTER), rate);
+    }
+}
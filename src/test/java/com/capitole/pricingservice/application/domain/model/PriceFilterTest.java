@@ -0,0 +1,43 @@
+package com.capitole.pricingservice.application.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PriceFilter.
+ * <p>
+ * This class includes test cases to verify that every criterion of the filter, when sent, restricts the prices it
+ * matches, and that a product range upside down is rejected.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceFilterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2020, 6, 14, 15, 0);
+
+    private final Price price = new Price(1L, 1, 35455L, START, START.plusHours(3), 2, 2545, CurrencyEnum.EUR, 1);
+
+    @Test
+    void all_matchesEveryPrice() {
+        assertTrue(PriceFilter.all().matches(price));
+    }
+
+    @Test
+    void matches_everyCriterion() {
+        assertTrue(new PriceFilter(1, 35455L, 35455L, START).matches(price));
+        assertTrue(new PriceFilter(null, null, null, START.plusHours(3)).matches(price));
+        assertFalse(new PriceFilter(2, null, null, null).matches(price));
+        assertFalse(new PriceFilter(null, 35456L, null, null).matches(price));
+        assertFalse(new PriceFilter(null, null, 35454L, null).matches(price));
+        assertFalse(new PriceFilter(null, null, null, START.minusSeconds(1)).matches(price));
+        assertFalse(new PriceFilter(null, null, null, START.plusHours(3).plusSeconds(1)).matches(price));
+    }
+
+    @Test
+    void productRangeUpsideDown_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new PriceFilter(1, 2L, 1L, null));
+    }
+}
@@ -16,7 +16,7 @@ public class PriceTest {
         LocalDateTime startDate = LocalDateTime.now();
         LocalDateTime endDate = startDate.plusDays(1);
         Integer priceList = 1;
-        Double price = 10.0;
+        long price = 1000;
         CurrencyEnum currency = CurrencyEnum.EUR;
         Integer priority = 1;
 
@@ -40,7 +40,7 @@ public class PriceTest {
         LocalDateTime startDate = LocalDateTime.now();
         LocalDateTime endDate = startDate.plusDays(1);
         Integer priceList = 1;
-        Double price = 10.0;
+        long price = 1000;
         CurrencyEnum currency = CurrencyEnum.EUR;
 
         Price priceObject = new Price(brandId, productId, startDate, endDate, priceList, price, currency);
@@ -58,77 +58,71 @@ public class PriceTest {
 
     @Test
     public void testConstructorWithNullId() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(null, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 10.0, CurrencyEnum.EUR, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Price(null, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 1000, CurrencyEnum.EUR, 1));
 
     }
 
     @Test
     public void testConstructorWithNullBrandId() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, null, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 10.0, CurrencyEnum.EUR, 1));
-        assertThrows(IllegalArgumentException.class, () -> new Price( null, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 10.0, CurrencyEnum.EUR));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, null, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 1000, CurrencyEnum.EUR, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Price( null, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 1000, CurrencyEnum.EUR));
     }
 
     @Test
     public void testConstructorWithNullProductId() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 10.0, CurrencyEnum.EUR, 1));
-        assertThrows(IllegalArgumentException.class, () -> new Price(1, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 10.0, CurrencyEnum.EUR));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 1000, CurrencyEnum.EUR, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1, null, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 1000, CurrencyEnum.EUR));
     }
 
     @Test
     public void testConstructorWithNullCurrency() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 10.0, null, 1));
-        assertThrows(IllegalArgumentException.class, () -> new Price(1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 10.0, null));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 1000, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 1000, null));
     }
 
     @Test
     public void testConstructorWithNullStartDate() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, null, LocalDateTime.now(), 1, 10.0, CurrencyEnum.EUR, 1));
-        assertThrows(IllegalArgumentException.class, () -> new Price( 1, 1L, null, LocalDateTime.now(), 1, 10.0, CurrencyEnum.EUR));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, null, LocalDateTime.now(), 1, 1000, CurrencyEnum.EUR, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Price( 1, 1L, null, LocalDateTime.now(), 1, 1000, CurrencyEnum.EUR));
     }
     @Test
     public void testConstructorWithNullEndDate() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(),null, 1, 10.0, CurrencyEnum.EUR, 1));
-        assertThrows(IllegalArgumentException.class, () -> new Price( 1, 1L, LocalDateTime.now(), null, 1, 10.0, CurrencyEnum.EUR));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(),null, 1, 1000, CurrencyEnum.EUR, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Price( 1, 1L, LocalDateTime.now(), null, 1, 1000, CurrencyEnum.EUR));
     }
 
     @Test
     public void testConstructorWithStartDateAfterEndDate() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now().plusDays(1), LocalDateTime.now(), 1, 10.0, CurrencyEnum.EUR, 1));
-        assertThrows(IllegalArgumentException.class, () -> new Price( 1, 1L, LocalDateTime.now().plusDays(1), LocalDateTime.now(), 1, 10.0, CurrencyEnum.EUR));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now().plusDays(1), LocalDateTime.now(), 1, 1000, CurrencyEnum.EUR, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Price( 1, 1L, LocalDateTime.now().plusDays(1), LocalDateTime.now(), 1, 1000, CurrencyEnum.EUR));
     }
 
 
     @Test
     public void testConstructorWithNullPriceList() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), null, 10.0, CurrencyEnum.EUR, 1));
-        assertThrows(IllegalArgumentException.class, () -> new Price( 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), null, 10.0, CurrencyEnum.EUR));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), null, 1000, CurrencyEnum.EUR, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Price( 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), null, 1000, CurrencyEnum.EUR));
     }
 
     @Test
     public void testConstructorWithNegativePriceList() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), -1, 10.0, CurrencyEnum.EUR, 1));
-        assertThrows(IllegalArgumentException.class, () -> new Price( 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), -1, 10.0, CurrencyEnum.EUR));
-    }
-
-    @Test
-    public void testConstructorWithNullPrice() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, null, CurrencyEnum.EUR, 1));
-        assertThrows(IllegalArgumentException.class, () -> new Price(1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, null, CurrencyEnum.EUR));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), -1, 1000, CurrencyEnum.EUR, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Price( 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), -1, 1000, CurrencyEnum.EUR));
     }
 
     @Test
     public void testConstructorWithNegativePrice() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, -10.0, CurrencyEnum.EUR, 1));
-        assertThrows(IllegalArgumentException.class, () -> new Price(1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, -10.0, CurrencyEnum.EUR));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, -1000, CurrencyEnum.EUR, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, -1000, CurrencyEnum.EUR));
     }
 
     @Test
     public void testConstructorWithNullPriority() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 10.0, CurrencyEnum.EUR, null));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 1000, CurrencyEnum.EUR, null));
     }
 
     @Test
     public void testConstructorWithNegativePriority() {
-        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 10.0, CurrencyEnum.EUR, -1));
+        assertThrows(IllegalArgumentException.class, () -> new Price(1L, 1, 1L, LocalDateTime.now(), LocalDateTime.now().plusDays(1), 1, 1000, CurrencyEnum.EUR, -1));
     }
 }
\ No newline at end of file
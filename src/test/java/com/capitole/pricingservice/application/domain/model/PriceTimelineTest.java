@@ -0,0 +1,196 @@
+package com.capitole.pricingservice.application.domain.model;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PriceTimeline.
+ * <p>
+ * This class includes test cases to verify that the timeline resolves the price with the highest priority
+ * covering an instant, using the same prices as the system tests.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceTimelineTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final List<Price> PRICES = List.of(
+            price(1L, "2020-06-14 00:00:00", "2020-12-31 23:59:59", 1, 3550, 0),
+            price(2L, "2020-06-14 15:00:00", "2020-06-14 18:30:00", 2, 2545, 1),
+            price(3L, "2020-06-15 00:00:00", "2020-06-15 11:00:00", 3, 3050, 1),
+            price(4L, "2020-06-15 16:00:00", "2020-12-31 23:59:59", 4, 3895, 1));
+
+    @CsvSource({
+            "2020-06-14 10:00:00, 3550",
+            "2020-06-14 16:00:00, 2545",
+            "2020-06-14 21:00:00, 3550",
+            "2020-06-15 10:00:00, 3050",
+            "2020-06-15 21:00:00, 3895",
+            "2020-06-14 00:00:00, 3550",
+            "2020-06-14 18:30:00, 2545",
+            "2020-06-14 18:30:01, 3550",
+            "2020-12-31 23:59:59, 3895"
+    })
+    @ParameterizedTest
+    void priceAt_returnsHighestPriorityPrice(String applicationDate, long expectedPrice) {
+        PriceTimeline timeline = PriceTimeline.of(PRICES);
+
+        Optional<Price> price = timeline.priceAt(LocalDateTime.parse(applicationDate, FORMATTER));
+
+        assertTrue(price.isPresent());
+        assertEquals(expectedPrice, price.get().getPrice());
+    }
+
+    @CsvSource({
+            "2020-06-13 23:59:59",
+            "2021-01-01 00:00:00"
+    })
+    @ParameterizedTest
+    void priceAt_returnsEmpty_whenNoPriceCoversTheInstant(String applicationDate) {
+        PriceTimeline timeline = PriceTimeline.of(PRICES);
+
+        assertTrue(timeline.priceAt(LocalDateTime.parse(applicationDate, FORMATTER)).isEmpty());
+    }
+
+    @Test
+    void priceAt_returnsEmpty_betweenNonOverlappingPrices() {
+        PriceTimeline timeline = PriceTimeline.of(List.of(
+                price(1L, "2020-01-01 00:00:00", "2020-01-31 23:59:59", 1, 1000, 0),
+                price(2L, "2020-03-01 00:00:00", "2020-03-31 23:59:59", 1, 2000, 0)));
+
+        assertTrue(timeline.priceAt(LocalDateTime.parse("2020-02-15 00:00:00", FORMATTER)).isEmpty());
+        assertEquals(2000, timeline.priceAt(LocalDateTime.parse("2020-03-15 00:00:00", FORMATTER)).orElseThrow().getPrice());
+    }
+
+    @Test
+    void priceAt_returnsLowestId_whenPrioritiesAreEqual() {
+        PriceTimeline timeline = PriceTimeline.of(List.of(
+                price(7L, "2020-01-01 00:00:00", "2020-01-31 23:59:59", 1, 1000, 1),
+                price(5L, "2020-01-10 00:00:00", "2020-01-20 23:59:59", 2, 2000, 1)));
+
+        assertEquals(1000, timeline.priceAt(LocalDateTime.parse("2020-01-05 00:00:00", FORMATTER)).orElseThrow().getPrice());
+        assertEquals(2000, timeline.priceAt(LocalDateTime.parse("2020-01-15 00:00:00", FORMATTER)).orElseThrow().getPrice());
+    }
+
+    @Test
+    void with_replacesThePriceWithTheSameId() {
+        PriceTimeline timeline = PriceTimeline.of(PRICES)
+                                              .with(price(2L, "2020-06-14 15:00:00", "2020-06-14 18:30:00", 2, 2000, 1));
+
+        assertEquals(4, timeline.prices().size());
+        assertEquals(2000, timeline.priceAt(LocalDateTime.parse("2020-06-14 16:00:00", FORMATTER)).orElseThrow().getPrice());
+    }
+
+    @Test
+    void withAll_replacesThePricesWithTheSameIdAndAddsTheRest() {
+        PriceTimeline timeline = PriceTimeline.of(PRICES)
+                                              .withAll(List.of(price(2L, "2020-06-14 15:00:00", "2020-06-14 18:30:00", 2, 2000, 1),
+                                                      price(5L, "2020-06-14 10:00:00", "2020-06-14 11:00:00", 5, 1500, 2)));
+
+        assertEquals(5, timeline.prices().size());
+        assertEquals(2000, timeline.priceAt(LocalDateTime.parse("2020-06-14 16:00:00", FORMATTER)).orElseThrow().getPrice());
+        assertEquals(1500, timeline.priceAt(LocalDateTime.parse("2020-06-14 10:30:00", FORMATTER)).orElseThrow().getPrice());
+    }
+
+    @Test
+    void without_removesThePrice() {
+        PriceTimeline timeline = PriceTimeline.of(PRICES).without(2L);
+
+        assertEquals(3, timeline.prices().size());
+        assertEquals(3550, timeline.priceAt(LocalDateTime.parse("2020-06-14 16:00:00", FORMATTER)).orElseThrow().getPrice());
+    }
+
+    @Test
+    void segments_areNonOverlappingAndEndOneSecondAfterTheWinningPrice() {
+        List<PriceTimeline.Segment> segments = PriceTimeline.of(PRICES).segments();
+
+        assertEquals(List.of(
+                new PriceTimeline.Segment(LocalDateTime.parse("2020-06-14 00:00:00", FORMATTER), LocalDateTime.parse("2020-06-14 15:00:00", FORMATTER), PRICES.get(0)),
+                new PriceTimeline.Segment(LocalDateTime.parse("2020-06-14 15:00:00", FORMATTER), LocalDateTime.parse("2020-06-14 18:30:01", FORMATTER), PRICES.get(1)),
+                new PriceTimeline.Segment(LocalDateTime.parse("2020-06-14 18:30:01", FORMATTER), LocalDateTime.parse("2020-06-15 00:00:00", FORMATTER), PRICES.get(0)),
+                new PriceTimeline.Segment(LocalDateTime.parse("2020-06-15 00:00:00", FORMATTER), LocalDateTime.parse("2020-06-15 11:00:01", FORMATTER), PRICES.get(2)),
+                new PriceTimeline.Segment(LocalDateTime.parse("2020-06-15 11:00:01", FORMATTER), LocalDateTime.parse("2020-06-15 16:00:00", FORMATTER), PRICES.get(0)),
+                new PriceTimeline.Segment(LocalDateTime.parse("2020-06-15 16:00:00", FORMATTER), LocalDateTime.parse("2021-01-01 00:00:00", FORMATTER), PRICES.get(3))),
+                segments);
+    }
+
+    @Test
+    void segmentAt_returnsTheSegmentCoveringTheInstant() {
+        PriceTimeline timeline = PriceTimeline.of(PRICES);
+
+        // the price 1 wins until the price 2, with higher priority, starts
+        assertEquals(new PriceTimeline.Segment(LocalDateTime.parse("2020-06-14 00:00:00", FORMATTER), LocalDateTime.parse("2020-06-14 15:00:00", FORMATTER), PRICES.get(0)),
+                timeline.segmentAt(LocalDateTime.parse("2020-06-14 10:00:00", FORMATTER)).orElseThrow());
+        assertEquals(new PriceTimeline.Segment(LocalDateTime.parse("2020-06-14 15:00:00", FORMATTER), LocalDateTime.parse("2020-06-14 18:30:01", FORMATTER), PRICES.get(1)),
+                timeline.segmentAt(LocalDateTime.parse("2020-06-14 18:30:00", FORMATTER)).orElseThrow());
+        assertTrue(timeline.segmentAt(LocalDateTime.parse("2021-01-01 00:00:00", FORMATTER)).isEmpty());
+    }
+
+    @Test
+    void segmentsBetween_returnsTheSegmentsOverlappingTheRangeClippedToIt() {
+        PriceTimeline timeline = PriceTimeline.of(PRICES);
+
+        assertEquals(List.of(
+                new PriceTimeline.Segment(LocalDateTime.parse("2020-06-14 16:00:00", FORMATTER), LocalDateTime.parse("2020-06-14 18:30:01", FORMATTER), PRICES.get(1)),
+                new PriceTimeline.Segment(LocalDateTime.parse("2020-06-14 18:30:01", FORMATTER), LocalDateTime.parse("2020-06-15 00:00:00", FORMATTER), PRICES.get(0)),
+                new PriceTimeline.Segment(LocalDateTime.parse("2020-06-15 00:00:00", FORMATTER), LocalDateTime.parse("2020-06-15 10:00:01", FORMATTER), PRICES.get(2))),
+                timeline.segmentsBetween(LocalDateTime.parse("2020-06-14 16:00:00", FORMATTER), LocalDateTime.parse("2020-06-15 10:00:00", FORMATTER)));
+        assertEquals(timeline.segments(),
+                timeline.segmentsBetween(LocalDateTime.parse("2020-01-01 00:00:00", FORMATTER), LocalDateTime.parse("2021-12-31 23:59:59", FORMATTER)));
+    }
+
+    @Test
+    void segmentsBetween_boundaries() {
+        PriceTimeline timeline = PriceTimeline.of(List.of(
+                price(1L, "2020-01-01 00:00:00", "2020-01-31 23:59:59", 1, 1000, 0),
+                price(2L, "2020-03-01 00:00:00", "2020-03-31 23:59:59", 1, 2000, 0)));
+
+        // a single second at the end of a price, and a range in the gap between two prices
+        assertEquals(List.of(new PriceTimeline.Segment(LocalDateTime.parse("2020-01-31 23:59:59", FORMATTER), LocalDateTime.parse("2020-02-01 00:00:00", FORMATTER), timeline.prices().get(0))),
+                timeline.segmentsBetween(LocalDateTime.parse("2020-01-31 23:59:59", FORMATTER), LocalDateTime.parse("2020-01-31 23:59:59", FORMATTER)));
+        assertTrue(timeline.segmentsBetween(LocalDateTime.parse("2020-02-01 00:00:00", FORMATTER), LocalDateTime.parse("2020-02-29 23:59:59", FORMATTER)).isEmpty());
+        assertEquals(2, timeline.segmentsBetween(LocalDateTime.parse("2020-01-31 23:59:59", FORMATTER), LocalDateTime.parse("2020-03-01 00:00:00", FORMATTER)).size());
+        assertTrue(PriceTimeline.of(List.of()).segmentsBetween(LocalDateTime.MIN, LocalDateTime.MAX.minusYears(1)).isEmpty());
+    }
+
+    @CsvSource({
+            "2020-06-14 10:00:00, 3550",
+            "2020-06-14 18:30:00, 2545",
+            "2020-06-14 18:30:01, 3550",
+            "2020-06-15 10:00:00, 3050",
+            "2020-12-31 23:59:59, 3895"
+    })
+    @ParameterizedTest
+    void ofSegments_resolvesAsTheTimelineTheSegmentsWereReadFrom(String applicationDate, long expectedPrice) {
+        PriceTimeline timeline = PriceTimeline.ofSegments(PriceTimeline.of(PRICES).segments());
+
+        assertEquals(expectedPrice, timeline.priceAt(LocalDateTime.parse(applicationDate, FORMATTER)).orElseThrow().getPrice());
+        assertTrue(timeline.priceAt(LocalDateTime.parse("2021-01-01 00:00:00", FORMATTER)).isEmpty());
+        // only the winning prices are kept
+        assertEquals(4, timeline.prices().size());
+    }
+
+    @Test
+    void of_emptyPrices_returnsEmptyTimeline() {
+        PriceTimeline timeline = PriceTimeline.of(List.of());
+
+        assertTrue(timeline.isEmpty());
+        assertTrue(timeline.priceAt(LocalDateTime.now()).isEmpty());
+        assertTrue(timeline.segments().isEmpty());
+        assertTrue(PriceTimeline.ofSegments(List.of()).isEmpty());
+    }
+
+    private static Price price(Long id, String startDate, String endDate, Integer priceList, long price, Integer priority) {
+        return new Price(id, 1, 35455L, LocalDateTime.parse(startDate, FORMATTER), LocalDateTime.parse(endDate, FORMATTER),
+                priceList, price, CurrencyEnum.EUR, priority);
+    }
+}
@@ -0,0 +1,77 @@
+package com.capitole.pricingservice.application.domain.service;
+
+import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
+import com.capitole.pricingservice.application.domain.model.FxRate;
+import com.capitole.pricingservice.application.port.out.FxRateRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the FxRateServiceImpl.
+ * <p>
+ * This class includes test cases to verify that the rates are looked up in the FxRateRepository and counted, and that
+ * overlapping rates are rejected before replacing the stored ones. It uses Mockito to mock the FxRateRepository.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class FxRateServiceImplTest {
+
+    private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 1, 1, 0, 0, 0);
+    private static final LocalDateTime END_DATE = LocalDateTime.of(2020, 12, 31, 23, 59, 59);
+
+    private final FxRateRepository fxRateRepository = Mockito.mock(FxRateRepository.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final FxRateServiceImpl fxRateService = new FxRateServiceImpl(fxRateRepository, meterRegistry);
+
+    @Test
+    void getRate_rateExists() {
+        LocalDateTime applicationTime = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+        FxRate rate = new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, START_DATE, END_DATE, 1.1422);
+        when(fxRateRepository.findRate(CurrencyEnum.EUR, CurrencyEnum.USD, applicationTime)).thenReturn(Optional.of(rate));
+
+        assertEquals(Optional.of(rate), fxRateService.getRate(CurrencyEnum.EUR, CurrencyEnum.USD, applicationTime));
+        assertEquals(1, meterRegistry.get("pricing.fx.rate.resolve.result").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("pricing.fx.rate.resolve").timer().count());
+    }
+
+    @Test
+    void getRate_rateNotExists() {
+        when(fxRateRepository.findRate(any(), any(), any())).thenReturn(Optional.empty());
+
+        assertTrue(fxRateService.getRate(CurrencyEnum.EUR, CurrencyEnum.COP, START_DATE).isEmpty());
+        assertEquals(1, meterRegistry.get("pricing.fx.rate.resolve.result").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void replaceRates_ok() {
+        List<FxRate> rates = List.of(new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, START_DATE, END_DATE, 1.1422),
+                new FxRate(CurrencyEnum.EUR, CurrencyEnum.COP, START_DATE, END_DATE, 4213.76));
+
+        assertEquals(2, fxRateService.replaceRates(rates));
+
+        then(fxRateRepository).should().replaceAll(rates);
+    }
+
+    @Test
+    void replaceRates_overlappingRates_throwsIllegalArgumentException() {
+        List<FxRate> rates = List.of(new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, START_DATE, END_DATE, 1.1422),
+                new FxRate(CurrencyEnum.EUR, CurrencyEnum.USD, START_DATE.plusMonths(6), END_DATE, 1.2));
+
+        assertThrows(IllegalArgumentException.class, () -> fxRateService.replaceRates(rates));
+
+        then(fxRateRepository).shouldHaveNoInteractions();
+    }
+}
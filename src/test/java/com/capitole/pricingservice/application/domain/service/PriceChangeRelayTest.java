@@ -0,0 +1,123 @@
+package com.capitole.pricingservice.application.domain.service;
+
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
+import com.capitole.pricingservice.application.domain.model.PriceChange;
+import com.capitole.pricingservice.application.port.out.PriceChangeOutbox;
+import com.capitole.pricingservice.application.port.out.PriceChangePublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the PriceChangeRelay.
+ * <p>
+ * This class includes test cases to verify that the changes read from the outbox are published once, except the
+ * ones of this instance, that the changes read again within the lookback are not published again, and that a failed
+ * publication is retried. It uses Mockito to mock the outbox and the publisher.
+ *
+ * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
+ */
+class PriceChangeRelayTest {
+
+    private static final String ORIGIN = "instance-1";
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 6, 14, 10, 0, 0);
+
+    private final PriceChangeOutbox priceChangeOutbox = Mockito.mock(PriceChangeOutbox.class);
+
+    private final PriceChangePublisher priceChangePublisher = Mockito.mock(PriceChangePublisher.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PriceChangeRelay priceChangeRelay = new PriceChangeRelay(priceChangeOutbox, priceChangePublisher,
+            Duration.ofSeconds(10), Duration.ofHours(1), Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC),
+            meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        when(priceChangeOutbox.origin()).thenReturn(ORIGIN);
+    }
+
+    @Test
+    void poll_publishesTheChangesOfOtherInstances() {
+        PriceChange other = change(1, "instance-2");
+        when(priceChangeOutbox.findChanges(anyLong(), any())).thenReturn(List.of(other, change(2, ORIGIN)));
+
+        priceChangeRelay.poll();
+
+        then(priceChangePublisher).should().publish(List.of(other));
+        assertEquals(1.0, meterRegistry.get("pricing.price.changes.relayed").counter().count());
+        assertEquals(1, meterRegistry.get("pricing.price.changes.relay").timer().count());
+    }
+
+    @Test
+    void poll_readsAfterTheLastChangeAndDoesNotPublishAgainTheOnesReadAgain() {
+        PriceChange first = change(1, "instance-2");
+        PriceChange second = change(2, "instance-2");
+        // the change 3 committed after the change 4 was read
+        PriceChange third = change(3, "instance-2");
+        PriceChange fourth = change(4, "instance-2");
+        when(priceChangeOutbox.findChanges(anyLong(), any())).thenReturn(List.of(first, second, fourth), List.of(second, third, fourth));
+
+        priceChangeRelay.poll();
+        priceChangeRelay.poll();
+
+        ArgumentCaptor<Long> afterId = ArgumentCaptor.forClass(Long.class);
+        then(priceChangeOutbox).should(Mockito.times(2)).findChanges(afterId.capture(), any());
+        assertEquals(List.of(Long.MAX_VALUE, 4L), afterId.getAllValues());
+        then(priceChangePublisher).should().publish(List.of(first, second, fourth));
+        then(priceChangePublisher).should().publish(List.of(third));
+    }
+
+    @Test
+    void poll_publishesAgainAfterAFailedPublication() {
+        PriceChange change = change(1, "instance-2");
+        when(priceChangeOutbox.findChanges(anyLong(), any())).thenReturn(List.of(change));
+        doThrow(new IllegalStateException("listener failed")).doNothing().when(priceChangePublisher).publish(List.of(change));
+
+        assertThrows(IllegalStateException.class, priceChangeRelay::poll);
+        priceChangeRelay.poll();
+
+        then(priceChangePublisher).should(Mockito.times(2)).publish(List.of(change));
+        then(priceChangeOutbox).should(Mockito.times(2)).findChanges(eq(Long.MAX_VALUE), any());
+    }
+
+    @Test
+    void poll_purgesTheChangesOlderThanTheRetention() {
+        when(priceChangeOutbox.findChanges(anyLong(), any())).thenReturn(List.of());
+
+        priceChangeRelay.poll();
+
+        ArgumentCaptor<LocalDateTime> createdBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        then(priceChangeOutbox).should().deleteBefore(createdBefore.capture());
+        assertEquals(NOW.minusHours(1), createdBefore.getValue());
+    }
+
+    @Test
+    void priceChangeRelay_retentionShorterThanTheLookback() {
+        assertThrows(IllegalArgumentException.class, () -> new PriceChangeRelay(priceChangeOutbox, priceChangePublisher,
+                Duration.ofMinutes(10), Duration.ofMinutes(1), Clock.systemUTC(), meterRegistry));
+    }
+
+    private static PriceChange change(long id, String origin) {
+        return new PriceChange(id, new BrandProductKey(1, id), origin, NOW);
+    }
+}
@@ -1,22 +1,45 @@
 package com.capitole.pricingservice.application.domain.service;
 
+import com.capitole.pricingservice.application.domain.model.BrandProductDateRange;
+import com.capitole.pricingservice.application.domain.model.BrandProductKey;
 import com.capitole.pricingservice.application.domain.model.CurrencyEnum;
 import com.capitole.pricingservice.application.domain.model.Price;
+import com.capitole.pricingservice.application.domain.model.PriceFilter;
 import com.capitole.pricingservice.application.domain.model.PriceSummary;
+import com.capitole.pricingservice.application.domain.model.PriceTimeline;
+import com.capitole.pricingservice.application.domain.model.UpdatedPrice;
 import com.capitole.pricingservice.application.port.in.model.PriceCreateCommand;
+import com.capitole.pricingservice.application.port.in.model.PriceImportResult;
+import com.capitole.pricingservice.application.port.in.model.PriceImportRow;
 import com.capitole.pricingservice.application.port.in.model.PriceQuery;
+import com.capitole.pricingservice.application.port.in.model.PriceRangeQuery;
 import com.capitole.pricingservice.application.port.in.model.PriceUpdateCommand;
+import com.capitole.pricingservice.application.port.out.PriceChangeOutbox;
 import com.capitole.pricingservice.application.port.out.PriceRepository;
+import com.capitole.pricingservice.application.port.out.PriceTimelineRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.when;
@@ -26,7 +49,7 @@ import static org.mockito.Mockito.when;
  * <p>
  * This class includes test cases to verify the behavior of the PriceServiceImpl methods,
  * ensuring that the correct results are returned under various scenarios. It uses Mockito
- * to mock the dependencies and verify interactions with the PriceRepository.
+ * to mock the dependencies and verify interactions with the PriceRepository and the PriceTimelineRepository.
  *
  * @author Leonardo Rincon - leo.sthewar.rincon@gmail.com
  */
@@ -34,7 +57,14 @@ public class PriceServiceImplTest {
 
     private final PriceRepository priceRepository = Mockito.mock(PriceRepository.class);
 
-    private final PriceServiceImpl priceService = new PriceServiceImpl(priceRepository);
+    private final PriceTimelineRepository priceTimelineRepository = Mockito.mock(PriceTimelineRepository.class);
+
+    private final PriceChangeOutbox priceChangeOutbox = Mockito.mock(PriceChangeOutbox.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final PriceServiceImpl priceService = new PriceServiceImpl(priceRepository, Optional.of(priceTimelineRepository), priceChangeOutbox,
+            TransactionOperations.withoutTransaction(), 2, meterRegistry);
 
     @Test
     void getPriceByApplicationTimeBrandIdProductId_ReturnsPrice_WhenPriceExists() {
@@ -42,10 +72,10 @@ public class PriceServiceImplTest {
         LocalDateTime applicationDateTime = LocalDateTime.parse("2022-01-01 12:00:00", DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
         PriceQuery priceQuery = new PriceQuery(applicationDateTime, 1122, 1234L);
         PriceSummary price =  new PriceSummary(1122,1234L,LocalDateTime.now(),
-                LocalDateTime.now(), 1,20.0, CurrencyEnum.USD);
+                LocalDateTime.now(), 1,2000, CurrencyEnum.USD);
 
 
-        when(priceRepository.getPriceByBrandIdAndProductIdAndApplicationTime(any(), any(), any())).thenReturn(Optional.of(price));
+        when(priceRepository.getPriceByBrandIdAndProductIdAndApplicationTime(anyInt(), anyLong(), any())).thenReturn(Optional.of(price));
 
         // When - Call the getPriceByApplicationTimeBrandIdProductId method
         Optional<PriceSummary> result = priceService.getPriceByApplicationTimeBrandIdProductId(priceQuery);
@@ -59,6 +89,60 @@ public class PriceServiceImplTest {
         then(priceRepository).should()
                              .getPriceByBrandIdAndProductIdAndApplicationTime(eq(1122), eq(1234L), eq(applicationDateTime));
 
+        // Verify that the resolution is timed and counted as a hit
+        assertEquals(1, meterRegistry.get("pricing.price.resolve").tag("operation", "single").timer().count());
+        assertEquals(1.0, meterRegistry.get("pricing.price.resolve.result").tag("result", "hit").counter().count());
+        assertEquals(0.0, meterRegistry.get("pricing.price.resolve.result").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void getPriceSegmentByApplicationTimeBrandIdProductId_ReturnsSegment_WhenPriceExists() {
+        // Given - Build the PriceQuery and mock the PriceRepository response
+        LocalDateTime applicationDateTime = LocalDateTime.of(2022, 1, 1, 12, 0, 0);
+        Price price = new Price(1L, 1122, 1234L, applicationDateTime.minusDays(1), applicationDateTime.plusDays(1), 1, 2000, CurrencyEnum.USD, 0);
+        PriceTimeline.Segment segment = new PriceTimeline.Segment(price.getStartDate(), price.getEndDate().plusSeconds(1), price);
+        when(priceRepository.getPriceSegmentByBrandIdAndProductIdAndApplicationTime(anyInt(), anyLong(), any())).thenReturn(Optional.of(segment));
+
+        // When
+        Optional<PriceTimeline.Segment> result = priceService.getPriceSegmentByApplicationTimeBrandIdProductId(new PriceQuery(applicationDateTime, 1122, 1234L));
+
+        // Then - The segment is returned, and the resolution timed and counted as a hit
+        assertEquals(Optional.of(segment), result);
+        then(priceRepository).should()
+                             .getPriceSegmentByBrandIdAndProductIdAndApplicationTime(eq(1122), eq(1234L), eq(applicationDateTime));
+        assertEquals(1, meterRegistry.get("pricing.price.resolve").tag("operation", "single").timer().count());
+        assertEquals(1.0, meterRegistry.get("pricing.price.resolve.result").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void getPriceSegmentsByDateRangeBrandIdProductId_ReturnsTheSegmentsOfTheRange() {
+        // Given - Build the PriceRangeQuery and mock the PriceRepository response
+        LocalDateTime from = LocalDateTime.of(2022, 1, 1, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2022, 1, 31, 23, 59, 59);
+        Price price = new Price(1L, 1122, 1234L, from.minusDays(1), from.plusDays(10), 1, 2000, CurrencyEnum.USD, 0);
+        List<PriceTimeline.Segment> segments = List.of(new PriceTimeline.Segment(from, price.getEndDate().plusSeconds(1), price));
+        when(priceRepository.getPriceSegmentsByBrandIdAndProductIdAndDateRange(anyInt(), anyLong(), any(), any())).thenReturn(segments);
+
+        // When
+        List<PriceTimeline.Segment> result = priceService.getPriceSegmentsByDateRangeBrandIdProductId(new PriceRangeQuery(1122, 1234L, from, to));
+
+        // Then - The segments are returned, and the resolution timed and counted as a hit
+        assertEquals(segments, result);
+        then(priceRepository).should()
+                             .getPriceSegmentsByBrandIdAndProductIdAndDateRange(eq(1122), eq(1234L), eq(from), eq(to));
+        assertEquals(1, meterRegistry.get("pricing.price.resolve").tag("operation", "range").timer().count());
+        assertEquals(1.0, meterRegistry.get("pricing.price.resolve.result").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void getPriceSegmentsByDateRangeBrandIdProductId_RejectsARangeEndingBeforeItStarts() {
+        // Given - A range whose start is after its end
+        LocalDateTime from = LocalDateTime.of(2022, 1, 2, 0, 0, 0);
+
+        // When / Then - The query is rejected without reading the prices
+        assertThrows(IllegalArgumentException.class,
+                () -> priceService.getPriceSegmentsByDateRangeBrandIdProductId(new PriceRangeQuery(1122, 1234L, from, from.minusSeconds(1))));
+        then(priceRepository).shouldHaveNoInteractions();
     }
 
     @Test
@@ -66,7 +150,7 @@ public class PriceServiceImplTest {
         // Given - Build the PriceQuery and mock the PriceRepository response
         LocalDateTime applicationDateTime = LocalDateTime.parse("2022-01-01 12:00:00", DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
         PriceQuery priceQuery = new PriceQuery(applicationDateTime, 1122, 1234L);
-        when(priceRepository.getPriceByBrandIdAndProductIdAndApplicationTime(any(), any(), any())).thenReturn(Optional.empty());
+        when(priceRepository.getPriceByBrandIdAndProductIdAndApplicationTime(anyInt(), anyLong(), any())).thenReturn(Optional.empty());
 
         // When - Call the getPriceByApplicationTimeBrandIdProductId method
         Optional<PriceSummary> result = priceService.getPriceByApplicationTimeBrandIdProductId(priceQuery);
@@ -78,15 +162,18 @@ public class PriceServiceImplTest {
         // Verify that the repository method is called with the correct arguments
         then(priceRepository).should()
                              .getPriceByBrandIdAndProductIdAndApplicationTime(eq(1122), eq(1234L), eq(applicationDateTime));
+
+        // Verify that the resolution is counted as a miss
+        assertEquals(1.0, meterRegistry.get("pricing.price.resolve.result").tag("result", "miss").counter().count());
     }
 
     @Test
     void savePrice_ok() {
         // Given - Build the PriceCommand and mock the PriceRepository response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        PriceCreateCommand priceCommand = new PriceCreateCommand(1122, 1234L, dateTime,dateTime.plusDays(2), 1, 20.0, CurrencyEnum.USD);
-        Price priceExpectedToCreate = new Price(1122, 1234L, dateTime,dateTime.plusDays(2), 1, 20.0, CurrencyEnum.USD);
-        Price expectedResult = new Price(1L,1122, 1234L, dateTime,LocalDateTime.now().plusDays(2), 1, 20.0, CurrencyEnum.USD,0);
+        PriceCreateCommand priceCommand = new PriceCreateCommand(1122, 1234L, dateTime,dateTime.plusDays(2), 1, 2000L, CurrencyEnum.USD);
+        Price priceExpectedToCreate = new Price(1122, 1234L, dateTime,dateTime.plusDays(2), 1, 2000, CurrencyEnum.USD);
+        Price expectedResult = new Price(1L,1122, 1234L, dateTime,LocalDateTime.now().plusDays(2), 1, 2000, CurrencyEnum.USD,0);
 
         when(priceRepository.save(any())).thenReturn(expectedResult);
         // When - Call the save method
@@ -103,13 +190,34 @@ public class PriceServiceImplTest {
         Price capturedPrice = captor.getValue();
         assertEquals(priceExpectedToCreate, capturedPrice);
 
+        // Verify that the timeline of the brand/product is refreshed and its change recorded
+        then(priceTimelineRepository).should()
+                                     .refresh(List.of(new BrandProductKey(1122, 1234L)));
+        then(priceChangeOutbox).should()
+                               .append(List.of(new BrandProductKey(1122, 1234L)));
+    }
+
+    @Test
+    void savePrice_withoutTimelineRepository_recordsTheChangeOnly() {
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        PriceCreateCommand priceCommand = new PriceCreateCommand(1122, 1234L, dateTime, dateTime.plusDays(2), 1, 2000L, CurrencyEnum.USD);
+        Price saved = new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 2000, CurrencyEnum.USD, 0);
+        when(priceRepository.save(any())).thenReturn(saved);
+        PriceServiceImpl withoutTimelines = new PriceServiceImpl(priceRepository, Optional.empty(), priceChangeOutbox,
+                TransactionOperations.withoutTransaction(), 2, meterRegistry);
+
+        assertEquals(saved, withoutTimelines.save(priceCommand));
+
+        then(priceChangeOutbox).should()
+                               .append(List.of(new BrandProductKey(1122, 1234L)));
+        then(priceTimelineRepository).shouldHaveNoInteractions();
     }
 
     @Test
     void savePrice_errorInvalidDates() {
         // Given - Build the PriceCommand and mock the PriceRepository response
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
-        PriceCreateCommand priceCommand = new PriceCreateCommand(1122, 1234L, dateTime,dateTime.minusDays(2), 1, 20.0, CurrencyEnum.USD);
+        PriceCreateCommand priceCommand = new PriceCreateCommand(1122, 1234L, dateTime,dateTime.minusDays(2), 1, 2000L, CurrencyEnum.USD);
 
         // When and then - Call the save method
         assertThrowsExactly(IllegalArgumentException.class, () -> priceService.save(priceCommand));
@@ -117,46 +225,212 @@ public class PriceServiceImplTest {
 
     }
 
+    @Test
+    void importPrices_savesTheValidRowsInBatches() {
+        // Given - Three valid rows and a batch size of 2
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        List<PriceImportRow> rows = LongStream.rangeClosed(1, 3)
+                                              .mapToObj(line -> PriceImportRow.of(line, new PriceCreateCommand(1122, line, dateTime, dateTime.plusDays(2), 1, 2000L, CurrencyEnum.USD)))
+                                              .toList();
+        when(priceRepository.saveAll(any())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+
+        // When - Call the importPrices method
+        PriceImportResult result = priceService.importPrices(rows.stream());
+
+        // Then - Verify that the prices are saved in two batches
+        assertEquals(new PriceImportResult(3, 0, List.of()), result);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Price>> captor = ArgumentCaptor.forClass((Class<List<Price>>) (Class<?>) List.class);
+        then(priceRepository).should(Mockito.times(2))
+                             .saveAll(captor.capture());
+        assertEquals(List.of(2, 1), captor.getAllValues().stream().map(List::size).toList());
+
+        // Verify that the timelines of every batch are refreshed
+        then(priceTimelineRepository).should()
+                                     .refresh(Set.of(new BrandProductKey(1122, 1L), new BrandProductKey(1122, 2L)));
+        then(priceTimelineRepository).should()
+                                     .refresh(Set.of(new BrandProductKey(1122, 3L)));
+
+        // Verify that the changes of every batch are recorded
+        then(priceChangeOutbox).should()
+                               .append(Set.of(new BrandProductKey(1122, 1L), new BrandProductKey(1122, 2L)));
+        then(priceChangeOutbox).should()
+                               .append(Set.of(new BrandProductKey(1122, 3L)));
+    }
+
+    @Test
+    void importPrices_reportsTheFailedRows() {
+        // Given - A row failed to be read, a row breaking the price rules and a valid row
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        Stream<PriceImportRow> rows = Stream.of(
+                PriceImportRow.failed(1, "Invalid JSON"),
+                PriceImportRow.of(2, new PriceCreateCommand(1122, 1234L, dateTime, dateTime.minusDays(2), 1, 2000L, CurrencyEnum.USD)),
+                PriceImportRow.of(3, new PriceCreateCommand(1122, 1234L, dateTime, dateTime.plusDays(2), 1, 2000L, CurrencyEnum.USD)));
+        when(priceRepository.saveAll(any())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+
+        // When - Call the importPrices method
+        PriceImportResult result = priceService.importPrices(rows);
+
+        // Then - Verify that the valid row is saved and the others reported
+        assertEquals(1, result.imported());
+        assertEquals(2, result.failed());
+        assertEquals(List.of(1L, 2L), result.errors().stream().map(PriceImportResult.RowError::line).toList());
+        assertEquals("Invalid JSON", result.errors().get(0).message());
+    }
+
+    @Test
+    void exportPrices_handsEveryPriceToTheConsumerAndClosesTheStream() {
+        // Given - Two prices streamed by the repository
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        PriceFilter filter = new PriceFilter(1122, null, null, dateTime);
+        List<Price> prices = List.of(new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 2000, CurrencyEnum.USD, 0),
+                new Price(2L, 1122, 5678L, dateTime, dateTime.plusDays(2), 1, 3000, CurrencyEnum.USD, 0));
+        AtomicBoolean closed = new AtomicBoolean();
+        when(priceRepository.streamAll(filter)).thenReturn(prices.stream().onClose(() -> closed.set(true)));
+
+        // When - Call the exportPrices method
+        List<Price> exported = new ArrayList<>();
+        long result = priceService.exportPrices(filter, exported::add);
+
+        // Then - Verify that every price is exported, and the cursor released
+        assertEquals(2, result);
+        assertEquals(prices, exported);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void exportPrices_closesTheStreamWhenTheConsumerFails() {
+        // Given - A price streamed by the repository and a consumer failing
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(priceRepository.streamAll(PriceFilter.all())).thenReturn(Stream.of(new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 2000, CurrencyEnum.USD, 0))
+                                                                            .onClose(() -> closed.set(true)));
+
+        // When - Call the exportPrices method
+        assertThrows(IllegalStateException.class, () -> priceService.exportPrices(PriceFilter.all(), price -> {
+            throw new IllegalStateException("Client gone");
+        }));
+
+        // Then - Verify that the cursor is released
+        assertTrue(closed.get());
+    }
+
     @Test
     void updatePrice_ok() {
         // Given - Build the PriceCommand and mock the PriceRepository responses
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
         Long id = 1L;
-        PriceUpdateCommand priceCommand = new PriceUpdateCommand(id,1122, 1234L, dateTime,dateTime.plusDays(2), 1, 20.0, CurrencyEnum.USD);
-        Price priceExpectedToUpdate = new Price(id, 1122, 1234L, dateTime,dateTime.plusDays(2), 1, 20.0, CurrencyEnum.USD,1);
-        Price priceStorage = new Price(id, 1122, 1234L, dateTime,dateTime.plusDays(2), 1, 10.0, CurrencyEnum.EUR,1);
-        Price expectedResult = new Price(id,1122, 1234L, dateTime,LocalDateTime.now().plusDays(2), 1, 20.0, CurrencyEnum.USD,1);
-
-        when(priceRepository.save(any())).thenReturn(expectedResult);
-        when(priceRepository.findById(any())).thenReturn(Optional.of(priceStorage));
-        // When - Call the save method
+        PriceUpdateCommand priceCommand = new PriceUpdateCommand(id,1122, 1234L, dateTime,dateTime.plusDays(2), 1, 2000L, CurrencyEnum.USD, 3L);
+        // the priority is not updatable, the repository keeps the one of the price
+        Price priceExpectedToUpdate = new Price(id, 1122, 1234L, dateTime,dateTime.plusDays(2), 1, 2000, CurrencyEnum.USD,0, 3L);
+        Price priceStorage = new Price(id, 1122, 1234L, dateTime,dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR,1, 3L);
+        Price expectedResult = new Price(id,1122, 1234L, dateTime,dateTime.plusDays(2), 1, 2000, CurrencyEnum.USD,1, 4L);
+
+        when(priceRepository.update(any())).thenReturn(Optional.of(new UpdatedPrice(priceStorage, expectedResult)));
+        // When - Call the update method
         Optional<Price> result = priceService.update(priceCommand);
 
         // Then - Verify that the result is correct
         assertEquals(Optional.of(expectedResult), result);
 
-        // Verify that the repository method is called with the correct arguments
+        // Verify that the price is updated with a single conditional write, without reading it first
         // Capture and verify arguments
         ArgumentCaptor<Price> captor = ArgumentCaptor.forClass(Price.class);
         then(priceRepository).should()
-                             .save(captor.capture());
+                             .update(captor.capture());
         Price capturedPrice = captor.getValue();
         assertEquals(priceExpectedToUpdate, capturedPrice);
+        then(priceRepository).shouldHaveNoMoreInteractions();
 
     }
+
+    @Test
+    void updatePrice_refreshesThePreviousAndTheNewTimelines() {
+        // Given - A price moved to another product
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        PriceUpdateCommand priceCommand = new PriceUpdateCommand(1L, 1122, 5678L, dateTime, dateTime.plusDays(2), 1, 2000L, CurrencyEnum.USD, 0L);
+        Price priceStorage = new Price(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 1000, CurrencyEnum.EUR, 1);
+        when(priceRepository.update(any())).thenAnswer(invocation -> Optional.of(new UpdatedPrice(priceStorage, invocation.getArgument(0))));
+
+        // When - Call the update method
+        priceService.update(priceCommand);
+
+        // Then - Verify that the timelines of both brand/products are refreshed and their changes recorded
+        then(priceTimelineRepository).should()
+                                     .refresh(List.of(new BrandProductKey(1122, 1234L), new BrandProductKey(1122, 5678L)));
+        then(priceChangeOutbox).should()
+                               .append(List.of(new BrandProductKey(1122, 1234L), new BrandProductKey(1122, 5678L)));
+    }
+
     @Test
     void updatePrice_errorPriceNtFound() {
         // Given - Build the PriceCommand and mock the PriceRepository responses
         LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
         Long id = 1L;
-        PriceUpdateCommand priceCommand = new PriceUpdateCommand(id,1122, 1234L, dateTime,dateTime.plusDays(2), 1, 20.0, CurrencyEnum.USD);
+        PriceUpdateCommand priceCommand = new PriceUpdateCommand(id,1122, 1234L, dateTime,dateTime.plusDays(2), 1, 2000L, CurrencyEnum.USD, 0L);
+        when(priceRepository.update(any())).thenReturn(Optional.empty());
 
         // When - Call the save method
         Optional<Price> result = priceService.update(priceCommand);
 
         // Then - Verify that the result is correct
         assertEquals(Optional.empty(), result);
+        then(priceTimelineRepository).shouldHaveNoInteractions();
+        then(priceChangeOutbox).shouldHaveNoInteractions();
 
+    }
+
+    @Test
+    void updatePrice_versionConflict() {
+        // Given - A price updated since the version in the command was read
+        LocalDateTime dateTime = LocalDateTime.of(2022, 1, 1, 12, 0);
+        PriceUpdateCommand priceCommand = new PriceUpdateCommand(1L, 1122, 1234L, dateTime, dateTime.plusDays(2), 1, 2000L, CurrencyEnum.USD, 0L);
+        when(priceRepository.update(any())).thenThrow(new OptimisticLockingFailureException("Price 1 has been updated since version 0"));
 
+        // When / Then - The conflict is propagated, no timeline is refreshed and no change recorded
+        assertThrows(OptimisticLockingFailureException.class, () -> priceService.update(priceCommand));
+        then(priceTimelineRepository).shouldHaveNoInteractions();
+        then(priceChangeOutbox).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void getPricesByApplicationTimeBrandIdProductId_resolvesEveryQueryWithOneQuery() {
+        // Given - Build the PriceQueries and mock the PriceRepository response with the candidate prices
+        LocalDateTime dateTime = LocalDateTime.of(2020, 6, 14, 0, 0);
+        Price basePrice = new Price(1L, 1, 35455L, dateTime, dateTime.plusMonths(6), 1, 3550, CurrencyEnum.EUR, 0);
+        Price promotionPrice = new Price(2L, 1, 35455L, dateTime.plusHours(15), dateTime.plusHours(18), 2, 2545, CurrencyEnum.EUR, 1);
+        Price otherProductPrice = new Price(3L, 1, 1234L, dateTime, dateTime.plusMonths(6), 1, 1000, CurrencyEnum.EUR, 0);
+        List<PriceQuery> priceQueries = List.of(
+                new PriceQuery(dateTime.plusHours(10), 1, 35455L),
+                new PriceQuery(dateTime.plusHours(16), 1, 35455L),
+                new PriceQuery(dateTime.plusHours(16), 1, 1234L),
+                new PriceQuery(dateTime.plusHours(16), 1, 999L));
+        when(priceRepository.findAllByDateRanges(any()))
+                .thenReturn(List.of(basePrice, promotionPrice, otherProductPrice));
+
+        // When - Call the getPricesByApplicationTimeBrandIdProductId method
+        List<Optional<PriceSummary>> result = priceService.getPricesByApplicationTimeBrandIdProductId(priceQueries);
+
+        // Then - Verify that every query is resolved in order
+        assertEquals(List.of(Optional.of(PriceSummary.from(basePrice)),
+                Optional.of(PriceSummary.from(promotionPrice)),
+                Optional.of(PriceSummary.from(otherProductPrice)),
+                Optional.empty()), result);
+
+        // Verify that the repository is queried once with the whole batch, each brand/product within its own dates
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<BrandProductDateRange>> ranges = ArgumentCaptor.forClass(
+                (Class<Collection<BrandProductDateRange>>) (Class<?>) Collection.class);
+        then(priceRepository).should()
+                             .findAllByDateRanges(ranges.capture());
+        assertEquals(Set.of(new BrandProductDateRange(new BrandProductKey(1, 35455L), dateTime.plusHours(10), dateTime.plusHours(16)),
+                new BrandProductDateRange(new BrandProductKey(1, 1234L), dateTime.plusHours(16), dateTime.plusHours(16)),
+                new BrandProductDateRange(new BrandProductKey(1, 999L), dateTime.plusHours(16), dateTime.plusHours(16))), Set.copyOf(ranges.getValue()));
+    }
+
+    @Test
+    void getPricesByApplicationTimeBrandIdProductId_emptyQueries() {
+        assertTrue(priceService.getPricesByApplicationTimeBrandIdProductId(List.of()).isEmpty());
+        then(priceRepository).shouldHaveNoInteractions();
     }
 }
@@ -19,7 +19,7 @@ public class PriceCommandTest {
         LocalDateTime startDate = LocalDateTime.now();
         LocalDateTime endDate = LocalDateTime.now().plusDays(1);
         Integer priceList = 3;
-        Double price = 10.99;
+        Long price = 1099L;
         CurrencyEnum currency = CurrencyEnum.EUR;
 
         PriceCreateCommand priceCommand = new PriceCreateCommand(brandId, productId, startDate, endDate, priceList, price, currency);
@@ -34,7 +34,7 @@ public class PriceCommandTest {
         LocalDateTime startDate = LocalDateTime.now();
         LocalDateTime endDate = LocalDateTime.now().plusDays(1);
         Integer priceList = 3;
-        Double price = 10.99;
+        Long price = 1099L;
         CurrencyEnum currency = CurrencyEnum.EUR;
 
         // When and Then
@@ -49,7 +49,7 @@ public class PriceCommandTest {
         LocalDateTime startDate = LocalDateTime.now();
         LocalDateTime endDate = LocalDateTime.now().plusDays(1);
         Integer priceList = 3;
-        Double price = 10.99;
+        Long price = 1099L;
         CurrencyEnum currency = CurrencyEnum.EUR;
 
         // When and Then
@@ -64,7 +64,7 @@ public class PriceCommandTest {
         LocalDateTime startDate = null;
         LocalDateTime endDate = LocalDateTime.now().plusDays(1);
         Integer priceList = 3;
-        Double price = 10.99;
+        Long price = 1099L;
         CurrencyEnum currency = CurrencyEnum.EUR;
 
         // When and Then
@@ -79,7 +79,7 @@ public class PriceCommandTest {
         LocalDateTime startDate = LocalDateTime.now();
         LocalDateTime endDate = null;
         Integer priceList = 3;
-        Double price = 10.99;
+        Long price = 1099L;
         CurrencyEnum currency = CurrencyEnum.EUR;
 
         // When and Then
@@ -94,7 +94,7 @@ public class PriceCommandTest {
         LocalDateTime startDate = LocalDateTime.now();
         LocalDateTime endDate = LocalDateTime.now().plusDays(1);
         Integer priceList = null;
-        Double price = 10.99;
+        Long price = 1099L;
         CurrencyEnum currency = CurrencyEnum.EUR;
 
         // When and Then
@@ -109,7 +109,7 @@ public class PriceCommandTest {
         LocalDateTime startDate = LocalDateTime.now();
         LocalDateTime endDate = LocalDateTime.now().plusDays(1);
         Integer priceList = 3;
-        Double price = null;
+        Long price = null;
         CurrencyEnum currency = CurrencyEnum.EUR;
 
         // When and Then
@@ -124,7 +124,7 @@ public class PriceCommandTest {
         LocalDateTime startDate = LocalDateTime.now();
         LocalDateTime endDate = LocalDateTime.now().plusDays(1);
         Integer priceList = 3;
-        Double price = 10.99;
+        Long price = 1099L;
         CurrencyEnum currency = null;
 
         // When and Then
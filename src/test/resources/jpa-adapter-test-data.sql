@@ -1,2 +1,2 @@
 INSERT INTO PRICES (id,brand_id, start_date, end_date, price_list, product_id, priority, price, curr)
-VALUES (33, 1, '2020-06-14 00:00:00', '2020-12-31 23:59:59', 1, 35455, 0, 10.50, 'EUR');
+VALUES (33, 1, '2020-06-14 00:00:00', '2020-12-31 23:59:59', 1, 35455, 0, 1050, 'EUR');
@@ -0,0 +1,19 @@
+#!/bin/sh
+# Starts the service the given number of times and prints the startup time reported by Spring Boot on each one.
+# usage: ./startup-time.sh <runs> <command starting the service...>
+#   ./startup-time.sh 5 java -jar target/pricing-service-0.0.1-SNAPSHOT.jar
+#   ./startup-time.sh 5 docker run --rm --cpus=0.12 -p 8080:8080 leosdev/price-service:latest
+runs=$1
+shift
+log=$(mktemp)
+for run in $(seq 1 "$runs"); do
+    "$@" > "$log" 2>&1 &
+    pid=$!
+    until grep -q "Started PricingServiceApplication\|APPLICATION FAILED TO START" "$log" || ! kill -0 $pid 2>/dev/null; do
+        sleep 0.1
+    done
+    started=$(grep -o "Started PricingServiceApplication in .*" "$log")
+    echo "run $run: ${started:-failed, see $log}"
+    kill $pid
+    wait $pid 2>/dev/null || true
+done